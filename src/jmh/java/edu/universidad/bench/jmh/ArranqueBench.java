@@ -0,0 +1,149 @@
+package edu.universidad.bench.jmh;
+
+import edu.universidad.persistence.H2DB;
+import edu.universidad.persistence.Instantanea;
+import edu.universidad.persistence.Schema;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Arranque en frío: cada fork es una JVM nueva que abre una base H2 en
+ * archivo, hace Schema.crearTablas y deja las cuatro tablas en memoria como
+ * las vistas, por JDBC (las consultas de Instantanea, en una transacción) o desde
+ * la instantánea mapeada (validación contra CAMBIO incluida). Una sola
+ * medición por fork; la mediana sale de los forks.
+ *
+ * La base y su instantánea se cargan una vez por combinación de parámetros
+ * en {@code java.io.tmpdir/jmh-arranque-<estudiantes>-<inscripciones>}, en
+ * una JVM aparte para que la del fork no toque H2 antes de medir. Borrar ese
+ * directorio tras cambiar el esquema o el formato de la instantánea.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(value = 10, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Benchmark)
+public class ArranqueBench {
+
+    @Param({"jdbc", "instantanea"})
+    public String camino;
+
+    @Param({"100000"})
+    public int estudiantes;
+
+    @Param({"500000"})
+    public int inscripciones;
+
+    @Setup(Level.Trial)
+    public void preparar() throws IOException, InterruptedException {
+        int porEstudiante = Math.max(1, Math.min(inscripciones / estudiantes, 2000)); // cursos distintos por estudiante
+        Path dir = Path.of(System.getProperty("java.io.tmpdir"), "jmh-arranque-" + estudiantes + "-" + inscripciones);
+        String url = "jdbc:h2:" + dir.resolve("bench").toAbsolutePath() + ";AUTO_SERVER=TRUE";
+        Path snap = dir.resolve("bench.snap");
+        if (!Files.exists(snap)) {
+            Files.createDirectories(dir);
+            Process p = new ProcessBuilder(Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                    "-Duni.db.url=" + url, "-Duni.instantanea=" + snap, "-cp", System.getProperty("java.class.path"),
+                    Poblar.class.getName(), String.valueOf(estudiantes), String.valueOf(porEstudiante * estudiantes))
+                    .inheritIO().start();
+            if (p.waitFor() != 0) throw new IllegalStateException("Falló la carga de " + dir);
+        }
+        System.setProperty("uni.instantanea", snap.toString()); // antes de que se cargue Instantanea
+        BaseDatos.fijarUrl(url);
+    }
+
+    @TearDown(Level.Trial)
+    public void cerrar() {
+        H2DB.cerrar();
+    }
+
+    @Benchmark
+    public long arrancar() {
+        Schema.crearTablas();
+        if (camino.equals("instantanea")) {
+            Instantanea i = Instantanea.cargarAlArrancar();
+            if (i == null) throw new IllegalStateException("La instantánea no está vigente; borrar " + Instantanea.RUTA);
+            return i.estudiantes().size() + i.profesores().size() + i.cursos().size() + i.inscripciones().size() + i.inscritosPorCurso().size();
+        }
+        return leerPorJdbc();
+    }
+
+    /** Las cuatro tablas como filas de la instantánea, en la misma foto SERIALIZABLE que la copia. */
+    private static long leerPorJdbc() {
+        try (Connection con = H2DB.getConnection()) {
+            int aislamiento = con.getTransactionIsolation();
+            con.setAutoCommit(false);
+            con.setTransactionIsolation(Connection.TRANSACTION_SERIALIZABLE);
+            try {
+                List<Instantanea.FilaEstudiante> est = new ArrayList<>();
+                try (PreparedStatement ps = con.prepareStatement(Instantanea.SQL_ESTUDIANTES);
+                     ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) est.add(new Instantanea.FilaEstudiante(rs.getDouble(1), rs.getString(2), rs.getString(3), rs.getString(4),
+                            rs.getObject(5, Double.class), rs.getObject(6, Boolean.class), rs.getInt(7)));
+                }
+                List<Instantanea.FilaProfesor> prof = new ArrayList<>();
+                try (PreparedStatement ps = con.prepareStatement(Instantanea.SQL_PROFESORES);
+                     ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) prof.add(new Instantanea.FilaProfesor(rs.getDouble(1), rs.getString(2), rs.getString(3), rs.getString(4), rs.getString(5)));
+                }
+                List<Instantanea.FilaCurso> cur = new ArrayList<>();
+                try (PreparedStatement ps = con.prepareStatement(Instantanea.SQL_CURSOS);
+                     ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) cur.add(new Instantanea.FilaCurso(rs.getInt(1), rs.getString(2), rs.getObject(3, Boolean.class), rs.getInt(4),
+                            rs.getObject(5, Double.class)));
+                }
+                List<Instantanea.FilaInscripcion> ins = new ArrayList<>();
+                try (PreparedStatement ps = con.prepareStatement(Instantanea.SQL_INSCRIPCIONES)) {
+                    ps.setFetchSize(10_000);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) ins.add(new Instantanea.FilaInscripcion(rs.getInt(1), rs.getDouble(2), rs.getInt(3), rs.getInt(4)));
+                    }
+                }
+                con.commit();
+                return est.size() + prof.size() + cur.size() + ins.size();
+            } finally {
+                con.rollback();
+                con.setTransactionIsolation(aislamiento);
+                con.setAutoCommit(true);
+            }
+        } catch (SQLException ex) {
+            throw new RuntimeException("Error leyendo las tablas por JDBC", ex);
+        }
+    }
+
+    /** Carga la base y escribe la instantánea, en su propia JVM. Uso: Poblar estudiantes inscripciones */
+    public static final class Poblar {
+        public static void main(String[] args) throws SQLException, IOException {
+            int estudiantes = Integer.parseInt(args[0]);
+            int inscripciones = Integer.parseInt(args[1]);
+            int porEst = inscripciones / estudiantes;
+            Schema.crearTablas();
+            try (Connection con = H2DB.getConnection(); Statement st = con.createStatement()) {
+                st.execute("INSERT INTO PROFESOR (ID,NOMBRES,APELLIDOS,EMAIL,TIPOCONTRATO) " +
+                        "SELECT X, 'Profesor ' || X, 'Apellido ' || X, 'p' || X || '@uni.edu', 'Planta' FROM SYSTEM_RANGE(1,1000)");
+                st.execute("INSERT INTO CURSO (ID,NOMBRE,ACTIVO,SEMESTRE,PROFESOR_ID) " +
+                        "SELECT X, 'Curso ' || X, TRUE, 1 + MOD(X,10), 1 + MOD(X,1000) FROM SYSTEM_RANGE(1,2000)");
+                st.execute("INSERT INTO ESTUDIANTE (CODIGO,NOMBRES,APELLIDOS,EMAIL,PROMEDIO,ACTIVO,SEMESTRE) " +
+                        "SELECT 2020000000 + X, 'Nombre ' || X, 'Apellido ' || X, 'e' || X || '@uni.edu', 3.0 + MOD(X,20)/10.0, TRUE, 1 + MOD(X,10) " +
+                        "FROM SYSTEM_RANGE(1," + estudiantes + ")");
+                st.execute("INSERT INTO INSCRIPCION (CURSO_ID,ESTUDIANTE_CODIGO,ANIO,SEMESTRE) " +
+                        "SELECT 1 + MOD(X * 7 + X / " + porEst + ", 2000), 2020000001 + X / " + porEst + ", 2025, 1 " +
+                        "FROM SYSTEM_RANGE(0," + (inscripciones - 1) + ")");
+            }
+            Instantanea.escribir(Path.of(Instantanea.RUTA));
+            H2DB.cerrar();
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package edu.universidad.bench.jmh;
+
+import edu.universidad.model.Curso;
+import edu.universidad.model.Estudiante;
+import edu.universidad.model.Inscripcion;
+import edu.universidad.persistence.EstudianteDAO;
+import edu.universidad.persistence.H2DB;
+import edu.universidad.persistence.Schema;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Base H2 poblada para una combinación de parámetros: en memoria o en archivo
+ * (directorio temporal, con AUTO_SERVER como la de la aplicación) y con
+ * {@code estudiantes} filas de ESTUDIANTE, 5 inscripciones por estudiante y
+ * un curso por cada 50 estudiantes (mínimo 500).
+ *
+ * Las inscripciones cargadas solo usan la primera mitad de los cursos; la
+ * otra mitad queda libre para medir inserciones sin chocar con la clave
+ * única (CURSO_ID, ESTUDIANTE_CODIGO).
+ *
+ * H2DB lee -Duni.db.url una sola vez por JVM, así que cada combinación
+ * necesita su propia JVM: los benchmarks que usan este estado no admiten -f 0.
+ */
+@State(Scope.Benchmark)
+public class BaseDatos {
+
+    public static final int INSCRIPCIONES_POR_ESTUDIANTE = 5;
+    static final double CODIGO_BASE = 2_020_000_000d;
+
+    private static String urlAbierta; // la que fijó H2DB en esta JVM
+
+    @Param({"mem", "archivo"})
+    public String modo;
+
+    @Param({"1000", "100000"})
+    public int estudiantes;
+
+    /** Cursos en total; los de ID &gt; {@link #cursosOcupados} no tienen inscripciones al empezar. */
+    public int cursos;
+    public int cursosOcupados;
+    public List<Estudiante> catalogoEstudiantes;
+    public List<Curso> catalogoCursos;
+
+    private Path dir;
+    private final AtomicLong siguienteLibre = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void abrir() throws IOException, SQLException {
+        String url;
+        if (modo.equals("mem")) {
+            url = "jdbc:h2:mem:jmh;DB_CLOSE_DELAY=-1";
+        } else if (modo.equals("archivo")) {
+            dir = Files.createTempDirectory("jmh-h2");
+            url = "jdbc:h2:" + dir.resolve("bench").toAbsolutePath() + ";AUTO_SERVER=TRUE";
+        } else {
+            throw new IllegalArgumentException("modo debe ser mem o archivo: " + modo);
+        }
+        fijarUrl(url);
+
+        cursos = Math.max(500, estudiantes / 50);
+        cursosOcupados = cursos / 2;
+        poblar();
+        catalogoEstudiantes = new EstudianteDAO().listar();
+        catalogoCursos = new ArrayList<>(cursos);
+        for (int id = 1; id <= cursos; id++) catalogoCursos.add(new Curso(id, "Curso " + id, null, true));
+    }
+
+    @TearDown(Level.Trial)
+    public void cerrar() throws IOException {
+        H2DB.cerrar();
+        if (dir != null) {
+            try (Stream<Path> archivos = Files.walk(dir)) {
+                for (Path p : archivos.sorted(Comparator.reverseOrder()).toList()) Files.deleteIfExists(p);
+            }
+        }
+    }
+
+    /**
+     * Fija -Duni.db.url antes de que H2DB la lea; la usan también los estados
+     * con datos propios. Falla si esta JVM ya abrió otra base.
+     */
+    static void fijarUrl(String url) {
+        if (urlAbierta != null) throw new IllegalStateException("Cada combinación de parámetros necesita su propia JVM; no usar -f 0");
+        urlAbierta = url;
+        System.setProperty("uni.db.url", url);
+    }
+
+    /** Ejecuta SQL suelto (limpiezas entre iteraciones). */
+    public void ejecutar(String sql) {
+        try (Connection con = H2DB.getConnection(); Statement st = con.createStatement()) {
+            st.execute(sql);
+        } catch (SQLException e) {
+            throw new RuntimeException("Error ejecutando " + sql, e);
+        }
+    }
+
+    /** Vacía los cursos libres y reinicia {@link #reservarLibres}; entre iteraciones de los benchmarks de altas. */
+    public void vaciarLibres() {
+        ejecutar("DELETE FROM INSCRIPCION WHERE CURSO_ID > " + cursosOcupados);
+        siguienteLibre.set(0);
+    }
+
+    /** Reserva {@code n} pares (curso libre, estudiante) sin repetir desde {@link #vaciarLibres()}; retorna el primero. */
+    public long reservarLibres(int n) {
+        long par = siguienteLibre.getAndAdd(n);
+        if (par + n > (long) (cursos - cursosOcupados) * estudiantes) throw new IllegalStateException("Sin pares libres; acortar la iteración");
+        return par;
+    }
+
+    /** La inscripción del par libre {@code par}; solo lleva las claves, como las que inserta la aplicación. */
+    public Inscripcion libre(long par) {
+        double c = codigo((int) (par % estudiantes));
+        Curso curso = catalogoCursos.get(cursosOcupados + (int) (par / estudiantes));
+        return new Inscripcion(curso, 2026, 1, new Estudiante(c, null, null, null, c, null, true, 0));
+    }
+
+    /** Código del estudiante {@code i} (base 0). */
+    public static double codigo(int i) {
+        return CODIGO_BASE + 1 + i;
+    }
+
+    private void poblar() throws SQLException {
+        Schema.crearTablas();
+        int profesores = Math.max(1, cursos / 2);
+        try (Connection con = H2DB.getConnection(); Statement st = con.createStatement()) {
+            st.execute("INSERT INTO PROFESOR (ID,NOMBRES,APELLIDOS,EMAIL,TIPOCONTRATO) " +
+                    "SELECT X, 'Profesor ' || X, 'Apellido ' || X, 'p' || X || '@uni.edu', 'Planta' FROM SYSTEM_RANGE(1," + profesores + ")");
+            st.execute("INSERT INTO CURSO (ID,NOMBRE,ACTIVO,SEMESTRE,PROFESOR_ID) " +
+                    "SELECT X, 'Curso ' || X, TRUE, 1 + MOD(X,10), 1 + MOD(X," + profesores + ") FROM SYSTEM_RANGE(1," + cursos + ")");
+            st.execute("INSERT INTO ESTUDIANTE (CODIGO,NOMBRES,APELLIDOS,EMAIL,PROMEDIO,ACTIVO,SEMESTRE) " +
+                    "SELECT " + (long) CODIGO_BASE + " + X, 'Nombre ' || X, 'Apellido ' || X, 'e' || X || '@uni.edu', 3.0 + MOD(X,20)/10.0, TRUE, 1 + MOD(X,10) " +
+                    "FROM SYSTEM_RANGE(1," + estudiantes + ")");
+            int k = INSCRIPCIONES_POR_ESTUDIANTE;
+            st.execute("INSERT INTO INSCRIPCION (CURSO_ID,ESTUDIANTE_CODIGO,ANIO,SEMESTRE) " +
+                    "SELECT 1 + MOD(X / " + k + " + MOD(X," + k + "), " + cursosOcupados + "), " + ((long) CODIGO_BASE + 1) + " + X / " + k + ", " +
+                    "2021 + MOD(X / " + k + ", 5), 1 + MOD(X, 2) FROM SYSTEM_RANGE(0," + ((long) estudiantes * k - 1) + ")");
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package edu.universidad.bench.jmh;
+
+import edu.universidad.colecciones.IntObjectMap;
+import edu.universidad.colecciones.LongObjectMap;
+import edu.universidad.colecciones.LongSet;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Mapas de claves primitivas frente a HashMap/HashSet encajonados, con
+ * claves como las reales: IDs de curso secuenciales y códigos de estudiante
+ * double dispersos. Cada invocación busca una clave, en orden aleatorio;
+ * {@code busqueda=fallo} usa claves que no están.
+ *
+ * Al preparar cada tamaño se imprime la memoria retenida por entrada de cada
+ * estructura (sin contar los valores, compartidos), medida con System.gc():
+ * JMH no la mide, y con {@code -prof gc} solo se ve lo asignado al buscar.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Thread)
+public class ColeccionesBench {
+
+    private static final Object VALOR = new Object();
+    private static final int SORTEOS = 1 << 16;
+
+    @Param({"10000", "100000", "1000000"})
+    public int entradas;
+
+    @Param({"acierto", "fallo"})
+    public String busqueda;
+
+    private Map<Integer, Object> hashMapEntero;
+    private IntObjectMap<Object> intObjectMap;
+    private Map<Double, Object> hashMapDouble;
+    private LongObjectMap<Object> longObjectMap;
+    private Set<Long> hashSetLong;
+    private LongSet longSet;
+
+    // claves a buscar, ya en el orden de visita
+    private int[] ids;
+    private double[] codigos;
+    private int siguiente;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        int[] todosIds = new int[entradas];
+        double[] todosCodigos = new double[entradas];
+        Random rnd = new Random(42);
+        for (int i = 0; i < entradas; i++) {
+            todosIds[i] = i + 1;
+            todosCodigos[i] = 2_000_000_000d + rnd.nextInt(900_000_000);
+        }
+
+        System.out.printf("%n%-26s %12s%n", "estructura", "bytes/ent");
+        hashMapEntero = medir("HashMap<Integer,V>", () -> {
+            Map<Integer, Object> m = new HashMap<>();
+            for (int id : todosIds) m.put(id, VALOR);
+            return m;
+        });
+        intObjectMap = medir("IntObjectMap<V>", () -> {
+            IntObjectMap<Object> m = new IntObjectMap<>();
+            for (int id : todosIds) m.put(id, VALOR);
+            return m;
+        });
+        hashMapDouble = medir("HashMap<Double,V>", () -> {
+            Map<Double, Object> m = new HashMap<>();
+            for (double c : todosCodigos) m.put(c, VALOR);
+            return m;
+        });
+        longObjectMap = medir("LongObjectMap<V> (double)", () -> {
+            LongObjectMap<Object> m = new LongObjectMap<>();
+            for (double c : todosCodigos) m.put(LongObjectMap.clave(c), VALOR);
+            return m;
+        });
+        hashSetLong = medir("HashSet<Long>", () -> {
+            Set<Long> s = new HashSet<>();
+            for (double c : todosCodigos) s.add((long) c);
+            return s;
+        });
+        longSet = medir("LongSet", () -> {
+            LongSet s = new LongSet();
+            for (double c : todosCodigos) s.add((long) c);
+            return s;
+        });
+
+        boolean fallo = busqueda.equals("fallo");
+        ids = new int[SORTEOS];
+        codigos = new double[SORTEOS];
+        for (int k = 0; k < SORTEOS; k++) {
+            int i = rnd.nextInt(entradas);
+            ids[k] = fallo ? -todosIds[i] - 1 : todosIds[i];
+            codigos[k] = fallo ? -todosCodigos[i] : todosCodigos[i];
+        }
+    }
+
+    private int sortear() {
+        int k = siguiente;
+        siguiente = (k + 1) & (SORTEOS - 1);
+        return k;
+    }
+
+    @Benchmark
+    public Object hashMapEntero() {
+        return hashMapEntero.get(ids[sortear()]);
+    }
+
+    @Benchmark
+    public Object intObjectMap() {
+        return intObjectMap.get(ids[sortear()]);
+    }
+
+    @Benchmark
+    public Object hashMapDouble() {
+        return hashMapDouble.get(codigos[sortear()]);
+    }
+
+    @Benchmark
+    public Object longObjectMap() {
+        return longObjectMap.get(LongObjectMap.clave(codigos[sortear()]));
+    }
+
+    @Benchmark
+    public boolean hashSetLong() {
+        return hashSetLong.contains((long) codigos[sortear()]);
+    }
+
+    @Benchmark
+    public boolean longSet() {
+        return longSet.contains((long) codigos[sortear()]);
+    }
+
+    /** Construye la estructura e imprime lo que retiene por entrada. */
+    private <T> T medir(String nombre, Supplier<T> constructor) {
+        long antes = usada();
+        T estructura = constructor.get();
+        long bytes = usada() - antes;
+        System.out.printf("%-26s %12.1f%n", nombre, (double) bytes / entradas);
+        return estructura;
+    }
+
+    static long usada() {
+        Runtime rt = Runtime.getRuntime();
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+            try { Thread.sleep(50); } catch (InterruptedException e) { Thread.currentThread().interrupt(); }
+        }
+        return rt.totalMemory() - rt.freeMemory();
+    }
+}
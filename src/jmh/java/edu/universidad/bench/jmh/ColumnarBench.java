@@ -0,0 +1,114 @@
+package edu.universidad.bench.jmh;
+
+import edu.universidad.analitica.InscripcionesColumnares;
+import edu.universidad.model.Curso;
+import edu.universidad.model.Estudiante;
+import edu.universidad.model.Inscripcion;
+import edu.universidad.persistence.H2DB;
+import edu.universidad.persistence.InscripcionDAO;
+import edu.universidad.persistence.Schema;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * List&lt;Inscripcion&gt; de InscripcionDAO.listar frente a InscripcionesColumnares
+ * leídas de la misma tabla (H2 en memoria): carga desde la base y un
+ * recorrido de conteo por curso y periodo. Al preparar se imprime la memoria
+ * retenida por fila de cada una (sin contar los catálogos, que existen igual).
+ *
+ * H2DB lee -Duni.db.url una sola vez por JVM: no admite -f 0.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class ColumnarBench {
+
+    private static final int CURSOS = 500;
+
+    @Param({"1000000"})
+    public int filas;
+
+    private final InscripcionDAO dao = new InscripcionDAO();
+    private List<Estudiante> estudiantes;
+    private List<Curso> cursos;
+    private List<Inscripcion> lista;
+    private InscripcionesColumnares columnas;
+
+    @Setup(Level.Trial)
+    public void preparar() throws SQLException {
+        BaseDatos.fijarUrl("jdbc:h2:mem:jmh_columnar;DB_CLOSE_DELAY=-1");
+        Schema.crearTablas();
+        int n = filas / 5 + 1;
+        poblar(n);
+        cursos = new ArrayList<>();
+        for (int c = 0; c < CURSOS; c++) cursos.add(new Curso(c, "Curso " + c, null, true));
+        estudiantes = new ArrayList<>();
+        for (int e = 0; e < n; e++) estudiantes.add(new Estudiante(e, "N" + e, "A" + e, null, e, null, true, 3.0));
+
+        long antes = ColeccionesBench.usada();
+        lista = dao.listar(estudiantes, cursos);
+        long bytesLista = ColeccionesBench.usada() - antes;
+        antes = ColeccionesBench.usada();
+        columnas = InscripcionesColumnares.desdeBase(dao);
+        long bytesColumnas = ColeccionesBench.usada() - antes;
+        System.out.printf("%nbytes/fila: List<Inscripcion> %.1f, InscripcionesColumnares %.1f%n",
+                (double) bytesLista / lista.size(), (double) bytesColumnas / columnas.size());
+    }
+
+    @TearDown(Level.Trial)
+    public void cerrar() {
+        H2DB.cerrar();
+    }
+
+    @Benchmark
+    public List<Inscripcion> cargarLista() {
+        return dao.listar(estudiantes, cursos);
+    }
+
+    @Benchmark
+    public InscripcionesColumnares cargarColumnas() {
+        return InscripcionesColumnares.desdeBase(dao);
+    }
+
+    @Benchmark
+    public long recorrerLista() {
+        int[] porCurso = new int[CURSOS];
+        long porPeriodo = 0;
+        for (Inscripcion i : lista) {
+            porCurso[i.getCurso().getID()]++;
+            if (i.getAnio() == 2025 && i.getSemestre() == 1) porPeriodo++;
+        }
+        return porCurso[7] + porPeriodo;
+    }
+
+    @Benchmark
+    public long recorrerColumnas() {
+        int[] porCurso = new int[CURSOS];
+        long porPeriodo = 0;
+        for (int i = 0; i < columnas.size(); i++) {
+            porCurso[columnas.curso(i)]++;
+            if (columnas.anio(i) == 2025 && columnas.semestre(i) == 1) porPeriodo++;
+        }
+        return porCurso[7] + porPeriodo;
+    }
+
+    /** Cada estudiante en cinco cursos distintos, repartidos en dos años y dos semestres. */
+    private void poblar(int estudiantes) throws SQLException {
+        try (Connection con = H2DB.getConnection(); Statement st = con.createStatement()) {
+            st.execute("INSERT INTO CURSO (ID,NOMBRE,ACTIVO,SEMESTRE) SELECT X, 'Curso ' || X, TRUE, 1 FROM SYSTEM_RANGE(0," + (CURSOS - 1) + ")");
+            st.execute("INSERT INTO ESTUDIANTE (CODIGO,NOMBRES,APELLIDOS,ACTIVO,SEMESTRE) " +
+                    "SELECT X, 'N' || X, 'A' || X, TRUE, 1 FROM SYSTEM_RANGE(0," + (estudiantes - 1) + ")");
+            st.execute("INSERT INTO INSCRIPCION (CURSO_ID, ESTUDIANTE_CODIGO, ANIO, SEMESTRE) " +
+                    "SELECT MOD(X * 7 + X / 5, " + CURSOS + "), X / 5, 2024 + MOD(X / 5, 2), 1 + MOD(X / 10, 2) FROM SYSTEM_RANGE(0," + (filas - 1) + ")");
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package edu.universidad.bench.jmh;
+
+import edu.universidad.model.Curso;
+import edu.universidad.model.Estudiante;
+import edu.universidad.model.Inscripcion;
+import edu.universidad.repository.CursosInscritos;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CursosInscritos indexado frente al ArrayList que usaba antes: actualizar,
+ * eliminar (y volver a inscribir, para no cambiar el tamaño) y consultar por
+ * curso o por estudiante. Las operaciones de la lista son lineales en
+ * {@code filas}. Al preparar se imprime la memoria retenida por fila de cada
+ * estructura (sin contar las inscripciones, compartidas).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Thread)
+public class CursosInscritosBench {
+
+    private static final int CURSOS = 500;
+    private static final int SORTEOS = 1 << 16;
+
+    @Param({"10000", "100000", "1000000"})
+    public int filas;
+
+    private Inscripcion[] inscripciones;
+    private List<Inscripcion> lista;
+    private CursosInscritos repo;
+    private int[] sorteo;
+    private int siguiente;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        inscripciones = generar(filas);
+        long antes = ColeccionesBench.usada();
+        lista = new ArrayList<>();
+        for (Inscripcion i : inscripciones) lista.add(i);
+        long bytesLista = ColeccionesBench.usada() - antes;
+        antes = ColeccionesBench.usada();
+        repo = new CursosInscritos(null, List.of(), List.of());
+        for (Inscripcion i : inscripciones) repo.inscribirCurso(i);
+        long bytesRepo = ColeccionesBench.usada() - antes;
+        System.out.printf("%nbytes/fila: ArrayList %.1f, CursosInscritos %.1f%n", (double) bytesLista / filas, (double) bytesRepo / filas);
+
+        Random rnd = new Random(7);
+        sorteo = new int[SORTEOS];
+        for (int k = 0; k < SORTEOS; k++) sorteo[k] = rnd.nextInt(filas);
+    }
+
+    private Inscripcion sortear() {
+        int k = siguiente;
+        siguiente = (k + 1) & (SORTEOS - 1);
+        return inscripciones[sorteo[k]];
+    }
+
+    /** Lo que hacía actualizar(): indexOf y set. */
+    @Benchmark
+    public Inscripcion listaActualizar() {
+        Inscripcion i = sortear();
+        return lista.set(lista.indexOf(i), i);
+    }
+
+    @Benchmark
+    public boolean listaEliminar() {
+        Inscripcion i = sortear();
+        return lista.remove(i) && lista.add(i);
+    }
+
+    @Benchmark
+    public long listaPorCurso() {
+        int c = sortear().getCurso().getID();
+        return lista.stream().filter(i -> i.getCurso().getID() == c).count();
+    }
+
+    @Benchmark
+    public long listaPorEstudiante() {
+        double e = sortear().getEstudiante().getCodigo();
+        return lista.stream().filter(i -> i.getEstudiante().getCodigo() == e).count();
+    }
+
+    @Benchmark
+    public boolean indiceActualizar() {
+        return repo.actualizar(sortear());
+    }
+
+    @Benchmark
+    public boolean indiceEliminar() {
+        Inscripcion i = sortear();
+        return repo.eliminar(i) && repo.inscribirCurso(i);
+    }
+
+    @Benchmark
+    public int indicePorCurso() {
+        return repo.inscritosEnCurso(sortear().getCurso().getID()).size();
+    }
+
+    @Benchmark
+    public int indicePorEstudiante() {
+        return repo.cursosDelEstudiante(sortear().getEstudiante().getCodigo()).size();
+    }
+
+    /** Cada estudiante toma unos 5 cursos en uno de cuatro periodos; códigos dispersos como los reales. */
+    private static Inscripcion[] generar(int n) {
+        Random rnd = new Random(42);
+        Curso[] cursos = new Curso[CURSOS];
+        for (int c = 0; c < CURSOS; c++) cursos[c] = new Curso(c + 1, "Curso " + c, null, true);
+        Inscripcion[] filas = new Inscripcion[n];
+        Estudiante est = null;
+        for (int i = 0; i < n; i++) {
+            if (i % 5 == 0) {
+                double codigo = 2_000_000_000d + rnd.nextInt(900_000_000);
+                est = new Estudiante(codigo, "N", "A", null, codigo, null, true, 3.0);
+            }
+            filas[i] = new Inscripcion(cursos[(i * 7 + i / 5) % CURSOS], 2024 + (i / 5) % 2, 1 + (i / 10) % 2, est);
+        }
+        return filas;
+    }
+}
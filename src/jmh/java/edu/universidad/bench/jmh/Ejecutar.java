@@ -0,0 +1,42 @@
+package edu.universidad.bench.jmh;
+
+import org.openjdk.jmh.Main;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Punto de entrada de target/benchmarks.jar: el Main de JMH con salida JSON
+ * por omisión en target/jmh/&lt;versión&gt;-&lt;fecha&gt;.json, para comparar
+ * versiones (cada resultado lleva sus parámetros: modo, estudiantes, filas).
+ * Si se pasa -rf o -rff se respeta lo pedido; el resto de opciones son las de
+ * JMH, p. ej. {@code java -jar target/benchmarks.jar PersistenciaBench -p modo=mem}.
+ */
+public final class Ejecutar {
+
+    private static final List<String> SIN_RESULTADO = List.of("-rf", "-rff", "-h", "-l", "-lp", "-lrf", "-lprof");
+
+    private Ejecutar() { }
+
+    public static void main(String[] args) throws Exception {
+        if (Arrays.stream(args).anyMatch(SIN_RESULTADO::contains)) {
+            Main.main(args);
+            return;
+        }
+        String version = Ejecutar.class.getPackage().getImplementationVersion();
+        String fecha = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+        Path salida = Path.of("target", "jmh", (version == null ? "dev" : version) + "-" + fecha + ".json");
+        Files.createDirectories(salida.getParent());
+        String[] conSalida = Arrays.copyOf(args, args.length + 4);
+        conSalida[args.length] = "-rf";
+        conSalida[args.length + 1] = "json";
+        conSalida[args.length + 2] = "-rff";
+        conSalida[args.length + 3] = salida.toString();
+        System.out.println("Resultados en " + salida.toAbsolutePath());
+        Main.main(conSalida);
+    }
+}
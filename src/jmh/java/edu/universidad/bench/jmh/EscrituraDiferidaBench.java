@@ -0,0 +1,68 @@
+package edu.universidad.bench.jmh;
+
+import edu.universidad.persistence.EscrituraDiferida;
+import edu.universidad.persistence.InscripcionDAO;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Altas confirmadas por segundo con varios hilos (-t, 4 por omisión):
+ * InscripcionDAO.insertar (un commit por fila) frente a EscrituraDiferida
+ * (un commit por lote). Cada invocación da {@value #ALTAS} altas y, en la
+ * cola, espera a que todas estén confirmadas, así que ops/s son filas
+ * confirmadas por segundo y no solo encoladas.
+ *
+ * Las altas van a los cursos libres de {@link BaseDatos}, que se vacían
+ * entre iteraciones; las iteraciones son cortas para no agotar los pares.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 10, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@Threads(4)
+@State(Scope.Benchmark)
+public class EscrituraDiferidaBench {
+
+    private static final int ALTAS = 200;
+
+    @Param({"500"})
+    public int tamanoLote;
+
+    private final InscripcionDAO dao = new InscripcionDAO();
+    private EscrituraDiferida cola;
+
+    @Setup(Level.Trial)
+    public void abrir() {
+        cola = new EscrituraDiferida(dao, 10_000, tamanoLote, 20, 30_000);
+    }
+
+    @TearDown(Level.Trial)
+    public void cerrar() {
+        cola.close();
+        System.out.println("\n" + cola.estadisticas());
+    }
+
+    @Setup(Level.Iteration)
+    public void limpiar(BaseDatos base) {
+        base.vaciarLibres();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ALTAS)
+    public void insertar(BaseDatos base) {
+        long par = base.reservarLibres(ALTAS);
+        for (int k = 0; k < ALTAS; k++) dao.insertar(base.libre(par + k));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ALTAS)
+    public void diferida(BaseDatos base) {
+        long par = base.reservarLibres(ALTAS);
+        CompletableFuture<?>[] confirmadas = new CompletableFuture<?>[ALTAS];
+        for (int k = 0; k < ALTAS; k++) confirmadas[k] = cola.encolar(base.libre(par + k));
+        CompletableFuture.allOf(confirmadas).join();
+    }
+}
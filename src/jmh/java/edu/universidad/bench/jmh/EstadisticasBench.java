@@ -0,0 +1,95 @@
+package edu.universidad.bench.jmh;
+
+import edu.universidad.analitica.CatalogoAnalitico;
+import edu.universidad.analitica.Estadisticas;
+import edu.universidad.analitica.InscripcionesColumnares;
+import edu.universidad.analitica.MotorEstadisticas;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MotorEstadisticas con paralelismo 1 frente al pool común, sobre datos
+ * sintéticos armados directamente en columnas (10M filas por H2 tardarían
+ * más en insertarse que todo lo demás). La aceleración es el cociente de
+ * los dos resultados; el paralelismo del pool común se imprime al preparar.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class EstadisticasBench {
+
+    private static final int CURSOS = 2_000;
+    private static final String[] PROGRAMAS = {"Sistemas", "Industrial", "Civil", "Electrónica", "Mecánica", "Química",
+            "Matemáticas", "Física", "Biología", "Economía", "Derecho", "Medicina"};
+
+    @Param({"1000000", "10000000"})
+    public int filas;
+
+    private MotorEstadisticas motor;
+    private InscripcionesColumnares datos;
+    private ForkJoinPool uno;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        int estudiantes = Math.max(filas / 20, 1);
+        motor = new MotorEstadisticas(catalogo(estudiantes));
+        datos = inscripciones(filas, estudiantes);
+        uno = new ForkJoinPool(1);
+        System.out.printf("%nprocesadores: %d, paralelismo del pool común: %d%n",
+                Runtime.getRuntime().availableProcessors(), ForkJoinPool.commonPool().getParallelism());
+    }
+
+    @TearDown(Level.Trial)
+    public void cerrar() {
+        uno.shutdown();
+    }
+
+    @Benchmark
+    public Estadisticas unHilo() {
+        return comprobar(motor.calcular(datos, uno));
+    }
+
+    @Benchmark
+    public Estadisticas poolComun() {
+        return comprobar(motor.calcular(datos, ForkJoinPool.commonPool()));
+    }
+
+    private Estadisticas comprobar(Estadisticas e) {
+        if (e.inscripciones() != datos.size()) throw new IllegalStateException("Filas perdidas: " + e.inscripciones());
+        return e;
+    }
+
+    private static CatalogoAnalitico catalogo(int estudiantes) {
+        SplittableRandom rnd = new SplittableRandom(7);
+        CatalogoAnalitico.Constructor c = new CatalogoAnalitico.Constructor();
+        for (int k = 0; k < CURSOS; k++) c.agregarCurso(k, "Curso " + k, 1 + k % 10, k % 50 != 0);
+        for (int s = 0; s < estudiantes; s++) {
+            double promedio = rnd.nextInt(50) == 0 ? Double.NaN : 2.0 + rnd.nextInt(301) / 100.0;
+            c.agregarEstudiante(codigo(s), promedio, 1 + rnd.nextInt(10), PROGRAMAS[rnd.nextInt(PROGRAMAS.length)]);
+        }
+        return c.construir();
+    }
+
+    /** Tramos iguales por curso y, dentro de cada uno, códigos crecientes: llegan ya ordenadas. */
+    private static InscripcionesColumnares inscripciones(int filas, int estudiantes) {
+        InscripcionesColumnares.Constructor c = new InscripcionesColumnares.Constructor(filas);
+        int porCurso = (filas + CURSOS - 1) / CURSOS;
+        int paso = Math.max(estudiantes / porCurso, 1);
+        for (int i = 0; i < filas; i++) {
+            int curso = i / porCurso, j = i % porCurso;
+            int s = (int) Math.min((long) j * paso + curso % paso, estudiantes - 1L);
+            c.agregar(curso, codigo(s), 2020 + (s + curso) % 5, 1 + curso % 10);
+        }
+        return c.construir();
+    }
+
+    private static double codigo(int s) {
+        return 2_000_000_000d + s;
+    }
+}
@@ -0,0 +1,65 @@
+package edu.universidad.bench.jmh;
+
+import edu.universidad.model.Curso;
+import edu.universidad.model.Estudiante;
+import edu.universidad.model.Inscripcion;
+import edu.universidad.persistence.H2DB;
+import edu.universidad.persistence.InscripcionDAO;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hidratación de INSCRIPCION contra {@link BaseDatos}: InscripcionDAO.listar
+ * (catálogos indexados; también en PersistenciaBench) frente a listarConJoin
+ * y a la búsqueda lineal original. La lineal es cuadrática, así que solo
+ * hidrata las primeras {@value #FILAS_LINEAL} filas: comparar por fila
+ * (cada estudiante tiene {@value BaseDatos#INSCRIPCIONES_POR_ESTUDIANTE}).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Thread)
+public class HidratacionBench {
+
+    static final int FILAS_LINEAL = 5_000;
+
+    private final InscripcionDAO dao = new InscripcionDAO();
+
+    @Benchmark
+    public List<Inscripcion> listar(BaseDatos base) {
+        return dao.listar(base.catalogoEstudiantes, base.catalogoCursos);
+    }
+
+    @Benchmark
+    public List<Inscripcion> listarConJoin(BaseDatos base) {
+        return dao.listarConJoin();
+    }
+
+    /** Réplica del algoritmo anterior (stream + filter por fila), sobre las primeras filas. */
+    @Benchmark
+    public int listarLineal(BaseDatos base) throws SQLException {
+        List<Curso> cursos = base.catalogoCursos;
+        List<Estudiante> estudiantes = base.catalogoEstudiantes;
+        int n = 0;
+        try (Connection con = H2DB.getConnection();
+             PreparedStatement ps = con.prepareStatement("SELECT CURSO_ID, ESTUDIANTE_CODIGO, ANIO, SEMESTRE FROM INSCRIPCION LIMIT " + FILAS_LINEAL);
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                int cursoId = rs.getInt(1);
+                double codEst = rs.getDouble(2);
+                Curso curso = cursos.stream().filter(c -> c.getID() == cursoId).findFirst().orElse(null);
+                Estudiante est = estudiantes.stream().filter(e -> Double.compare(e.getCodigo(), codEst) == 0).findFirst().orElse(null);
+                if (curso != null && est != null) { new Inscripcion(curso, rs.getInt(3), rs.getInt(4), est); n++; }
+            }
+        }
+        return n;
+    }
+}
@@ -0,0 +1,63 @@
+package edu.universidad.bench.jmh;
+
+import edu.universidad.model.Inscripcion;
+import edu.universidad.persistence.InscripcionDAO;
+import edu.universidad.persistence.ResultadoLote;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * Filas/s del camino original (conexión nueva de DriverManager por fila, en
+ * auto-commit) frente a InscripcionDAO.insertarLote; la referencia con pool
+ * fila a fila es PersistenciaBench.inscripcionInsertar. Las altas van a los
+ * cursos libres de {@link BaseDatos}, que se vacían entre iteraciones.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 10, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Thread)
+public class InscripcionLoteBench {
+
+    private static final int FILAS_LOTE = 10_000;
+    private static final String SQL = "INSERT INTO INSCRIPCION (CURSO_ID, ESTUDIANTE_CODIGO, ANIO, SEMESTRE) VALUES (?,?,?,?)";
+
+    @Param({"1000"})
+    public int tamanoLote;
+
+    private final InscripcionDAO dao = new InscripcionDAO();
+
+    @Setup(Level.Iteration)
+    public void limpiar(BaseDatos base) {
+        base.vaciarLibres();
+    }
+
+    @Benchmark
+    public int sinPool(BaseDatos base) throws SQLException {
+        Inscripcion ins = base.libre(base.reservarLibres(1));
+        try (Connection con = DriverManager.getConnection(System.getProperty("uni.db.url"), "sa", "");
+             PreparedStatement ps = con.prepareStatement(SQL)) {
+            ps.setInt(1, ins.getCurso().getID());
+            ps.setDouble(2, ins.getEstudiante().getCodigo());
+            ps.setInt(3, ins.getAnio());
+            ps.setInt(4, ins.getSemestre());
+            return ps.executeUpdate();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FILAS_LOTE)
+    public ResultadoLote insertarLote(BaseDatos base) {
+        long par = base.reservarLibres(FILAS_LOTE);
+        ResultadoLote r = dao.insertarLote(LongStream.range(par, par + FILAS_LOTE).mapToObj(base::libre), tamanoLote);
+        if (!r.fallos().isEmpty()) throw new IllegalStateException("Filas rechazadas: " + r.fallos().getFirst());
+        return r;
+    }
+}
@@ -0,0 +1,92 @@
+package edu.universidad.bench.jmh;
+
+import edu.universidad.persistence.H2DB;
+import edu.universidad.persistence.ResultadoInscripcion;
+import edu.universidad.persistence.ServicioInscripcion;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Latencia de alta de inscripciones con clientes concurrentes (-t, 4 por
+ * omisión): el camino anterior del controlador (tres consultas en
+ * conexiones separadas + MERGE) frente a ServicioInscripcion (una
+ * transacción, una consulta de validación). SampleTime da los percentiles.
+ *
+ * Cada alta es un par válido (curso libre de {@link BaseDatos} del mismo
+ * semestre que el estudiante); los cursos libres se vacían entre iteraciones.
+ * Si los pares se acaban se vuelve a empezar y el MERGE actualiza.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@Threads(4)
+@State(Scope.Benchmark)
+public class InscripcionServicioBench {
+
+    private static final String SQL_MERGE =
+            "MERGE INTO INSCRIPCION (CURSO_ID,ESTUDIANTE_CODIGO,ANIO,SEMESTRE) KEY(CURSO_ID,ESTUDIANTE_CODIGO) VALUES (?,?,?,?)";
+
+    private final ServicioInscripcion servicio = new ServicioInscripcion();
+    private final AtomicLong siguiente = new AtomicLong();
+
+    @Setup(Level.Iteration)
+    public void limpiar(BaseDatos base) {
+        base.vaciarLibres();
+        siguiente.set(0);
+    }
+
+    @Benchmark
+    public ResultadoInscripcion servicio(BaseDatos base) {
+        long par = siguiente.getAndIncrement();
+        return servicio.inscribir(curso(base, par), BaseDatos.codigo(estudiante(base, par)), 2025);
+    }
+
+    @Benchmark
+    public boolean separado(BaseDatos base) throws SQLException {
+        long par = siguiente.getAndIncrement();
+        return altaSeparada(curso(base, par), BaseDatos.codigo(estudiante(base, par)));
+    }
+
+    private static int estudiante(BaseDatos base, long par) {
+        return (int) (par % base.estudiantes);
+    }
+
+    /** Curso libre con el semestre del estudiante (BaseDatos: 1 + MOD(X,10) en ambas tablas). */
+    private static int curso(BaseDatos base, long par) {
+        int resto = (estudiante(base, par) + 1) % 10;
+        int primero = base.cursosOcupados + 1;
+        primero += Math.floorMod(resto - primero, 10);
+        int porResto = (base.cursos - primero) / 10 + 1;
+        return primero + 10 * (int) (par / base.estudiantes % porResto);
+    }
+
+    /** Réplica de InscripcionController antes del servicio: cuatro préstamos de conexión, sin transacción. */
+    private static boolean altaSeparada(int curso, double codigo) throws SQLException {
+        Integer sc = entero("SELECT SEMESTRE FROM CURSO WHERE ID=?", curso, null);
+        Integer activo = entero("SELECT CASE WHEN ACTIVO THEN 1 ELSE 0 END FROM CURSO WHERE ID=?", curso, null);
+        Integer se = entero("SELECT SEMESTRE FROM ESTUDIANTE WHERE CODIGO=?", null, codigo);
+        if (sc == null || activo == null || activo == 0 || se == null || !sc.equals(se)) return false;
+        try (Connection con = H2DB.getConnection(); PreparedStatement ps = con.prepareStatement(SQL_MERGE)) {
+            ps.setInt(1, curso);
+            ps.setDouble(2, codigo);
+            ps.setInt(3, 2025);
+            ps.setInt(4, sc);
+            return ps.executeUpdate() == 1;
+        }
+    }
+
+    private static Integer entero(String sql, Integer id, Double codigo) throws SQLException {
+        try (Connection con = H2DB.getConnection(); PreparedStatement ps = con.prepareStatement(sql)) {
+            if (id != null) ps.setInt(1, id); else ps.setDouble(1, codigo);
+            try (ResultSet rs = ps.executeQuery()) { return rs.next() ? rs.getInt(1) : null; }
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package edu.universidad.bench.jmh;
+
+import edu.universidad.model.Curso;
+import edu.universidad.model.Estudiante;
+import edu.universidad.model.Inscripcion;
+import edu.universidad.repository.CursosInscritos;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Listar un CursosInscritos grande: imprimirListado() (todas las cadenas en
+ * una lista antes de la primera línea) frente a imprimirListado(Appendable)
+ * y pagina(). Los {@code total*} escriben todo en un destino que descarta;
+ * los {@code primeraLinea*} se detienen en la primera línea. Los bytes
+ * asignados se ven con {@code -prof gc}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Thread)
+public class ListadoBench {
+
+    private static final int CURSOS = 500;
+    private static final int PAGINA = 1_000;
+
+    /** Corta imprimirListado(Appendable) en la primera línea; sin traza para no medirla. */
+    private static final class Corte extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        Corte() { super(null, null, false, false); }
+    }
+
+    private static final Corte CORTE = new Corte();
+
+    /** Destino que descarta lo escrito y solo cuenta caracteres. */
+    private static final class Descartar implements Appendable {
+        long caracteres;
+
+        @Override
+        public Descartar append(CharSequence s) {
+            caracteres += s.length();
+            return this;
+        }
+
+        @Override
+        public Descartar append(CharSequence s, int inicio, int fin) {
+            caracteres += fin - inicio;
+            return this;
+        }
+
+        @Override
+        public Descartar append(char c) {
+            caracteres++;
+            return this;
+        }
+    }
+
+    /** Guarda lo primero que recibe y corta. */
+    private static final class Primera implements Appendable {
+        CharSequence linea;
+
+        @Override
+        public Appendable append(CharSequence s) {
+            linea = s;
+            throw CORTE;
+        }
+
+        @Override
+        public Appendable append(CharSequence s, int inicio, int fin) {
+            return append(s.subSequence(inicio, fin));
+        }
+
+        @Override
+        public Appendable append(char c) {
+            return append(String.valueOf(c));
+        }
+    }
+
+    @Param({"1000000"})
+    public int filas;
+
+    private CursosInscritos repo;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        repo = new CursosInscritos(null, List.of(), List.of());
+        Curso[] cursos = new Curso[CURSOS];
+        for (int c = 0; c < CURSOS; c++) cursos[c] = new Curso(c + 1, "Curso " + c, null, true);
+        for (int i = 0; i < filas; i++) {
+            double codigo = BaseDatos.codigo(i / BaseDatos.INSCRIPCIONES_POR_ESTUDIANTE);
+            repo.inscribirCurso(new Inscripcion(cursos[i % CURSOS], 2025, 1,
+                    new Estudiante(codigo, "N" + i, "A" + i, null, codigo, null, true, 3.0)));
+        }
+    }
+
+    @Benchmark
+    public long totalLista() {
+        Descartar d = new Descartar();
+        for (String s : repo.imprimirListado()) d.append(s).append('\n');
+        return d.caracteres;
+    }
+
+    @Benchmark
+    public long totalAppendable() throws IOException {
+        Descartar d = new Descartar();
+        repo.imprimirListado(d);
+        return d.caracteres;
+    }
+
+    @Benchmark
+    public long totalPaginas() {
+        Descartar d = new Descartar();
+        for (int desde = 0; desde < filas; desde += PAGINA)
+            for (Inscripcion i : repo.pagina(desde, PAGINA)) d.append(i.toString()).append('\n');
+        return d.caracteres;
+    }
+
+    @Benchmark
+    public String primeraLineaLista() {
+        return repo.imprimirListado().getFirst();
+    }
+
+    @Benchmark
+    public CharSequence primeraLineaAppendable() throws IOException {
+        Primera p = new Primera();
+        try {
+            repo.imprimirListado(p);
+        } catch (Corte c) {
+            return p.linea;
+        }
+        throw new IllegalStateException("Listado vacío");
+    }
+
+    @Benchmark
+    public String primeraLineaPagina() {
+        return repo.pagina(0, PAGINA).getFirst().toString();
+    }
+}
@@ -0,0 +1,198 @@
+package edu.universidad.bench.jmh;
+
+import edu.universidad.persistence.Migraciones;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Consultas calientes de INSCRIPCION con solo las tablas base
+ * ({@code esquema=base}) y después de las migraciones de claves e índices
+ * ({@code esquema=migrado}), sobre una H2 en memoria propia (no la de
+ * H2DB) con {@code estudiantes × porEstudiante} inscripciones. {@link #migrar}
+ * mide la migración en sitio sobre una base recién cargada.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class MigracionBench {
+
+    private static final int CURSOS = 2_000;
+    private static final String SQL_MERGE =
+            "MERGE INTO INSCRIPCION (CURSO_ID,ESTUDIANTE_CODIGO,ANIO,SEMESTRE) KEY(CURSO_ID,ESTUDIANTE_CODIGO) VALUES (?,?,?,?)";
+
+    /** Base cargada una vez por combinación; las sentencias se preparan al abrir. */
+    @State(Scope.Thread)
+    public static class Consultas {
+
+        @Param({"base", "migrado"})
+        public String esquema;
+
+        @Param({"50000"})
+        public int estudiantes;
+
+        @Param({"20"})
+        public int porEstudiante;
+
+        Connection con;
+        PreparedStatement merge, borrar, insertar, porEstudianteSql, porPeriodoSql, correlacionado;
+        int siguiente;
+
+        @Setup(Level.Trial)
+        public void abrir() throws SQLException {
+            con = DriverManager.getConnection("jdbc:h2:mem:jmh_migracion;DB_CLOSE_DELAY=-1", "sa", "");
+            Migraciones.aplicar(con, 1);
+            cargar(con, estudiantes, porEstudiante);
+            if (esquema.equals("migrado")) Migraciones.aplicar(con);
+            else if (!esquema.equals("base")) throw new IllegalArgumentException("esquema debe ser base o migrado: " + esquema);
+            merge = con.prepareStatement(SQL_MERGE);
+            borrar = con.prepareStatement("DELETE FROM INSCRIPCION WHERE CURSO_ID=? AND ESTUDIANTE_CODIGO=?");
+            insertar = con.prepareStatement("INSERT INTO INSCRIPCION (CURSO_ID,ESTUDIANTE_CODIGO,ANIO,SEMESTRE) VALUES (?,?,2025,?)");
+            porEstudianteSql = con.prepareStatement("SELECT COUNT(*) FROM INSCRIPCION WHERE ESTUDIANTE_CODIGO=?");
+            porPeriodoSql = con.prepareStatement("SELECT COUNT(*) FROM INSCRIPCION WHERE ANIO=? AND SEMESTRE=?");
+            // subconsulta correlacionada de CursoDAO.listarConExtras, limitada a 20 cursos
+            correlacionado = con.prepareStatement(
+                    "SELECT c.ID, (SELECT COUNT(*) FROM INSCRIPCION i WHERE i.CURSO_ID=c.ID) FROM CURSO c WHERE c.ID < 20");
+        }
+
+        @TearDown(Level.Trial)
+        public void cerrar() throws SQLException {
+            try (Statement st = con.createStatement()) {
+                st.execute("SHUTDOWN");
+            } finally {
+                con.close();
+            }
+        }
+    }
+
+    /** Base sin migrar, recargada antes de cada medición de {@link #migrar}. */
+    @State(Scope.Thread)
+    public static class SinMigrar {
+
+        @Param({"50000"})
+        public int estudiantes;
+
+        @Param({"20"})
+        public int porEstudiante;
+
+        Connection con;
+
+        @Setup(Level.Iteration)
+        public void abrir() throws SQLException {
+            con = DriverManager.getConnection("jdbc:h2:mem:jmh_migrar;DB_CLOSE_DELAY=-1", "sa", "");
+            Migraciones.aplicar(con, 1);
+            cargar(con, estudiantes, porEstudiante);
+        }
+
+        @TearDown(Level.Iteration)
+        public void cerrar() throws SQLException {
+            try (Statement st = con.createStatement()) {
+                st.execute("SHUTDOWN");
+            } finally {
+                con.close();
+            }
+        }
+    }
+
+    @Benchmark
+    public int merge(Consultas q) throws SQLException {
+        int e = (q.siguiente++ * 7919 & Integer.MAX_VALUE) % q.estudiantes;
+        q.merge.setInt(1, curso(e, 0));
+        q.merge.setDouble(2, e);
+        q.merge.setInt(3, 2025);
+        q.merge.setInt(4, 1 + e % 12);
+        return q.merge.executeUpdate();
+    }
+
+    @Benchmark
+    public int borrarInsertar(Consultas q) throws SQLException {
+        int e = (q.siguiente++ * 104729 & Integer.MAX_VALUE) % q.estudiantes;
+        int c = curso(e, q.porEstudiante - 1);
+        q.borrar.setInt(1, c);
+        q.borrar.setDouble(2, e);
+        q.borrar.executeUpdate();
+        q.insertar.setInt(1, c);
+        q.insertar.setDouble(2, e);
+        q.insertar.setInt(3, 1 + e % 12);
+        return q.insertar.executeUpdate();
+    }
+
+    @Benchmark
+    public int porEstudiante(Consultas q) throws SQLException {
+        q.porEstudianteSql.setDouble(1, (q.siguiente++ * 31 & Integer.MAX_VALUE) % q.estudiantes);
+        return contar(q.porEstudianteSql);
+    }
+
+    @Benchmark
+    public int porPeriodo(Consultas q) throws SQLException {
+        int i = q.siguiente++ & Integer.MAX_VALUE;
+        q.porPeriodoSql.setInt(1, 2020 + i % 5);
+        q.porPeriodoSql.setInt(2, 1 + i % 12);
+        return contar(q.porPeriodoSql);
+    }
+
+    @Benchmark
+    public long conteoCorrelacionado(Consultas q) throws SQLException {
+        long total = 0;
+        try (ResultSet rs = q.correlacionado.executeQuery()) {
+            while (rs.next()) total += rs.getInt(2);
+        }
+        return total;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 1)
+    @Measurement(iterations = 3)
+    public int migrar(SinMigrar s) throws SQLException {
+        Migraciones.aplicar(s.con);
+        return Migraciones.versionActual(s.con);
+    }
+
+    private static int contar(PreparedStatement ps) throws SQLException {
+        try (ResultSet rs = ps.executeQuery()) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    private static int curso(int estudiante, int k) {
+        return (estudiante * 7 + k * 13) % CURSOS;
+    }
+
+    static void cargar(Connection con, int estudiantes, int porEst) throws SQLException {
+        con.setAutoCommit(false);
+        try (PreparedStatement ps = con.prepareStatement("INSERT INTO CURSO (ID,NOMBRE,ACTIVO,SEMESTRE) VALUES (?,?,TRUE,?)")) {
+            for (int c = 0; c < CURSOS; c++) {
+                ps.setInt(1, c); ps.setString(2, "Curso " + c); ps.setInt(3, 1 + c % 12);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+        try (PreparedStatement pe = con.prepareStatement("INSERT INTO ESTUDIANTE (CODIGO,NOMBRES,APELLIDOS,ACTIVO,SEMESTRE) VALUES (?,?,?,TRUE,?)");
+             PreparedStatement pi = con.prepareStatement("INSERT INTO INSCRIPCION (CURSO_ID,ESTUDIANTE_CODIGO,ANIO,SEMESTRE) VALUES (?,?,?,?)")) {
+            for (int e = 0; e < estudiantes; e++) {
+                pe.setDouble(1, e); pe.setString(2, "N" + e); pe.setString(3, "A" + e); pe.setInt(4, 1 + e % 12);
+                pe.addBatch();
+                for (int k = 0; k < porEst; k++) {
+                    pi.setInt(1, curso(e, k)); pi.setDouble(2, e);
+                    pi.setInt(3, 2020 + k % 5); pi.setInt(4, 1 + e % 12);
+                    pi.addBatch();
+                }
+                if (e % 1000 == 999) { pe.executeBatch(); pi.executeBatch(); con.commit(); }
+            }
+            pe.executeBatch(); pi.executeBatch(); con.commit();
+        } finally {
+            con.setAutoCommit(true);
+        }
+    }
+}
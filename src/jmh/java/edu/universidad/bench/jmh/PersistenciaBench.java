@@ -0,0 +1,85 @@
+package edu.universidad.bench.jmh;
+
+import edu.universidad.model.Curso;
+import edu.universidad.model.Estudiante;
+import edu.universidad.model.Inscripcion;
+import edu.universidad.persistence.CursoDAO;
+import edu.universidad.persistence.EstudianteDAO;
+import edu.universidad.persistence.InscripcionDAO;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caminos JDBC más usados de los DAO, contra {@link BaseDatos} (memoria y
+ * archivo, varios tamaños). Las escrituras pasan por los triggers de conteo
+ * y de CAMBIO como en la aplicación.
+ *
+ * Las inserciones recorren pares (curso libre, estudiante) sin repetir y se
+ * borran al empezar cada iteración, así la tabla no crece entre iteraciones.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Thread)
+public class PersistenciaBench {
+
+    private final EstudianteDAO estudiantes = new EstudianteDAO();
+    private final CursoDAO cursos = new CursoDAO();
+    private final InscripcionDAO inscripciones = new InscripcionDAO();
+
+    private Estudiante[] porCodigo;
+    private int siguienteUpsert;
+    private long siguienteInscripcion;
+
+    @Setup(Level.Trial)
+    public void preparar(BaseDatos base) {
+        porCodigo = new Estudiante[base.estudiantes];
+        for (int i = 0; i < base.estudiantes; i++) {
+            double c = BaseDatos.codigo(i);
+            porCodigo[i] = new Estudiante(c, "Nombre " + i, "Apellido " + i, "e" + i + "@uni.edu", c, null, true, 3.0 + (i % 20) / 10.0);
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void limpiar(BaseDatos base) {
+        base.ejecutar("DELETE FROM INSCRIPCION WHERE CURSO_ID > " + base.cursosOcupados);
+        siguienteInscripcion = 0;
+    }
+
+    @Benchmark
+    public void estudianteUpsert(BaseDatos base) {
+        int i = siguienteUpsert;
+        siguienteUpsert = i + 1 == base.estudiantes ? 0 : i + 1;
+        estudiantes.upsert(porCodigo[i], 1 + (i + 1) % 10); // mismo semestre que al poblar
+    }
+
+    @Benchmark
+    public List<Estudiante> estudianteListar() {
+        return estudiantes.listar();
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> cursoListarConExtras() {
+        return cursos.listarConExtras();
+    }
+
+    @Benchmark
+    public void inscripcionInsertar(BaseDatos base) {
+        long n = siguienteInscripcion++;
+        int libres = base.cursos - base.cursosOcupados;
+        if (n >= (long) libres * base.estudiantes) throw new IllegalStateException("Sin pares libres; acortar la iteración");
+        int est = (int) (n % base.estudiantes);
+        Curso curso = base.catalogoCursos.get(base.cursosOcupados + (int) (n / base.estudiantes));
+        inscripciones.insertar(new Inscripcion(curso, 2026, 1, porCodigo[est]));
+    }
+
+    @Benchmark
+    public List<Inscripcion> inscripcionListar(BaseDatos base) {
+        return inscripciones.listar(base.catalogoEstudiantes, base.catalogoCursos);
+    }
+}
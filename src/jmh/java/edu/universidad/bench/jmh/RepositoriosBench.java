@@ -0,0 +1,93 @@
+package edu.universidad.bench.jmh;
+
+import edu.universidad.model.Curso;
+import edu.universidad.model.Estudiante;
+import edu.universidad.model.Inscripcion;
+import edu.universidad.model.Persona;
+import edu.universidad.repository.CursosInscritos;
+import edu.universidad.repository.InscripcionesPersonas;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Operaciones en memoria de los repositorios que usan las vistas: no tocan
+ * H2, solo dependen del tamaño. Los índices a visitar se sortean una vez
+ * (semilla fija) para no medir el generador. InscripcionesPersonas.actualizar
+ * recorre el listado, así que crece con {@code filas}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Thread)
+public class RepositoriosBench {
+
+    private static final int CURSOS = 500;
+    private static final int SORTEOS = 1 << 16;
+
+    @Param({"10000", "100000", "1000000"})
+    public int filas;
+
+    private Inscripcion[] inscripciones;
+    private Persona[] reemplazos; // misma ID que una persona del listado, otro objeto
+    private int[] sorteo;
+    private int siguiente;
+
+    private CursosInscritos cursosInscritos;
+    private InscripcionesPersonas personas;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        SplittableRandom rnd = new SplittableRandom(42);
+        Curso[] cursos = new Curso[CURSOS];
+        for (int c = 0; c < CURSOS; c++) cursos[c] = new Curso(c + 1, "Curso " + c, null, true);
+        inscripciones = new Inscripcion[filas];
+        cursosInscritos = new CursosInscritos(null, List.of(), List.of());
+        personas = new InscripcionesPersonas();
+        Estudiante est = null;
+        for (int i = 0; i < filas; i++) {
+            if (i % BaseDatos.INSCRIPCIONES_POR_ESTUDIANTE == 0) {
+                double codigo = BaseDatos.codigo(i / BaseDatos.INSCRIPCIONES_POR_ESTUDIANTE);
+                est = new Estudiante(codigo, "N", "A", null, codigo, null, true, 3.0);
+                personas.inscribir(est);
+            }
+            inscripciones[i] = new Inscripcion(cursos[(i * 7 + i / 5) % CURSOS], 2024 + (i / 5) % 2, 1 + (i / 10) % 2, est);
+            cursosInscritos.inscribirCurso(inscripciones[i]);
+        }
+        int nPersonas = personas.cantidadActual();
+        sorteo = new int[SORTEOS];
+        reemplazos = new Persona[SORTEOS];
+        for (int k = 0; k < SORTEOS; k++) {
+            sorteo[k] = rnd.nextInt(filas);
+            Persona p = personas.getListado().get(rnd.nextInt(nPersonas));
+            reemplazos[k] = new Estudiante(p.getID(), p.getNombres(), p.getApellidos(), p.getEmail(), p.getID(), null, true, 3.5);
+        }
+    }
+
+    private int sortear() {
+        int k = siguiente;
+        siguiente = (k + 1) & (SORTEOS - 1);
+        return k;
+    }
+
+    @Benchmark
+    public boolean cursosInscritosActualizar() {
+        return cursosInscritos.actualizar(inscripciones[sorteo[sortear()]]);
+    }
+
+    /** Quita y vuelve a inscribir, para que el tamaño no cambie entre invocaciones. */
+    @Benchmark
+    public boolean cursosInscritosEliminar() {
+        Inscripcion i = inscripciones[sorteo[sortear()]];
+        return cursosInscritos.eliminar(i) && cursosInscritos.inscribirCurso(i);
+    }
+
+    @Benchmark
+    public boolean inscripcionesPersonasActualizar() {
+        return personas.actualizar(reemplazos[sortear()]);
+    }
+}
@@ -0,0 +1,185 @@
+package edu.universidad.bench.jmh;
+
+import edu.universidad.model.Curso;
+import edu.universidad.model.Estudiante;
+import edu.universidad.model.Inscripcion;
+import edu.universidad.repository.CursosInscritos;
+import edu.universidad.repository.CursosInscritosConcurrente;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.ThreadParams;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * {@link #mezcla}: operaciones/s de CursosInscritosConcurrente (candados por
+ * franja) frente a CursosInscritos detrás de un solo candado, con 80 %
+ * búsquedas y 20 % altas/bajas; la escala se ve variando -t (4 por omisión).
+ *
+ * {@code estres}: cada escritor alterna altas y bajas de claves propias
+ * mientras un lector toma instantáneas, que nunca deben ver más de una fila
+ * extra por escritor; el estado falla al terminar si vio alguna imposible.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class RepositoriosConcurrentesBench {
+
+    private static final int CURSOS = 500;
+
+    /** Las operaciones de la mezcla, sobre cualquiera de los dos repositorios. */
+    interface Repo {
+        boolean inscribir(Inscripcion i);
+        boolean eliminar(Inscripcion i);
+        Inscripcion buscar(Inscripcion i);
+    }
+
+    /** Repositorio compartido por todos los hilos, con la mitad de las filas presente de entrada. */
+    @State(Scope.Benchmark)
+    public static class Compartido {
+
+        @Param({"unCandado", "franjas"})
+        public String repositorio;
+
+        @Param({"200000"})
+        public int filas;
+
+        Inscripcion[] datos;
+        Repo repo;
+
+        @Setup(Level.Trial)
+        public void preparar() {
+            datos = generar(filas);
+            repo = switch (repositorio) {
+                case "unCandado" -> repoUnCandado();
+                case "franjas" -> repoFranjas();
+                default -> throw new IllegalArgumentException("repositorio debe ser unCandado o franjas: " + repositorio);
+            };
+            for (int i = 0; i < datos.length; i += 2) repo.inscribir(datos[i]);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Sorteo {
+        SplittableRandom rnd;
+
+        @Setup(Level.Trial)
+        public void preparar(ThreadParams hilo) {
+            rnd = new SplittableRandom(hilo.getThreadIndex());
+        }
+    }
+
+    /** Repositorio del grupo de estrés: el primer tramo queda siempre presente. */
+    @State(Scope.Group)
+    public static class Estres {
+
+        @Param({"200000"})
+        public int filas;
+
+        Inscripcion[] datos;
+        CursosInscritosConcurrente repo;
+        int escritores, porEscritor, fijas;
+        final AtomicLong instantaneas = new AtomicLong(), violaciones = new AtomicLong();
+
+        @Setup(Level.Trial)
+        public void preparar(BenchmarkParams params) {
+            escritores = Arrays.stream(params.getThreadGroups()).sum() - 1; // un lector por grupo
+            datos = generar(filas);
+            porEscritor = datos.length / (escritores + 1);
+            fijas = porEscritor;
+            repo = new CursosInscritosConcurrente(null, List.of(), List.of());
+            for (int i = 0; i < fijas; i++) repo.inscribirCurso(datos[i]);
+        }
+
+        @TearDown(Level.Trial)
+        public void comprobar() {
+            System.out.printf("%nestrés: %d escritores, %,d instantáneas, %d violaciones, final=%d (esperado %d)%n",
+                    escritores, instantaneas.get(), violaciones.get(), repo.cantidadActual(), fijas);
+            if (violaciones.get() != 0 || repo.cantidadActual() != fijas)
+                throw new IllegalStateException("Instantánea imposible o filas perdidas en el estrés");
+        }
+    }
+
+    /** Tramo propio de cada escritor del grupo. */
+    @State(Scope.Thread)
+    public static class Escritor {
+        int desde, k;
+
+        @Setup(Level.Trial)
+        public void preparar(Estres e, ThreadParams hilo) {
+            desde = e.fijas + hilo.getSubgroupThreadIndex() * e.porEscritor;
+        }
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean mezcla(Compartido c, Sorteo s) {
+        Inscripcion i = c.datos[s.rnd.nextInt(c.datos.length)];
+        int op = s.rnd.nextInt(10);
+        if (op < 8) return c.repo.buscar(i) != null;
+        if (op == 8) return c.repo.inscribir(i);
+        return c.repo.eliminar(i);
+    }
+
+    /** Como mucho una fila propia presente a la vez, en franjas que van cambiando. */
+    @Benchmark
+    @Group("estres")
+    @GroupThreads(3)
+    public void escritor(Estres e, Escritor w) {
+        Inscripcion i = e.datos[w.desde + w.k];
+        w.k = (w.k + 1) % e.porEscritor;
+        if (!e.repo.inscribirCurso(i) || !e.repo.eliminar(i)) e.violaciones.incrementAndGet();
+    }
+
+    @Benchmark
+    @Group("estres")
+    @GroupThreads(1)
+    public int lector(Estres e) {
+        int n = e.repo.instantanea().size();
+        if (n < e.fijas || n > e.fijas + e.escritores) e.violaciones.incrementAndGet();
+        e.instantaneas.incrementAndGet();
+        return n;
+    }
+
+    private static Repo repoUnCandado() {
+        CursosInscritos simple = new CursosInscritos(null, List.of(), List.of());
+        ReentrantLock candado = new ReentrantLock();
+        return new Repo() {
+            public boolean inscribir(Inscripcion i) { candado.lock(); try { return simple.inscribirCurso(i); } finally { candado.unlock(); } }
+            public boolean eliminar(Inscripcion i) { candado.lock(); try { return simple.eliminar(i); } finally { candado.unlock(); } }
+            public Inscripcion buscar(Inscripcion i) { candado.lock(); try { return simple.buscar(i.getCurso().getID(), i.getEstudiante().getCodigo(), i.getAnio(), i.getSemestre()); } finally { candado.unlock(); } }
+        };
+    }
+
+    private static Repo repoFranjas() {
+        CursosInscritosConcurrente conc = new CursosInscritosConcurrente(null, List.of(), List.of());
+        return new Repo() {
+            public boolean inscribir(Inscripcion i) { return conc.inscribirCurso(i); }
+            public boolean eliminar(Inscripcion i) { return conc.eliminar(i); }
+            public Inscripcion buscar(Inscripcion i) { return conc.buscar(i.getCurso().getID(), i.getEstudiante().getCodigo(), i.getAnio(), i.getSemestre()); }
+        };
+    }
+
+    private static Inscripcion[] generar(int n) {
+        SplittableRandom rnd = new SplittableRandom(42);
+        Curso[] cursos = new Curso[CURSOS];
+        for (int c = 0; c < CURSOS; c++) cursos[c] = new Curso(c + 1, "Curso " + c, null, true);
+        Inscripcion[] filas = new Inscripcion[n];
+        Estudiante est = null;
+        for (int i = 0; i < n; i++) {
+            if (i % 5 == 0) {
+                double codigo = 2_000_000_000d + i / 5 * 7919 + rnd.nextInt(7919);
+                est = new Estudiante(codigo, "N", "A", null, codigo, null, true, 3.0);
+            }
+            filas[i] = new Inscripcion(cursos[(i * 7 + i / 5) % CURSOS], 2025, 1, est);
+        }
+        return filas;
+    }
+}
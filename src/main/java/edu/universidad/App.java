@@ -1,28 +1,98 @@
 package edu.universidad;
 
+import edu.universidad.analitica.CatalogoAnalitico;
+import edu.universidad.analitica.Estadisticas;
+import edu.universidad.analitica.InscripcionesColumnares;
+import edu.universidad.analitica.MotorEstadisticas;
+import edu.universidad.exportacion.Exportable;
+import edu.universidad.exportacion.Exportador;
+import edu.universidad.generacion.GeneradorUniversidad;
+import edu.universidad.importacion.Catalogo;
+import edu.universidad.importacion.ImportadorCSV;
+import edu.universidad.importacion.ResultadoImportacion;
+import edu.universidad.metricas.Metricas;
 import edu.universidad.model.*;
+import edu.universidad.persistence.CacheMetadatos;
+import edu.universidad.persistence.ConsultasLentas;
+import edu.universidad.persistence.ConteoDAO;
+import edu.universidad.persistence.CursoDAO;
+import edu.universidad.persistence.EscrituraDiferida;
+import edu.universidad.persistence.EstudianteDAO;
+import edu.universidad.persistence.H2DB;
 import edu.universidad.persistence.InscripcionDAO;
+import edu.universidad.persistence.Instantanea;
+import edu.universidad.persistence.NotificadorCambios;
+import edu.universidad.persistence.ProfesorDAO;
+import edu.universidad.persistence.ResultadoLote;
 import edu.universidad.persistence.Schema;
 import edu.universidad.repository.CursosInscritos;
 import edu.universidad.repository.CursosProfesores;
 import edu.universidad.repository.InscripcionesPersonas;
 
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 
 public class App {
-    public static void main(String[] args) {
+    public static void main(String[] args) throws Exception {
         System.out.println("=== Universidad (consola + H2 + JDBC, sin frameworks) ===");
 
         Schema.crearTablas();
+        purgarCambios(); // sin UI no corre el sondeo que purga la bitácora CAMBIO
+
+        // Modo sin UI: App importar ESTUDIANTE|PROFESOR|CURSO archivo.csv
+        if (args.length >= 3 && args[0].equalsIgnoreCase("importar")) {
+            importar(Catalogo.valueOf(args[1].toUpperCase()), Path.of(args[2]));
+            return;
+        }
+        // App exportar INSCRIPCION|ESTUDIANTE|PROFESOR|CURSO csv|jsonl archivo[.gz]
+        if (args.length >= 4 && args[0].equalsIgnoreCase("exportar")) {
+            exportar(Exportable.valueOf(args[1].toUpperCase()), Exportador.Formato.valueOf(args[2].toUpperCase()), Path.of(args[3]));
+            return;
+        }
+        // App conteos verificar|reconstruir
+        if (args.length >= 2 && args[0].equalsIgnoreCase("conteos")) {
+            conteos(args[1].equalsIgnoreCase("reconstruir"));
+            return;
+        }
+
+        // App estadisticas [CURSO|SEMESTRE|ANIO] [máximo de filas] (PROGRAMA solo si el catálogo tiene programas)
+        if (args.length >= 1 && args[0].equalsIgnoreCase("estadisticas")) {
+            estadisticas(args.length >= 2 ? Estadisticas.Dimension.valueOf(args[1].toUpperCase()) : Estadisticas.Dimension.CURSO,
+                    args.length >= 3 ? Integer.parseInt(args[2]) : 0);
+            return;
+        }
+
+        // App instantanea escribir|verificar (ver -Duni.instantanea)
+        if (args.length >= 2 && args[0].equalsIgnoreCase("instantanea")) {
+            instantanea(args[1].equalsIgnoreCase("escribir"));
+            return;
+        }
+
+        // App generar semilla estudiantes inscripciones [vaciar]
+        if (args.length >= 4 && args[0].equalsIgnoreCase("generar")) {
+            generar(Long.parseLong(args[1]), Integer.parseInt(args[2]), Long.parseLong(args[3]),
+                    args.length >= 5 && args[4].equalsIgnoreCase("vaciar"));
+            return;
+        }
+
+        // -Duni.inscripciones.diferidas=true: guardarInformacion(i) encola y confirma por lotes
+        EscrituraDiferida diferida = Boolean.getBoolean("uni.inscripciones.diferidas") ? new EscrituraDiferida(new InscripcionDAO()) : null;
 
         Runtime.getRuntime().addShutdownHook(new Thread(() -> {
             try {
+                if (diferida != null) { // vaciar la cola antes de limpiar y cerrar el pool
+                    diferida.close();
+                    System.out.println(diferida.estadisticas());
+                }
+                purgarCambios();
                 Schema.limpiarTablas();
                 System.out.println("\n(H2) Tabla INSCRIPCION limpiada al salir.");
             } catch (Exception ex) {
                 System.err.println("No se pudo limpiar H2: " + ex.getMessage());
+            } finally {
+                H2DB.cerrar();
             }
         }));
 
@@ -40,6 +110,12 @@ public class App {
         List<Estudiante> estudiantes = new ArrayList<>(); estudiantes.add(e1); estudiantes.add(e2);
         List<Curso> cursos = new ArrayList<>(); cursos.add(TecAv);
 
+        // INSCRIPCION tiene llaves foráneas: el catálogo debe existir en H2 antes de inscribir
+        new EstudianteDAO().upsert(e1, 7);
+        new EstudianteDAO().upsert(e2, 7);
+        new ProfesorDAO().upsert(prof);
+        new CursoDAO().upsert(TecAv, 7, prof.getID());
+
         InscripcionesPersonas repoPersonas = new InscripcionesPersonas();
         repoPersonas.inscribir(e1);
         repoPersonas.inscribir(e2);
@@ -55,25 +131,122 @@ public class App {
         repoInscritos.inscribirCurso(i1);
         repoInscritos.inscribirCurso(i2);
 
-        repoInscritos.guardarInformacion(i1);
-        repoInscritos.guardarInformacion(i2);
-
-        repoInscritos.getListado().clear();
+        if (diferida != null) {
+            repoInscritos.setEscrituraDiferida(diferida);
+            for (Inscripcion i : List.of(i1, i2))
+                repoInscritos.guardarInformacion(i).exceptionally(ex -> {
+                    System.err.println("Inscripción rechazada " + i + ": " + ex.getMessage());
+                    return null;
+                });
+            repoInscritos.flush(); // cargarDatos debe ver lo encolado
+        } else {
+            ResultadoLote carga = repoInscritos.guardarInformacion(List.of(i1, i2));
+            carga.fallos().forEach(f -> System.err.println("Inscripción rechazada #" + f.posicion() + ": " + f.mensaje()));
+        }
+
+        repoInscritos.limpiar();
         repoInscritos.cargarDatos();
 
         System.out.println("\n-- Personas registradas --");
-        repoPersonas.imprimirListado().forEach(System.out::println);
+        repoPersonas.imprimirListado(System.out);
 
         System.out.println("\n-- Curso/Profesor --");
-        repoCursoProf.imprimirListado().forEach(System.out::println);
+        repoCursoProf.imprimirListado(System.out);
 
         System.out.println("\n-- Inscripciones (leídas de H2) --");
-        repoInscritos.imprimirListado().forEach(System.out::println);
+        repoInscritos.imprimirListado(System.out);
 
         System.out.println("\nCantidad inscripciones: " + repoInscritos.cantidadActual());
         System.out.println("Primera inscripcion: " + repoInscritos.imprimirPosicion(0));
         System.out.println("Segunda inscripcion: " + repoInscritos.imprimirPosicion(1));
 
+        System.out.println("\n" + H2DB.estadisticas());
+        CacheMetadatos.estadisticas().forEach(System.out::println);
+        System.out.println("\n" + ConsultasLentas.informe(10)); // -Duni.sql.lentaMs=... para el log de lentas
+        if (Metricas.activas()) System.out.println("\n" + Metricas.informe()); // -Duni.metricas=true
+
         System.out.println("\nFin.");
     }
+
+    /** Purga la bitácora CAMBIO según -Duni.cambios.retencionMin; un fallo no impide seguir. */
+    private static void purgarCambios() {
+        try {
+            long borradas = NotificadorCambios.global().purgar();
+            if (borradas > 0) System.out.println("(H2) " + borradas + " cambios viejos purgados de la bitácora.");
+        } catch (RuntimeException ex) {
+            System.err.println("No se pudo purgar la bitácora de cambios: " + ex.getMessage());
+        }
+    }
+
+    private static void exportar(Exportable tabla, Exportador.Formato formato, Path destino) throws Exception {
+        try {
+            System.out.println(new Exportador().exportar(tabla, formato, destino));
+        } finally {
+            H2DB.cerrar();
+        }
+    }
+
+    private static void estadisticas(Estadisticas.Dimension dimension, int maximo) throws Exception {
+        try {
+            CatalogoAnalitico catalogo = CatalogoAnalitico.desdeBase();
+            InscripcionesColumnares datos = InscripcionesColumnares.desdeBase(new InscripcionDAO());
+            Estadisticas est = new MotorEstadisticas(catalogo).calcular(datos);
+            if (!est.dimensiones().contains(dimension)) {
+                System.err.println("La dimensión " + dimension + " no está disponible; use una de " + est.dimensiones());
+                return;
+            }
+            est.imprimir(System.out, dimension, maximo);
+        } finally {
+            H2DB.cerrar();
+        }
+    }
+
+    private static void instantanea(boolean escribir) throws Exception {
+        try {
+            Path ruta = Path.of(Instantanea.RUTA);
+            if (escribir) System.out.println("Instantánea escrita en " + ruta + ": " + Instantanea.escribir(ruta));
+            Instantanea i = Instantanea.abrirVigente(ruta);
+            System.out.println(i == null ? "Sin instantánea vigente en " + ruta : i.toString());
+        } finally {
+            H2DB.cerrar();
+        }
+    }
+
+    private static void generar(long semilla, int estudiantes, long inscripciones, boolean vaciar) {
+        try {
+            GeneradorUniversidad generador = new GeneradorUniversidad(semilla, GeneradorUniversidad.Escala.para(estudiantes, inscripciones));
+            System.out.println(generador.escala());
+            String[] tablaAnterior = {null};
+            GeneradorUniversidad.Resultado r = generador.cargar(vaciar, (tabla, filas, total, porSegundo) -> {
+                if (tablaAnterior[0] != null && !tablaAnterior[0].equals(tabla)) System.out.println();
+                tablaAnterior[0] = tabla;
+                System.out.printf("\r%-12s %5.1f%%  %,d/%,d  %,.0f filas/s   ", tabla, total == 0 ? 100.0 : filas * 100.0 / total, filas, total, porSegundo);
+            });
+            System.out.println("\n" + r);
+        } finally {
+            H2DB.cerrar();
+        }
+    }
+
+    private static void conteos(boolean reconstruir) {
+        try {
+            ConteoDAO dao = new ConteoDAO();
+            List<ConteoDAO.Diferencia> diferencias = dao.verificar();
+            diferencias.forEach(d -> System.out.println("Contador desfasado, " + d));
+            System.out.println(diferencias.size() + " contadores desfasados");
+            if (reconstruir) System.out.println("Contadores reconstruidos: " + dao.reconstruir() + " cursos con inscritos");
+        } finally {
+            H2DB.cerrar();
+        }
+    }
+
+    private static void importar(Catalogo catalogo, Path csv) throws Exception {
+        try {
+            ResultadoImportacion r = new ImportadorCSV().importar(catalogo, csv, (leidos, total, ok, rech) ->
+                    System.out.printf("\r%5.1f%%  aceptadas=%d rechazadas=%d", total == 0 ? 100.0 : leidos * 100.0 / total, ok, rech));
+            System.out.println("\n" + r);
+        } finally {
+            H2DB.cerrar();
+        }
+    }
 }
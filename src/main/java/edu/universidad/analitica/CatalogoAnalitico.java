@@ -0,0 +1,238 @@
+package edu.universidad.analitica;
+
+import edu.universidad.model.Estudiante;
+import edu.universidad.persistence.CursoDAO;
+import edu.universidad.persistence.EstudianteDAO;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntToLongFunction;
+import java.util.stream.IntStream;
+
+/**
+ * Cursos y estudiantes en columnas primitivas, lo que necesita
+ * {@link MotorEstadisticas} para cruzar cada inscripción con su catálogo:
+ * semestre y estado del curso, promedio, semestre y programa del estudiante.
+ * Ambos catálogos van ordenados por su clave y se buscan por búsqueda
+ * binaria; el código de estudiante usa la misma forma ordenable que
+ * {@link InscripcionesColumnares#claveEstudiante(int)}.
+ *
+ * La base no guarda el programa del estudiante: desde H2 todos quedan en
+ * {@link #SIN_PROGRAMA} salvo que se cruce con el modelo en memoria
+ * ({@link #conProgramas(List)}).
+ */
+public final class CatalogoAnalitico {
+
+    public static final String SIN_PROGRAMA = "Sin programa";
+
+    final int[] cursoIds;
+    final String[] cursoNombres;
+    final byte[] cursoSemestres;
+    final boolean[] cursoActivos;
+    final int cursos;
+
+    final long[] estudianteClaves;
+    final double[] promedios; // NaN = sin promedio
+    final byte[] estudianteSemestres;
+    final short[] estudianteProgramas; // índice en programas
+    final int estudiantes;
+
+    final String[] programas; // [0] = SIN_PROGRAMA
+
+    private CatalogoAnalitico(int[] cursoIds, String[] cursoNombres, byte[] cursoSemestres, boolean[] cursoActivos, int cursos,
+                              long[] estudianteClaves, double[] promedios, byte[] estudianteSemestres, short[] estudianteProgramas,
+                              int estudiantes, String[] programas) {
+        this.cursoIds = cursoIds;
+        this.cursoNombres = cursoNombres;
+        this.cursoSemestres = cursoSemestres;
+        this.cursoActivos = cursoActivos;
+        this.cursos = cursos;
+        this.estudianteClaves = estudianteClaves;
+        this.promedios = promedios;
+        this.estudianteSemestres = estudianteSemestres;
+        this.estudianteProgramas = estudianteProgramas;
+        this.estudiantes = estudiantes;
+        this.programas = programas;
+    }
+
+    /** Una pasada por CURSO y otra por ESTUDIANTE, ambas en orden de llave primaria. */
+    public static CatalogoAnalitico desdeBase() {
+        Constructor c = new Constructor();
+        new CursoDAO().recorrer(c::agregarCurso);
+        new EstudianteDAO().recorrer((codigo, promedio, semestre, activo) -> c.agregarEstudiante(codigo, promedio, semestre, null));
+        return c.construir();
+    }
+
+    /**
+     * Copia con el programa de cada estudiante tomado de {@code modelo}
+     * (por código); los que no estén conservan el que tenían.
+     */
+    public CatalogoAnalitico conProgramas(List<Estudiante> modelo) {
+        List<String> nombres = new ArrayList<>(Arrays.asList(programas));
+        Map<String, Integer> indice = new HashMap<>();
+        for (int p = 0; p < nombres.size(); p++) indice.put(nombres.get(p), p);
+        short[] asignados = estudianteProgramas.clone();
+        for (Estudiante e : modelo) {
+            if (e.getPrograma() == null || e.getPrograma().getNombre() == null) continue;
+            int pos = indiceEstudiante(InscripcionesColumnares.ordenable(Double.doubleToLongBits(e.getCodigo())));
+            if (pos < 0) continue;
+            asignados[pos] = (short) Constructor.indicePrograma(e.getPrograma().getNombre(), nombres, indice);
+        }
+        return new CatalogoAnalitico(cursoIds, cursoNombres, cursoSemestres, cursoActivos, cursos,
+                estudianteClaves, promedios, estudianteSemestres, asignados, estudiantes, nombres.toArray(String[]::new));
+    }
+
+    public int cursos() {
+        return cursos;
+    }
+
+    /** Si algún estudiante tiene programa; desde la base sola, nunca. */
+    public boolean tieneProgramas() {
+        return programas.length > 1;
+    }
+
+    public int estudiantes() {
+        return estudiantes;
+    }
+
+    /** Posición del curso en el catálogo o -1. */
+    public int indiceCurso(int cursoId) {
+        int pos = Arrays.binarySearch(cursoIds, 0, cursos, cursoId);
+        return pos < 0 ? -1 : pos;
+    }
+
+    /** Posición del estudiante (clave ordenable) en el catálogo o -1. */
+    public int indiceEstudiante(long clave) {
+        int pos = Arrays.binarySearch(estudianteClaves, 0, estudiantes, clave);
+        return pos < 0 ? -1 : pos;
+    }
+
+    /**
+     * Como {@link #indiceEstudiante} pero sabiendo que la clave no está antes
+     * de {@code desde}: búsqueda exponencial desde ahí, barata cuando las
+     * claves llegan en orden. Devuelve la posición o, si no está,
+     * {@code -(punto de inserción) - 1}, como Arrays.binarySearch.
+     */
+    int buscarEstudianteDesde(long clave, int desde) {
+        int lo = desde, paso = 1, hi = desde;
+        while (hi < estudiantes && estudianteClaves[hi] < clave) {
+            lo = hi + 1;
+            hi = desde + paso;
+            paso <<= 1;
+        }
+        return Arrays.binarySearch(estudianteClaves, lo, Math.min(hi + 1, estudiantes), clave);
+    }
+
+    @Override
+    public String toString() {
+        return "CatalogoAnalitico{cursos=" + cursos + ", estudiantes=" + estudiantes + ", programas=" + (programas.length - 1) + "}";
+    }
+
+    /**
+     * Acumula cursos y estudiantes en cualquier orden; al construir ordena
+     * lo que haga falta. Si una clave se repite queda la última.
+     */
+    public static final class Constructor {
+        private int[] cursoIds = new int[64];
+        private String[] cursoNombres = new String[64];
+        private byte[] cursoSemestres = new byte[64];
+        private boolean[] cursoActivos = new boolean[64];
+        private int cursos;
+
+        private long[] estudianteClaves = new long[1024];
+        private double[] promedios = new double[1024];
+        private byte[] estudianteSemestres = new byte[1024];
+        private short[] estudianteProgramas = new short[1024];
+        private int estudiantes;
+
+        private final List<String> programas = new ArrayList<>(List.of(SIN_PROGRAMA));
+        private final Map<String, Integer> indiceProgramas = new HashMap<>(Map.of(SIN_PROGRAMA, 0));
+
+        public void agregarCurso(int id, String nombre, int semestre, boolean activo) {
+            if (semestre != (byte) semestre) throw new IllegalArgumentException("Semestre fuera de rango: " + semestre);
+            if (cursos == cursoIds.length) {
+                int cap = cursos * 2;
+                cursoIds = Arrays.copyOf(cursoIds, cap);
+                cursoNombres = Arrays.copyOf(cursoNombres, cap);
+                cursoSemestres = Arrays.copyOf(cursoSemestres, cap);
+                cursoActivos = Arrays.copyOf(cursoActivos, cap);
+            }
+            cursoIds[cursos] = id;
+            cursoNombres[cursos] = nombre;
+            cursoSemestres[cursos] = (byte) semestre;
+            cursoActivos[cursos] = activo;
+            cursos++;
+        }
+
+        /** {@code promedio} NaN si no tiene; {@code programa} null si no se conoce. */
+        public void agregarEstudiante(double codigo, double promedio, int semestre, String programa) {
+            if (semestre != (byte) semestre) throw new IllegalArgumentException("Semestre fuera de rango: " + semestre);
+            if (estudiantes == estudianteClaves.length) {
+                int cap = estudiantes * 2;
+                estudianteClaves = Arrays.copyOf(estudianteClaves, cap);
+                promedios = Arrays.copyOf(promedios, cap);
+                estudianteSemestres = Arrays.copyOf(estudianteSemestres, cap);
+                estudianteProgramas = Arrays.copyOf(estudianteProgramas, cap);
+            }
+            estudianteClaves[estudiantes] = InscripcionesColumnares.ordenable(Double.doubleToLongBits(codigo));
+            promedios[estudiantes] = promedio;
+            estudianteSemestres[estudiantes] = (byte) semestre;
+            estudianteProgramas[estudiantes] = (short) (programa == null ? 0 : indicePrograma(programa, programas, indiceProgramas));
+            estudiantes++;
+        }
+
+        public CatalogoAnalitico construir() {
+            int[] pc = orden(cursos, (a, b) -> Integer.compare(cursoIds[a], cursoIds[b]));
+            int[] pe = orden(estudiantes, (a, b) -> Long.compare(estudianteClaves[a], estudianteClaves[b]));
+            int nc = unicas(pc, i -> cursoIds[i]), ne = unicas(pe, i -> estudianteClaves[i]);
+            int[] ids = new int[nc]; String[] nombres = new String[nc]; byte[] sc = new byte[nc]; boolean[] act = new boolean[nc];
+            for (int k = 0; k < nc; k++) {
+                int p = pc[k];
+                ids[k] = cursoIds[p]; nombres[k] = cursoNombres[p]; sc[k] = cursoSemestres[p]; act[k] = cursoActivos[p];
+            }
+            long[] claves = new long[ne]; double[] prom = new double[ne]; byte[] se = new byte[ne]; short[] prog = new short[ne];
+            for (int k = 0; k < ne; k++) {
+                int p = pe[k];
+                claves[k] = estudianteClaves[p]; prom[k] = promedios[p]; se[k] = estudianteSemestres[p]; prog[k] = estudianteProgramas[p];
+            }
+            return new CatalogoAnalitico(ids, nombres, sc, act, nc, claves, prom, se, prog, ne, programas.toArray(String[]::new));
+        }
+
+        /** Índice del programa, dándolo de alta si es nuevo. */
+        static int indicePrograma(String nombre, List<String> programas, Map<String, Integer> indice) {
+            Integer i = indice.get(nombre);
+            if (i != null) return i;
+            if (programas.size() > Short.MAX_VALUE) throw new IllegalStateException("Demasiados programas: " + programas.size());
+            programas.add(nombre);
+            indice.put(nombre, programas.size() - 1);
+            return programas.size() - 1;
+        }
+
+        /** Permutación estable que ordena las {@code n} primeras filas; identidad si ya lo estaban. */
+        private static int[] orden(int n, Comparador cmp) {
+            boolean ordenadas = true;
+            for (int i = 1; i < n && ordenadas; i++) ordenadas = cmp.comparar(i - 1, i) <= 0;
+            if (ordenadas) return IntStream.range(0, n).toArray();
+            return IntStream.range(0, n).boxed().sorted(cmp::comparar).mapToInt(Integer::intValue).toArray();
+        }
+
+        /**
+         * Compacta la permutación dejando por cada clave repetida solo la
+         * última agregada (la de mayor índice, por ser estable); devuelve
+         * cuántas quedan.
+         */
+        private static int unicas(int[] perm, IntToLongFunction clave) {
+            int n = 0;
+            for (int k = 0; k < perm.length; k++) {
+                if (k + 1 < perm.length && clave.applyAsLong(perm[k]) == clave.applyAsLong(perm[k + 1])) continue;
+                perm[n++] = perm[k];
+            }
+            return n;
+        }
+
+        private interface Comparador { int comparar(int a, int b); }
+    }
+}
@@ -0,0 +1,85 @@
+package edu.universidad.analitica;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Resultado de {@link MotorEstadisticas}: totales y, por cada dimensión, un
+ * grupo por valor con inscripciones, promedio de los inscritos, anomalías
+ * de semestre y, solo por curso, ocupación de una edición media respecto
+ * al cupo.
+ *
+ * @param promedio       promedio de los inscritos con promedio; NaN si ninguno lo tiene
+ * @param anomalias      inscripciones cuyo estudiante está en otro semestre que el curso
+ * @param ocupacionMedia media de la ocupación de los cursos activos del catálogo
+ * @param paralelismo    del ForkJoinPool usado
+ */
+public record Estadisticas(long inscripciones, double promedio, long anomalias, double ocupacionMedia,
+                           int cupo, int paralelismo, long nanos, Map<Dimension, List<Grupo>> grupos) {
+
+    public enum Dimension {
+        CURSO("Curso"), SEMESTRE("Semestre"), ANIO("Año"), PROGRAMA("Programa");
+
+        private final String etiqueta;
+
+        Dimension(String etiqueta) {
+            this.etiqueta = etiqueta;
+        }
+
+        @Override
+        public String toString() {
+            return etiqueta;
+        }
+    }
+
+    /**
+     * @param ocupacion inscripciones / (cupo × años con inscritos) del curso;
+     *                  NaN fuera de la dimensión curso
+     */
+    public record Grupo(String clave, long inscripciones, double promedio, long anomalias, double ocupacion) { }
+
+    /** Null si la dimensión no se calculó (PROGRAMA sin programas en el catálogo). */
+    public List<Grupo> grupos(Dimension dimension) {
+        return grupos.get(dimension);
+    }
+
+    /** Las dimensiones calculadas, en el orden del enum. */
+    public List<Dimension> dimensiones() {
+        return List.copyOf(grupos.keySet());
+    }
+
+    /** Totales y tiempo, en dos líneas. */
+    public String resumen() {
+        return String.format(Locale.ROOT, "Inscripciones: %,d  promedio: %s  anomalías de semestre: %,d  ocupación media: %s (cupo %d)%n" +
+                        "Calculado en %.1f ms con paralelismo %d",
+                inscripciones, decimal(promedio), anomalias, porcentaje(ocupacionMedia), cupo, nanos / 1e6, paralelismo);
+    }
+
+    /** Resumen y tabla de {@code dimension}; {@code maximo} limita las filas (0 = todas). */
+    public void imprimir(Appendable out, Dimension dimension, int maximo) throws IOException {
+        if (!grupos.containsKey(dimension))
+            throw new IllegalArgumentException("Dimensión no disponible: " + dimension + "; hay " + dimensiones());
+        out.append(resumen()).append(System.lineSeparator()).append(System.lineSeparator());
+        out.append(String.format(Locale.ROOT, "%-32s %12s %9s %10s %10s%n", dimension, "inscritos", "promedio", "anomalías", "ocupación"));
+        List<Grupo> lista = grupos(dimension);
+        int n = maximo <= 0 ? lista.size() : Math.min(maximo, lista.size());
+        for (Grupo g : lista.subList(0, n))
+            out.append(String.format(Locale.ROOT, "%-32s %,12d %9s %,10d %10s%n",
+                    recortar(g.clave(), 32), g.inscripciones(), decimal(g.promedio()), g.anomalias(), porcentaje(g.ocupacion())));
+        if (n < lista.size()) out.append("… y ").append(String.valueOf(lista.size() - n)).append(" más").append(System.lineSeparator());
+    }
+
+    public static String decimal(double v) {
+        return Double.isNaN(v) ? "-" : String.format(Locale.ROOT, "%.2f", v);
+    }
+
+    public static String porcentaje(double v) {
+        return Double.isNaN(v) ? "-" : String.format(Locale.ROOT, "%.1f%%", v * 100);
+    }
+
+    private static String recortar(String s, int max) {
+        return s.length() <= max ? s : s.substring(0, max - 1) + "…";
+    }
+}
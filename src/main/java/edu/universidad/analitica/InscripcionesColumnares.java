@@ -0,0 +1,202 @@
+package edu.universidad.analitica;
+
+import edu.universidad.model.Inscripcion;
+import edu.universidad.persistence.InscripcionDAO;
+import edu.universidad.repository.Servicios;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Instantánea de solo lectura de las inscripciones en columnas primitivas:
+ * int[] de cursos, long[] de códigos de estudiante, short[] de años y byte[]
+ * de semestres, unos 15 bytes por fila frente a un objeto Inscripcion con
+ * sus Integer. Las filas quedan ordenadas por (curso, estudiante, anio,
+ * semestre), así que cada curso es un tramo contiguo ({@link #inicioCurso},
+ * {@link #finCurso}) y un recorrido lee memoria secuencial.
+ *
+ * El código de estudiante (DOUBLE en la base) se guarda con los bits del
+ * double transformados para que el orden de los long sea el numérico;
+ * {@link #codigo(int)} lo devuelve como double.
+ */
+public final class InscripcionesColumnares {
+
+    final int[] cursos;
+    final long[] codigos;
+    final short[] anios;
+    final byte[] semestres;
+    final int tamano;
+
+    private InscripcionesColumnares(int[] cursos, long[] codigos, short[] anios, byte[] semestres, int tamano) {
+        this.cursos = cursos;
+        this.codigos = codigos;
+        this.anios = anios;
+        this.semestres = semestres;
+        this.tamano = tamano;
+    }
+
+    /** Una pasada por INSCRIPCION, en orden de índice: no hace falta reordenar. */
+    public static InscripcionesColumnares desdeBase(InscripcionDAO dao) {
+        Constructor c = new Constructor(1 << 16);
+        dao.recorrer(c::agregar);
+        return c.construir();
+    }
+
+    /** Una pasada por el listado de un repositorio (ver {@link Servicios#flujo()}). */
+    public static InscripcionesColumnares desde(Servicios<Inscripcion> repositorio) {
+        Constructor c = new Constructor(repositorio.cantidadActual());
+        repositorio.flujo().forEach(c::agregar);
+        return c.construir();
+    }
+
+    public int size() {
+        return tamano;
+    }
+
+    public int curso(int fila) {
+        return cursos[Objects.checkIndex(fila, tamano)];
+    }
+
+    public double codigo(int fila) {
+        return Double.longBitsToDouble(ordenable(codigos[Objects.checkIndex(fila, tamano)]));
+    }
+
+    /** Código en su forma ordenable; sirve para comparar o agrupar sin pasar a double. */
+    public long claveEstudiante(int fila) {
+        return codigos[Objects.checkIndex(fila, tamano)];
+    }
+
+    public int anio(int fila) {
+        return anios[Objects.checkIndex(fila, tamano)];
+    }
+
+    public int semestre(int fila) {
+        return semestres[Objects.checkIndex(fila, tamano)];
+    }
+
+    /** Primera fila del curso (o donde estaría), por búsqueda binaria. */
+    public int inicioCurso(int cursoId) {
+        int lo = 0, hi = tamano;
+        while (lo < hi) {
+            int m = (lo + hi) >>> 1;
+            if (cursos[m] < cursoId) lo = m + 1; else hi = m;
+        }
+        return lo;
+    }
+
+    /** Fila siguiente a la última del curso. */
+    public int finCurso(int cursoId) {
+        int lo = 0, hi = tamano;
+        while (lo < hi) {
+            int m = (lo + hi) >>> 1;
+            if (cursos[m] <= cursoId) lo = m + 1; else hi = m;
+        }
+        return lo;
+    }
+
+    public int inscritosEnCurso(int cursoId) {
+        return finCurso(cursoId) - inicioCurso(cursoId);
+    }
+
+    /** Bytes de las cuatro columnas (sin cabeceras de arreglo). */
+    public long bytes() {
+        return (long) cursos.length * Integer.BYTES + (long) codigos.length * Long.BYTES
+                + (long) anios.length * Short.BYTES + semestres.length;
+    }
+
+    @Override
+    public String toString() {
+        return "InscripcionesColumnares{filas=" + tamano + ", bytes=" + bytes() + "}";
+    }
+
+    /** Transformación (su propia inversa) entre los bits de un double y un long con el mismo orden. */
+    static long ordenable(long bits) {
+        return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+    }
+
+    /**
+     * Acumula filas en columnas que crecen por duplicación y al construir
+     * las recorta y, si no llegaron en orden, las ordena.
+     */
+    public static final class Constructor {
+        private int[] cursos;
+        private long[] codigos;
+        private short[] anios;
+        private byte[] semestres;
+        private int tamano;
+        private boolean ordenadas = true;
+
+        public Constructor(int capacidadEsperada) {
+            int cap = Math.max(capacidadEsperada, 16);
+            cursos = new int[cap];
+            codigos = new long[cap];
+            anios = new short[cap];
+            semestres = new byte[cap];
+        }
+
+        public void agregar(Inscripcion i) {
+            agregar(i.getCurso().getID(), i.getEstudiante().getCodigo(), i.getAnio(), i.getSemestre());
+        }
+
+        public void agregar(int cursoId, double codigo, int anio, int semestre) {
+            if (anio != (short) anio) throw new IllegalArgumentException("Año fuera de rango: " + anio);
+            if (semestre != (byte) semestre) throw new IllegalArgumentException("Semestre fuera de rango: " + semestre);
+            if (tamano == cursos.length) {
+                int cap = cursos.length * 2;
+                cursos = Arrays.copyOf(cursos, cap);
+                codigos = Arrays.copyOf(codigos, cap);
+                anios = Arrays.copyOf(anios, cap);
+                semestres = Arrays.copyOf(semestres, cap);
+            }
+            int n = tamano++;
+            cursos[n] = cursoId;
+            codigos[n] = ordenable(Double.doubleToLongBits(codigo));
+            anios[n] = (short) anio;
+            semestres[n] = (byte) semestre;
+            if (ordenadas && n > 0 && comparar(n - 1, n) > 0) ordenadas = false;
+        }
+
+        public InscripcionesColumnares construir() {
+            if (!ordenadas) ordenar();
+            InscripcionesColumnares r = new InscripcionesColumnares(Arrays.copyOf(cursos, tamano), Arrays.copyOf(codigos, tamano),
+                    Arrays.copyOf(anios, tamano), Arrays.copyOf(semestres, tamano), tamano);
+            cursos = new int[0]; codigos = new long[0]; anios = new short[0]; semestres = new byte[0]; tamano = 0;
+            return r;
+        }
+
+        private int comparar(int a, int b) {
+            int c = Integer.compare(cursos[a], cursos[b]);
+            if (c == 0) c = Long.compare(codigos[a], codigos[b]);
+            if (c == 0) c = Short.compare(anios[a], anios[b]);
+            if (c == 0) c = Byte.compare(semestres[a], semestres[b]);
+            return c;
+        }
+
+        /** Mergesort ascendente sobre una permutación de índices y luego se aplica a las columnas. */
+        private void ordenar() {
+            int[] perm = new int[tamano], aux = new int[tamano];
+            for (int i = 0; i < tamano; i++) perm[i] = i;
+            for (int ancho = 1; ancho < tamano; ancho *= 2) {
+                for (int lo = 0; lo < tamano - ancho; lo += 2 * ancho) {
+                    int mid = lo + ancho, hi = Math.min(lo + 2 * ancho, tamano);
+                    if (comparar(perm[mid - 1], perm[mid]) <= 0) continue; // tramos ya en orden
+                    int i = lo, j = mid, k = lo;
+                    while (i < mid && j < hi) aux[k++] = comparar(perm[i], perm[j]) <= 0 ? perm[i++] : perm[j++];
+                    while (i < mid) aux[k++] = perm[i++];
+                    while (j < hi) aux[k++] = perm[j++];
+                    System.arraycopy(aux, lo, perm, lo, hi - lo);
+                }
+            }
+            int[] c = new int[tamano];
+            long[] e = new long[tamano];
+            short[] a = new short[tamano];
+            byte[] s = new byte[tamano];
+            for (int k = 0; k < tamano; k++) {
+                int p = perm[k];
+                c[k] = cursos[p]; e[k] = codigos[p]; a[k] = anios[p]; s[k] = semestres[p];
+            }
+            cursos = c; codigos = e; anios = a; semestres = s;
+            ordenadas = true;
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package edu.universidad.analitica;
+
+import edu.universidad.analitica.Estadisticas.Dimension;
+import edu.universidad.analitica.Estadisticas.Grupo;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.IntFunction;
+
+/**
+ * Agregados de inscripciones por curso, semestre, año y programa en una sola
+ * pasada fork/join sobre {@link InscripcionesColumnares}: cada hoja recorre
+ * un tramo de filas con su propio {@link Acumulador} (sin sincronización) y
+ * los resultados se fusionan al volver de cada join. Cada fila se cruza con
+ * el {@link CatalogoAnalitico} para obtener promedio, semestre y programa
+ * del estudiante y semestre del curso.
+ *
+ * Una anomalía es una inscripción cuyo estudiante está en un semestre
+ * distinto al del curso (lo que ServicioInscripcion rechaza hoy, pero que
+ * puede quedar en la base por cargas antiguas o cambios de semestre).
+ *
+ * La ocupación de un curso es la de una edición media: inscripciones /
+ * (cupo × años en que tuvo inscritos). No hay columna de cupo, así que se
+ * usa uno único, {@code -Duni.cupoCurso} (40 por defecto).
+ */
+public final class MotorEstadisticas {
+
+    /** Filas por hoja: suficiente para amortizar el acumulador propio de cada una. */
+    static final int UMBRAL = 1 << 16;
+
+    private final CatalogoAnalitico catalogo;
+    private final int cupo;
+
+    public MotorEstadisticas(CatalogoAnalitico catalogo) {
+        this(catalogo, Integer.getInteger("uni.cupoCurso", 40));
+    }
+
+    public MotorEstadisticas(CatalogoAnalitico catalogo, int cupo) {
+        if (cupo <= 0) throw new IllegalArgumentException("El cupo debe ser positivo: " + cupo);
+        this.catalogo = catalogo;
+        this.cupo = cupo;
+    }
+
+    /** En el pool común. */
+    public Estadisticas calcular(InscripcionesColumnares datos) {
+        return calcular(datos, ForkJoinPool.commonPool());
+    }
+
+    public Estadisticas calcular(InscripcionesColumnares datos, ForkJoinPool pool) {
+        long t0 = System.nanoTime();
+        int anioMin = Integer.MAX_VALUE, anioMax = Integer.MIN_VALUE;
+        for (int i = 0; i < datos.tamano; i++) { // el rango de años dimensiona los acumuladores
+            int a = datos.anios[i];
+            if (a < anioMin) anioMin = a;
+            if (a > anioMax) anioMax = a;
+        }
+        if (datos.tamano == 0) anioMin = anioMax = 0;
+        Acumulador total = pool.invoke(new Tarea(datos, 0, datos.tamano, anioMin, anioMax - anioMin + 1));
+        return resultado(total, anioMin, pool.getParallelism(), System.nanoTime() - t0);
+    }
+
+    private Estadisticas resultado(Acumulador a, int anioMin, int paralelismo, long nanos) {
+        Map<Dimension, List<Grupo>> grupos = new EnumMap<>(Dimension.class);
+
+        List<Grupo> porCurso = new ArrayList<>(catalogo.cursos + 1);
+        double sumaOcupacion = 0;
+        int activos = 0;
+        for (int c = 0; c < catalogo.cursos; c++) { // todos los del catálogo, también los vacíos
+            int ediciones = a.ediciones(c);
+            double ocupacion = ediciones == 0 ? 0 : (double) a.porCurso.inscripciones[c] / ((double) cupo * ediciones);
+            if (catalogo.cursoActivos[c]) { sumaOcupacion += ocupacion; activos++; }
+            porCurso.add(a.porCurso.grupo(c, catalogo.cursoIds[c] + " " + catalogo.cursoNombres[c], ocupacion));
+        }
+        if (a.porCurso.inscripciones[catalogo.cursos] > 0)
+            porCurso.add(a.porCurso.grupo(catalogo.cursos, "(fuera del catálogo)", Double.NaN));
+        grupos.put(Dimension.CURSO, List.copyOf(porCurso));
+
+        grupos.put(Dimension.SEMESTRE, a.porSemestre.noVacios(g -> String.valueOf(g + Byte.MIN_VALUE)));
+        grupos.put(Dimension.ANIO, a.porAnio.noVacios(g -> String.valueOf(anioMin + g)));
+        if (catalogo.tieneProgramas()) // si no, sería un único grupo "Sin programa"
+            grupos.put(Dimension.PROGRAMA, a.porPrograma.noVacios(g -> catalogo.programas[g]));
+
+        Tabla t = a.porSemestre; // cualquier dimensión reparte todas las filas
+        long n = 0, con = 0, anomalias = 0;
+        double suma = 0;
+        for (int g = 0; g < t.inscripciones.length; g++) {
+            n += t.inscripciones[g]; con += t.conPromedio[g]; suma += t.sumaPromedio[g]; anomalias += t.anomalias[g];
+        }
+        return new Estadisticas(n, con == 0 ? Double.NaN : suma / con, anomalias,
+                activos == 0 ? Double.NaN : sumaOcupacion / activos, cupo, paralelismo, nanos, grupos);
+    }
+
+    /** Divide el tramo a la mitad hasta {@link #UMBRAL} filas y fusiona al volver. */
+    @SuppressWarnings("serial") // RecursiveTask es Serializable, pero una tarea nunca se serializa
+    private final class Tarea extends RecursiveTask<Acumulador> {
+        private final InscripcionesColumnares datos;
+        private final int desde, hasta, anioMin, anios;
+
+        Tarea(InscripcionesColumnares datos, int desde, int hasta, int anioMin, int anios) {
+            this.datos = datos;
+            this.desde = desde;
+            this.hasta = hasta;
+            this.anioMin = anioMin;
+            this.anios = anios;
+        }
+
+        @Override
+        protected Acumulador compute() {
+            if (hasta - desde <= UMBRAL) return hoja();
+            int medio = (desde + hasta) >>> 1;
+            Tarea izquierda = new Tarea(datos, desde, medio, anioMin, anios);
+            izquierda.fork();
+            Acumulador derecha = new Tarea(datos, medio, hasta, anioMin, anios).compute();
+            return izquierda.join().fusionar(derecha);
+        }
+
+        private Acumulador hoja() {
+            CatalogoAnalitico cat = catalogo;
+            Acumulador a = new Acumulador(cat.cursos + 1, anios, cat.programas.length);
+            int cursoPrevio = 0, grupoCurso = -1, semestreCurso = 0;
+            long clavePrevia = Long.MIN_VALUE;
+            int desdeEst = 0, est = -1; // est: posición en el catálogo o -1 si no está
+            for (int i = desde; i < hasta; i++) {
+                int c = datos.cursos[i];
+                if (grupoCurso < 0 || c != cursoPrevio) { // filas ordenadas por curso: una búsqueda por tramo
+                    cursoPrevio = c;
+                    int pos = cat.indiceCurso(c);
+                    grupoCurso = pos < 0 ? cat.cursos : pos;
+                    semestreCurso = pos < 0 ? Integer.MIN_VALUE : cat.cursoSemestres[pos];
+                    clavePrevia = Long.MIN_VALUE;
+                    desdeEst = 0;
+                }
+                long k = datos.codigos[i];
+                if (k != clavePrevia || i == desde) { // dentro del curso los códigos crecen: se busca desde el anterior
+                    int pos = k > clavePrevia ? cat.buscarEstudianteDesde(k, desdeEst) : cat.buscarEstudianteDesde(k, 0);
+                    est = pos < 0 ? -1 : pos;
+                    desdeEst = pos < 0 ? -pos - 1 : pos;
+                    clavePrevia = k;
+                }
+                double promedio = Double.NaN;
+                boolean anomalia = false;
+                int programa = 0;
+                if (est >= 0) {
+                    promedio = cat.promedios[est];
+                    anomalia = semestreCurso != Integer.MIN_VALUE && cat.estudianteSemestres[est] != semestreCurso;
+                    programa = cat.estudianteProgramas[est];
+                }
+                int anio = datos.anios[i] - anioMin;
+                a.porCurso.sumar(grupoCurso, promedio, anomalia);
+                a.aniosCurso[grupoCurso * a.palabras + (anio >>> 6)] |= 1L << anio;
+                a.porSemestre.sumar(datos.semestres[i] - Byte.MIN_VALUE, promedio, anomalia);
+                a.porAnio.sumar(anio, promedio, anomalia);
+                a.porPrograma.sumar(programa, promedio, anomalia);
+            }
+            return a;
+        }
+    }
+
+    /**
+     * Las cuatro dimensiones de un tramo más, por curso, un bitset de los
+     * años con inscritos; se fusiona sumando grupo a grupo y uniendo bitsets.
+     */
+    static final class Acumulador {
+        final Tabla porCurso, porSemestre, porAnio, porPrograma;
+        final int palabras;
+        final long[] aniosCurso;
+
+        Acumulador(int cursos, int anios, int programas) {
+            palabras = (anios + 63) >>> 6;
+            aniosCurso = new long[cursos * palabras];
+            porCurso = new Tabla(cursos);
+            porSemestre = new Tabla(1 << Byte.SIZE);
+            porAnio = new Tabla(anios);
+            porPrograma = new Tabla(programas);
+        }
+
+        Acumulador fusionar(Acumulador otro) {
+            porCurso.fusionar(otro.porCurso);
+            porSemestre.fusionar(otro.porSemestre);
+            porAnio.fusionar(otro.porAnio);
+            porPrograma.fusionar(otro.porPrograma);
+            for (int w = 0; w < aniosCurso.length; w++) aniosCurso[w] |= otro.aniosCurso[w];
+            return this;
+        }
+
+        /** Años distintos con inscritos en el curso {@code c}. */
+        int ediciones(int c) {
+            int n = 0;
+            for (int w = c * palabras; w < (c + 1) * palabras; w++) n += Long.bitCount(aniosCurso[w]);
+            return n;
+        }
+    }
+
+    /** Contadores de una dimensión, un índice por grupo. */
+    static final class Tabla {
+        final long[] inscripciones, conPromedio, anomalias;
+        final double[] sumaPromedio;
+
+        Tabla(int grupos) {
+            inscripciones = new long[grupos];
+            conPromedio = new long[grupos];
+            anomalias = new long[grupos];
+            sumaPromedio = new double[grupos];
+        }
+
+        void sumar(int g, double promedio, boolean anomalia) {
+            inscripciones[g]++;
+            if (!Double.isNaN(promedio)) { sumaPromedio[g] += promedio; conPromedio[g]++; }
+            if (anomalia) anomalias[g]++;
+        }
+
+        void fusionar(Tabla otra) {
+            for (int g = 0; g < inscripciones.length; g++) {
+                inscripciones[g] += otra.inscripciones[g];
+                conPromedio[g] += otra.conPromedio[g];
+                anomalias[g] += otra.anomalias[g];
+                sumaPromedio[g] += otra.sumaPromedio[g];
+            }
+        }
+
+        Grupo grupo(int g, String clave, double ocupacion) {
+            return new Grupo(clave, inscripciones[g], conPromedio[g] == 0 ? Double.NaN : sumaPromedio[g] / conPromedio[g], anomalias[g], ocupacion);
+        }
+
+        List<Grupo> noVacios(IntFunction<String> clave) {
+            List<Grupo> out = new ArrayList<>();
+            for (int g = 0; g < inscripciones.length; g++)
+                if (inscripciones[g] > 0) out.add(grupo(g, clave.apply(g), Double.NaN));
+            return List.copyOf(out);
+        }
+    }
+}
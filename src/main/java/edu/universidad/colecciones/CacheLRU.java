@@ -0,0 +1,131 @@
+package edu.universidad.colecciones;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Caché acotada en memoria: desaloja la entrada menos usada al superar
+ * {@code maxEntradas} y descarta las que llevan más de {@code ttlMs}.
+ * Un valor null se guarda como búsqueda negativa (la clave no existe).
+ *
+ * La carga corre fuera del candado. Para que una lectura lenta no vuelva a
+ * meter un valor viejo justo después de una invalidación, cada invalidación
+ * sube una generación y solo se guarda lo leído si la generación no cambió.
+ */
+public class CacheLRU<K, V> {
+
+    private static final Object NEGATIVO = new Object();
+
+    private final String nombre;
+    private final long ttlNanos;
+    private final LinkedHashMap<K, Entrada> mapa;
+    private final AtomicLong generacion = new AtomicLong();
+
+    private final LongAdder aciertos = new LongAdder();
+    private final LongAdder fallos = new LongAdder();
+    private final LongAdder desalojos = new LongAdder();
+    private final LongAdder expiradas = new LongAdder();
+    private final LongAdder invalidaciones = new LongAdder();
+
+    private record Entrada(Object valor, long expira) {}
+
+    public CacheLRU(String nombre, int maxEntradas, long ttlMs) {
+        if (maxEntradas <= 0) throw new IllegalArgumentException("maxEntradas debe ser > 0");
+        this.nombre = nombre;
+        this.ttlNanos = ttlMs * 1_000_000L;
+        this.mapa = new LinkedHashMap<>(16, 0.75f, true) { // orden de acceso = LRU
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entrada> mayor) {
+                if (size() <= maxEntradas) return false;
+                desalojos.increment();
+                return true;
+            }
+        };
+    }
+
+    /** Lectura a través de la caché: si falta o expiró, llama a {@code cargar} (puede retornar null). */
+    public V obtener(K clave, Function<? super K, ? extends V> cargar) {
+        Optional<V> guardado = consultar(clave);
+        if (guardado != null) return guardado.orElse(null);
+        long gen = generacion.get();
+        V valor = cargar.apply(clave);
+        recordar(clave, valor, gen);
+        return valor;
+    }
+
+    /**
+     * Solo consulta: null si no hay entrada vigente, Optional.empty() si está
+     * guardada como inexistente. Cuenta como acierto o fallo.
+     */
+    @SuppressWarnings({"unchecked", "OptionalAssignedToNull"})
+    public Optional<V> consultar(K clave) {
+        long ahora = System.nanoTime();
+        synchronized (mapa) {
+            Entrada e = mapa.get(clave);
+            if (e != null && ahora - e.expira < 0) {
+                aciertos.increment();
+                return e.valor == NEGATIVO ? Optional.empty() : Optional.of((V) e.valor);
+            }
+            if (e != null) {
+                mapa.remove(clave);
+                expiradas.increment();
+            }
+        }
+        fallos.increment();
+        return null;
+    }
+
+    /** Generación actual; capturarla antes de leer de la base y pasarla a {@link #recordar}. */
+    public long generacion() {
+        return generacion.get();
+    }
+
+    /** Guarda el valor leído (null = inexistente) si no hubo invalidaciones desde {@code gen}. */
+    public void recordar(K clave, V valor, long gen) {
+        Entrada e = new Entrada(valor == null ? NEGATIVO : valor, System.nanoTime() + ttlNanos);
+        synchronized (mapa) {
+            if (generacion.get() != gen) return;
+            mapa.put(clave, e);
+        }
+    }
+
+    public void invalidar(K clave) {
+        synchronized (mapa) {
+            generacion.incrementAndGet();
+            mapa.remove(clave);
+        }
+        invalidaciones.increment();
+    }
+
+    public void invalidarTodo() {
+        synchronized (mapa) {
+            generacion.incrementAndGet();
+            mapa.clear();
+        }
+        invalidaciones.increment();
+    }
+
+    public Estadisticas estadisticas() {
+        int tamano;
+        synchronized (mapa) { tamano = mapa.size(); }
+        return new Estadisticas(nombre, aciertos.sum(), fallos.sum(), desalojos.sum(), expiradas.sum(), invalidaciones.sum(), tamano);
+    }
+
+    public record Estadisticas(String nombre, long aciertos, long fallos, long desalojos, long expiradas,
+                               long invalidaciones, int tamano) {
+        public double tasaAciertos() {
+            long total = aciertos + fallos;
+            return total == 0 ? 0 : (double) aciertos / total;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Cache[%s]{aciertos=%d, fallos=%d (%.1f%%), desalojos=%d, expiradas=%d, invalidaciones=%d, tamaño=%d}",
+                    nombre, aciertos, fallos, tasaAciertos() * 100, desalojos, expiradas, invalidaciones, tamano);
+        }
+    }
+}
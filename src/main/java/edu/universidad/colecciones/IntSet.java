@@ -0,0 +1,108 @@
+package edu.universidad.colecciones;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/** Conjunto de int con direccionamiento abierto; sin encajonar. No es seguro para uso concurrente. */
+public class IntSet {
+
+    private static final float CARGA = 0.6f;
+
+    private int[] claves;
+    private int tamano;
+    private int umbral;
+    private boolean hayCero;
+
+    public IntSet() {
+        this(16);
+    }
+
+    public IntSet(int capacidadEsperada) {
+        int cap = Primitivos.potenciaDeDos((int) Math.ceil(Math.max(capacidadEsperada, 4) / CARGA));
+        claves = new int[cap];
+        umbral = (int) (cap * CARGA);
+    }
+
+    public boolean contains(int k) {
+        if (k == 0) return hayCero;
+        int mask = claves.length - 1;
+        for (int i = Primitivos.mezclar(k) & mask; ; i = (i + 1) & mask) {
+            if (claves[i] == k) return true;
+            if (claves[i] == 0) return false;
+        }
+    }
+
+    /** @return true si no estaba. */
+    public boolean add(int k) {
+        if (k == 0) {
+            if (hayCero) return false;
+            hayCero = true; tamano++;
+            return true;
+        }
+        int mask = claves.length - 1;
+        int i = Primitivos.mezclar(k) & mask;
+        while (claves[i] != 0) {
+            if (claves[i] == k) return false;
+            i = (i + 1) & mask;
+        }
+        claves[i] = k;
+        if (++tamano > umbral) crecer();
+        return true;
+    }
+
+    public boolean remove(int k) {
+        if (k == 0) {
+            if (!hayCero) return false;
+            hayCero = false; tamano--;
+            return true;
+        }
+        int mask = claves.length - 1;
+        int libre = Primitivos.mezclar(k) & mask;
+        while (claves[libre] != k) {
+            if (claves[libre] == 0) return false;
+            libre = (libre + 1) & mask;
+        }
+        int i = libre;
+        while (true) { // corrimiento hacia atrás
+            i = (i + 1) & mask;
+            int c = claves[i];
+            if (c == 0) break;
+            int ideal = Primitivos.mezclar(c) & mask;
+            if (((i - ideal) & mask) >= ((i - libre) & mask)) {
+                claves[libre] = c;
+                libre = i;
+            }
+        }
+        claves[libre] = 0;
+        tamano--;
+        return true;
+    }
+
+    public int size() { return tamano; }
+
+    public boolean isEmpty() { return tamano == 0; }
+
+    public void clear() {
+        Arrays.fill(claves, 0);
+        hayCero = false; tamano = 0;
+    }
+
+    public void forEach(IntConsumer accion) {
+        if (hayCero) accion.accept(0);
+        for (int k : claves) if (k != 0) accion.accept(k);
+    }
+
+    private void crecer() {
+        int[] viejas = claves;
+        int cap = viejas.length * 2;
+        claves = new int[cap];
+        umbral = (int) (cap * CARGA);
+        int mask = cap - 1;
+        for (int k : viejas) {
+            if (k == 0) continue;
+            int i = Primitivos.mezclar(k) & mask;
+            while (claves[i] != 0) i = (i + 1) & mask;
+            claves[i] = k;
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package edu.universidad.colecciones;
+
+import java.util.Arrays;
+
+/**
+ * Mapa long → V con direccionamiento abierto, igual que {@link IntObjectMap}.
+ * También sirve para claves double (los códigos de estudiante) a través de
+ * {@link #clave(double)}, que conserva la igualdad de {@link Double#equals}.
+ * No es seguro para uso concurrente.
+ */
+public class LongObjectMap<V> {
+
+    private static final float CARGA = 0.6f;
+
+    private long[] claves;
+    private Object[] valores;
+    private int tamano;
+    private int umbral;
+    private boolean hayCero;
+    private Object valorCero;
+
+    public LongObjectMap() {
+        this(16);
+    }
+
+    public LongObjectMap(int capacidadEsperada) {
+        int cap = Primitivos.potenciaDeDos((int) Math.ceil(Math.max(capacidadEsperada, 4) / CARGA));
+        claves = new long[cap];
+        valores = new Object[cap];
+        umbral = (int) (cap * CARGA);
+    }
+
+    /** Clave para un double: mismos bits que usa Double.equals/hashCode. */
+    public static long clave(double d) {
+        return Double.doubleToLongBits(d);
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(long clave) {
+        if (clave == 0) return hayCero ? (V) valorCero : null;
+        int mask = claves.length - 1;
+        for (int i = Primitivos.mezclar(clave) & mask; ; i = (i + 1) & mask) {
+            long k = claves[i];
+            if (k == clave) return (V) valores[i];
+            if (k == 0) return null;
+        }
+    }
+
+    public boolean containsKey(long clave) {
+        if (clave == 0) return hayCero;
+        return indice(clave) >= 0;
+    }
+
+    /** Asocia el valor y retorna el anterior (o null). */
+    @SuppressWarnings("unchecked")
+    public V put(long clave, V valor) {
+        if (clave == 0) {
+            Object prev = valorCero;
+            if (!hayCero) { hayCero = true; tamano++; }
+            valorCero = valor;
+            return (V) prev;
+        }
+        int mask = claves.length - 1;
+        int i = Primitivos.mezclar(clave) & mask;
+        while (claves[i] != 0) {
+            if (claves[i] == clave) {
+                Object prev = valores[i];
+                valores[i] = valor;
+                return (V) prev;
+            }
+            i = (i + 1) & mask;
+        }
+        claves[i] = clave;
+        valores[i] = valor;
+        if (++tamano > umbral) crecer();
+        return null;
+    }
+
+    /** Solo inserta si la clave no existe; retorna el valor vigente. */
+    public V putIfAbsent(long clave, V valor) {
+        V actual = get(clave);
+        if (actual != null || containsKey(clave)) return actual;
+        put(clave, valor);
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V remove(long clave) {
+        if (clave == 0) {
+            if (!hayCero) return null;
+            Object prev = valorCero;
+            hayCero = false; valorCero = null; tamano--;
+            return (V) prev;
+        }
+        int i = indice(clave);
+        if (i < 0) return null;
+        Object prev = valores[i];
+        borrarEn(i);
+        tamano--;
+        return (V) prev;
+    }
+
+    public int size() { return tamano; }
+
+    public boolean isEmpty() { return tamano == 0; }
+
+    public void clear() {
+        Arrays.fill(claves, 0L);
+        Arrays.fill(valores, null);
+        hayCero = false; valorCero = null; tamano = 0;
+    }
+
+    @FunctionalInterface
+    public interface Consumidor<V> { void aceptar(long clave, V valor); }
+
+    @SuppressWarnings("unchecked")
+    public void forEach(Consumidor<? super V> accion) {
+        if (hayCero) accion.aceptar(0L, (V) valorCero);
+        for (int i = 0; i < claves.length; i++)
+            if (claves[i] != 0) accion.aceptar(claves[i], (V) valores[i]);
+    }
+
+    // ---- Internos ----
+
+    private int indice(long clave) {
+        int mask = claves.length - 1;
+        for (int i = Primitivos.mezclar(clave) & mask; ; i = (i + 1) & mask) {
+            long k = claves[i];
+            if (k == clave) return i;
+            if (k == 0) return -1;
+        }
+    }
+
+    /** Borrado con corrimiento hacia atrás, ver IntObjectMap. */
+    private void borrarEn(int libre) {
+        int mask = claves.length - 1;
+        int i = libre;
+        while (true) {
+            i = (i + 1) & mask;
+            long k = claves[i];
+            if (k == 0) break;
+            int ideal = Primitivos.mezclar(k) & mask;
+            if (((i - ideal) & mask) >= ((i - libre) & mask)) {
+                claves[libre] = k;
+                valores[libre] = valores[i];
+                libre = i;
+            }
+        }
+        claves[libre] = 0;
+        valores[libre] = null;
+    }
+
+    private void crecer() {
+        long[] viejasClaves = claves;
+        Object[] viejosValores = valores;
+        int cap = viejasClaves.length * 2;
+        claves = new long[cap];
+        valores = new Object[cap];
+        umbral = (int) (cap * CARGA);
+        int mask = cap - 1;
+        for (int j = 0; j < viejasClaves.length; j++) {
+            long k = viejasClaves[j];
+            if (k == 0) continue;
+            int i = Primitivos.mezclar(k) & mask;
+            while (claves[i] != 0) i = (i + 1) & mask;
+            claves[i] = k;
+            valores[i] = viejosValores[j];
+        }
+    }
+}
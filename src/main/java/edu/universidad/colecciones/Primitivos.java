@@ -0,0 +1,23 @@
+package edu.universidad.colecciones;
+
+/** Utilidades compartidas por los mapas y conjuntos de claves primitivas. */
+final class Primitivos {
+
+    private Primitivos() {}
+
+    /** Mezcla de bits (multiplicación por la razón áurea) para repartir claves secuenciales. */
+    static int mezclar(int k) {
+        int h = k * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    static int mezclar(long k) {
+        long h = k * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    static int potenciaDeDos(int n) {
+        if (n >= 1 << 30) throw new IllegalArgumentException("Capacidad demasiado grande: " + n);
+        return Math.max(4, Integer.highestOneBit(n - 1) << 1);
+    }
+}
@@ -0,0 +1,18 @@
+package edu.universidad.exportacion;
+
+/**
+ * Tablas exportables. Las columnas de los catálogos coinciden con las que
+ * acepta el importador, así un CSV exportado se puede volver a importar.
+ */
+public enum Exportable {
+    INSCRIPCION("SELECT CURSO_ID,ESTUDIANTE_CODIGO,ANIO,SEMESTRE FROM INSCRIPCION ORDER BY ID"),
+    ESTUDIANTE("SELECT CODIGO,NOMBRES,APELLIDOS,EMAIL,PROMEDIO,SEMESTRE,ACTIVO FROM ESTUDIANTE ORDER BY CODIGO"),
+    PROFESOR("SELECT ID,NOMBRES,APELLIDOS,EMAIL,TIPOCONTRATO FROM PROFESOR ORDER BY ID"),
+    CURSO("SELECT ID,NOMBRE,SEMESTRE,ACTIVO,PROFESOR_ID FROM CURSO ORDER BY ID");
+
+    final String sql;
+
+    Exportable(String sql) {
+        this.sql = sql;
+    }
+}
@@ -0,0 +1,177 @@
+package edu.universidad.exportacion;
+
+import edu.universidad.importacion.LectorCSV;
+import edu.universidad.persistence.H2DB;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Exporta una tabla a CSV o JSON Lines sin cargarla en memoria: cursor de solo
+ * avance con fetch size ajustado y ejecución perezosa de H2, escribiendo cada
+ * fila al vuelo. Con GZIP opcional (automático si el destino termina en .gz).
+ */
+public class Exportador {
+
+    public static final int TAMANO_FETCH = 1_000;
+
+    public enum Formato { CSV, JSONL }
+
+    /**
+     * Escribe en un temporal junto a {@code destino} y lo mueve al terminar, así
+     * una exportación que falla a medias no deja un archivo truncado.
+     */
+    public ResultadoExportacion exportar(Exportable tabla, Formato formato, Path destino) throws IOException {
+        boolean gzip = destino.getFileName().toString().endsWith(".gz");
+        Path dir = destino.toAbsolutePath().getParent();
+        Path tmp = Files.createTempFile(dir, destino.getFileName().toString(), ".tmp");
+        try {
+            ResultadoExportacion r;
+            try (OutputStream out = Files.newOutputStream(tmp)) {
+                r = exportar(tabla, formato, gzip, out);
+            }
+            try {
+                Files.move(tmp, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException ex) {
+                Files.move(tmp, destino, StandardCopyOption.REPLACE_EXISTING);
+            }
+            return r;
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /** Escribe en {@code out} (no lo cierra); los bytes reportados son los que recibe {@code out}. */
+    public ResultadoExportacion exportar(Exportable tabla, Formato formato, boolean gzip, OutputStream out) throws IOException {
+        long t0 = System.nanoTime();
+        Contador contador = new Contador(out);
+        long filas = 0;
+        try (Connection con = H2DB.getConnection()) {
+            try (Statement st = con.createStatement()) { st.execute("SET LAZY_QUERY_EXECUTION TRUE"); }
+            try (PreparedStatement ps = con.prepareStatement(tabla.sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                ps.setFetchSize(TAMANO_FETCH);
+                try (ResultSet rs = ps.executeQuery()) {
+                    OutputStream destino = new BufferedOutputStream(contador, 1 << 16);
+                    GZIPOutputStream gz = gzip ? new GZIPOutputStream(destino, 1 << 16) : null;
+                    Writer w = new BufferedWriter(new OutputStreamWriter(gz != null ? gz : destino, StandardCharsets.UTF_8), 1 << 16);
+                    filas = formato == Formato.CSV ? csv(rs, w) : jsonl(rs, w);
+                    w.flush();
+                    if (gz != null) gz.finish();
+                    destino.flush();
+                }
+            } finally { // la conexión vuelve al pool
+                try (Statement st = con.createStatement()) { st.execute("SET LAZY_QUERY_EXECUTION FALSE"); }
+            }
+        } catch (SQLException ex) {
+            throw new RuntimeException("Error exportando " + tabla, ex);
+        }
+        return new ResultadoExportacion(tabla, formato, filas, contador.escritos, System.nanoTime() - t0);
+    }
+
+    private static long csv(ResultSet rs, Writer w) throws SQLException, IOException {
+        ResultSetMetaData md = rs.getMetaData();
+        int n = md.getColumnCount();
+        for (int i = 1; i <= n; i++) {
+            if (i > 1) w.write(',');
+            w.write(md.getColumnLabel(i));
+        }
+        w.write('\n');
+        long filas = 0;
+        while (rs.next()) {
+            for (int i = 1; i <= n; i++) {
+                if (i > 1) w.write(',');
+                Object v = rs.getObject(i);
+                if (v != null) w.write(v instanceof String s ? LectorCSV.escapar(s) : texto(v));
+            }
+            w.write('\n');
+            filas++;
+        }
+        return filas;
+    }
+
+    private static long jsonl(ResultSet rs, Writer w) throws SQLException, IOException {
+        ResultSetMetaData md = rs.getMetaData();
+        int n = md.getColumnCount();
+        String[] claves = new String[n];
+        for (int i = 0; i < n; i++) claves[i] = (i == 0 ? "{" : ",") + '"' + md.getColumnLabel(i + 1) + "\":";
+        long filas = 0;
+        while (rs.next()) {
+            for (int i = 0; i < n; i++) {
+                w.write(claves[i]);
+                Object v = rs.getObject(i + 1);
+                if (v == null) w.write("null");
+                else if (v instanceof Number || v instanceof Boolean) w.write(texto(v));
+                else cadenaJson(v.toString(), w);
+            }
+            w.write("}\n");
+            filas++;
+        }
+        return filas;
+    }
+
+    /** Los códigos son DOUBLE: se escriben 2025001 y no 2025001.0 ni 2.025001E6. */
+    private static String texto(Object v) {
+        if (v instanceof Double d && Double.isFinite(d)) return BigDecimal.valueOf(d).stripTrailingZeros().toPlainString();
+        return v.toString();
+    }
+
+    private static void cadenaJson(String s, Writer w) throws IOException {
+        w.write('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"': w.write("\\\""); break;
+                case '\\': w.write("\\\\"); break;
+                case '\n': w.write("\\n"); break;
+                case '\r': w.write("\\r"); break;
+                case '\t': w.write("\\t"); break;
+                default:
+                    if (c < 0x20) w.write(String.format("\\u%04x", (int) c));
+                    else w.write(c);
+            }
+        }
+        w.write('"');
+    }
+
+    /** Cuenta los bytes que llegan al destino (ya comprimidos si hay GZIP). */
+    private static final class Contador extends FilterOutputStream {
+        long escritos;
+
+        Contador(OutputStream out) { super(out); }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            escritos++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            escritos += len;
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush(); // el llamador decide cuándo cerrar su stream
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package edu.universidad.exportacion;
+
+/** Resumen de una exportación: filas, bytes escritos y duración. */
+public record ResultadoExportacion(Exportable tabla, Exportador.Formato formato, long filas, long bytes, long duracionNanos) {
+
+    public double filasPorSegundo() {
+        return duracionNanos == 0 ? 0 : filas * 1e9 / duracionNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Exportación %s (%s): %d filas, %,d bytes, %.0f filas/s",
+                tabla, formato, filas, bytes, filasPorSegundo());
+    }
+}
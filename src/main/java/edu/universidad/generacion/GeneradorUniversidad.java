@@ -0,0 +1,513 @@
+package edu.universidad.generacion;
+
+import edu.universidad.model.Curso;
+import edu.universidad.model.Estudiante;
+import edu.universidad.model.Facultad;
+import edu.universidad.model.Inscripcion;
+import edu.universidad.model.Profesor;
+import edu.universidad.model.Programa;
+import edu.universidad.persistence.CacheMetadatos;
+import edu.universidad.persistence.Cambio;
+import edu.universidad.persistence.CambioTrigger;
+import edu.universidad.persistence.H2DB;
+import edu.universidad.persistence.InscripcionDAO;
+import edu.universidad.persistence.ResultadoLote;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.text.Normalizer;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Universidad sintética y reproducible para pruebas de carga: facultades,
+ * programas, profesores, cursos, estudiantes e inscripciones a la escala
+ * pedida (hasta 10M estudiantes por el formato del código).
+ *
+ * Cada fila sale de su propio SplittableRandom derivado de (semilla, tabla,
+ * índice), así la fila i no depende del orden en que se generen las demás.
+ * La misma semilla y escala sobre una base vacía dejan siempre las mismas
+ * filas en ESTUDIANTE, PROFESOR, CURSO e INSCRIPCION (incluido INSCRIPCION.ID).
+ *
+ * Las inscripciones cumplen las reglas de ServicioInscripcion: curso activo,
+ * semestre del estudiante igual al del curso (y la inscripción con el del
+ * curso), un curso a lo sumo una vez por estudiante. La base no guarda
+ * facultades ni programas: quedan en el modelo ({@link #programas()},
+ * {@link #estudiantes()}) para cruzarlos, p. ej. con
+ * CatalogoAnalitico.conProgramas.
+ */
+public final class GeneradorUniversidad {
+
+    /** Año del periodo en curso; fijo para que la salida no dependa de la fecha. */
+    public static final int ANIO_ACTUAL = 2025;
+    /** Años distintos en los que caen las inscripciones (hasta ANIO_ACTUAL). */
+    public static final int ANIOS = 5;
+
+    private static final int PROFESOR = 1, CURSO = 2, ESTUDIANTE = 3, INSCRIPCION = 4; // flujo de azar por tabla
+
+    private static final double ID_PROFESOR_BASE = 79_000_000d;
+    private static final long CODIGO_POR_ANIO = 10_000_000L; // código = año de ingreso * 10^7 + índice
+    private static final long AVISO_NANOS = 250_000_000L;
+
+    /** Facultad, programas y su duración en semestres. */
+    private record FacultadBase(String nombre, String[] materias, String[] programas, int[] duraciones) { }
+
+    private static final FacultadBase[] FACULTADES = {
+            new FacultadBase("Ingeniería",
+                    new String[]{"Cálculo", "Álgebra Lineal", "Física", "Programación", "Estructuras de Datos", "Estática", "Termodinámica", "Circuitos", "Investigación de Operaciones", "Proyecto de Ingeniería"},
+                    new String[]{"Ingeniería de Sistemas", "Ingeniería Civil", "Ingeniería Industrial", "Ingeniería Electrónica"}, new int[]{10, 10, 10, 10}),
+            new FacultadBase("Ciencias",
+                    new String[]{"Análisis Matemático", "Probabilidad", "Mecánica", "Química General", "Biología Celular", "Genética", "Laboratorio", "Métodos Numéricos", "Seminario de Investigación"},
+                    new String[]{"Matemáticas", "Física", "Biología", "Química"}, new int[]{8, 8, 8, 8}),
+            new FacultadBase("Ciencias de la Salud",
+                    new String[]{"Anatomía", "Fisiología", "Bioquímica", "Farmacología", "Patología", "Semiología", "Salud Pública", "Práctica Clínica", "Epidemiología"},
+                    new String[]{"Medicina", "Enfermería", "Odontología", "Fisioterapia"}, new int[]{12, 8, 10, 8}),
+            new FacultadBase("Derecho y Ciencias Políticas",
+                    new String[]{"Derecho Civil", "Derecho Penal", "Derecho Constitucional", "Teoría del Estado", "Procesal", "Consultorio Jurídico", "Filosofía del Derecho"},
+                    new String[]{"Derecho", "Ciencia Política"}, new int[]{10, 8}),
+            new FacultadBase("Ciencias Económicas",
+                    new String[]{"Microeconomía", "Macroeconomía", "Contabilidad", "Estadística", "Finanzas", "Econometría", "Mercadeo", "Costos"},
+                    new String[]{"Economía", "Administración de Empresas", "Contaduría Pública"}, new int[]{8, 8, 9}),
+            new FacultadBase("Artes",
+                    new String[]{"Taller", "Historia del Arte", "Dibujo", "Teoría Musical", "Composición", "Color", "Medios Digitales"},
+                    new String[]{"Música", "Artes Plásticas", "Diseño Gráfico"}, new int[]{8, 8, 8}),
+            new FacultadBase("Educación",
+                    new String[]{"Pedagogía", "Didáctica", "Psicología del Aprendizaje", "Práctica Docente", "Evaluación", "Currículo"},
+                    new String[]{"Licenciatura en Matemáticas", "Licenciatura en Lenguas Extranjeras"}, new int[]{10, 10}),
+            new FacultadBase("Ciencias Humanas",
+                    new String[]{"Teoría Social", "Psicología General", "Métodos Cualitativos", "Historia Contemporánea", "Antropología", "Ética"},
+                    new String[]{"Psicología", "Sociología", "Historia"}, new int[]{10, 8, 8}),
+    };
+
+    private static final String[] NOMBRES = {"Santiago", "Valentina", "Sebastián", "Mariana", "Mateo", "Isabella", "Nicolás", "Gabriela",
+            "Samuel", "Daniela", "Alejandro", "Sofía", "Juan", "María", "Andrés", "Laura", "Felipe", "Camila", "David", "Paula",
+            "Diego", "Natalia", "Tomás", "Lucía", "Julián", "Sara", "Carlos", "Ana", "Miguel", "Juliana", "Jorge", "Andrea"};
+    private static final String[] APELLIDOS = {"García", "Rodríguez", "Martínez", "López", "González", "Hernández", "Pérez", "Sánchez",
+            "Ramírez", "Torres", "Flórez", "Rivera", "Gómez", "Díaz", "Moreno", "Muñoz", "Rojas", "Vargas", "Castro", "Ortiz",
+            "Jiménez", "Suárez", "Bermúdez", "Cárdenas", "Restrepo", "Ospina", "Acosta", "Peña", "Quintero", "Mejía", "Salazar", "Zapata"};
+    private static final String[] NOMBRES_ASCII = ascii(NOMBRES);
+    private static final String[] APELLIDOS_ASCII = ascii(APELLIDOS);
+    private static final String[] CONTRATOS = {"Planta", "Cátedra", "Ocasional"};
+    private static final String[] ROMANOS = {"I", "II", "III", "IV", "V", "VI", "VII", "VIII", "IX", "X", "XI", "XII"};
+
+    /**
+     * Tamaño de la universidad. Los cursos alcanzan para que cada (programa,
+     * semestre) tenga de sobra los cursos que toma un estudiante.
+     */
+    public record Escala(int profesores, int cursos, int estudiantes, long inscripciones) {
+        public Escala {
+            if (profesores < 1 || cursos < 1 || estudiantes < 1 || inscripciones < 0)
+                throw new IllegalArgumentException("Escala inválida: " + profesores + "/" + cursos + "/" + estudiantes + "/" + inscripciones);
+            if (estudiantes >= CODIGO_POR_ANIO) throw new IllegalArgumentException("Como mucho " + (CODIGO_POR_ANIO - 1) + " estudiantes");
+        }
+
+        /** Un profesor por cada 25 estudiantes y cursos suficientes para las inscripciones por estudiante pedidas. */
+        public static Escala para(int estudiantes, long inscripciones) {
+            int porEstudiante = (int) Math.max(1, (inscripciones + estudiantes - 1) / Math.max(1, estudiantes));
+            int duracionMaxima = 0, programas = 0;
+            for (FacultadBase f : FACULTADES) {
+                programas += f.programas().length;
+                for (int d : f.duraciones()) duracionMaxima = Math.max(duracionMaxima, d);
+            }
+            long cursos = Math.max(estudiantes / 25L, 2L * porEstudiante * programas * duracionMaxima);
+            return new Escala(Math.max(10, estudiantes / 25), (int) Math.min(Integer.MAX_VALUE, cursos), estudiantes, inscripciones);
+        }
+    }
+
+    /** Avance de la carga; se invoca como mucho cuatro veces por segundo y al terminar cada tabla. */
+    @FunctionalInterface
+    public interface Progreso {
+        void actualizar(String tabla, long filas, long total, double filasPorSegundo);
+    }
+
+    /** Filas cargadas por tabla; {@code inscripciones} puede quedar bajo lo pedido si algún semestre no tiene cursos. */
+    public record Resultado(long semilla, long profesores, long cursos, long estudiantes, long inscripciones,
+                            long fallos, long duracionNanos) {
+        public double filasPorSegundo() {
+            return duracionNanos == 0 ? 0 : (profesores + cursos + estudiantes + inscripciones) * 1e9 / duracionNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "Semilla %d: %,d profesores, %,d cursos, %,d estudiantes, %,d inscripciones, %d fallos (%.1f s, %.0f filas/s)",
+                    semilla, profesores, cursos, estudiantes, inscripciones, fallos, duracionNanos / 1e9, filasPorSegundo());
+        }
+    }
+
+    private final long semilla;
+    private final Escala escala;
+
+    private final List<Facultad> facultades = new ArrayList<>();
+    private final List<Programa> programas = new ArrayList<>();
+    private final int[] programaFacultad;
+    private final int[] programaDuracion;
+
+    // cursos: programa, semestre, activo y profesor (índice), todo derivado de la semilla
+    private final int[] cursoPrograma;
+    private final byte[] cursoSemestre;
+    private final boolean[] cursoActivo;
+    private final int[] cursoProfesor;
+    private final Curso[] cursoModelo;
+    /** Índices de cursos activos por [programa][semestre - 1] y por [semestre - 1]. */
+    private final int[][][] activosPorPrograma;
+    private final int[][] activosPorSemestre;
+
+    public GeneradorUniversidad(long semilla, Escala escala) {
+        this.semilla = semilla;
+        this.escala = escala;
+
+        int nProgramas = 0;
+        for (FacultadBase f : FACULTADES) nProgramas += f.programas().length;
+        programaFacultad = new int[nProgramas];
+        programaDuracion = new int[nProgramas];
+        int p = 0, duracionMaxima = 0;
+        for (int f = 0; f < FACULTADES.length; f++) {
+            FacultadBase base = FACULTADES[f];
+            Facultad facultad = new Facultad(f + 1, "Facultad de " + base.nombre(), f < escala.profesores() ? profesor(f) : null);
+            facultades.add(facultad);
+            for (int k = 0; k < base.programas().length; k++, p++) {
+                programaFacultad[p] = f;
+                programaDuracion[p] = base.duraciones()[k];
+                duracionMaxima = Math.max(duracionMaxima, base.duraciones()[k]);
+                Date registro = Date.from(LocalDate.of(1950 + (p * 7) % 60, 1 + p % 12, 1).atStartOfDay(ZoneOffset.UTC).toInstant());
+                programas.add(new Programa(p + 1, base.programas()[k], base.duraciones()[k], registro, facultad));
+            }
+        }
+
+        int n = escala.cursos();
+        cursoPrograma = new int[n];
+        cursoSemestre = new byte[n];
+        cursoActivo = new boolean[n];
+        cursoProfesor = new int[n];
+        cursoModelo = new Curso[n];
+        int[][] cuentaPrograma = new int[nProgramas][duracionMaxima];
+        int[] cuentaSemestre = new int[duracionMaxima];
+        for (int c = 0; c < n; c++) {
+            SplittableRandom r = azar(CURSO, c);
+            int prog = c % nProgramas; // reparto parejo entre programas y semestres
+            int semestre = 1 + (c / nProgramas) % programaDuracion[prog];
+            int facultad = programaFacultad[prog];
+            int deFacultad = (escala.profesores() - facultad + FACULTADES.length - 1) / FACULTADES.length;
+            cursoPrograma[c] = prog;
+            cursoSemestre[c] = (byte) semestre;
+            cursoActivo[c] = r.nextInt(100) < 92;
+            cursoProfesor[c] = deFacultad > 0 ? facultad + FACULTADES.length * r.nextInt(deFacultad) : r.nextInt(escala.profesores());
+            cursoModelo[c] = new Curso(c + 1, nombreCurso(c, r), programas.get(prog), cursoActivo[c]);
+            if (cursoActivo[c]) {
+                cuentaPrograma[prog][semestre - 1]++;
+                cuentaSemestre[semestre - 1]++;
+            }
+        }
+        activosPorPrograma = new int[nProgramas][duracionMaxima][];
+        activosPorSemestre = new int[duracionMaxima][];
+        for (int s = 0; s < duracionMaxima; s++) {
+            activosPorSemestre[s] = new int[cuentaSemestre[s]];
+            for (int q = 0; q < nProgramas; q++) activosPorPrograma[q][s] = new int[cuentaPrograma[q][s]];
+        }
+        int[][] llenosPrograma = new int[nProgramas][duracionMaxima];
+        int[] llenosSemestre = new int[duracionMaxima];
+        for (int c = 0; c < n; c++) {
+            if (!cursoActivo[c]) continue;
+            int s = cursoSemestre[c] - 1, q = cursoPrograma[c];
+            activosPorPrograma[q][s][llenosPrograma[q][s]++] = c;
+            activosPorSemestre[s][llenosSemestre[s]++] = c;
+        }
+    }
+
+    public long semilla() {
+        return semilla;
+    }
+
+    public Escala escala() {
+        return escala;
+    }
+
+    public List<Facultad> facultades() {
+        return List.copyOf(facultades);
+    }
+
+    public List<Programa> programas() {
+        return List.copyOf(programas);
+    }
+
+    // ---------- filas ----------
+
+    /** Profesor {@code i} (base 0); pertenece a la facultad i % facultades. */
+    public Profesor profesor(int i) {
+        SplittableRandom r = azar(PROFESOR, i);
+        int n = r.nextInt(NOMBRES.length), a1 = r.nextInt(APELLIDOS.length), a2 = r.nextInt(APELLIDOS.length);
+        int t = r.nextInt(100);
+        String contrato = CONTRATOS[t < 45 ? 0 : t < 85 ? 1 : 2];
+        return new Profesor(ID_PROFESOR_BASE + i, NOMBRES[n], APELLIDOS[a1] + " " + APELLIDOS[a2],
+                correo(n, a1, i, "docentes."), contrato);
+    }
+
+    /** Curso {@code c} (base 0), ID c + 1. */
+    public Curso curso(int c) {
+        return cursoModelo[c];
+    }
+
+    public int semestreCurso(int c) {
+        return cursoSemestre[c];
+    }
+
+    public double profesorCurso(int c) {
+        return ID_PROFESOR_BASE + cursoProfesor[c];
+    }
+
+    /** Estudiante {@code i} (base 0) con su programa; el semestre va aparte como en EstudianteDAO.upsert. */
+    public Estudiante estudiante(int i) {
+        SplittableRandom r = azar(ESTUDIANTE, i);
+        int prog = r.nextInt(programas.size());
+        int semestre = 1 + r.nextInt(programaDuracion[prog]);
+        int n = r.nextInt(NOMBRES.length), n2 = r.nextInt(NOMBRES.length), a1 = r.nextInt(APELLIDOS.length), a2 = r.nextInt(APELLIDOS.length);
+        double promedio = Math.max(0, Math.min(5, Math.round((3.6 + 0.45 * r.nextGaussian()) * 100) / 100.0));
+        boolean activo = r.nextInt(100) < 96;
+        double codigo = codigo(i, semestre);
+        return new Estudiante(codigo, n == n2 ? NOMBRES[n] : NOMBRES[n] + " " + NOMBRES[n2], APELLIDOS[a1] + " " + APELLIDOS[a2],
+                correo(n, a1, i, ""), codigo, programas.get(prog), activo, promedio);
+    }
+
+    /** Semestre del estudiante {@code i}: los dos primeros sorteos de su fila, sin armar el resto. */
+    public int semestreEstudiante(int i) {
+        SplittableRandom r = azar(ESTUDIANTE, i);
+        return 1 + r.nextInt(programaDuracion[r.nextInt(programas.size())]);
+    }
+
+    /**
+     * Inscripciones del estudiante {@code i}: {@link #inscripcionesPorEstudiante(int)}
+     * cursos activos de su semestre, tres de cada cuatro de su programa y el
+     * resto electivas de otros programas, sin repetir curso.
+     */
+    public List<Inscripcion> inscripciones(int i, Estudiante est) {
+        SplittableRandom re = azar(ESTUDIANTE, i);
+        int prog = re.nextInt(programas.size());
+        int s = re.nextInt(programaDuracion[prog]);
+        int[] propios = activosPorPrograma[prog][s], electivos = activosPorSemestre[s];
+        int k = Math.min(inscripcionesPorEstudiante(i), electivos.length);
+        SplittableRandom r = azar(INSCRIPCION, i);
+        int anio = ANIO_ACTUAL - r.nextInt(ANIOS);
+        int[] elegidos = new int[k];
+        int n = 0;
+        for (int intento = 0; n < k && intento < 8 * k + 32; intento++) {
+            int[] fuente = propios.length > 0 && r.nextInt(4) != 0 ? propios : electivos;
+            int c = fuente[r.nextInt(fuente.length)];
+            boolean repetido = false;
+            for (int j = 0; j < n && !repetido; j++) repetido = elegidos[j] == c;
+            if (!repetido) elegidos[n++] = c;
+        }
+        List<Inscripcion> out = new ArrayList<>(n);
+        for (int j = 0; j < n; j++) out.add(new Inscripcion(cursoModelo[elegidos[j]], anio, s + 1, est));
+        return out;
+    }
+
+    /** Reparto exacto de {@code escala.inscripciones()}: los primeros estudiantes llevan una más. */
+    public int inscripcionesPorEstudiante(int i) {
+        long base = escala.inscripciones() / escala.estudiantes();
+        long resto = escala.inscripciones() % escala.estudiantes();
+        return (int) (base + (i < resto ? 1 : 0));
+    }
+
+    public Stream<Profesor> profesores() {
+        return IntStream.range(0, escala.profesores()).mapToObj(this::profesor);
+    }
+
+    public Stream<Curso> cursos() {
+        return Arrays.stream(cursoModelo);
+    }
+
+    public Stream<Estudiante> estudiantes() {
+        return IntStream.range(0, escala.estudiantes()).mapToObj(this::estudiante);
+    }
+
+    /** En orden de estudiante; el mismo orden (y por tanto INSCRIPCION.ID) en cada corrida. */
+    public Stream<Inscripcion> inscripciones() {
+        return IntStream.range(0, escala.estudiantes()).boxed().flatMap(i -> {
+            double codigo = codigo(i, semestreEstudiante(i)); // la inscripción solo necesita la clave
+            return inscripciones(i, new Estudiante(codigo, null, null, null, codigo, null, true, 0)).stream();
+        });
+    }
+
+    // ---------- carga ----------
+
+    /**
+     * Carga las cuatro tablas por lotes de {@link InscripcionDAO#TAMANO_LOTE}
+     * filas con un commit por lote; las inscripciones van por
+     * InscripcionDAO.insertarLote, el camino de las cargas masivas, así que
+     * los triggers de conteo corren como en la aplicación. La bitácora CAMBIO
+     * recibe un cambio grueso por tabla y lote, no uno por fila.
+     *
+     * @param vaciar si es false y alguna tabla tiene filas, falla; si es true
+     *               las vacía antes (INSCRIPCION con TRUNCATE y su identidad
+     *               desde 1, los contadores a cero).
+     */
+    public Resultado cargar(boolean vaciar, Progreso progreso) {
+        long t0 = System.nanoTime();
+        try (CambioTrigger.Masiva masiva = CambioTrigger.masiva();
+             Connection con = H2DB.getConnection()) {
+            prepararBase(masiva, con, vaciar);
+            con.setAutoCommit(false);
+            long profesores = cargarTabla(masiva, con, "PROFESOR", "INSERT INTO PROFESOR (ID,NOMBRES,APELLIDOS,EMAIL,TIPOCONTRATO) VALUES (?,?,?,?,?)",
+                    escala.profesores(), (ps, i) -> {
+                        Profesor p = profesor(i);
+                        ps.setDouble(1, p.getID());
+                        ps.setString(2, p.getNombres());
+                        ps.setString(3, p.getApellidos());
+                        ps.setString(4, p.getEmail());
+                        ps.setString(5, p.getTipoContrato());
+                    }, progreso);
+            long cursos = cargarTabla(masiva, con, "CURSO", "INSERT INTO CURSO (ID,NOMBRE,ACTIVO,SEMESTRE,PROFESOR_ID) VALUES (?,?,?,?,?)",
+                    escala.cursos(), (ps, c) -> {
+                        ps.setInt(1, c + 1);
+                        ps.setString(2, cursoModelo[c].getNombre());
+                        ps.setBoolean(3, cursoActivo[c]);
+                        ps.setInt(4, cursoSemestre[c]);
+                        ps.setDouble(5, profesorCurso(c));
+                    }, progreso);
+            long estudiantes = cargarTabla(masiva, con, "ESTUDIANTE", "INSERT INTO ESTUDIANTE (CODIGO,NOMBRES,APELLIDOS,EMAIL,PROMEDIO,ACTIVO,SEMESTRE) VALUES (?,?,?,?,?,?,?)",
+                    escala.estudiantes(), (ps, i) -> {
+                        Estudiante e = estudiante(i);
+                        ps.setDouble(1, e.getCodigo());
+                        ps.setString(2, e.getNombres());
+                        ps.setString(3, e.getApellidos());
+                        ps.setString(4, e.getEmail());
+                        ps.setDouble(5, e.getPromedio());
+                        ps.setBoolean(6, e.isActivo());
+                        ps.setInt(7, semestreEstudiante(i));
+                    }, progreso);
+            con.setAutoCommit(true);
+
+            Avance avance = new Avance("INSCRIPCION", escala.inscripciones(), progreso);
+            ResultadoLote lote = new InscripcionDAO().insertarLote(inscripciones().peek(i -> avance.sumar()));
+            avance.terminar(lote.insertadas());
+            return new Resultado(semilla, profesores, cursos, estudiantes, lote.insertadas(), lote.fallos().size(), System.nanoTime() - t0);
+        } catch (SQLException ex) {
+            throw new RuntimeException("Error generando datos sintéticos", ex);
+        } finally {
+            CacheMetadatos.invalidarTodo();
+        }
+    }
+
+    private static void prepararBase(CambioTrigger.Masiva masiva, Connection con, boolean vaciar) throws SQLException {
+        try (Statement st = con.createStatement()) {
+            if (vaciar) {
+                st.execute("TRUNCATE TABLE INSCRIPCION RESTART IDENTITY"); // sin triggers: los contadores se limpian aparte
+                st.execute("DELETE FROM CONTEO_PERIODO");
+                st.execute("DELETE FROM CONTEO_CURSO");
+                st.execute("DELETE FROM CURSO");
+                st.execute("DELETE FROM ESTUDIANTE");
+                st.execute("DELETE FROM PROFESOR");
+                for (Cambio.Tabla t : Cambio.Tabla.values()) masiva.anotar(con, t); // TRUNCATE no dispara triggers
+                return;
+            }
+            for (String tabla : List.of("INSCRIPCION", "CURSO", "ESTUDIANTE", "PROFESOR")) {
+                try (ResultSet rs = st.executeQuery("SELECT COUNT(*) FROM " + tabla)) {
+                    rs.next();
+                    if (rs.getLong(1) > 0) throw new IllegalStateException("La tabla " + tabla + " ya tiene filas; generar sobre una base vacía o vaciarla antes");
+                }
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface Asignador {
+        void asignar(PreparedStatement ps, int i) throws SQLException;
+    }
+
+    private static long cargarTabla(CambioTrigger.Masiva masiva, Connection con, String tabla, String sql, int total, Asignador fila, Progreso progreso) throws SQLException {
+        Avance avance = new Avance(tabla, total, progreso);
+        try (PreparedStatement ps = con.prepareStatement(sql)) {
+            for (int i = 0; i < total; i++) {
+                fila.asignar(ps, i);
+                ps.addBatch();
+                avance.sumar();
+                if ((i + 1) % InscripcionDAO.TAMANO_LOTE == 0 || i + 1 == total) {
+                    ps.executeBatch();
+                    masiva.anotar(con, Cambio.Tabla.valueOf(tabla));
+                    con.commit();
+                }
+            }
+        }
+        avance.terminar(total);
+        return total;
+    }
+
+    /** Cuenta filas y avisa a {@link Progreso} como mucho cada 250 ms. */
+    private static final class Avance {
+        private final String tabla;
+        private final long total;
+        private final Progreso progreso;
+        private final long inicio = System.nanoTime();
+        private long siguienteAviso = inicio + AVISO_NANOS;
+        private long filas;
+
+        Avance(String tabla, long total, Progreso progreso) {
+            this.tabla = tabla;
+            this.total = total;
+            this.progreso = progreso;
+        }
+
+        void sumar() {
+            filas++;
+            if (progreso != null && (filas & 1023) == 0) {
+                long ahora = System.nanoTime();
+                if (ahora >= siguienteAviso) {
+                    siguienteAviso = ahora + AVISO_NANOS;
+                    progreso.actualizar(tabla, filas, total, filas * 1e9 / (ahora - inicio));
+                }
+            }
+        }
+
+        void terminar(long filas) {
+            if (progreso != null) progreso.actualizar(tabla, filas, total, filas * 1e9 / Math.max(1, System.nanoTime() - inicio));
+        }
+    }
+
+    // ---------- utilidades ----------
+
+    /** Código con el año de ingreso que corresponde al semestre: 2 semestres por año hasta ANIO_ACTUAL. */
+    private static double codigo(int i, int semestre) {
+        return (ANIO_ACTUAL - (semestre - 1) / 2) * CODIGO_POR_ANIO + i;
+    }
+
+    private String nombreCurso(int c, SplittableRandom r) {
+        int prog = cursoPrograma[c];
+        String[] materias = FACULTADES[programaFacultad[prog]].materias();
+        int grupo = 1 + c / (programas.size() * programaDuracion[prog]);
+        return materias[r.nextInt(materias.length)] + " " + ROMANOS[Math.min(cursoSemestre[c], ROMANOS.length) - 1]
+                + " - " + programas.get(prog).getNombre() + " G" + grupo;
+    }
+
+    private static String correo(int nombre, int apellido, int i, String dominio) {
+        return NOMBRES_ASCII[nombre] + "." + APELLIDOS_ASCII[apellido] + i + "@" + dominio + "uni.edu.co";
+    }
+
+    private SplittableRandom azar(int tabla, long i) {
+        return new SplittableRandom(mezclar(mezclar(semilla ^ tabla * 0x9E3779B97F4A7C15L) + i));
+    }
+
+    /** Finalizador de SplitMix64: semillas vecinas dan secuencias sin relación. */
+    private static long mezclar(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static String[] ascii(String[] palabras) {
+        String[] out = new String[palabras.length];
+        for (int i = 0; i < palabras.length; i++)
+            out[i] = Normalizer.normalize(palabras[i], Normalizer.Form.NFD).replaceAll("\\p{M}", "").toLowerCase(Locale.ROOT);
+        return out;
+    }
+}
@@ -0,0 +1,98 @@
+package edu.universidad.importacion;
+
+import edu.universidad.model.Validaciones;
+
+import java.util.Locale;
+
+/**
+ * Catálogos importables: columnas esperadas en el CSV, MERGE de destino y
+ * las mismas reglas que aplican los formularios de la UI.
+ * La primera columna es la clave y debe venir en el encabezado; las demás
+ * pueden faltar y se tratan como vacías.
+ */
+public enum Catalogo {
+
+    ESTUDIANTE("MERGE INTO ESTUDIANTE (CODIGO,NOMBRES,APELLIDOS,EMAIL,PROMEDIO,SEMESTRE,ACTIVO) KEY(CODIGO) VALUES (?,?,?,?,?,?,?)",
+            "CODIGO", "NOMBRES", "APELLIDOS", "EMAIL", "PROMEDIO", "SEMESTRE", "ACTIVO") {
+        @Override
+        Object[] validar(String[] c) {
+            double codigo = decimal(c[0], "El campo 'Código' debe ser numérico (ej. 202312345).");
+            requerido(c[1], "El campo 'Nombres' es obligatorio.");
+            requerido(c[2], "El campo 'Apellidos' es obligatorio.");
+            if (!Validaciones.emailValido(c[3])) throw new IllegalArgumentException("El campo 'Email' no tiene un formato válido.");
+            double prom = 0.0;
+            if (!c[4].isBlank()) {
+                prom = decimal(c[4], "El campo 'Promedio' debe ser numérico (ej. 4.5).");
+                if (!Validaciones.promedioValido(prom)) throw new IllegalArgumentException("El 'Promedio' debe estar entre 0 y 5.");
+            }
+            int semestre = entero(c[5], "El campo 'Semestre' debe ser un entero (1..12).");
+            if (!Validaciones.semestreValido(semestre)) throw new IllegalArgumentException("El 'Semestre' debe estar entre 1 y 12.");
+            return new Object[]{codigo, c[1], c[2], c[3], prom, semestre, booleano(c[6])};
+        }
+    },
+
+    PROFESOR("MERGE INTO PROFESOR (ID,NOMBRES,APELLIDOS,EMAIL,TIPOCONTRATO) KEY(ID) VALUES (?,?,?,?,?)",
+            "ID", "NOMBRES", "APELLIDOS", "EMAIL", "TIPOCONTRATO") {
+        @Override
+        Object[] validar(String[] c) {
+            double id = decimal(c[0], "El campo 'ID' debe ser numérico.");
+            requerido(c[1], "El campo 'Nombres' es obligatorio.");
+            requerido(c[2], "El campo 'Apellidos' es obligatorio.");
+            if (!Validaciones.emailValido(c[3])) throw new IllegalArgumentException("Email inválido.");
+            return new Object[]{id, c[1], c[2], c[3], c[4]};
+        }
+    },
+
+    CURSO("MERGE INTO CURSO (ID,NOMBRE,ACTIVO,SEMESTRE,PROFESOR_ID) KEY(ID) VALUES (?,?,?,?,?)",
+            "ID", "NOMBRE", "SEMESTRE", "ACTIVO", "PROFESOR_ID") {
+        @Override
+        Object[] validar(String[] c) {
+            int id = entero(c[0], "El campo 'ID' debe ser entero.");
+            requerido(c[1], "El campo 'Nombre' es obligatorio.");
+            int semestre = entero(c[2], "El campo 'Semestre' debe ser entero (1..12).");
+            if (!Validaciones.semestreValido(semestre)) throw new IllegalArgumentException("El 'Semestre' debe estar entre 1 y 12.");
+            Double profesor = c[4].isBlank() ? null : decimal(c[4], "El campo 'Profesor ID' debe ser numérico o quedar vacío.");
+            return new Object[]{id, c[1], booleano(c[3]), semestre, profesor};
+        }
+    };
+
+    final String sqlMerge;
+    final String[] columnas;
+
+    Catalogo(String sqlMerge, String... columnas) {
+        this.sqlMerge = sqlMerge;
+        this.columnas = columnas;
+    }
+
+    public String[] columnas() {
+        return columnas.clone();
+    }
+
+    /**
+     * Valida una fila ya ordenada según {@link #columnas} y retorna los valores
+     * a enlazar en el MERGE; lanza IllegalArgumentException con el motivo si no es válida.
+     */
+    abstract Object[] validar(String[] campos);
+
+    private static void requerido(String v, String msg) {
+        if (v.isBlank()) throw new IllegalArgumentException(msg);
+    }
+
+    private static double decimal(String v, String msg) {
+        try { return Double.parseDouble(v); }
+        catch (NumberFormatException ex) { throw new IllegalArgumentException(msg); }
+    }
+
+    private static int entero(String v, String msg) {
+        try { return Integer.parseInt(v); }
+        catch (NumberFormatException ex) { throw new IllegalArgumentException(msg); }
+    }
+
+    private static boolean booleano(String v) { // vacío equivale a la casilla sin marcar
+        switch (v.toLowerCase(Locale.ROOT)) {
+            case "true": case "1": case "si": case "sí": case "s": case "x": return true;
+            case "": case "false": case "0": case "no": case "n": return false;
+            default: throw new IllegalArgumentException("El campo 'Activo' debe ser true/false, 1/0 o si/no.");
+        }
+    }
+}
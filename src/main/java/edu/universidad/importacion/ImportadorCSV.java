@@ -0,0 +1,258 @@
+package edu.universidad.importacion;
+
+import edu.universidad.persistence.CacheMetadatos;
+import edu.universidad.persistence.Cambio;
+import edu.universidad.persistence.CambioTrigger;
+import edu.universidad.persistence.H2DB;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Importa un CSV de ESTUDIANTE, PROFESOR o CURSO con memoria constante.
+ *
+ * El hilo que llama lee bloques de líneas; un pool los separa y valida en
+ * paralelo y, en el orden de lectura, cada bloque válido se aplica con un
+ * MERGE por lotes y un commit. Como mucho hay 2 bloques por hilo en vuelo.
+ * Las filas rechazadas van a un CSV "linea,motivo,contenido".
+ */
+public class ImportadorCSV {
+
+    public static final int LINEAS_POR_BLOQUE = 2_000;
+
+    /** Avance de la importación; se invoca tras confirmar cada bloque. */
+    @FunctionalInterface
+    public interface Progreso {
+        void actualizar(long bytesLeidos, long bytesTotales, long aceptadas, long rechazadas);
+    }
+
+    private final int hilos;
+    private final char separador;
+
+    public ImportadorCSV() {
+        this(Runtime.getRuntime().availableProcessors(), ',');
+    }
+
+    public ImportadorCSV(int hilos, char separador) {
+        this.hilos = Math.max(1, hilos);
+        this.separador = separador;
+    }
+
+    /** Importa dejando los rechazos junto al archivo ({@code nombre.rechazos.csv}). */
+    public ResultadoImportacion importar(Catalogo catalogo, Path csv, Progreso progreso) throws IOException {
+        return importar(catalogo, csv, csv.resolveSibling(csv.getFileName() + ".rechazos.csv"), progreso);
+    }
+
+    public ResultadoImportacion importar(Catalogo catalogo, Path csv, Path rechazos, Progreso progreso) throws IOException {
+        long t0 = System.nanoTime();
+        long total = Files.size(csv);
+        ExecutorService pool = Executors.newFixedThreadPool(hilos, r -> {
+            Thread t = new Thread(r, "importador-csv");
+            t.setDaemon(true);
+            return t;
+        });
+        Estado estado = new Estado();
+        try (Contador in = new Contador(Files.newInputStream(csv));
+             BufferedReader lector = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+             BufferedWriter salidaRechazos = Files.newBufferedWriter(rechazos, StandardCharsets.UTF_8);
+             CambioTrigger.Masiva masiva = CambioTrigger.masiva();
+             Connection con = H2DB.getConnection();
+             PreparedStatement ps = con.prepareStatement(catalogo.sqlMerge)) {
+
+            salidaRechazos.write("linea,motivo,contenido");
+            salidaRechazos.newLine();
+            String encabezado = lector.readLine();
+            if (encabezado == null) throw new IOException("El archivo está vacío: " + csv);
+            int[] orden = ordenColumnas(catalogo, LectorCSV.campos(quitarBom(encabezado), separador));
+
+            con.setAutoCommit(false);
+            ArrayDeque<Future<Bloque>> enVuelo = new ArrayDeque<>();
+            long numero = 1; // el encabezado es la línea 1
+            List<String> lineas = new ArrayList<>(LINEAS_POR_BLOQUE);
+            String linea;
+            while (true) {
+                linea = lector.readLine();
+                if (linea != null) {
+                    numero++;
+                    if (linea.isBlank()) continue;
+                    lineas.add(linea);
+                    estado.numeros.add(numero);
+                    if (lineas.size() < LINEAS_POR_BLOQUE) continue;
+                }
+                if (!lineas.isEmpty()) {
+                    String[] crudas = lineas.toArray(new String[0]);
+                    long[] nums = estado.numeros.stream().mapToLong(Long::longValue).toArray();
+                    enVuelo.add(pool.submit(() -> validar(catalogo, orden, crudas, nums)));
+                    lineas.clear();
+                    estado.numeros.clear();
+                }
+                while (!enVuelo.isEmpty() && (enVuelo.size() >= 2 * hilos || linea == null)) {
+                    aplicar(catalogo, masiva, con, ps, esperar(enVuelo.poll()), salidaRechazos, estado);
+                    if (progreso != null) progreso.actualizar(in.leidos, total, estado.aceptadas, estado.rechazadas);
+                }
+                if (linea == null) break;
+            }
+            con.setAutoCommit(true);
+            estado.lineas = numero - 1;
+        } catch (SQLException ex) {
+            throw new RuntimeException("Error importando " + catalogo, ex);
+        } finally {
+            pool.shutdownNow();
+        }
+        Path archivo = rechazos;
+        if (estado.rechazadas == 0) { Files.deleteIfExists(rechazos); archivo = null; }
+        return new ResultadoImportacion(catalogo, estado.lineas, estado.aceptadas, estado.rechazadas, archivo, System.nanoTime() - t0);
+    }
+
+    // ---- Etapas ----
+
+    /** Corre en el pool: separa y valida; no toca la base. */
+    private Bloque validar(Catalogo catalogo, int[] orden, String[] crudas, long[] numeros) {
+        Bloque b = new Bloque(crudas, numeros);
+        for (int i = 0; i < crudas.length; i++) {
+            try {
+                String[] campos = LectorCSV.campos(crudas[i], separador);
+                String[] ordenados = new String[orden.length];
+                for (int k = 0; k < orden.length; k++)
+                    ordenados[k] = orden[k] >= 0 && orden[k] < campos.length ? campos[orden[k]] : "";
+                b.valores[i] = catalogo.validar(ordenados);
+            } catch (IllegalArgumentException ex) {
+                b.motivos[i] = ex.getMessage();
+            }
+        }
+        return b;
+    }
+
+    /** Corre en el hilo lector: MERGE por lotes del bloque y commit. */
+    private void aplicar(Catalogo catalogo, CambioTrigger.Masiva masiva, Connection con, PreparedStatement ps, Bloque b, BufferedWriter rechazos, Estado estado)
+            throws SQLException, IOException {
+        int[] enLote = new int[b.valores.length];
+        int n = 0;
+        for (int i = 0; i < b.valores.length; i++) {
+            if (b.valores[i] == null) continue;
+            Object[] v = b.valores[i];
+            for (int k = 0; k < v.length; k++) ps.setObject(k + 1, v[k]);
+            ps.addBatch();
+            enLote[n++] = i;
+        }
+        if (n > 0) {
+            try {
+                ps.executeBatch();
+            } catch (BatchUpdateException ex) {
+                int[] cuentas = ex.getUpdateCounts();
+                for (int j = 0; j < n; j++)
+                    if (j >= cuentas.length || cuentas[j] == Statement.EXECUTE_FAILED) b.motivos[enLote[j]] = "Error en base de datos: " + ex.getMessage();
+            }
+            masiva.anotar(con, Cambio.Tabla.valueOf(catalogo.name())); // un cambio por bloque, no por fila
+            con.commit();
+            if (catalogo != Catalogo.PROFESOR) CacheMetadatos.invalidarTodo(); // el bloque pudo cambiar semestres/activos
+        }
+        for (int i = 0; i < b.crudas.length; i++) {
+            if (b.motivos[i] == null) { estado.aceptadas++; continue; }
+            estado.rechazadas++;
+            rechazos.write(b.numeros[i] + "," + LectorCSV.escapar(b.motivos[i]) + "," + LectorCSV.escapar(b.crudas[i]));
+            rechazos.newLine();
+        }
+    }
+
+    // ---- Apoyo ----
+
+    private static int[] ordenColumnas(Catalogo catalogo, String[] encabezado) {
+        int[] orden = new int[catalogo.columnas.length];
+        Arrays.fill(orden, -1);
+        for (int i = 0; i < encabezado.length; i++) {
+            String nombre = encabezado[i].trim().toUpperCase(Locale.ROOT);
+            for (int k = 0; k < catalogo.columnas.length; k++)
+                if (catalogo.columnas[k].equals(nombre)) orden[k] = i;
+        }
+        if (orden[0] < 0)
+            throw new IllegalArgumentException("El encabezado debe incluir la columna " + catalogo.columnas[0]
+                    + " (columnas reconocidas: " + String.join(",", catalogo.columnas) + ")");
+        return orden;
+    }
+
+    private static String quitarBom(String s) {
+        return !s.isEmpty() && s.charAt(0) == '\uFEFF' ? s.substring(1) : s;
+    }
+
+    private static Bloque esperar(Future<Bloque> f) throws IOException {
+        try {
+            return f.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Importación interrumpida", ex);
+        } catch (ExecutionException ex) {
+            throw new IOException("Error validando bloque", ex.getCause());
+        }
+    }
+
+    private static final class Bloque {
+        final String[] crudas;
+        final long[] numeros;
+        final Object[][] valores;
+        final String[] motivos;
+
+        Bloque(String[] crudas, long[] numeros) {
+            this.crudas = crudas;
+            this.numeros = numeros;
+            this.valores = new Object[crudas.length][];
+            this.motivos = new String[crudas.length];
+        }
+    }
+
+    private static final class Estado {
+        final List<Long> numeros = new ArrayList<>(LINEAS_POR_BLOQUE);
+        long lineas;
+        long aceptadas;
+        long rechazadas;
+    }
+
+    /** Cuenta los bytes leídos para reportar el avance. */
+    private static final class Contador extends FilterInputStream {
+        volatile long leidos;
+
+        Contador(InputStream in) { super(in); }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) leidos++;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buf, int off, int len) throws IOException {
+            int n = super.read(buf, off, len);
+            if (n > 0) leidos += n;
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long s = super.skip(n);
+            leidos += s;
+            return s;
+        }
+    }
+}
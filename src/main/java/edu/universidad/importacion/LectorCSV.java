@@ -0,0 +1,46 @@
+package edu.universidad.importacion;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Separa una línea CSV en campos. Admite comillas dobles y "" como escape;
+ * no admite saltos de línea dentro de un campo (cada registro es una línea).
+ */
+public final class LectorCSV {
+    private LectorCSV() {}
+
+    public static String[] campos(String linea, char separador) {
+        List<String> out = new ArrayList<>();
+        StringBuilder campo = new StringBuilder();
+        boolean enComillas = false;
+        for (int i = 0; i < linea.length(); i++) {
+            char ch = linea.charAt(i);
+            if (enComillas) {
+                if (ch == '"') {
+                    if (i + 1 < linea.length() && linea.charAt(i + 1) == '"') { campo.append('"'); i++; }
+                    else enComillas = false;
+                } else {
+                    campo.append(ch);
+                }
+            } else if (ch == '"') {
+                enComillas = true;
+            } else if (ch == separador) {
+                out.add(campo.toString().trim());
+                campo.setLength(0);
+            } else {
+                campo.append(ch);
+            }
+        }
+        if (enComillas) throw new IllegalArgumentException("Comillas sin cerrar");
+        out.add(campo.toString().trim());
+        return out.toArray(new String[0]);
+    }
+
+    /** Escapa un valor para escribirlo en un CSV separado por comas. */
+    public static String escapar(String valor) {
+        if (valor == null) return "";
+        if (valor.indexOf(',') < 0 && valor.indexOf('"') < 0 && valor.indexOf('\n') < 0 && valor.indexOf('\r') < 0) return valor;
+        return '"' + valor.replace("\"", "\"\"").replace("\r", " ").replace("\n", " ") + '"';
+    }
+}
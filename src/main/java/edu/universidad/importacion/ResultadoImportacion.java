@@ -0,0 +1,19 @@
+package edu.universidad.importacion;
+
+import java.nio.file.Path;
+
+/** Resumen de una importación; {@code archivoRechazos} es null si no hubo rechazos. */
+public record ResultadoImportacion(Catalogo catalogo, long lineas, long aceptadas, long rechazadas,
+                                   Path archivoRechazos, long duracionNanos) {
+
+    public double filasPorSegundo() {
+        return duracionNanos == 0 ? 0 : lineas * 1e9 / duracionNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Importación %s: %d líneas, %d aceptadas, %d rechazadas (%.0f filas/s)%s",
+                catalogo, lineas, aceptadas, rechazadas, filasPorSegundo(),
+                archivoRechazos == null ? "" : " -> rechazos en " + archivoRechazos);
+    }
+}
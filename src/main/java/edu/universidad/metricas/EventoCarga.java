@@ -0,0 +1,37 @@
+package edu.universidad.metricas;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Evento JFR por carga de un repositorio desde la base
+ * (CursosInscritos.cargarDatos): indexar catálogos, leer e hidratar.
+ */
+@Name("edu.universidad.CargaRepositorio")
+@Label("Carga de repositorio")
+@Category({"Universidad", "Repositorios"})
+@Description("Relectura completa de un repositorio en memoria")
+@Threshold("20 ms")
+public final class EventoCarga extends Event {
+
+    @Label("Repositorio")
+    String repositorio;
+
+    @Label("Filas")
+    long filas;
+
+    public EventoCarga(String repositorio) {
+        this.repositorio = repositorio;
+        begin();
+    }
+
+    public void terminar(long filas) {
+        this.filas = filas;
+        commit();
+    }
+}
@@ -0,0 +1,46 @@
+package edu.universidad.metricas;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Evento JFR por escritura de una inscripción ya validada: MERGE o UPDATE
+ * más el commit, que es donde corren los triggers de conteos y cambios.
+ */
+@Name("edu.universidad.EscrituraInscripcion")
+@Label("Escritura de inscripción")
+@Category({"Universidad", "Inscripciones"})
+@Description("MERGE/UPDATE de INSCRIPCION y su commit")
+@Threshold("5 ms")
+@StackTrace(false)
+public final class EventoEscritura extends Event {
+
+    @Label("Operación")
+    String operacion;
+
+    @Label("Curso")
+    int cursoId;
+
+    @Label("Estudiante")
+    double codigo;
+
+    @Label("Filas")
+    int filas;
+
+    public EventoEscritura(String operacion, int cursoId, double codigo) {
+        this.operacion = operacion;
+        this.cursoId = cursoId;
+        this.codigo = codigo;
+        begin();
+    }
+
+    public void terminar(int filas) {
+        this.filas = filas;
+        commit();
+    }
+}
@@ -0,0 +1,52 @@
+package edu.universidad.metricas;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Evento JFR por recarga de un controlador ("Cargando cursos"): la consulta
+ * en su hilo virtual, sin la espera del hilo FX. Cancelada indica que otra
+ * recarga la sustituyó y su resultado se descartó.
+ */
+@Name("edu.universidad.Recarga")
+@Label("Recarga de controlador")
+@Category({"Universidad", "UI"})
+@Description("Consulta de recarga de una vista, fuera del hilo de JavaFX")
+@Threshold("50 ms")
+@StackTrace(false)
+public final class EventoRecarga extends Event {
+
+    @Label("Acción")
+    String accion;
+
+    @Label("Filas")
+    long filas;
+
+    @Label("Cancelada")
+    boolean cancelada;
+
+    @Label("Error")
+    boolean error;
+
+    public EventoRecarga(String accion) {
+        this.accion = accion;
+        begin();
+    }
+
+    public void terminar(long filas, boolean cancelada) {
+        this.filas = filas;
+        this.cancelada = cancelada;
+        commit();
+    }
+
+    public void fallo(boolean cancelada) {
+        this.cancelada = cancelada;
+        error = true;
+        commit();
+    }
+}
@@ -0,0 +1,69 @@
+package edu.universidad.metricas;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Evento JFR por cada execute* de una sentencia del pool, con el SQL
+ * normalizado de {@code ConsultasLentas} (literales como ?) y las filas
+ * afectadas, -1 si no se saben (executeQuery, execute). Mide solo la
+ * ejecución: ni la conexión ni la lectura de filas, que quedan en las
+ * métricas por método.
+ *
+ * Solo se graba lo que supera el umbral; se cambia al grabar, p. ej.
+ * -XX:StartFlightRecording:+edu.universidad.Sql#threshold=1ms (el + porque
+ * no está en default.jfc)
+ */
+@Name("edu.universidad.Sql")
+@Label("Sentencia SQL")
+@Category({"Universidad", "Persistencia"})
+@Description("Ejecución de una sentencia JDBC del pool")
+@Threshold("5 ms")
+@StackTrace(false)
+public final class EventoSql extends Event {
+
+    @Label("Sentencia")
+    String sentencia;
+
+    @Label("Filas")
+    long filas;
+
+    @Label("Error")
+    boolean error;
+
+    /** Empieza a medir; crearlo justo antes de ejecutar. */
+    public EventoSql() {
+        begin();
+    }
+
+    /** Deja de medir; true si hay que {@link #grabar} (grabación activa y umbral superado). */
+    public boolean terminar() {
+        end();
+        return shouldCommit();
+    }
+
+    /** {@code resultado}: lo que devolvió execute*; null si lanzó. */
+    public void grabar(String sentencia, Object resultado, boolean error) {
+        this.sentencia = sentencia;
+        this.filas = filas(resultado);
+        this.error = error;
+        commit();
+    }
+
+    private static long filas(Object resultado) {
+        long n = 0;
+        switch (resultado) {
+            case Integer i -> n = i;
+            case Long l -> n = l;
+            case int[] lote -> { for (int c : lote) if (c > 0) n += c; }
+            case long[] lote -> { for (long c : lote) if (c > 0) n += c; }
+            case null, default -> n = -1;
+        }
+        return n;
+    }
+}
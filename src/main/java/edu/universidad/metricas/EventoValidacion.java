@@ -0,0 +1,43 @@
+package edu.universidad.metricas;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Evento JFR por validación de una inscripción: las consultas FOR UPDATE de
+ * curso y estudiante, incluida la espera por sus bloqueos. El estado es el
+ * de ResultadoInscripcion (OK, CURSO_INACTIVO...).
+ */
+@Name("edu.universidad.ValidacionInscripcion")
+@Label("Validación de inscripción")
+@Category({"Universidad", "Inscripciones"})
+@Description("Reglas de curso activo y semestre, consultadas con bloqueo")
+@Threshold("2 ms")
+@StackTrace(false)
+public final class EventoValidacion extends Event {
+
+    @Label("Curso")
+    int cursoId;
+
+    @Label("Estudiante")
+    double codigo;
+
+    @Label("Estado")
+    String estado;
+
+    public EventoValidacion(int cursoId, double codigo) {
+        this.cursoId = cursoId;
+        this.codigo = codigo;
+        begin();
+    }
+
+    public void terminar(String estado) {
+        this.estado = estado;
+        commit();
+    }
+}
@@ -0,0 +1,96 @@
+package edu.universidad.metricas;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma de latencias en nanosegundos con cubetas log-lineales, como
+ * HdrHistogram: 64 cubetas por cada potencia de dos, así cualquier valor
+ * queda a menos de 1/64 (1,6 %) del límite de su cubeta, de 1 ns a unos 18
+ * minutos (lo mayor cae en la última cubeta). El máximo se guarda exacto.
+ *
+ * {@link #registrar} no crea objetos ni toma candados: un incremento en un
+ * AtomicLongArray de tamaño fijo, dos LongAdder y, si hay nuevo máximo, un
+ * CAS. Los percentiles se calculan al leer, recorriendo las cubetas.
+ */
+public final class Histograma {
+
+    private static final int BITS_SUB = 6;
+    private static final int SUB = 1 << BITS_SUB;
+    private static final int EXP_MAX = 40; // 2^40 ns ≈ 18 min
+    static final int CUBETAS = (EXP_MAX - BITS_SUB + 2) * SUB;
+
+    private final AtomicLongArray cuentas = new AtomicLongArray(CUBETAS);
+    private final LongAdder suma = new LongAdder();
+    private final AtomicLong maximo = new AtomicLong();
+
+    public void registrar(long nanos) {
+        if (nanos < 0) nanos = 0;
+        cuentas.incrementAndGet(cubeta(nanos));
+        suma.add(nanos);
+        long max = maximo.get();
+        while (nanos > max && !maximo.compareAndSet(max, nanos)) max = maximo.get();
+    }
+
+    /** Vuelve a cero; lo que se registre a la vez puede perderse. */
+    public void reiniciar() {
+        for (int i = 0; i < CUBETAS; i++) cuentas.set(i, 0);
+        suma.reset();
+        maximo.set(0);
+    }
+
+    /** Cuentas, media, percentiles y máximo leídos en una sola pasada. */
+    public Resumen resumen() {
+        long[] copia = new long[CUBETAS];
+        long n = 0;
+        for (int i = 0; i < CUBETAS; i++) n += copia[i] = cuentas.get(i);
+        long max = maximo.get();
+        return new Resumen(n, n == 0 ? 0 : suma.sum() / (double) n,
+                percentil(copia, n, 0.50, max), percentil(copia, n, 0.99, max), percentil(copia, n, 0.999, max), max);
+    }
+
+    /** Valores en nanosegundos; los percentiles son el límite superior de su cubeta (nunca más que el máximo). */
+    public record Resumen(long cuenta, double media, long p50, long p99, long p999, long max) {
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "n=%d media=%s p50=%s p99=%s p999=%s max=%s",
+                    cuenta, tiempo(media), tiempo(p50), tiempo(p99), tiempo(p999), tiempo(max));
+        }
+    }
+
+    /** 850 ns, 12.4 µs, 3.10 ms, 1.25 s. */
+    public static String tiempo(double nanos) {
+        if (nanos < 1e3) return String.format(Locale.ROOT, "%.0f ns", nanos);
+        if (nanos < 1e6) return String.format(Locale.ROOT, "%.1f µs", nanos / 1e3);
+        if (nanos < 1e9) return String.format(Locale.ROOT, "%.2f ms", nanos / 1e6);
+        return String.format(Locale.ROOT, "%.2f s", nanos / 1e9);
+    }
+
+    static int cubeta(long v) {
+        if (v < SUB) return (int) v;
+        int exp = 63 - Long.numberOfLeadingZeros(v);
+        if (exp > EXP_MAX) return CUBETAS - 1;
+        return (exp - BITS_SUB + 1) * SUB + (int) ((v >>> (exp - BITS_SUB)) & (SUB - 1));
+    }
+
+    /** Mayor valor que cae en la cubeta {@code i}. */
+    static long limiteSuperior(int i) {
+        if (i < 2 * SUB) return i;
+        int exp = i / SUB + BITS_SUB - 1;
+        long inferior = (long) (SUB + i % SUB) << (exp - BITS_SUB);
+        return inferior + (1L << (exp - BITS_SUB)) - 1;
+    }
+
+    private static long percentil(long[] cuentas, long n, double q, long max) {
+        if (n == 0) return 0;
+        long rango = Math.max(1, (long) Math.ceil(q * n));
+        long acumulado = 0;
+        for (int i = 0; i < cuentas.length; i++) {
+            acumulado += cuentas[i];
+            if (acumulado >= rango) return Math.min(limiteSuperior(i), max);
+        }
+        return max;
+    }
+}
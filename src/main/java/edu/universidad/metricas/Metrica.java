@@ -0,0 +1,140 @@
+package edu.universidad.metricas;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Tiempos de una operación (un método de DAO, una acción de la UI...):
+ * latencias en un {@link Histograma}, llamadas, errores y filas.
+ *
+ * Uso, sin lambdas para no crear objetos por llamada:
+ * <pre>
+ *   long t0 = M_LISTAR.inicio();
+ *   try (...) { ...; M_LISTAR.exito(t0, out.size()); }
+ *   catch (SQLException ex) { M_LISTAR.fallo(t0); throw ...; }
+ * </pre>
+ * Con las métricas apagadas {@link #inicio()} devuelve 0 sin leer el reloj y
+ * {@link #exito}/{@link #fallo} vuelven de inmediato: lo que cuesta es leer
+ * un volatile. Una llamada que empezó apagada no se cuenta aunque se
+ * enciendan a mitad.
+ */
+public final class Metrica implements MetricaMXBean {
+
+    private final String grupo;
+    private final String nombre;
+    private final String clave;
+    private final Histograma latencias = new Histograma();
+    private final LongAdder llamadas = new LongAdder();
+    private final LongAdder errores = new LongAdder();
+    private final LongAdder filas = new LongAdder();
+
+    Metrica(String grupo, String nombre) {
+        this.grupo = grupo;
+        this.nombre = nombre;
+        this.clave = grupo + "." + nombre;
+    }
+
+    /** grupo.nombre, p. ej. EstudianteDAO.listar; también nombra sus eventos JFR. */
+    public String clave() {
+        return clave;
+    }
+
+    /** Marca de inicio; 0 si las métricas están apagadas. */
+    public long inicio() {
+        if (!Metricas.activas) return 0L;
+        long t = System.nanoTime();
+        return t == 0 ? 1 : t;
+    }
+
+    /** Registra una llamada correcta; devuelve {@code filas} para poder encadenar. */
+    public int exito(long inicio, int filas) {
+        if (inicio != 0) registrar(inicio, filas);
+        return filas;
+    }
+
+    public long exito(long inicio, long filas) {
+        if (inicio != 0) registrar(inicio, filas);
+        return filas;
+    }
+
+    public void fallo(long inicio) {
+        if (inicio == 0) return;
+        errores.increment();
+        registrar(inicio, 0);
+    }
+
+    private void registrar(long inicio, long n) {
+        latencias.registrar(System.nanoTime() - inicio);
+        llamadas.increment();
+        if (n > 0) filas.add(n);
+    }
+
+    public Histograma.Resumen resumen() {
+        return latencias.resumen();
+    }
+
+    @Override
+    public String getGrupo() {
+        return grupo;
+    }
+
+    @Override
+    public String getNombre() {
+        return nombre;
+    }
+
+    @Override
+    public long getLlamadas() {
+        return llamadas.sum();
+    }
+
+    @Override
+    public long getErrores() {
+        return errores.sum();
+    }
+
+    @Override
+    public long getFilas() {
+        return filas.sum();
+    }
+
+    @Override
+    public double getMediaMicros() {
+        return resumen().media() / 1e3;
+    }
+
+    @Override
+    public double getP50Micros() {
+        return resumen().p50() / 1e3;
+    }
+
+    @Override
+    public double getP99Micros() {
+        return resumen().p99() / 1e3;
+    }
+
+    @Override
+    public double getP999Micros() {
+        return resumen().p999() / 1e3;
+    }
+
+    @Override
+    public double getMaxMicros() {
+        return resumen().max() / 1e3;
+    }
+
+    @Override
+    public void reiniciar() {
+        latencias.reiniciar();
+        llamadas.reset();
+        errores.reset();
+        filas.reset();
+    }
+
+    @Override
+    public String toString() {
+        Histograma.Resumen r = resumen();
+        return String.format(Locale.ROOT, "%-40s %,10d %,7d %,12d %10s %10s %10s %10s", clave, getLlamadas(), getErrores(),
+                getFilas(), Histograma.tiempo(r.p50()), Histograma.tiempo(r.p99()), Histograma.tiempo(r.p999()), Histograma.tiempo(r.max()));
+    }
+}
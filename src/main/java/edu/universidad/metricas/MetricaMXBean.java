@@ -0,0 +1,28 @@
+package edu.universidad.metricas;
+
+/** Vista JMX de una {@link Metrica}: edu.universidad:type=Metrica,grupo=...,name=... */
+public interface MetricaMXBean {
+
+    String getGrupo();
+
+    String getNombre();
+
+    long getLlamadas();
+
+    long getErrores();
+
+    /** Filas leídas o afectadas, sumadas entre todas las llamadas. */
+    long getFilas();
+
+    double getMediaMicros();
+
+    double getP50Micros();
+
+    double getP99Micros();
+
+    double getP999Micros();
+
+    double getMaxMicros();
+
+    void reiniciar();
+}
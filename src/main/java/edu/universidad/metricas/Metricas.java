@@ -0,0 +1,137 @@
+package edu.universidad.metricas;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registro de {@link Metrica} por (grupo, nombre), publicado en el
+ * MBeanServer de la plataforma para jconsole/VisualVM:
+ * edu.universidad:type=Metrica,grupo=EstudianteDAO,name=upsert por
+ * operación y edu.universidad:type=Metricas,name=Control para encender,
+ * apagar, reiniciar o pedir el informe.
+ *
+ * Apagadas por omisión; -Duni.metricas=true las enciende desde el arranque
+ * y el atributo Activas del control lo hace en caliente.
+ */
+public final class Metricas {
+
+    static volatile boolean activas = Boolean.getBoolean("uni.metricas");
+
+    private static final String DOMINIO = "edu.universidad";
+    private static final ConcurrentHashMap<String, ConcurrentHashMap<String, Metrica>> GRUPOS = new ConcurrentHashMap<>();
+
+    static {
+        registrar(nombre("type", "Metricas", "name", "Control"), new Control());
+    }
+
+    private Metricas() { }
+
+    /**
+     * La métrica de esa operación, creándola (y su MBean) la primera vez.
+     * Buscar una que ya existe no crea objetos, así se puede llamar por
+     * operación con nombres variables (p. ej. la descripción de una acción).
+     */
+    public static Metrica de(String grupo, String nombre) {
+        ConcurrentHashMap<String, Metrica> delGrupo = GRUPOS.get(grupo);
+        if (delGrupo == null) delGrupo = GRUPOS.computeIfAbsent(grupo, g -> new ConcurrentHashMap<>());
+        Metrica m = delGrupo.get(nombre);
+        if (m != null) return m;
+        Metrica nueva = new Metrica(grupo, nombre);
+        m = delGrupo.putIfAbsent(nombre, nueva);
+        if (m != null) return m;
+        registrar(nombre("type", "Metrica", "grupo", grupo, "name", nombre), nueva);
+        return nueva;
+    }
+
+    public static boolean activas() {
+        return activas;
+    }
+
+    public static void activar(boolean si) {
+        activas = si;
+    }
+
+    /** Todas, por grupo y nombre. */
+    public static List<Metrica> todas() {
+        List<Metrica> out = new ArrayList<>();
+        GRUPOS.values().forEach(g -> out.addAll(g.values()));
+        out.sort(Comparator.comparing(Metrica::getGrupo).thenComparing(Metrica::getNombre));
+        return out;
+    }
+
+    public static void reiniciar() {
+        todas().forEach(Metrica::reiniciar);
+    }
+
+    /** Una línea por operación con al menos una llamada. */
+    public static String informe() {
+        StringBuilder sb = new StringBuilder(String.format(Locale.ROOT, "%-40s %10s %7s %12s %10s %10s %10s %10s%n",
+                "operación", "llamadas", "errores", "filas", "p50", "p99", "p999", "max"));
+        for (Metrica m : todas()) if (m.getLlamadas() > 0) sb.append(m).append(System.lineSeparator());
+        return sb.toString();
+    }
+
+    private static ObjectName nombre(String... claveValor) {
+        StringBuilder sb = new StringBuilder(DOMINIO).append(':');
+        for (int i = 0; i < claveValor.length; i += 2) {
+            if (i > 0) sb.append(',');
+            String v = claveValor[i + 1];
+            sb.append(claveValor[i]).append('=').append(v.matches("[^,=:\"*?\\n]*") ? v : ObjectName.quote(v));
+        }
+        try {
+            return new ObjectName(sb.toString());
+        } catch (JMException ex) {
+            throw new IllegalArgumentException("Nombre JMX inválido: " + sb, ex);
+        }
+    }
+
+    /** Sin JMX (p. ej. un MBeanServer restringido) las métricas siguen funcionando. */
+    private static void registrar(ObjectName nombre, Object mbean) {
+        try {
+            MBeanServer servidor = ManagementFactory.getPlatformMBeanServer();
+            if (!servidor.isRegistered(nombre)) servidor.registerMBean(mbean, nombre);
+        } catch (JMException | SecurityException ex) {
+            System.err.println("Métrica sin publicar en JMX " + nombre + ": " + ex);
+        }
+    }
+
+    /** Control por JMX. */
+    public interface ControlMXBean {
+        boolean isActivas();
+
+        void setActivas(boolean activas);
+
+        String getInforme();
+
+        void reiniciar();
+    }
+
+    private static final class Control implements ControlMXBean {
+        @Override
+        public boolean isActivas() {
+            return activas;
+        }
+
+        @Override
+        public void setActivas(boolean si) {
+            activas = si;
+        }
+
+        @Override
+        public String getInforme() {
+            return informe();
+        }
+
+        @Override
+        public void reiniciar() {
+            Metricas.reiniciar();
+        }
+    }
+}
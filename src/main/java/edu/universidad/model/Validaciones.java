@@ -0,0 +1,21 @@
+package edu.universidad.model;
+
+/** Reglas de validación compartidas por los formularios y la importación masiva. */
+public final class Validaciones {
+    public static final String PATRON_EMAIL = "^.+@.+\\..+$";
+
+    private Validaciones() {}
+
+    /** El email es opcional; si viene debe tener forma usuario@dominio.ext. */
+    public static boolean emailValido(String email) {
+        return email == null || email.isBlank() || email.matches(PATRON_EMAIL);
+    }
+
+    public static boolean promedioValido(double promedio) {
+        return promedio >= 0 && promedio <= 5;
+    }
+
+    public static boolean semestreValido(int semestre) {
+        return semestre >= 1 && semestre <= 12;
+    }
+}
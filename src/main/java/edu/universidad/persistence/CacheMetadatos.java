@@ -0,0 +1,104 @@
+package edu.universidad.persistence;
+
+import edu.universidad.colecciones.CacheLRU;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.EnumSet;
+import java.util.List;
+
+/**
+ * Caché de los datos que consultan las validaciones de inscripción:
+ * semestre/activo de CURSO y semestre de ESTUDIANTE, incluidas las
+ * búsquedas de IDs inexistentes. Los DAO, los controladores y el
+ * importador la invalidan tras cada escritura. Con {@link #escuchar} también
+ * lo hacen los cambios de otros procesos conectados a la misma base; sin
+ * él, el TTL acota cuánto puede durar un dato viejo.
+ * Tamaño y TTL ajustables con -Duni.cache.max y -Duni.cache.ttlMs.
+ */
+public final class CacheMetadatos {
+
+    /** Lo que la validación necesita de un curso. */
+    public record InfoCurso(int semestre, boolean activo) {}
+
+    private static final int MAX = Integer.getInteger("uni.cache.max", 10_000);
+    private static final long TTL_MS = Long.getLong("uni.cache.ttlMs", 30_000L);
+
+    static final CacheLRU<Integer, InfoCurso> CURSOS = new CacheLRU<>("cursos", MAX, TTL_MS);
+    static final CacheLRU<Double, Integer> ESTUDIANTES = new CacheLRU<>("estudiantes", MAX, TTL_MS);
+
+    private CacheMetadatos() {}
+
+    /** Semestre y estado del curso, o null si no existe. */
+    public static InfoCurso curso(int id) {
+        return CURSOS.obtener(id, CacheMetadatos::leerCurso);
+    }
+
+    /** Semestre del estudiante, o null si no existe. */
+    public static Integer semestreEstudiante(double codigo) {
+        return ESTUDIANTES.obtener(codigo, CacheMetadatos::leerSemestreEstudiante);
+    }
+
+    public static void invalidarCurso(int id) {
+        CURSOS.invalidar(id);
+    }
+
+    public static void invalidarEstudiante(double codigo) {
+        ESTUDIANTES.invalidar(codigo);
+    }
+
+    /** Tras escrituras masivas (importación) o SQL que no se sabe qué filas tocó. */
+    public static void invalidarTodo() {
+        CURSOS.invalidarTodo();
+        ESTUDIANTES.invalidarTodo();
+    }
+
+    /** Invalida lo que otras instancias cambien en CURSO y ESTUDIANTE. */
+    public static NotificadorCambios.Suscripcion escuchar(NotificadorCambios notificador) {
+        return notificador.suscribir(EnumSet.of(Cambio.Tabla.CURSO, Cambio.Tabla.ESTUDIANTE), new NotificadorCambios.Oyente() {
+            @Override
+            public void alCambiar(List<Cambio> cambios) {
+                for (Cambio c : cambios) {
+                    if (c.operacion() == Cambio.Operacion.TABLA) { invalidarTodo(); return; } // carga masiva
+                    if (c.tabla() == Cambio.Tabla.CURSO) invalidarCurso(c.cursoId());
+                    else invalidarEstudiante(c.codigo());
+                }
+            }
+
+            @Override
+            public void alPerderCambios() {
+                invalidarTodo();
+            }
+        });
+    }
+
+    public static List<CacheLRU.Estadisticas> estadisticas() {
+        return List.of(CURSOS.estadisticas(), ESTUDIANTES.estadisticas());
+    }
+
+    private static InfoCurso leerCurso(Integer id) {
+        try (Connection con = H2DB.getConnection();
+             PreparedStatement ps = con.prepareStatement("SELECT SEMESTRE, ACTIVO FROM CURSO WHERE ID=?")) {
+            ps.setInt(1, id);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? new InfoCurso(rs.getInt(1), rs.getBoolean(2)) : null;
+            }
+        } catch (SQLException ex) {
+            throw new RuntimeException("Error leyendo curso", ex);
+        }
+    }
+
+    private static Integer leerSemestreEstudiante(Double codigo) {
+        try (Connection con = H2DB.getConnection();
+             PreparedStatement ps = con.prepareStatement("SELECT SEMESTRE FROM ESTUDIANTE WHERE CODIGO=?")) {
+            ps.setDouble(1, codigo);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : null;
+            }
+        } catch (SQLException ex) {
+            throw new RuntimeException("Error leyendo semestre de estudiante", ex);
+        }
+    }
+}
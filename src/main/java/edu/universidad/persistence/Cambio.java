@@ -0,0 +1,41 @@
+package edu.universidad.persistence;
+
+/**
+ * Una entrada de la bitácora CAMBIO: qué fila de qué tabla se insertó,
+ * modificó o borró. La clave va en {@code cursoId} (CURSO, INSCRIPCION) y/o
+ * {@code codigo} (ESTUDIANTE, PROFESOR, INSCRIPCION); la otra queda en null.
+ * Una carga masiva anota {@link Operacion#TABLA} sin clave: cualquier fila
+ * de la tabla pudo cambiar.
+ * {@code propio} indica que lo escribió esta instancia (mismo {@link H2DB#origen()}).
+ */
+public record Cambio(long secuencia, Tabla tabla, Operacion operacion, Integer cursoId, Double codigo, boolean propio) {
+
+    public enum Tabla { ESTUDIANTE, PROFESOR, CURSO, INSCRIPCION }
+
+    public enum Operacion {
+        INSERT("I"), UPDATE("U"), DELETE("D"),
+        /** Cambio grueso de una carga masiva (ver CambioTrigger.masiva): recargar la tabla entera. */
+        TABLA("*");
+
+        private final String codigo;
+
+        Operacion(String codigo) {
+            this.codigo = codigo;
+        }
+
+        /** Valor guardado en CAMBIO.OPERACION. */
+        String codigo() {
+            return codigo;
+        }
+
+        static Operacion de(String codigo) {
+            return switch (codigo) {
+                case "I" -> INSERT;
+                case "U" -> UPDATE;
+                case "D" -> DELETE;
+                case "*" -> TABLA;
+                default -> throw new IllegalArgumentException("Operación desconocida: " + codigo);
+            };
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package edu.universidad.persistence;
+
+import org.h2.api.Trigger;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+
+/**
+ * Trigger de fila (migración 6) sobre ESTUDIANTE, PROFESOR, CURSO e
+ * INSCRIPCION que anota cada cambio en la bitácora CAMBIO. Corre en la
+ * transacción de la sentencia, así la entrada aparece solo si el cambio se
+ * confirma.
+ * Un UPDATE que cambia la clave se anota como borrado de la vieja y alta de la nueva.
+ * ORIGEN sale de la variable de sesión @ORIGEN, que el pool de H2DB fija en
+ * cada conexión; vale también para las sentencias que llegan por AUTO_SERVER.
+ * Las cargas masivas abren {@link #masiva()} y anotan un solo cambio por
+ * tabla y commit con {@link Masiva#anotar}, en vez de una fila por registro.
+ * La base guarda el nombre de esta clase: no renombrarla sin una migración.
+ */
+public class CambioTrigger implements Trigger {
+
+    private static final String SQL =
+            "INSERT INTO CAMBIO (TABLA, OPERACION, CURSO_ID, CODIGO, ORIGEN) VALUES (?,?,?,?,@ORIGEN)";
+
+    // profundidad de masiva() en este hilo; el trigger corre en el hilo de la sentencia (base embebida)
+    private static final ThreadLocal<int[]> MASIVA = ThreadLocal.withInitial(() -> new int[1]);
+
+    private String tabla;
+    // posición (base 0) de la clave entera (ID de curso) y de la decimal (código de persona); -1 si la tabla no la tiene
+    private int colCurso = -1, colCodigo = -1;
+
+    @Override
+    public void init(Connection con, String schema, String trigger, String tabla, boolean antes, int tipo) throws SQLException {
+        this.tabla = tabla;
+        String curso, codigo;
+        switch (tabla) {
+            case "CURSO" -> { curso = "ID"; codigo = null; }
+            case "ESTUDIANTE" -> { curso = null; codigo = "CODIGO"; }
+            case "PROFESOR" -> { curso = null; codigo = "ID"; }
+            case "INSCRIPCION" -> { curso = "CURSO_ID"; codigo = "ESTUDIANTE_CODIGO"; }
+            default -> throw new SQLException("Tabla sin bitácora de cambios: " + tabla);
+        }
+        try (PreparedStatement ps = con.prepareStatement(
+                "SELECT COLUMN_NAME, ORDINAL_POSITION FROM INFORMATION_SCHEMA.COLUMNS WHERE TABLE_SCHEMA=? AND TABLE_NAME=?")) {
+            ps.setString(1, schema);
+            ps.setString(2, tabla);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    if (rs.getString(1).equals(curso)) colCurso = rs.getInt(2) - 1;
+                    if (rs.getString(1).equals(codigo)) colCodigo = rs.getInt(2) - 1;
+                }
+            }
+        }
+    }
+
+    @Override
+    public void fire(Connection con, Object[] anterior, Object[] nueva) throws SQLException {
+        if (MASIVA.get()[0] > 0) return; // la carga anota la tabla entera con Masiva.anotar
+        if (anterior != null && nueva != null) {
+            if (mismaClave(anterior, nueva)) { anotar(con, Cambio.Operacion.UPDATE, nueva); return; }
+            anotar(con, Cambio.Operacion.DELETE, anterior);
+            anotar(con, Cambio.Operacion.INSERT, nueva);
+            return;
+        }
+        if (anterior != null) anotar(con, Cambio.Operacion.DELETE, anterior);
+        else anotar(con, Cambio.Operacion.INSERT, nueva);
+    }
+
+    private boolean mismaClave(Object[] a, Object[] b) {
+        return (colCurso < 0 || a[colCurso].equals(b[colCurso])) && (colCodigo < 0 || a[colCodigo].equals(b[colCodigo]));
+    }
+
+    private void anotar(Connection con, Cambio.Operacion op, Object[] fila) throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement(SQL)) {
+            ps.setString(1, tabla);
+            ps.setString(2, op.codigo());
+            if (colCurso < 0) ps.setNull(3, Types.INTEGER); else ps.setInt(3, ((Number) fila[colCurso]).intValue());
+            if (colCodigo < 0) ps.setNull(4, Types.DOUBLE); else ps.setDouble(4, ((Number) fila[colCodigo]).doubleValue());
+            ps.executeUpdate();
+        }
+    }
+
+    /** Silencia el trigger para las sentencias de este hilo hasta close(); se puede anidar. */
+    public static Masiva masiva() {
+        MASIVA.get()[0]++;
+        return new Masiva();
+    }
+
+    /** Ámbito de {@link #masiva()}. */
+    public static final class Masiva implements AutoCloseable {
+        private boolean cerrada;
+
+        private Masiva() {}
+
+        /**
+         * Anota en la transacción de {@code con} que cualquier fila de
+         * {@code tabla} pudo cambiar; va antes de cada commit que la toque.
+         * Las sentencias de otra instancia conectada por AUTO_SERVER corren en
+         * el hilo del servidor y siguen anotando fila a fila.
+         */
+        public void anotar(Connection con, Cambio.Tabla tabla) throws SQLException {
+            try (PreparedStatement ps = con.prepareStatement(SQL)) {
+                ps.setString(1, tabla.name());
+                ps.setString(2, Cambio.Operacion.TABLA.codigo());
+                ps.setNull(3, Types.INTEGER);
+                ps.setNull(4, Types.DOUBLE);
+                ps.executeUpdate();
+            }
+        }
+
+        @Override
+        public void close() {
+            if (cerrada) return;
+            cerrada = true;
+            MASIVA.get()[0]--;
+        }
+    }
+}
@@ -0,0 +1,523 @@
+package edu.universidad.persistence;
+
+import edu.universidad.metricas.EventoSql;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pool acotado de conexiones JDBC con caché de PreparedStatement por conexión.
+ *
+ * Las conexiones entregadas son proxies: close() las devuelve al pool y
+ * prepareStatement(sql) reutiliza la sentencia ya preparada para ese texto SQL.
+ * Las demás sentencias (otras sobrecargas, prepareCall, createStatement) no
+ * se cachean pero también van en proxy, para que su getConnection() sea la
+ * conexión prestada y nunca la física. Las que sigan abiertas al devolver la
+ * conexión se cierran, como las cerraba antes el close() de la física.
+ * Se valida la conexión al prestarla si estuvo ociosa más de {@code validarTrasMs}
+ * y un hilo daemon descarta las ociosas más allá de {@code min}.
+ *
+ * Las sentencias prestadas (y las de createStatement) cronometran cada
+ * execute* para {@link ConsultasLentas}, guardando los parámetros ligados,
+ * y lo graban como {@link EventoSql} de JFR.
+ */
+public class ConnectionPool {
+
+    private final String url;
+    private final String user;
+    private final String pass;
+    private final int min;
+    private final int max;
+    private final long ociosaMaxMs;
+    private final long esperaMaxMs;
+    private final long validarTrasMs;
+    private final int maxSentencias;
+    private final String alAbrir; // se ejecuta una vez en cada conexión física nueva; null si no hay
+
+    private final LinkedBlockingDeque<Entrada> libres = new LinkedBlockingDeque<>();
+    private final Semaphore permisos;
+    private final AtomicInteger abiertas = new AtomicInteger();
+    private final ScheduledExecutorService limpiador;
+    private volatile boolean cerrado;
+
+    // ---- Contadores ----
+    private final LongAdder prestamos = new LongAdder();
+    private final LongAdder esperaNanos = new LongAdder();
+    private final AtomicLong esperaMaxNanos = new AtomicLong();
+    private final LongAdder aciertos = new LongAdder();
+    private final LongAdder fallos = new LongAdder();
+    private final LongAdder creadas = new LongAdder();
+    private final LongAdder descartadas = new LongAdder();
+
+    public ConnectionPool(String url, String user, String pass, int min, int max,
+                          long ociosaMaxMs, long esperaMaxMs, long validarTrasMs, int maxSentencias) {
+        this(url, user, pass, min, max, ociosaMaxMs, esperaMaxMs, validarTrasMs, maxSentencias, null);
+    }
+
+    /** Con {@code alAbrir}: sentencia que prepara cada conexión física al crearla (p. ej. un SET de sesión). */
+    public ConnectionPool(String url, String user, String pass, int min, int max,
+                          long ociosaMaxMs, long esperaMaxMs, long validarTrasMs, int maxSentencias, String alAbrir) {
+        if (max < 1 || min < 0 || min > max) throw new IllegalArgumentException("Tamaños de pool inválidos: min=" + min + " max=" + max);
+        this.url = url;
+        this.user = user;
+        this.pass = pass;
+        this.min = min;
+        this.max = max;
+        this.ociosaMaxMs = ociosaMaxMs;
+        this.esperaMaxMs = esperaMaxMs;
+        this.validarTrasMs = validarTrasMs;
+        this.maxSentencias = maxSentencias;
+        this.alAbrir = alAbrir;
+        this.permisos = new Semaphore(max, true);
+        this.limpiador = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "h2-pool-limpiador");
+            t.setDaemon(true);
+            return t;
+        });
+        long periodo = Math.max(1000, ociosaMaxMs / 2);
+        limpiador.scheduleWithFixedDelay(this::desalojarOciosas, periodo, periodo, TimeUnit.MILLISECONDS);
+    }
+
+    /** Presta una conexión; espera hasta {@code esperaMaxMs} si el pool está agotado. */
+    public Connection obtener() throws SQLException {
+        if (cerrado) throw new SQLException("El pool de conexiones está cerrado");
+        long t0 = System.nanoTime();
+        try {
+            if (!permisos.tryAcquire(esperaMaxMs, TimeUnit.MILLISECONDS))
+                throw new SQLException("Tiempo de espera agotado obteniendo conexión (max=" + max + ")");
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrumpido esperando conexión", ex);
+        }
+        try {
+            Entrada e;
+            while ((e = libres.pollFirst()) != null) { // LIFO: la más reciente suele seguir válida
+                if (esValida(e)) break;
+                descartar(e);
+            }
+            if (e == null) e = crear();
+            registrarEspera(System.nanoTime() - t0);
+            return e.prestar();
+        } catch (SQLException | RuntimeException ex) {
+            permisos.release();
+            throw ex;
+        }
+    }
+
+    /** Cierra todas las conexiones ociosas; las prestadas se cierran al devolverse. */
+    public void cerrar() {
+        cerrado = true;
+        limpiador.shutdownNow();
+        Entrada e;
+        while ((e = libres.pollFirst()) != null) descartar(e);
+    }
+
+    public Estadisticas estadisticas() {
+        long n = prestamos.sum();
+        long hits = aciertos.sum();
+        long miss = fallos.sum();
+        return new Estadisticas(n,
+                n == 0 ? 0 : esperaNanos.sum() / 1e6 / n,
+                esperaMaxNanos.get() / 1e6,
+                hits, miss,
+                hits + miss == 0 ? 0 : (double) hits / (hits + miss),
+                abiertas.get(), libres.size(), creadas.sum(), descartadas.sum());
+    }
+
+    // ---- Internos ----
+
+    private Entrada crear() throws SQLException {
+        Connection con = DriverManager.getConnection(url, user, pass);
+        if (alAbrir != null) {
+            try (Statement st = con.createStatement()) {
+                st.execute(alAbrir);
+            } catch (SQLException ex) {
+                con.close();
+                throw ex;
+            }
+        }
+        abiertas.incrementAndGet();
+        creadas.increment();
+        return new Entrada(con);
+    }
+
+    private boolean esValida(Entrada e) {
+        try {
+            if (e.con.isClosed()) return false;
+            if (System.currentTimeMillis() - e.ultimoUso < validarTrasMs) return true;
+            return e.con.isValid(2);
+        } catch (SQLException ex) {
+            return false;
+        }
+    }
+
+    private void devolver(Entrada e) {
+        try {
+            e.liberarPrestadas(); // sentencias sin cerrar: vuelven a la caché, no quedan "en uso" para siempre
+            if (!e.con.getAutoCommit()) { // trabajo sin confirmar no sobrevive al préstamo
+                e.con.rollback();
+                e.con.setAutoCommit(true);
+            }
+            e.ultimoUso = System.currentTimeMillis();
+            if (cerrado) descartar(e); else libres.offerFirst(e);
+        } catch (SQLException ex) {
+            descartar(e);
+        } finally {
+            permisos.release();
+        }
+    }
+
+    private void descartar(Entrada e) {
+        e.cerrarSentencias();
+        try { e.con.close(); } catch (SQLException ignored) {}
+        abiertas.decrementAndGet();
+        descartadas.increment();
+    }
+
+    private void desalojarOciosas() {
+        long limite = System.currentTimeMillis() - ociosaMaxMs;
+        Iterator<Entrada> it = libres.descendingIterator(); // las más viejas al final
+        while (it.hasNext() && abiertas.get() > min) {
+            Entrada e = it.next();
+            if (e.ultimoUso < limite && libres.removeLastOccurrence(e)) descartar(e);
+        }
+    }
+
+    private void registrarEspera(long nanos) {
+        prestamos.increment();
+        esperaNanos.add(nanos);
+        esperaMaxNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    private static Object invocar(Object destino, Method m, Object[] args) throws Throwable {
+        try {
+            return m.invoke(destino, args);
+        } catch (InvocationTargetException ex) {
+            throw ex.getCause();
+        }
+    }
+
+    /** Conexión física más su caché LRU de sentencias (solo la usa el hilo que la tiene prestada). */
+    private final class Entrada {
+        final Connection con;
+        volatile long ultimoUso = System.currentTimeMillis();
+        final LinkedHashMap<String, Sentencia> cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Sentencia> eldest) {
+                if (size() <= maxSentencias) return false;
+                Sentencia s = eldest.getValue();
+                s.enCache = false;
+                if (!s.enUso) s.cerrarFisica();
+                return true;
+            }
+        };
+
+        // Sentencias prestadas y aún sin cerrar (cacheadas, desechables o de createStatement)
+        final List<Liberable> prestadas = new ArrayList<>();
+
+        Entrada(Connection con) { this.con = con; }
+
+        Connection prestar() {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, new ConexionPrestada(this));
+        }
+
+        PreparedStatement preparar(Connection proxy, String sql) throws SQLException {
+            Sentencia s = cache.get(sql);
+            if (s != null && !s.enUso) {
+                aciertos.increment();
+            } else {
+                fallos.increment();
+                Sentencia nueva = new Sentencia(con.prepareStatement(sql), sql, false, prestadas);
+                if (s == null) { // si la cacheada está en uso, la nueva es desechable
+                    nueva.enCache = true;
+                    cache.put(sql, nueva);
+                }
+                s = nueva;
+            }
+            s.enUso = true;
+            return s.prestar(proxy);
+        }
+
+        /** Sentencia de otra sobrecarga (o prepareCall): se cierra al cerrarla, sin pasar por la caché. */
+        PreparedStatement directa(Connection proxy, PreparedStatement ps, String sql, boolean llamada) {
+            Sentencia s = new Sentencia(ps, sql, llamada, prestadas);
+            s.enUso = true;
+            return s.prestar(proxy);
+        }
+
+        Statement simple(Connection proxy, Statement st) {
+            SentenciaSimple s = new SentenciaSimple(st, proxy, prestadas);
+            prestadas.add(s);
+            return (Statement) Proxy.newProxyInstance(Statement.class.getClassLoader(), new Class<?>[]{Statement.class}, s);
+        }
+
+        /** Al devolver la conexión; sus proxies quedan cerrados para quien los retenga. */
+        void liberarPrestadas() throws SQLException {
+            for (int i = prestadas.size() - 1; i >= 0; i--) prestadas.get(i).liberar();
+        }
+
+        void cerrarSentencias() {
+            for (Sentencia s : cache.values()) s.cerrarFisica();
+            cache.clear();
+        }
+    }
+
+    /** Lo que la Entrada cierra o recicla al devolverse la conexión. */
+    private interface Liberable {
+        void liberar() throws SQLException;
+    }
+
+    private static final class Sentencia implements Liberable {
+        final PreparedStatement ps;
+        final String sql;
+        final String normalizada;
+        final boolean llamada; // de prepareCall: el proxy es CallableStatement
+        final List<Liberable> prestadas; // las de su Entrada
+        SentenciaPrestada prestamo; // proxy vigente; null si está libre
+        boolean enUso;
+        boolean enCache;
+        ResultSet ultimo;
+        // Parámetros ligados y filas del lote en curso, para ConsultasLentas
+        Object[] parametros = new Object[8];
+        int nParametros;
+        int lote;
+
+        Sentencia(PreparedStatement ps, String sql, boolean llamada, List<Liberable> prestadas) {
+            this.ps = ps;
+            this.sql = sql;
+            this.llamada = llamada;
+            this.prestadas = prestadas;
+            this.normalizada = ConsultasLentas.normalizar(sql);
+        }
+
+        PreparedStatement prestar(Connection proxy) {
+            Class<?> tipo = llamada ? CallableStatement.class : PreparedStatement.class;
+            prestamo = new SentenciaPrestada(this, proxy);
+            prestadas.add(this);
+            return (PreparedStatement) Proxy.newProxyInstance(tipo.getClassLoader(), new Class<?>[]{tipo}, prestamo);
+        }
+
+        @Override
+        public void liberar() throws SQLException {
+            enUso = false;
+            prestamo = null;
+            prestadas.remove(this);
+            if (!enCache) { cerrarFisica(); return; }
+            if (ultimo != null) { ultimo.close(); ultimo = null; }
+            ps.clearParameters();
+            ps.clearBatch();
+            olvidarParametros();
+            lote = 0;
+        }
+
+        /** Sigue setX(índice, valor), clearParameters y addBatch; los args ya vienen en el Object[] del proxy. */
+        void anotar(String metodo, Object[] args) {
+            if (metodo.equals("addBatch")) lote++;
+            else if (metodo.equals("clearBatch")) lote = 0;
+            else if (metodo.equals("clearParameters")) olvidarParametros();
+            else if (metodo.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer indice && indice >= 1) {
+                if (indice > parametros.length) parametros = Arrays.copyOf(parametros, Math.max(indice, parametros.length * 2));
+                parametros[indice - 1] = metodo.equals("setNull") ? null : args[1];
+                nParametros = Math.max(nParametros, indice);
+            }
+        }
+
+        void olvidarParametros() {
+            Arrays.fill(parametros, 0, nParametros, null);
+            nParametros = 0;
+        }
+
+        void cerrarFisica() {
+            try { ps.close(); } catch (SQLException ignored) {}
+        }
+    }
+
+    private final class ConexionPrestada implements InvocationHandler {
+        private final Entrada entrada;
+        private boolean cerrada;
+
+        ConexionPrestada(Entrada entrada) { this.entrada = entrada; }
+
+        @Override
+        public Object invoke(Object proxy, Method m, Object[] args) throws Throwable {
+            switch (m.getName()) {
+                case "close":
+                    if (!cerrada) { cerrada = true; devolver(entrada); }
+                    return null;
+                case "isClosed":
+                    return cerrada || entrada.con.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled[" + entrada.con + "]";
+                default:
+                    break;
+            }
+            if (cerrada) throw new SQLException("La conexión ya fue devuelta al pool");
+            if (m.getName().equals("prepareStatement") && args.length == 1)
+                return entrada.preparar((Connection) proxy, (String) args[0]);
+            Object r = invocar(entrada.con, m, args);
+            if (r instanceof PreparedStatement ps) // prepareStatement(sql, ...) y prepareCall(sql, ...)
+                return entrada.directa((Connection) proxy, ps, (String) args[0], m.getName().equals("prepareCall"));
+            if (r instanceof Statement st)
+                return entrada.simple((Connection) proxy, st);
+            return r;
+        }
+    }
+
+    private static final class SentenciaPrestada implements InvocationHandler {
+        private final Sentencia sentencia;
+        private final Connection conexion;
+        private boolean cerrada;
+
+        SentenciaPrestada(Sentencia sentencia, Connection conexion) {
+            this.sentencia = sentencia;
+            this.conexion = conexion;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method m, Object[] args) throws Throwable {
+            switch (m.getName()) {
+                case "close":
+                    if (!cerrada) { cerrada = true; if (sentencia.prestamo == this) sentencia.liberar(); }
+                    return null;
+                case "isClosed":
+                    return cerrada || sentencia.prestamo != this;
+                case "getConnection":
+                    return conexion;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    break;
+            }
+            if (cerrada || sentencia.prestamo != this) throw new SQLException("La sentencia ya fue cerrada");
+            if (!m.getName().startsWith("execute")) {
+                if (ConsultasLentas.activas()) sentencia.anotar(m.getName(), args);
+                return ejecutar(m, args);
+            }
+            EventoSql ev = new EventoSql();
+            long t0 = System.nanoTime();
+            Object r = null;
+            boolean ok = false;
+            try {
+                r = ejecutar(m, args);
+                ok = true;
+                return r;
+            } finally {
+                long nanos = System.nanoTime() - t0;
+                if (ev.terminar()) ev.grabar(sentencia.normalizada, r, !ok);
+                if (ConsultasLentas.activas()) {
+                    ConsultasLentas.registrar(sentencia.sql, sentencia.normalizada, nanos,
+                            sentencia.parametros, sentencia.nParametros, sentencia.lote);
+                    if (m.getName().endsWith("Batch")) sentencia.lote = 0; // executeBatch vacía el lote
+                }
+            }
+        }
+
+        private Object ejecutar(Method m, Object[] args) throws Throwable {
+            Object r = invocar(sentencia.ps, m, args);
+            if (r instanceof ResultSet rs && m.getName().equals("executeQuery")) sentencia.ultimo = rs;
+            return r;
+        }
+    }
+
+    /** Statement de createStatement: cronometra execute*(sql) para ConsultasLentas y JFR, sin parámetros ni caché. */
+    private static final class SentenciaSimple implements InvocationHandler, Liberable {
+        private final Statement st;
+        private final Connection conexion;
+        private final List<Liberable> prestadas;
+        private boolean cerrada;
+
+        SentenciaSimple(Statement st, Connection conexion, List<Liberable> prestadas) {
+            this.st = st;
+            this.conexion = conexion;
+            this.prestadas = prestadas;
+        }
+
+        @Override
+        public void liberar() throws SQLException {
+            cerrada = true;
+            prestadas.remove(this);
+            st.close();
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method m, Object[] args) throws Throwable {
+            switch (m.getName()) {
+                case "close":
+                    if (!cerrada) liberar();
+                    return null;
+                case "isClosed":
+                    return cerrada || st.isClosed();
+                case "getConnection":
+                    return conexion;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    break;
+            }
+            if (cerrada) throw new SQLException("La sentencia ya fue cerrada");
+            if (!m.getName().startsWith("execute") || args == null || !(args[0] instanceof String sql))
+                return invocar(st, m, args);
+            EventoSql ev = new EventoSql();
+            long t0 = System.nanoTime();
+            Object r = null;
+            boolean ok = false;
+            try {
+                r = invocar(st, m, args);
+                ok = true;
+                return r;
+            } finally {
+                long nanos = System.nanoTime() - t0;
+                boolean evento = ev.terminar(), lentas = ConsultasLentas.activas();
+                if (evento || lentas) { // sin ninguno de los dos no hace falta normalizar
+                    String normalizada = ConsultasLentas.normalizar(sql);
+                    if (evento) ev.grabar(normalizada, r, !ok);
+                    if (lentas) ConsultasLentas.registrar(sql, normalizada, nanos, args, 0, 0);
+                }
+            }
+        }
+    }
+
+    /** Foto de los contadores del pool. */
+    public record Estadisticas(long prestamos, double esperaPromedioMs, double esperaMaxMs,
+                               long aciertosCache, long fallosCache, double tasaAciertos,
+                               int abiertas, int libres, long creadas, long descartadas) {
+        @Override
+        public String toString() {
+            return String.format("Pool{prestamos=%d, espera prom=%.3f ms, espera max=%.3f ms, cache=%d/%d (%.1f%%), abiertas=%d, libres=%d, creadas=%d, descartadas=%d}",
+                    prestamos, esperaPromedioMs, esperaMaxMs, aciertosCache, aciertosCache + fallosCache,
+                    tasaAciertos * 100, abiertas, libres, creadas, descartadas);
+        }
+    }
+}
@@ -0,0 +1,352 @@
+package edu.universidad.persistence;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Registro de sentencias lentas. {@link ConnectionPool} cronometra cada
+ * ejecución de las sentencias que presta y llama a {@link #registrar}:
+ * todas se agregan por SQL normalizado (literales e IN (?, ?...) colapsados)
+ * con cuenta, total y máximo, y las que superan el umbral se escriben en
+ * System.err con sus parámetros. Del SQL lento se pide además el plan de H2
+ * en un hilo aparte, con otra conexión y los mismos parámetros: EXPLAIN
+ * ANALYZE para un SELECT, EXPLAIN a secas para lo demás (ANALYZE lo
+ * ejecutaría) y para FOR UPDATE (esperaría los bloqueos de la original).
+ * Un plan por SQL y ventana; el DDL no tiene plan.
+ *
+ * El agregado cubre la ventana en curso y la anterior (-Duni.sql.ventanaMin,
+ * 15 por omisión). -Duni.sql.lentaMs fija el umbral (100 por omisión; 0
+ * registra todas y un negativo apaga hasta el agregado). El tiempo es el de
+ * execute*, sin recorrer el ResultSet. Por JMX en
+ * edu.universidad:type=ConsultasLentas se cambia el umbral, se lee el
+ * informe o se vuelca a un archivo; -Duni.sql.informe=ruta lo vuelca al
+ * cerrar la aplicación.
+ */
+public final class ConsultasLentas {
+
+    private static volatile long umbralNanos = aNanos(Long.getLong("uni.sql.lentaMs", 100L));
+    private static final long VENTANA_NANOS = TimeUnit.MINUTES.toNanos(Math.max(1, Long.getLong("uni.sql.ventanaMin", 15L)));
+    private static final int TEXTO_MAX = 120; // por parámetro en el log
+
+    private static final Pattern LISTA_IN = Pattern.compile("\\(\\?(, ?\\?)+\\)");
+
+    private static volatile Ventana actual = new Ventana(System.nanoTime());
+    private static volatile Ventana anterior;
+
+    // Planes fuera del hilo que ejecutó la sentencia lenta
+    private static final ExecutorService EXPLICADOR = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "sql-explain");
+        t.setDaemon(true);
+        return t;
+    });
+
+    static {
+        try {
+            ObjectName nombre = new ObjectName("edu.universidad:type=ConsultasLentas");
+            var servidor = ManagementFactory.getPlatformMBeanServer();
+            if (!servidor.isRegistered(nombre)) servidor.registerMBean(new Control(), nombre);
+        } catch (JMException | SecurityException ex) {
+            System.err.println("Consultas lentas sin publicar en JMX: " + ex);
+        }
+    }
+
+    private ConsultasLentas() { }
+
+    /** Si el pool debe cronometrar (umbral no negativo). */
+    static boolean activas() {
+        return umbralNanos >= 0;
+    }
+
+    public static long umbralMs() {
+        return umbralNanos < 0 ? -1 : TimeUnit.NANOSECONDS.toMillis(umbralNanos);
+    }
+
+    /** Nuevo umbral en ms; 0 registra todas, negativo apaga. */
+    public static void umbralMs(long ms) {
+        umbralNanos = aNanos(ms);
+    }
+
+    /**
+     * Una ejecución de {@code sql}: {@code parametros[0..n)} son los valores
+     * ligados (de la última fila si es un lote de {@code lote} filas).
+     */
+    static void registrar(String sql, String normalizada, long nanos, Object[] parametros, int n, int lote) {
+        long umbral = umbralNanos;
+        if (umbral < 0 || normalizada.startsWith("EXPLAIN")) return; // los planes que pide este registro
+        Agregado a = ventana(System.nanoTime()).agregado(normalizada);
+        boolean lenta = nanos >= umbral;
+        a.sumar(nanos, lenta);
+        if (!lenta) return;
+        Object[] copia = Arrays.copyOf(parametros, n);
+        System.err.println(String.format(Locale.ROOT, "SQL lenta %.1f ms%s: %s%s",
+                nanos / 1e6, lote > 0 ? " (lote de " + lote + ")" : "", sql, parametros(copia)));
+        if (verbo(sql) != null && a.planPedido.compareAndSet(false, true)) {
+            try {
+                EXPLICADOR.execute(() -> explicar(a, sql, copia));
+            } catch (RuntimeException ex) {
+                a.planPedido.set(false);
+            }
+        }
+    }
+
+    /** SQL con literales como ?, listas IN de parámetros colapsadas y espacios simples. */
+    static String normalizar(String sql) {
+        StringBuilder sb = new StringBuilder(sql.length());
+        int i = 0, n = sql.length();
+        while (i < n) {
+            char c = sql.charAt(i);
+            if (c == '\'') { // cadena, con '' como escape
+                i++;
+                while (i < n) {
+                    if (sql.charAt(i) == '\'') {
+                        if (i + 1 < n && sql.charAt(i + 1) == '\'') i += 2;
+                        else break;
+                    } else i++;
+                }
+                i++;
+                sb.append('?');
+            } else if (c == '"') { // identificador entre comillas: tal cual
+                int fin = sql.indexOf('"', i + 1);
+                fin = fin < 0 ? n : fin + 1;
+                sb.append(sql, i, fin);
+                i = fin;
+            } else if (Character.isDigit(c) && !parteDeNombre(sb)) {
+                while (i < n && (Character.isDigit(sql.charAt(i)) || sql.charAt(i) == '.')) i++;
+                sb.append('?');
+            } else if (Character.isWhitespace(c)) {
+                while (i < n && Character.isWhitespace(sql.charAt(i))) i++;
+                if (!sb.isEmpty() && i < n) sb.append(' ');
+            } else {
+                sb.append(c);
+                i++;
+            }
+        }
+        return LISTA_IN.matcher(sb).replaceAll("(?...)");
+    }
+
+    /** Por tiempo total descendente, con el plan de las que fueron lentas. */
+    public static String informe() {
+        return informe(Integer.MAX_VALUE);
+    }
+
+    public static String informe(int maximo) {
+        Ventana prev = anterior, act = actual;
+        Map<String, Resumen> juntos = new LinkedHashMap<>();
+        if (prev != null) prev.agregados.values().forEach(a -> juntos.put(a.sql, a.resumen()));
+        act.agregados.values().forEach(a -> juntos.merge(a.sql, a.resumen(), Resumen::sumar));
+        List<Resumen> orden = new ArrayList<>(juntos.values());
+        orden.sort(Comparator.comparingLong(Resumen::totalNanos).reversed());
+
+        long desde = (prev != null ? prev : act).inicio;
+        StringBuilder sb = new StringBuilder(String.format(Locale.ROOT,
+                "SQL de los últimos %.1f min (umbral %s)%n%10s %7s %11s %10s %10s  %s%n",
+                (System.nanoTime() - desde) / 6e10, umbralNanos < 0 ? "apagado" : umbralMs() + " ms",
+                "llamadas", "lentas", "total ms", "media ms", "max ms", "sql"));
+        for (Resumen r : orden.subList(0, Math.min(maximo, orden.size()))) {
+            sb.append(String.format(Locale.ROOT, "%,10d %,7d %,11.1f %10.3f %10.3f  %s%n", r.cuenta, r.lentas,
+                    r.totalNanos / 1e6, r.totalNanos / 1e6 / r.cuenta, r.maxNanos / 1e6, r.sql));
+            if (r.plan != null) sb.append("    ").append(r.plan.replace("\n", "\n    ")).append(System.lineSeparator());
+        }
+        return sb.toString();
+    }
+
+    public static void volcar(Path destino) throws IOException {
+        if (destino.getParent() != null) Files.createDirectories(destino.getParent());
+        Files.writeString(destino, informe());
+    }
+
+    /** Vuelca el informe en -Duni.sql.informe si está definido; para llamar al cerrar. */
+    public static void volcarAlCerrar() {
+        String ruta = System.getProperty("uni.sql.informe", "");
+        if (ruta.isBlank() || !activas()) return;
+        try {
+            volcar(Path.of(ruta));
+        } catch (IOException ex) {
+            System.err.println("No se pudo volcar el informe de SQL en " + ruta + ": " + ex.getMessage());
+        }
+    }
+
+    public static void reiniciar() {
+        synchronized (ConsultasLentas.class) {
+            anterior = null;
+            actual = new Ventana(System.nanoTime());
+        }
+    }
+
+    // ---- Internos ----
+
+    private static long aNanos(long ms) {
+        return ms < 0 ? -1 : TimeUnit.MILLISECONDS.toNanos(ms);
+    }
+
+    private static boolean parteDeNombre(StringBuilder sb) {
+        if (sb.isEmpty()) return false;
+        char prev = sb.charAt(sb.length() - 1);
+        return Character.isLetterOrDigit(prev) || prev == '_';
+    }
+
+    private static Ventana ventana(long ahora) {
+        Ventana v = actual;
+        if (ahora - v.inicio < VENTANA_NANOS) return v;
+        synchronized (ConsultasLentas.class) {
+            v = actual;
+            if (ahora - v.inicio >= VENTANA_NANOS) {
+                anterior = ahora - v.inicio < 2 * VENTANA_NANOS ? v : null; // sin tráfico por más de una ventana: nada que mostrar
+                actual = v = new Ventana(ahora);
+            }
+            return v;
+        }
+    }
+
+    /** Primera palabra si H2 admite EXPLAIN para ella, o null (DDL, SET...). */
+    private static String verbo(String sql) {
+        String s = sql.stripLeading();
+        int fin = 0;
+        while (fin < s.length() && Character.isLetter(s.charAt(fin))) fin++;
+        String v = s.substring(0, fin).toUpperCase(Locale.ROOT);
+        return switch (v) {
+            case "SELECT", "WITH", "INSERT", "UPDATE", "DELETE", "MERGE" -> v;
+            default -> null;
+        };
+    }
+
+    private static String parametros(Object[] valores) {
+        if (valores.length == 0) return "";
+        StringBuilder sb = new StringBuilder(" [");
+        for (int i = 0; i < valores.length; i++) {
+            if (i > 0) sb.append(", ");
+            sb.append(i + 1).append('=');
+            Object v = valores[i];
+            if (v == null) sb.append("NULL");
+            else if (v instanceof CharSequence s) {
+                String t = s.length() > TEXTO_MAX ? s.subSequence(0, TEXTO_MAX) + "…" : s.toString();
+                sb.append('\'').append(t.replace("'", "''")).append('\'');
+            } else if (v instanceof byte[] b) sb.append('<').append(b.length).append(" bytes>");
+            else sb.append(v);
+        }
+        return sb.append(']').toString();
+    }
+
+    /** Corre en EXPLICADOR; la conexión es otra, así que no ve lo que la original no confirmó. */
+    private static void explicar(Agregado a, String sql, Object[] valores) {
+        String verbo = verbo(sql);
+        boolean analizar = (verbo.equals("SELECT") || verbo.equals("WITH")) && !sql.toUpperCase(Locale.ROOT).contains("FOR UPDATE");
+        try (Connection con = H2DB.getConnection();
+             PreparedStatement ps = con.prepareStatement((analizar ? "EXPLAIN ANALYZE " : "EXPLAIN ") + sql)) {
+            for (int i = 0; i < valores.length; i++) ps.setObject(i + 1, valores[i]);
+            StringBuilder plan = new StringBuilder();
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) plan.append(rs.getString(1));
+            }
+            a.plan = plan.toString();
+            System.err.println("Plan de " + a.sql + System.lineSeparator() + "    " + a.plan.replace("\n", "\n    "));
+        } catch (SQLException | RuntimeException ex) {
+            a.plan = "(sin plan: " + ex.getMessage() + ")";
+        }
+    }
+
+    private static final class Ventana {
+        final long inicio;
+        final ConcurrentHashMap<String, Agregado> agregados = new ConcurrentHashMap<>();
+
+        Ventana(long inicio) { this.inicio = inicio; }
+
+        Agregado agregado(String sql) {
+            Agregado a = agregados.get(sql);
+            return a != null ? a : agregados.computeIfAbsent(sql, Agregado::new);
+        }
+    }
+
+    private static final class Agregado {
+        final String sql;
+        final LongAdder cuenta = new LongAdder();
+        final LongAdder lentas = new LongAdder();
+        final LongAdder totalNanos = new LongAdder();
+        final AtomicLong maxNanos = new AtomicLong();
+        final AtomicBoolean planPedido = new AtomicBoolean();
+        volatile String plan;
+
+        Agregado(String sql) { this.sql = sql; }
+
+        void sumar(long nanos, boolean lenta) {
+            cuenta.increment();
+            if (lenta) lentas.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+        }
+
+        Resumen resumen() {
+            return new Resumen(sql, cuenta.sum(), lentas.sum(), totalNanos.sum(), maxNanos.get(), plan);
+        }
+    }
+
+    private record Resumen(String sql, long cuenta, long lentas, long totalNanos, long maxNanos, String plan) {
+        Resumen sumar(Resumen otro) { // otro es el de la ventana en curso: su plan es más reciente
+            return new Resumen(sql, cuenta + otro.cuenta, lentas + otro.lentas, totalNanos + otro.totalNanos,
+                    Math.max(maxNanos, otro.maxNanos), otro.plan != null ? otro.plan : plan);
+        }
+    }
+
+    /** Control por JMX. */
+    public interface ConsultasLentasMXBean {
+        long getUmbralMs();
+
+        void setUmbralMs(long ms);
+
+        String getInforme();
+
+        void volcar(String ruta) throws IOException;
+
+        void reiniciar();
+    }
+
+    private static final class Control implements ConsultasLentasMXBean {
+        @Override
+        public long getUmbralMs() {
+            return umbralMs();
+        }
+
+        @Override
+        public void setUmbralMs(long ms) {
+            umbralMs(ms);
+        }
+
+        @Override
+        public String getInforme() {
+            return informe();
+        }
+
+        @Override
+        public void volcar(String ruta) throws IOException {
+            ConsultasLentas.volcar(Path.of(ruta));
+        }
+
+        @Override
+        public void reiniciar() {
+            ConsultasLentas.reiniciar();
+        }
+    }
+}
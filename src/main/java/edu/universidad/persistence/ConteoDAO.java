@@ -0,0 +1,133 @@
+package edu.universidad.persistence;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lectura, verificación y reconstrucción de los contadores de inscritos
+ * (CONTEO_CURSO y CONTEO_PERIODO) que mantiene {@link ConteoTrigger}.
+ */
+public class ConteoDAO {
+
+    /** Inscritos de un curso en un año/semestre. */
+    public record Periodo(int cursoId, int anio, int semestre, int inscritos) {}
+
+    /** Contador que no coincide con INSCRIPCION; anio/semestre son null para el total del curso. */
+    public record Diferencia(int cursoId, Integer anio, Integer semestre, int registrado, int real) {
+        @Override
+        public String toString() {
+            return "curso " + cursoId + (anio == null ? "" : " " + anio + "-" + semestre)
+                    + ": registrado=" + registrado + ", real=" + real;
+        }
+    }
+
+    /** Total de inscritos del curso (0 si no tiene). */
+    public int inscritos(int cursoId) {
+        try (Connection con = H2DB.getConnection();
+             PreparedStatement ps = con.prepareStatement("SELECT INSCRITOS FROM CONTEO_CURSO WHERE CURSO_ID=?")) {
+            ps.setInt(1, cursoId);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        } catch (SQLException ex) {
+            throw new RuntimeException("Error leyendo contador de inscritos", ex);
+        }
+    }
+
+    /** Desglose por (ANIO, SEMESTRE) de un curso, del periodo más reciente al más antiguo. */
+    public List<Periodo> porPeriodo(int cursoId) {
+        String sql = "SELECT CURSO_ID, ANIO, SEMESTRE, INSCRITOS FROM CONTEO_PERIODO " +
+                     "WHERE CURSO_ID=? AND INSCRITOS>0 ORDER BY ANIO DESC, SEMESTRE DESC";
+        try (Connection con = H2DB.getConnection();
+             PreparedStatement ps = con.prepareStatement(sql)) {
+            ps.setInt(1, cursoId);
+            return periodos(ps);
+        } catch (SQLException ex) {
+            throw new RuntimeException("Error leyendo inscritos por periodo", ex);
+        }
+    }
+
+    /** Desglose de todos los cursos en un año/semestre. */
+    public List<Periodo> porPeriodo(int anio, int semestre) {
+        String sql = "SELECT CURSO_ID, ANIO, SEMESTRE, INSCRITOS FROM CONTEO_PERIODO " +
+                     "WHERE ANIO=? AND SEMESTRE=? AND INSCRITOS>0 ORDER BY CURSO_ID";
+        try (Connection con = H2DB.getConnection();
+             PreparedStatement ps = con.prepareStatement(sql)) {
+            ps.setInt(1, anio);
+            ps.setInt(2, semestre);
+            return periodos(ps);
+        } catch (SQLException ex) {
+            throw new RuntimeException("Error leyendo inscritos por periodo", ex);
+        }
+    }
+
+    /** Compara los contadores con un COUNT real sobre INSCRIPCION (recorre toda la tabla). */
+    public List<Diferencia> verificar() {
+        // H2 no tiene FULL OUTER JOIN: se suman ambos lados con UNION ALL y se comparan
+        String sqlCurso = "SELECT CURSO_ID, SUM(R), SUM(N) FROM (" +
+                "SELECT CURSO_ID, INSCRITOS R, 0 N FROM CONTEO_CURSO UNION ALL " +
+                "SELECT CURSO_ID, 0, COUNT(*) FROM INSCRIPCION GROUP BY CURSO_ID) " +
+                "GROUP BY CURSO_ID HAVING SUM(R) <> SUM(N) ORDER BY CURSO_ID";
+        String sqlPeriodo = "SELECT CURSO_ID, ANIO, SEMESTRE, SUM(R), SUM(N) FROM (" +
+                "SELECT CURSO_ID, ANIO, SEMESTRE, INSCRITOS R, 0 N FROM CONTEO_PERIODO UNION ALL " +
+                "SELECT CURSO_ID, ANIO, SEMESTRE, 0, COUNT(*) FROM INSCRIPCION GROUP BY CURSO_ID, ANIO, SEMESTRE) " +
+                "GROUP BY CURSO_ID, ANIO, SEMESTRE HAVING SUM(R) <> SUM(N) ORDER BY CURSO_ID, ANIO, SEMESTRE";
+        List<Diferencia> out = new ArrayList<>();
+        try (Connection con = H2DB.getConnection(); Statement st = con.createStatement()) {
+            try (ResultSet rs = st.executeQuery(sqlCurso)) {
+                while (rs.next()) out.add(new Diferencia(rs.getInt(1), null, null, rs.getInt(2), rs.getInt(3)));
+            }
+            try (ResultSet rs = st.executeQuery(sqlPeriodo)) {
+                while (rs.next()) out.add(new Diferencia(rs.getInt(1), rs.getInt(2), rs.getInt(3), rs.getInt(4), rs.getInt(5)));
+            }
+        } catch (SQLException ex) {
+            throw new RuntimeException("Error verificando contadores", ex);
+        }
+        return out;
+    }
+
+    /**
+     * Recalcula ambos contadores desde INSCRIPCION en una sola transacción y purga
+     * los de cursos eliminados. Retorna los cursos con inscritos tras la reparación.
+     */
+    public int reconstruir() {
+        try (Connection con = H2DB.getConnection()) {
+            return reconstruir(con);
+        } catch (SQLException ex) {
+            throw new RuntimeException("Error reconstruyendo contadores", ex);
+        }
+    }
+
+    public static int reconstruir(Connection con) throws SQLException {
+        boolean auto = con.getAutoCommit();
+        con.setAutoCommit(false);
+        try (Statement st = con.createStatement()) {
+            st.execute("DELETE FROM CONTEO_CURSO");
+            st.execute("DELETE FROM CONTEO_PERIODO");
+            int n = st.executeUpdate("INSERT INTO CONTEO_CURSO (CURSO_ID, INSCRITOS) " +
+                    "SELECT CURSO_ID, COUNT(*) FROM INSCRIPCION GROUP BY CURSO_ID");
+            st.executeUpdate("INSERT INTO CONTEO_PERIODO (CURSO_ID, ANIO, SEMESTRE, INSCRITOS) " +
+                    "SELECT CURSO_ID, ANIO, SEMESTRE, COUNT(*) FROM INSCRIPCION GROUP BY CURSO_ID, ANIO, SEMESTRE");
+            con.commit();
+            return n;
+        } catch (SQLException ex) {
+            con.rollback();
+            throw ex;
+        } finally {
+            con.setAutoCommit(auto);
+        }
+    }
+
+    private static List<Periodo> periodos(PreparedStatement ps) throws SQLException {
+        List<Periodo> out = new ArrayList<>();
+        try (ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) out.add(new Periodo(rs.getInt(1), rs.getInt(2), rs.getInt(3), rs.getInt(4)));
+        }
+        return out;
+    }
+}
@@ -0,0 +1,95 @@
+package edu.universidad.persistence;
+
+import org.h2.api.Trigger;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Trigger de fila sobre INSCRIPCION (migración 5) que mantiene CONTEO_CURSO y
+ * CONTEO_PERIODO. H2 lo ejecuta con la conexión de la sentencia que modificó la
+ * fila, así el contador se confirma o revierte junto con la inscripción; cubre
+ * también el MERGE de la UI.
+ * La base guarda el nombre de esta clase: no renombrarla sin una migración.
+ */
+public class ConteoTrigger implements Trigger {
+
+    // UPDATE y solo si no existe la fila, INSERT: más barato que un MERGE ... USING por fila
+    private static final String SQL_CURSO = "UPDATE CONTEO_CURSO SET INSCRITOS=INSCRITOS+? WHERE CURSO_ID=?";
+    private static final String SQL_CURSO_NUEVO = "INSERT INTO CONTEO_CURSO (CURSO_ID, INSCRITOS) VALUES (?,?)";
+    private static final String SQL_PERIODO =
+            "UPDATE CONTEO_PERIODO SET INSCRITOS=INSCRITOS+? WHERE CURSO_ID=? AND ANIO=? AND SEMESTRE=?";
+    private static final String SQL_PERIODO_NUEVO =
+            "INSERT INTO CONTEO_PERIODO (CURSO_ID, ANIO, SEMESTRE, INSCRITOS) VALUES (?,?,?,?)";
+
+    // posiciones (base 0) de las columnas en la fila que entrega H2
+    private int colCurso, colAnio, colSemestre;
+
+    @Override
+    public void init(Connection con, String schema, String trigger, String tabla, boolean antes, int tipo) throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement(
+                "SELECT COLUMN_NAME, ORDINAL_POSITION FROM INFORMATION_SCHEMA.COLUMNS WHERE TABLE_SCHEMA=? AND TABLE_NAME=?")) {
+            ps.setString(1, schema);
+            ps.setString(2, tabla);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    int pos = rs.getInt(2) - 1;
+                    switch (rs.getString(1)) {
+                        case "CURSO_ID" -> colCurso = pos;
+                        case "ANIO" -> colAnio = pos;
+                        case "SEMESTRE" -> colSemestre = pos;
+                        default -> { }
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public void fire(Connection con, Object[] anterior, Object[] nueva) throws SQLException {
+        if (anterior != null && nueva != null) { // UPDATE: solo importa si cambia curso o periodo
+            boolean mismoCurso = entero(anterior, colCurso) == entero(nueva, colCurso);
+            if (mismoCurso && entero(anterior, colAnio) == entero(nueva, colAnio)
+                    && entero(anterior, colSemestre) == entero(nueva, colSemestre)) return;
+            aplicar(con, anterior, -1, !mismoCurso);
+            aplicar(con, nueva, 1, !mismoCurso);
+            return;
+        }
+        if (anterior != null) aplicar(con, anterior, -1, true);
+        if (nueva != null) aplicar(con, nueva, 1, true);
+    }
+
+    private void aplicar(Connection con, Object[] fila, int delta, boolean total) throws SQLException {
+        int curso = entero(fila, colCurso);
+        if (total) sumar(con, SQL_CURSO, SQL_CURSO_NUEVO, delta, curso);
+        sumar(con, SQL_PERIODO, SQL_PERIODO_NUEVO, delta, curso, entero(fila, colAnio), entero(fila, colSemestre));
+    }
+
+    /** Suma {@code delta} a la fila de la clave; la crea si es la primera vez. */
+    private static void sumar(Connection con, String update, String insert, int delta, int... clave) throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement(update)) {
+            ps.setInt(1, delta);
+            for (int i = 0; i < clave.length; i++) ps.setInt(i + 2, clave[i]);
+            if (ps.executeUpdate() > 0) return;
+        }
+        try (PreparedStatement ps = con.prepareStatement(insert)) {
+            for (int i = 0; i < clave.length; i++) ps.setInt(i + 1, clave[i]);
+            ps.setInt(clave.length + 1, delta);
+            ps.executeUpdate();
+        } catch (SQLException ex) {
+            if (!"23505".equals(ex.getSQLState())) throw ex;
+            // otra transacción creó la fila entre el UPDATE y el INSERT: ahora sí existe
+            try (PreparedStatement ps = con.prepareStatement(update)) {
+                ps.setInt(1, delta);
+                for (int i = 0; i < clave.length; i++) ps.setInt(i + 2, clave[i]);
+                ps.executeUpdate();
+            }
+        }
+    }
+
+    private static int entero(Object[] fila, int col) {
+        return ((Number) fila[col]).intValue();
+    }
+}
@@ -1,6 +1,8 @@
 
 package edu.universidad.persistence; // paquete persistencia
 
+import edu.universidad.metricas.Metrica; // tiempos por método
+import edu.universidad.metricas.Metricas; // registro JMX
 import edu.universidad.model.Curso; // modelo curso
 import java.sql.*; // JDBC
 import java.util.*; // util
@@ -8,8 +10,17 @@ import java.util.*; // util
 /** DAO de Curso con semestre y profesor asignado. */
 public class CursoDAO { // clase DAO
 
+    private static final Metrica M_UPSERT = Metricas.de("CursoDAO", "upsert"); // métricas por método
+    private static final Metrica M_ELIMINAR = Metricas.de("CursoDAO", "eliminar");
+    private static final Metrica M_LISTAR_EXTRAS = Metricas.de("CursoDAO", "listarConExtras");
+    private static final Metrica M_RECORRER = Metricas.de("CursoDAO", "recorrer");
+    private static final Metrica M_SEMESTRE = Metricas.de("CursoDAO", "getSemestre");
+    private static final Metrica M_ACTIVO = Metricas.de("CursoDAO", "isActivo");
+    private static final Metrica M_ASIGNAR = Metricas.de("CursoDAO", "asignarProfesor");
+
     public void upsert(Curso c, int semestre, Double profesorId) { // inserta/actualiza
         String sql = "MERGE INTO CURSO (ID,NOMBRE,ACTIVO,SEMESTRE,PROFESOR_ID) KEY(ID) VALUES (?,?,?,?,?)"; // MERGE
+        long t0 = M_UPSERT.inicio(); // métricas
         try (Connection con = H2DB.getConnection(); // con
              PreparedStatement ps = con.prepareStatement(sql)) { // prep
             ps.setInt(1, c.getID()); // id
@@ -17,29 +28,38 @@ public class CursoDAO { // clase DAO
             ps.setBoolean(3, c.isActivo()); // activo
             ps.setInt(4, semestre); // semestre
             if (profesorId == null) ps.setNull(5, Types.DOUBLE); else ps.setDouble(5, profesorId); // fk profesor
-            ps.executeUpdate(); // exec
+            M_UPSERT.exito(t0, ps.executeUpdate()); // exec
         } catch (SQLException ex) { // err
+            M_UPSERT.fallo(t0); // cuenta el error
             throw new RuntimeException("Error upsert curso", ex); // propaga
+        } finally {
+            CacheMetadatos.invalidarCurso(c.getID()); // semestre/activo pudieron cambiar
         }
     }
 
     public boolean eliminar(int id) { // elimina por id
         String sql = "DELETE FROM CURSO WHERE ID=?"; // delete
+        long t0 = M_ELIMINAR.inicio(); // métricas
         try (Connection con = H2DB.getConnection(); // con
              PreparedStatement ps = con.prepareStatement(sql)) { // prep
             ps.setInt(1, id); // id
-            return ps.executeUpdate() > 0; // filas
+            return M_ELIMINAR.exito(t0, ps.executeUpdate()) > 0; // filas
         } catch (SQLException ex) { // err
+            M_ELIMINAR.fallo(t0); // cuenta el error
             throw new RuntimeException("Error eliminando curso", ex); // propaga
+        } finally {
+            CacheMetadatos.invalidarCurso(id); // cache
         }
     }
 
     public List<Map<String,Object>> listarConExtras() { // lista con contador y profesor
         String sql = "SELECT c.ID,c.NOMBRE,c.ACTIVO,c.SEMESTRE,c.PROFESOR_ID," +
-                     " (SELECT COUNT(*) FROM INSCRIPCION i WHERE i.CURSO_ID=c.ID) AS INSCRITOS, " +
+                     " COALESCE(k.INSCRITOS,0) AS INSCRITOS, " + // contador materializado (ConteoTrigger)
                      " p.NOMBRES, p.APELLIDOS, p.EMAIL " +
-                     " FROM CURSO c LEFT JOIN PROFESOR p ON p.ID=c.PROFESOR_ID"; // consulta
+                     " FROM CURSO c LEFT JOIN PROFESOR p ON p.ID=c.PROFESOR_ID" +
+                     " LEFT JOIN CONTEO_CURSO k ON k.CURSO_ID=c.ID"; // consulta
         List<Map<String,Object>> out = new ArrayList<>(); // lista
+        long t0 = M_LISTAR_EXTRAS.inicio(); // métricas
         try (Connection con = H2DB.getConnection(); // con
              PreparedStatement ps = con.prepareStatement(sql); // prep
              ResultSet rs = ps.executeQuery()) { // exec
@@ -57,34 +77,62 @@ public class CursoDAO { // clase DAO
                 out.add(m); // agrega
             }
         } catch (SQLException ex) { // err
+            M_LISTAR_EXTRAS.fallo(t0); // cuenta el error
             throw new RuntimeException("Error listando cursos", ex); // propaga
         }
+        M_LISTAR_EXTRAS.exito(t0, out.size()); // filas leídas
         return out; // retorna
     }
 
-    public Integer getSemestre(int id) { // semestre del curso
-        String sql = "SELECT SEMESTRE FROM CURSO WHERE ID=?"; // consulta
-        try (Connection con = H2DB.getConnection();
-             PreparedStatement ps = con.prepareStatement(sql)) {
-            ps.setInt(1, id);
-            try (ResultSet rs = ps.executeQuery()) {
-                if (rs.next()) return rs.getInt(1);
-                return null;
+    /** Una fila de CURSO para analítica, sin objetos de modelo. */
+    @FunctionalInterface
+    public interface Fila { void aceptar(int id, String nombre, int semestre, boolean activo); }
+
+    public long recorrer(Fila fila) { // recorre por ID (llave primaria)
+        String sql = "SELECT ID,NOMBRE,SEMESTRE,ACTIVO FROM CURSO ORDER BY ID"; // consulta
+        long n = 0; // entregadas
+        long t0 = M_RECORRER.inicio(); // métricas
+        try (Connection con = H2DB.getConnection(); // con
+             PreparedStatement ps = con.prepareStatement(sql); // prep
+             ResultSet rs = ps.executeQuery()) { // exec
+            while (rs.next()) { // recorre
+                fila.aceptar(rs.getInt(1), rs.getString(2), rs.getInt(3), rs.getBoolean(4)); // entrega
+                n++;
             }
-        } catch (SQLException ex) {
-            throw new RuntimeException("Error leyendo semestre de curso", ex);
+        } catch (SQLException ex) { // err
+            M_RECORRER.fallo(t0); // cuenta el error
+            throw new RuntimeException("Error recorriendo cursos", ex); // propaga
         }
+        return M_RECORRER.exito(t0, n); // retorna
+    }
+
+    public Integer getSemestre(int id) { // semestre del curso (vía CacheMetadatos)
+        long t0 = M_SEMESTRE.inicio(); // métricas (casi siempre acierto de caché)
+        CacheMetadatos.InfoCurso c = CacheMetadatos.curso(id);
+        M_SEMESTRE.exito(t0, c == null ? 0 : 1); // una fila si existe
+        return c == null ? null : c.semestre();
+    }
+
+    public Boolean isActivo(int id) { // activo del curso, null si no existe (vía CacheMetadatos)
+        long t0 = M_ACTIVO.inicio(); // métricas
+        CacheMetadatos.InfoCurso c = CacheMetadatos.curso(id);
+        M_ACTIVO.exito(t0, c == null ? 0 : 1); // una fila si existe
+        return c == null ? null : c.activo();
     }
 
     public void asignarProfesor(int cursoId, Double profesorId) { // asigna profesor a curso
         String sql = "UPDATE CURSO SET PROFESOR_ID=? WHERE ID=?"; // update
+        long t0 = M_ASIGNAR.inicio(); // métricas
         try (Connection con = H2DB.getConnection(); // con
              PreparedStatement ps = con.prepareStatement(sql)) { // prep
             if (profesorId==null) ps.setNull(1, Types.DOUBLE); else ps.setDouble(1, profesorId); // valor
             ps.setInt(2, cursoId); // id
-            ps.executeUpdate(); // exec
+            M_ASIGNAR.exito(t0, ps.executeUpdate()); // exec
         } catch (SQLException ex) { // err
+            M_ASIGNAR.fallo(t0); // cuenta el error
             throw new RuntimeException("Error asignando profesor", ex); // propaga
+        } finally {
+            CacheMetadatos.invalidarCurso(cursoId); // cache
         }
     }
 }
@@ -0,0 +1,223 @@
+package edu.universidad.persistence;
+
+import edu.universidad.model.Inscripcion;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Escritura diferida (write-behind) de inscripciones: {@link #encolar}
+ * solo deja la fila en una cola acotada y un hilo la confirma junto con
+ * otras en una sola transacción (InscripcionDAO.insertarLote), al juntar
+ * {@code tamanoLote} filas o tras {@code maxEsperaMs}. Así un pico de
+ * altas paga un commit por lote y no uno por fila.
+ *
+ * La cola no usa candados (ConcurrentLinkedQueue más un contador CAS de
+ * plazas). Llena, quien encola espera hasta {@code esperaMaxMs} y luego
+ * recibe IllegalStateException: la base marca el ritmo.
+ *
+ * Lo encolado y no confirmado se pierde si el proceso muere; {@link #flush()}
+ * y {@link #close()} esperan a que todo lo anterior quede en la base.
+ */
+public final class EscrituraDiferida implements AutoCloseable {
+
+    private record Pendiente(Inscripcion inscripcion, CompletableFuture<Void> confirmada) {}
+
+    private final InscripcionDAO dao;
+    private final int capacidad;
+    private final int tamanoLote;
+    private final long maxEsperaNanos;
+    private final long esperaMaxNanos;
+
+    private final ConcurrentLinkedQueue<Pendiente> cola = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger ocupadas = new AtomicInteger(); // plazas reservadas de la cola
+    private final AtomicLong encoladas = new AtomicLong();
+    private final AtomicLong procesadas = new AtomicLong();   // confirmadas o fallidas
+    private final Object avance = new Object();               // flush() espera aquí a procesadas
+    private final Thread escritor;
+    private volatile boolean cerrada;
+    private volatile boolean urgente;                          // flush pedido: no esperar al lote lleno
+
+    // métricas
+    private final LongAdder escritas = new LongAdder();
+    private final LongAdder fallidas = new LongAdder();
+    private final LongAdder esperasPorColaLlena = new LongAdder();
+    private final AtomicLong lotes = new AtomicLong();
+    private final AtomicLong loteMaximo = new AtomicLong();
+    private final AtomicLong nanosCommit = new AtomicLong();
+    private final AtomicLong nanosCommitMaximo = new AtomicLong();
+
+    public EscrituraDiferida(InscripcionDAO dao, int capacidad, int tamanoLote, long maxEsperaMs, long esperaMaxMs) {
+        if (capacidad < 1 || tamanoLote < 1) throw new IllegalArgumentException("capacidad y tamanoLote deben ser >= 1");
+        this.dao = dao;
+        this.capacidad = capacidad;
+        this.tamanoLote = tamanoLote;
+        this.maxEsperaNanos = TimeUnit.MILLISECONDS.toNanos(maxEsperaMs);
+        this.esperaMaxNanos = TimeUnit.MILLISECONDS.toNanos(esperaMaxMs);
+        this.escritor = new Thread(this::escribir, "escritura-diferida");
+        escritor.setDaemon(true); // close() es quien garantiza el vaciado
+        escritor.start();
+    }
+
+    /** Valores de -Duni.diferida.capacidad, .lote, .esperaMs y .bloqueoMs (10000, 500, 20 ms, 30 s). */
+    public EscrituraDiferida(InscripcionDAO dao) {
+        this(dao, Integer.getInteger("uni.diferida.capacidad", 10_000), Integer.getInteger("uni.diferida.lote", 500),
+                Long.getLong("uni.diferida.esperaMs", 20L), Long.getLong("uni.diferida.bloqueoMs", 30_000L));
+    }
+
+    /**
+     * Encola la inscripción; el futuro se completa cuando se confirma o
+     * falla (duplicada, FK inexistente...). Bloquea mientras la cola esté llena.
+     */
+    public CompletableFuture<Void> encolar(Inscripcion inscripcion) {
+        if (cerrada) throw new IllegalStateException("Escritura diferida cerrada");
+        int ocupadasAhora = reservarPlaza();
+        Pendiente p = new Pendiente(inscripcion, new CompletableFuture<>());
+        cola.offer(p);
+        // close() pudo terminar entre la comprobación de arriba y el offer: si nadie tomó la fila, se rechaza aquí
+        if (cerrada && cola.remove(p)) {
+            ocupadas.decrementAndGet();
+            p.confirmada().completeExceptionally(new IllegalStateException("Escritura diferida cerrada"));
+            return p.confirmada();
+        }
+        encoladas.incrementAndGet();
+        // la primera fila arranca el plazo de maxEsperaMs; un lote completo se escribe ya
+        if (ocupadasAhora == 1 || ocupadasAhora >= tamanoLote) LockSupport.unpark(escritor);
+        return p.confirmada();
+    }
+
+    private int reservarPlaza() {
+        long limite = 0;
+        for (int intentos = 0; ; intentos++) {
+            int n = ocupadas.get();
+            if (n < capacidad) {
+                if (ocupadas.compareAndSet(n, n + 1)) return n + 1;
+                continue;
+            }
+            if (intentos == 0) {
+                esperasPorColaLlena.increment();
+                limite = System.nanoTime() + esperaMaxNanos;
+                LockSupport.unpark(escritor);
+            } else if (System.nanoTime() - limite > 0) {
+                throw new IllegalStateException("Cola de escritura llena tras " + TimeUnit.NANOSECONDS.toMillis(esperaMaxNanos) + " ms");
+            }
+            LockSupport.parkNanos(50_000);
+            if (cerrada) throw new IllegalStateException("Escritura diferida cerrada");
+        }
+    }
+
+    /** Espera a que todo lo encolado antes de esta llamada esté confirmado o fallido. */
+    public void flush() {
+        long objetivo = encoladas.get();
+        if (procesadas.get() >= objetivo) return;
+        urgente = true;
+        LockSupport.unpark(escritor);
+        synchronized (avance) {
+            while (procesadas.get() < objetivo) {
+                if (!escritor.isAlive()) throw new IllegalStateException("El hilo de escritura diferida terminó");
+                try {
+                    avance.wait(100);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /** Rechaza nuevas filas, vacía la cola y detiene el hilo escritor. */
+    @Override
+    public void close() {
+        if (cerrada) return;
+        cerrada = true;
+        flush();
+        LockSupport.unpark(escritor);
+        try {
+            escritor.join(TimeUnit.NANOSECONDS.toMillis(esperaMaxNanos) + 1_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // quien encoló justo mientras se cerraba: no quedar esperando un futuro que nunca se completa
+        Pendiente p;
+        while (!escritor.isAlive() && (p = cola.poll()) != null)
+            p.confirmada().completeExceptionally(new IllegalStateException("Escritura diferida cerrada"));
+    }
+
+    private void escribir() {
+        List<Pendiente> lote = new ArrayList<>(tamanoLote);
+        int bastan = Math.min(tamanoLote, capacidad); // con la cola llena no hay que esperar más filas
+        while (true) {
+            if (ocupadas.get() == 0 && !urgente && !cerrada) { LockSupport.park(this); continue; } // ocioso hasta la primera fila
+            // juntar filas hasta el lote lleno o el plazo; un permiso viejo o un despertar espurio no lo acortan
+            long limite = System.nanoTime() + maxEsperaNanos;
+            long resta;
+            while (!urgente && !cerrada && ocupadas.get() < bastan && (resta = limite - System.nanoTime()) > 0)
+                LockSupport.parkNanos(this, resta);
+            urgente = false;
+            Pendiente p;
+            while ((p = cola.poll()) != null) {
+                lote.add(p);
+                if (lote.size() == tamanoLote) { confirmar(lote); lote.clear(); }
+            }
+            if (!lote.isEmpty()) { confirmar(lote); lote.clear(); }
+            if (cerrada && cola.isEmpty()) return;
+        }
+    }
+
+    private void confirmar(List<Pendiente> lote) {
+        ResultadoLote r;
+        try {
+            r = dao.insertarLote(lote.stream().map(Pendiente::inscripcion), lote.size()); // un solo commit
+        } catch (RuntimeException ex) { // la base no respondió: falla el lote completo
+            for (Pendiente p : lote) p.confirmada().completeExceptionally(ex);
+            terminar(lote.size(), 0, lote.size(), 0);
+            return;
+        }
+        boolean[] fallo = new boolean[lote.size()];
+        for (ResultadoLote.Fallo f : r.fallos()) {
+            fallo[(int) f.posicion()] = true;
+            lote.get((int) f.posicion()).confirmada().completeExceptionally(new IllegalStateException(f.mensaje()));
+        }
+        for (int k = 0; k < lote.size(); k++) if (!fallo[k]) lote.get(k).confirmada().complete(null);
+        terminar(lote.size(), r.insertadas(), r.fallos().size(), r.duracionNanos());
+    }
+
+    private void terminar(int tamano, long ok, long malas, long nanos) {
+        ocupadas.addAndGet(-tamano);
+        escritas.add(ok);
+        fallidas.add(malas);
+        lotes.incrementAndGet();
+        loteMaximo.accumulateAndGet(tamano, Math::max);
+        nanosCommit.addAndGet(nanos);
+        nanosCommitMaximo.accumulateAndGet(nanos, Math::max);
+        procesadas.addAndGet(tamano);
+        synchronized (avance) { avance.notifyAll(); }
+    }
+
+    public Estadisticas estadisticas() {
+        long n = lotes.get();
+        return new Estadisticas(encoladas.get(), escritas.sum(), fallidas.sum(), ocupadas.get(), n,
+                n == 0 ? 0 : (double) procesadas.get() / n, loteMaximo.get(),
+                n == 0 ? 0 : nanosCommit.get() / 1e6 / n, nanosCommitMaximo.get() / 1e6, esperasPorColaLlena.sum());
+    }
+
+    /** Métricas acumuladas; la latencia es la de insertarLote (batch + commit) por lote. */
+    public record Estadisticas(long encoladas, long escritas, long fallidas, int pendientes, long lotes,
+                               double tamanoMedioLote, long tamanoMaximoLote,
+                               double commitMedioMs, double commitMaximoMs, long esperasPorColaLlena) {
+        @Override
+        public String toString() {
+            return String.format("EscrituraDiferida{encoladas=%d, escritas=%d, fallidas=%d, pendientes=%d, lotes=%d, " +
+                            "lote medio=%.1f, lote max=%d, commit medio=%.2f ms, commit max=%.2f ms, esperas por cola llena=%d}",
+                    encoladas, escritas, fallidas, pendientes, lotes, tamanoMedioLote, tamanoMaximoLote,
+                    commitMedioMs, commitMaximoMs, esperasPorColaLlena);
+        }
+    }
+}
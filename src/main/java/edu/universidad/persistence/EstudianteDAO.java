@@ -1,6 +1,8 @@
 
 package edu.universidad.persistence; // paquete de persistencia
 
+import edu.universidad.metricas.Metrica; // tiempos por método
+import edu.universidad.metricas.Metricas; // registro JMX
 import edu.universidad.model.Estudiante; // modelo Estudiante
 import java.sql.*; // JDBC
 import java.util.*; // utilidades
@@ -8,8 +10,15 @@ import java.util.*; // utilidades
 /** DAO de Estudiante con persistencia en H2 (archivo). */
 public class EstudianteDAO { // define clase DAO
 
+    private static final Metrica M_UPSERT = Metricas.de("EstudianteDAO", "upsert"); // métricas por método
+    private static final Metrica M_ELIMINAR = Metricas.de("EstudianteDAO", "eliminar");
+    private static final Metrica M_LISTAR = Metricas.de("EstudianteDAO", "listar");
+    private static final Metrica M_RECORRER = Metricas.de("EstudianteDAO", "recorrer");
+    private static final Metrica M_SEMESTRE = Metricas.de("EstudianteDAO", "getSemestre");
+
     public void upsert(Estudiante e, int semestre) { // inserta/actualiza por codigo
         String sql = "MERGE INTO ESTUDIANTE (CODIGO,NOMBRES,APELLIDOS,EMAIL,PROMEDIO,ACTIVO,SEMESTRE) KEY(CODIGO) VALUES (?,?,?,?,?,?,?)"; // sentencia MERGE
+        long t0 = M_UPSERT.inicio(); // métricas
         try (Connection con = H2DB.getConnection(); // abre conexión
              PreparedStatement ps = con.prepareStatement(sql)) { // prepara sentencia
             ps.setDouble(1, e.getCodigo()); // valor de clave
@@ -19,26 +28,34 @@ public class EstudianteDAO { // define clase DAO
             ps.setDouble(5, e.getPromedio()); // promedio
             ps.setBoolean(6, e.isActivo()); // activo
             ps.setInt(7, semestre); // semestre
-            ps.executeUpdate(); // ejecuta
+            M_UPSERT.exito(t0, ps.executeUpdate()); // ejecuta
         } catch (SQLException ex) { // captura errores
+            M_UPSERT.fallo(t0); // cuenta el error
             throw new RuntimeException("Error upsert estudiante", ex); // propaga
+        } finally {
+            CacheMetadatos.invalidarEstudiante(e.getCodigo()); // el semestre pudo cambiar
         }
     }
 
     public boolean eliminar(double codigo) { // elimina por codigo
         String sql = "DELETE FROM ESTUDIANTE WHERE CODIGO=?"; // sentencia delete
+        long t0 = M_ELIMINAR.inicio(); // métricas
         try (Connection con = H2DB.getConnection(); // conexión
              PreparedStatement ps = con.prepareStatement(sql)) { // prep
             ps.setDouble(1, codigo); // set clave
-            return ps.executeUpdate() > 0; // retorna si borró
+            return M_ELIMINAR.exito(t0, ps.executeUpdate()) > 0; // retorna si borró
         } catch (SQLException ex) { // error
+            M_ELIMINAR.fallo(t0); // cuenta el error
             throw new RuntimeException("Error eliminando estudiante", ex); // propaga
+        } finally {
+            CacheMetadatos.invalidarEstudiante(codigo); // cache
         }
     }
 
     public List<Estudiante> listar() { // lista todos
         String sql = "SELECT CODIGO,NOMBRES,APELLIDOS,EMAIL,PROMEDIO,ACTIVO,SEMESTRE FROM ESTUDIANTE"; // consulta
         List<Estudiante> out = new ArrayList<>(); // lista
+        long t0 = M_LISTAR.inicio(); // métricas
         try (Connection con = H2DB.getConnection(); // con
              PreparedStatement ps = con.prepareStatement(sql); // prep
              ResultSet rs = ps.executeQuery()) { // ejecuta
@@ -53,22 +70,43 @@ public class EstudianteDAO { // define clase DAO
                 out.add(new Estudiante(codigo, nombres, apellidos, email, codigo, null, activo, promedio)); // crea entidad
             }
         } catch (SQLException ex) { // error
+            M_LISTAR.fallo(t0); // cuenta el error
             throw new RuntimeException("Error listando estudiantes", ex); // propaga
         }
+        M_LISTAR.exito(t0, out.size()); // filas leídas
         return out; // retorna
     }
 
-    public Integer getSemestre(double codigo) { // obtiene semestre por codigo
-        String sql = "SELECT SEMESTRE FROM ESTUDIANTE WHERE CODIGO=?"; // consulta
+    /** Una fila de ESTUDIANTE para analítica, sin objetos de modelo; promedio NaN si es NULL. */
+    @FunctionalInterface
+    public interface Fila { void aceptar(double codigo, double promedio, int semestre, boolean activo); }
+
+    public long recorrer(Fila fila) { // recorre por CODIGO (llave primaria)
+        String sql = "SELECT CODIGO,PROMEDIO,SEMESTRE,ACTIVO FROM ESTUDIANTE ORDER BY CODIGO"; // consulta
+        long n = 0; // entregadas
+        long t0 = M_RECORRER.inicio(); // métricas
         try (Connection con = H2DB.getConnection(); // con
              PreparedStatement ps = con.prepareStatement(sql)) { // prep
-            ps.setDouble(1, codigo); // set
-            try (ResultSet rs = ps.executeQuery()) { // exec
-                if (rs.next()) return rs.getInt(1); // semestre
-                return null; // no encontrado
+            ps.setFetchSize(10_000); // lotes grandes
+            try (ResultSet rs = ps.executeQuery()) { // ejecuta
+                while (rs.next()) { // recorre
+                    double promedio = rs.getDouble(2); // promedio
+                    if (rs.wasNull()) promedio = Double.NaN; // sin promedio
+                    fila.aceptar(rs.getDouble(1), promedio, rs.getInt(3), rs.getBoolean(4)); // entrega
+                    n++;
+                }
             }
-        } catch (SQLException ex) { // err
-            throw new RuntimeException("Error leyendo semestre de estudiante", ex); // propaga
+        } catch (SQLException ex) { // error
+            M_RECORRER.fallo(t0); // cuenta el error
+            throw new RuntimeException("Error recorriendo estudiantes", ex); // propaga
         }
+        return M_RECORRER.exito(t0, n); // retorna
+    }
+
+    public Integer getSemestre(double codigo) { // obtiene semestre por codigo (vía CacheMetadatos)
+        long t0 = M_SEMESTRE.inicio(); // métricas (casi siempre acierto de caché)
+        Integer semestre = CacheMetadatos.semestreEstudiante(codigo); // null si no existe
+        M_SEMESTRE.exito(t0, semestre == null ? 0 : 1); // una fila si existe
+        return semestre; // retorna
     }
 }
@@ -1,15 +1,63 @@
 package edu.universidad.persistence;
 
+import edu.universidad.metricas.Metrica;
+import edu.universidad.metricas.Metricas;
+
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.util.UUID;
 
 public class H2DB {
-    private static final String URL = "jdbc:h2:./data/universidad;AUTO_SERVER=TRUE";
+    // -Duni.db.url=jdbc:h2:mem:... permite correr benchmarks sin tocar data/
+    private static final String URL = System.getProperty("uni.db.url", "jdbc:h2:./data/universidad;AUTO_SERVER=TRUE");
     private static final String USER = "sa";
     private static final String PASS = "";
 
+    // Identifica a esta instancia en CAMBIO.ORIGEN: cada conexión del pool fija @ORIGEN al abrirse
+    private static final String ORIGEN = UUID.randomUUID().toString();
+
+    // Tamaños ajustables con -Duni.pool.min=..., -Duni.pool.max=..., etc.
+    private static final ConnectionPool POOL = new ConnectionPool(URL, USER, PASS,
+            Integer.getInteger("uni.pool.min", 1),
+            Integer.getInteger("uni.pool.max", 8),
+            Long.getLong("uni.pool.ociosaMs", 60_000L),
+            Long.getLong("uni.pool.esperaMs", 10_000L),
+            Long.getLong("uni.pool.validarMs", 5_000L),
+            Integer.getInteger("uni.pool.sentencias", 64),
+            "SET @ORIGEN = '" + ORIGEN + "'");
+
+    // Espera por una conexión del pool (o abrirla), aparte del tiempo de cada DAO
+    private static final Metrica M_CONEXION = Metricas.de("H2DB", "getConnection");
+
+    /** Presta una conexión del pool; close() la devuelve. */
     public static Connection getConnection() throws SQLException {
-        return DriverManager.getConnection(URL, USER, PASS);
+        long t0 = M_CONEXION.inicio();
+        Connection con;
+        try {
+            con = POOL.obtener();
+        } catch (SQLException ex) {
+            M_CONEXION.fallo(t0);
+            throw ex;
+        }
+        M_CONEXION.exito(t0, 0);
+        return con;
+    }
+
+    /** Origen de los cambios que escribe esta instancia (CAMBIO.ORIGEN). */
+    public static String origen() {
+        return ORIGEN;
+    }
+
+    /** URL JDBC en uso (sin credenciales). */
+    static String url() {
+        return URL;
+    }
+
+    public static ConnectionPool.Estadisticas estadisticas() {
+        return POOL.estadisticas();
+    }
+
+    public static void cerrar() {
+        POOL.cerrar();
     }
 }
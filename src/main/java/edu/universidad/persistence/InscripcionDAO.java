@@ -1,51 +1,249 @@
 package edu.universidad.persistence;
 
+import edu.universidad.colecciones.IntObjectMap;
+import edu.universidad.colecciones.LongObjectMap;
+import edu.universidad.metricas.Metrica;
+import edu.universidad.metricas.Metricas;
 import edu.universidad.model.Curso;
 import edu.universidad.model.Estudiante;
 import edu.universidad.model.Inscripcion;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
+import java.util.stream.Stream;
 
 public class InscripcionDAO {
 
+    /** Filas por executeBatch/commit en las cargas masivas. */
+    public static final int TAMANO_LOTE = 1_000;
+
+    private static final String SQL_INSERTAR = "INSERT INTO INSCRIPCION (CURSO_ID, ESTUDIANTE_CODIGO, ANIO, SEMESTRE) VALUES (?,?,?,?)";
+
+    private static final Metrica M_INSERTAR = Metricas.de("InscripcionDAO", "insertar");
+    private static final Metrica M_INSERTAR_LOTE = Metricas.de("InscripcionDAO", "insertarLote");
+    private static final Metrica M_LOTE = Metricas.de("InscripcionDAO", "insertarLote.lote"); // cada executeBatch + commit
+    private static final Metrica M_LISTAR = Metricas.de("InscripcionDAO", "listar");
+    private static final Metrica M_RECORRER = Metricas.de("InscripcionDAO", "recorrer");
+    private static final Metrica M_LISTAR_JOIN = Metricas.de("InscripcionDAO", "listarConJoin");
+
     public void insertar(Inscripcion inscripcion) {
-        String sql = "INSERT INTO INSCRIPCION (CURSO_ID, ESTUDIANTE_CODIGO, ANIO, SEMESTRE) VALUES (?,?,?,?)";
+        long t0 = M_INSERTAR.inicio();
         try (Connection con = H2DB.getConnection();
-             PreparedStatement ps = con.prepareStatement(sql)) {
-            ps.setInt(1, inscripcion.getCurso().getID());
-            ps.setDouble(2, inscripcion.getEstudiante().getCodigo());
-            ps.setInt(3, inscripcion.getAnio());
-            ps.setInt(4, inscripcion.getSemestre());
-            ps.executeUpdate();
+             PreparedStatement ps = con.prepareStatement(SQL_INSERTAR)) {
+            asignar(ps, inscripcion);
+            M_INSERTAR.exito(t0, ps.executeUpdate());
         } catch (SQLException e) {
+            M_INSERTAR.fallo(t0);
             throw new RuntimeException("Error insertando inscripción", e);
         }
     }
 
+    public ResultadoLote insertarLote(Collection<Inscripcion> inscripciones) {
+        return insertarLote(inscripciones.stream(), TAMANO_LOTE);
+    }
+
+    public ResultadoLote insertarLote(Stream<Inscripcion> inscripciones) {
+        return insertarLote(inscripciones, TAMANO_LOTE);
+    }
+
+    /**
+     * Inserta con addBatch/executeBatch y confirma cada {@code tamanoLote} filas.
+     * Una fila que falla (duplicada, FK inexistente...) queda en los fallos del
+     * resultado y no detiene la carga; las demás filas de su lote sí se confirman.
+     * La bitácora CAMBIO recibe un cambio grueso por lote, no uno por fila.
+     */
+    public ResultadoLote insertarLote(Stream<Inscripcion> inscripciones, int tamanoLote) {
+        if (tamanoLote < 1) throw new IllegalArgumentException("tamanoLote debe ser >= 1");
+        long t0 = System.nanoTime();
+        long m0 = M_INSERTAR_LOTE.inicio();
+        List<ResultadoLote.Fallo> fallos = new ArrayList<>();
+        long insertadas = 0;
+        long leidas = 0; // posición (base 0) de cada fila en la entrada
+        List<Inscripcion> lote = new ArrayList<>(tamanoLote);
+        List<Long> posiciones = new ArrayList<>(tamanoLote);
+        try (CambioTrigger.Masiva masiva = CambioTrigger.masiva();
+             Connection con = H2DB.getConnection();
+             PreparedStatement ps = con.prepareStatement(SQL_INSERTAR)) {
+            con.setAutoCommit(false);
+            Iterator<Inscripcion> it = inscripciones.iterator();
+            while (it.hasNext()) {
+                Inscripcion i = it.next();
+                long pos = leidas++;
+                try {
+                    asignar(ps, i);
+                } catch (RuntimeException ex) { // curso/estudiante null
+                    fallos.add(new ResultadoLote.Fallo(pos, i, "Inscripción incompleta: " + ex));
+                    continue;
+                }
+                ps.addBatch();
+                lote.add(i);
+                posiciones.add(pos);
+                if (lote.size() == tamanoLote) {
+                    insertadas += ejecutarLote(masiva, con, ps, lote, posiciones, fallos);
+                    lote.clear();
+                    posiciones.clear();
+                }
+            }
+            if (!lote.isEmpty()) insertadas += ejecutarLote(masiva, con, ps, lote, posiciones, fallos);
+            con.setAutoCommit(true);
+        } catch (SQLException e) {
+            M_INSERTAR_LOTE.fallo(m0);
+            throw new RuntimeException("Error en carga masiva de inscripciones", e);
+        }
+        M_INSERTAR_LOTE.exito(m0, insertadas);
+        return new ResultadoLote(insertadas, fallos, System.nanoTime() - t0);
+    }
+
+    private int ejecutarLote(CambioTrigger.Masiva masiva, Connection con, PreparedStatement ps, List<Inscripcion> lote, List<Long> posiciones,
+                             List<ResultadoLote.Fallo> fallos) throws SQLException {
+        int ok = 0;
+        long t0 = M_LOTE.inicio();
+        try {
+            ps.executeBatch();
+            ok = lote.size();
+        } catch (BatchUpdateException ex) {
+            int[] cuentas = ex.getUpdateCounts();
+            for (int k = 0; k < lote.size(); k++) {
+                if (k < cuentas.length) {
+                    if (cuentas[k] == Statement.EXECUTE_FAILED) fallos.add(new ResultadoLote.Fallo(posiciones.get(k), lote.get(k), ex.getMessage()));
+                    else ok++;
+                } else { // el driver se detuvo: el resto va fila a fila
+                    try {
+                        asignar(ps, lote.get(k));
+                        ps.executeUpdate();
+                        ok++;
+                    } catch (SQLException fila) {
+                        fallos.add(new ResultadoLote.Fallo(posiciones.get(k), lote.get(k), fila.getMessage()));
+                    }
+                }
+            }
+        }
+        if (ok > 0) masiva.anotar(con, Cambio.Tabla.INSCRIPCION);
+        con.commit();
+        M_LOTE.exito(t0, ok);
+        return ok;
+    }
+
+    private static void asignar(PreparedStatement ps, Inscripcion inscripcion) throws SQLException {
+        ps.setInt(1, inscripcion.getCurso().getID());
+        ps.setDouble(2, inscripcion.getEstudiante().getCodigo());
+        ps.setInt(3, inscripcion.getAnio());
+        ps.setInt(4, inscripcion.getSemestre());
+    }
+
+    /**
+     * Hidrata las inscripciones contra los catálogos dados. Los catálogos se
+     * indexan una vez por carga, así el costo es O(filas + catálogo) y no
+     * O(filas × catálogo). Si hay claves repetidas gana la primera, como antes.
+     */
     public List<Inscripcion> listar(List<Estudiante> estudiantes, List<Curso> cursos) {
+        return listar(indexarEstudiantes(estudiantes), indexarCursos(cursos));
+    }
+
+    /** Igual que {@link #listar(List, List)} con catálogos ya indexados (claves de estudiante vía LongObjectMap.clave). */
+    public List<Inscripcion> listar(LongObjectMap<Estudiante> estPorCodigo, IntObjectMap<Curso> cursoPorId) {
         String sql = "SELECT CURSO_ID, ESTUDIANTE_CODIGO, ANIO, SEMESTRE FROM INSCRIPCION";
         List<Inscripcion> out = new ArrayList<>();
+        long t0 = M_LISTAR.inicio();
         try (Connection con = H2DB.getConnection();
              PreparedStatement ps = con.prepareStatement(sql)) {
             try (ResultSet rs = ps.executeQuery()) {
                 while (rs.next()) {
-                    int cursoId = rs.getInt("CURSO_ID");
-                    double codEst = rs.getDouble("ESTUDIANTE_CODIGO");
-                    int anio = rs.getInt("ANIO");
-                    int semestre = rs.getInt("SEMESTRE");
-
-                    Curso curso = cursos.stream().filter(c -> c.getID() == cursoId).findFirst().orElse(null);
-                    Estudiante est = estudiantes.stream().filter(e -> Double.compare(e.getCodigo(), codEst) == 0).findFirst().orElse(null);
+                    Curso curso = cursoPorId.get(rs.getInt(1));
+                    Estudiante est = estPorCodigo.get(LongObjectMap.clave(rs.getDouble(2)));
                     if (curso != null && est != null) {
-                        out.add(new Inscripcion(curso, anio, semestre, est));
+                        out.add(new Inscripcion(curso, rs.getInt(3), rs.getInt(4), est));
                     }
                 }
             }
         } catch (SQLException e) {
+            M_LISTAR.fallo(t0);
             throw new RuntimeException("Error listando inscripciones", e);
         }
+        M_LISTAR.exito(t0, out.size());
         return out;
     }
+
+    /** Una fila de INSCRIPCION sin objetos de modelo. */
+    @FunctionalInterface
+    public interface Fila { void aceptar(int cursoId, double codigo, int anio, int semestre); }
+
+    /**
+     * Recorre INSCRIPCION en el orden de su clave única (CURSO_ID,
+     * ESTUDIANTE_CODIGO), que H2 lee del índice sin ordenar, y entrega cada
+     * fila sin crear objetos. Devuelve cuántas filas entregó.
+     */
+    public long recorrer(Fila fila) {
+        String sql = "SELECT CURSO_ID, ESTUDIANTE_CODIGO, ANIO, SEMESTRE FROM INSCRIPCION ORDER BY CURSO_ID, ESTUDIANTE_CODIGO";
+        long n = 0;
+        long t0 = M_RECORRER.inicio();
+        try (Connection con = H2DB.getConnection();
+             PreparedStatement ps = con.prepareStatement(sql)) {
+            ps.setFetchSize(10_000);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    fila.aceptar(rs.getInt(1), rs.getDouble(2), rs.getInt(3), rs.getInt(4));
+                    n++;
+                }
+            }
+        } catch (SQLException e) {
+            M_RECORRER.fallo(t0);
+            throw new RuntimeException("Error recorriendo inscripciones", e);
+        }
+        return M_RECORRER.exito(t0, n);
+    }
+
+    /**
+     * Variante que resuelve el join en H2 en lugar de usar catálogos en memoria.
+     * Cada curso/estudiante se instancia una sola vez y se comparte entre sus inscripciones.
+     */
+    public List<Inscripcion> listarConJoin() {
+        String sql = "SELECT i.CURSO_ID, i.ESTUDIANTE_CODIGO, i.ANIO, i.SEMESTRE, c.NOMBRE, c.ACTIVO, " +
+                     "e.NOMBRES, e.APELLIDOS, e.EMAIL, e.PROMEDIO, e.ACTIVO " +
+                     "FROM INSCRIPCION i JOIN CURSO c ON c.ID=i.CURSO_ID JOIN ESTUDIANTE e ON e.CODIGO=i.ESTUDIANTE_CODIGO";
+        IntObjectMap<Curso> cursos = new IntObjectMap<>();
+        LongObjectMap<Estudiante> estudiantes = new LongObjectMap<>();
+        List<Inscripcion> out = new ArrayList<>();
+        long t0 = M_LISTAR_JOIN.inicio();
+        try (Connection con = H2DB.getConnection();
+             PreparedStatement ps = con.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                int cursoId = rs.getInt(1);
+                double codigo = rs.getDouble(2);
+                Curso curso = cursos.get(cursoId);
+                if (curso == null) {
+                    curso = new Curso(cursoId, rs.getString(5), null, rs.getBoolean(6));
+                    cursos.put(cursoId, curso);
+                }
+                Estudiante est = estudiantes.get(LongObjectMap.clave(codigo));
+                if (est == null) {
+                    est = new Estudiante(codigo, rs.getString(7), rs.getString(8), rs.getString(9), codigo, null, rs.getBoolean(11), rs.getDouble(10));
+                    estudiantes.put(LongObjectMap.clave(codigo), est);
+                }
+                out.add(new Inscripcion(curso, rs.getInt(3), rs.getInt(4), est));
+            }
+        } catch (SQLException e) {
+            M_LISTAR_JOIN.fallo(t0);
+            throw new RuntimeException("Error listando inscripciones", e);
+        }
+        M_LISTAR_JOIN.exito(t0, out.size());
+        return out;
+    }
+
+    /** Índice por ID; ante IDs repetidos gana el primero, como la búsqueda lineal original. */
+    public static IntObjectMap<Curso> indexarCursos(List<Curso> cursos) {
+        IntObjectMap<Curso> porId = new IntObjectMap<>(cursos.size());
+        for (Curso c : cursos) porId.putIfAbsent(c.getID(), c);
+        return porId;
+    }
+
+    public static LongObjectMap<Estudiante> indexarEstudiantes(List<Estudiante> estudiantes) {
+        LongObjectMap<Estudiante> porCodigo = new LongObjectMap<>(estudiantes.size());
+        for (Estudiante e : estudiantes) porCodigo.putIfAbsent(LongObjectMap.clave(e.getCodigo()), e);
+        return porCodigo;
+    }
 }
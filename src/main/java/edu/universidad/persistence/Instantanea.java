@@ -0,0 +1,543 @@
+package edu.universidad.persistence;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32C;
+
+/**
+ * Copia binaria de ESTUDIANTE, PROFESOR, CURSO e INSCRIPCION para arrancar
+ * sin leer las cuatro tablas por JDBC. Se lee con un MappedByteBuffer: abrir
+ * cuesta mapear el archivo y una pasada de CRC, y cada tabla se decodifica
+ * solo cuando se pide.
+ *
+ * Formato (big-endian), versión {@value #VERSION_FORMATO}:
+ * <pre>
+ *  0 int   MAGIA "UNIS"
+ *  4 short versión del formato
+ *  6 short versión del esquema (Migraciones)
+ *  8 int   hash de la URL de la base
+ * 12 int   CRC32C del cuerpo seguido de los bytes 16-71 de la cabecera
+ * 16 long  MAX(SEQ) de CAMBIO al copiar
+ * 24 long  COUNT(*) de CAMBIO al copiar
+ * 32 long  momento de la copia (epoch ms)
+ * 40 int[4] filas y int[4] desplazamiento de cada tabla dentro del cuerpo
+ * 72       cuerpo
+ * </pre>
+ * Textos: int con la longitud en bytes UTF-8 (-1 = NULL) y los bytes.
+ * Nulos de columnas numéricas: un byte de banderas por fila.
+ *
+ * La copia se toma en una transacción SERIALIZABLE (en H2, una foto de todas
+ * las tablas a la vez) junto con MAX(SEQ) y COUNT(*) de la bitácora CAMBIO.
+ * Al abrir se comparan con los de la base: cualquier escritura posterior
+ * (incluida una transacción que confirme tarde una secuencia menor, que
+ * cambia el conteo) o una purga invalidan la copia. Una purga solo provoca
+ * una recarga de más.
+ */
+public final class Instantanea {
+
+    private static final int MAGIA = 0x554E4953; // "UNIS"
+    static final short VERSION_FORMATO = 2; // 2: el CRC cubre también filas, desplazamientos y firma
+    private static final int CABECERA = 72;
+    private static final int TABLAS = 4; // orden: ESTUDIANTE, PROFESOR, CURSO, INSCRIPCION
+    private static final int BYTES_INSCRIPCION = 4 + 8 + 4 + 4;
+    /** Bytes mínimos de una fila de cada tabla (textos vacíos): cota para validar la cabecera. */
+    private static final int[] MINIMO_FILA = {8 + 1 + 3 * 4 + 8 + 1 + 4, 8 + 4 * 4, 4 + 1 + 4 + 1 + 4 + 8, BYTES_INSCRIPCION};
+
+    /** -Duni.instantanea=ruta; vacío la desactiva. */
+    public static final String RUTA = System.getProperty("uni.instantanea", "data/universidad.snap");
+
+    private static volatile Instantanea deArranque;
+
+    /** Estado de la bitácora CAMBIO y del esquema con que se tomó la copia. */
+    public record Firma(int esquema, long secuencia, long cambios) { }
+
+    public record FilaEstudiante(double codigo, String nombres, String apellidos, String email,
+                                 Double promedio, Boolean activo, int semestre) { }
+
+    public record FilaProfesor(double id, String nombres, String apellidos, String email, String tipoContrato) { }
+
+    public record FilaCurso(int id, String nombre, Boolean activo, int semestre, Double profesorId) { }
+
+    public record FilaInscripcion(int cursoId, double codigo, int anio, int semestre) { }
+
+    /** Consultas de la copia, en el orden del cuerpo; las mismas sirven para comparar con la carga por JDBC. */
+    public static final String SQL_ESTUDIANTES = "SELECT CODIGO,NOMBRES,APELLIDOS,EMAIL,PROMEDIO,ACTIVO,SEMESTRE FROM ESTUDIANTE ORDER BY CODIGO";
+    public static final String SQL_PROFESORES = "SELECT ID,NOMBRES,APELLIDOS,EMAIL,TIPOCONTRATO FROM PROFESOR ORDER BY ID";
+    public static final String SQL_CURSOS = "SELECT ID,NOMBRE,ACTIVO,SEMESTRE,PROFESOR_ID FROM CURSO ORDER BY ID";
+    public static final String SQL_INSCRIPCIONES = "SELECT CURSO_ID,ESTUDIANTE_CODIGO,ANIO,SEMESTRE FROM INSCRIPCION ORDER BY CURSO_ID,ESTUDIANTE_CODIGO";
+
+    private final ByteBuffer cuerpo;
+    private final Firma firma;
+    private final long creada;
+    private final int[] filas;
+    private final int[] desplazamientos;
+
+    private Instantanea(ByteBuffer cuerpo, Firma firma, long creada, int[] filas, int[] desplazamientos) {
+        this.cuerpo = cuerpo;
+        this.firma = firma;
+        this.creada = creada;
+        this.filas = filas;
+        this.desplazamientos = desplazamientos;
+    }
+
+    // ---- Arranque ----
+
+    /**
+     * La abre si existe y sigue vigente frente a la base; queda disponible en
+     * {@link #deArranque()} para que las vistas se llenen sin consultar.
+     */
+    public static Instantanea cargarAlArrancar() {
+        if (RUTA.isBlank()) return null;
+        try {
+            deArranque = abrirVigente(Path.of(RUTA));
+        } catch (IOException | RuntimeException ex) {
+            System.err.println("Instantánea ignorada: " + ex.getMessage());
+            deArranque = null;
+        }
+        return deArranque;
+    }
+
+    /** La instantánea vigente al arrancar, o null. */
+    public static Instantanea deArranque() {
+        return deArranque;
+    }
+
+    /** Las vistas ya cargaron: se suelta el mapeo. */
+    public static void liberarArranque() {
+        deArranque = null;
+    }
+
+    // ---- Lectura ----
+
+    /**
+     * Mapea el archivo, comprueba formato, CRC, secciones, esquema, base y firma. Null si
+     * no existe o no sirve (el motivo va a System.err, salvo que no exista).
+     */
+    public static Instantanea abrirVigente(Path ruta) throws IOException {
+        Instantanea i;
+        try {
+            i = abrir(ruta);
+        } catch (NoSuchFileException ex) {
+            return null;
+        } catch (IllegalStateException ex) {
+            System.err.println("Instantánea ignorada: " + ex.getMessage());
+            return null;
+        }
+        Firma actual = firmaActual();
+        if (!actual.equals(i.firma)) {
+            System.err.println("Instantánea desactualizada: " + i.firma + " frente a " + actual);
+            return null;
+        }
+        return i;
+    }
+
+    /** Mapea y valida el archivo sin consultar la base; IllegalStateException si está dañado o es de otra versión. */
+    public static Instantanea abrir(Path ruta) throws IOException {
+        MappedByteBuffer mapa;
+        try (FileChannel ch = FileChannel.open(ruta, StandardOpenOption.READ)) {
+            long tam = ch.size();
+            if (tam < CABECERA || tam > Integer.MAX_VALUE) throw new IllegalStateException("tamaño inválido: " + tam);
+            mapa = ch.map(FileChannel.MapMode.READ_ONLY, 0, tam); // el mapeo sobrevive al canal
+        }
+        if (mapa.getInt(0) != MAGIA) throw new IllegalStateException("no es una instantánea");
+        if (mapa.getShort(4) != VERSION_FORMATO) throw new IllegalStateException("formato " + mapa.getShort(4) + ", se espera " + VERSION_FORMATO);
+        if (mapa.getInt(8) != H2DB.url().hashCode()) throw new IllegalStateException("tomada de otra base");
+        ByteBuffer cuerpo = mapa.slice(CABECERA, mapa.capacity() - CABECERA);
+        CRC32C crc = new CRC32C();
+        crc.update(cuerpo.duplicate());
+        crc.update(mapa.slice(16, CABECERA - 16));
+        if ((int) crc.getValue() != mapa.getInt(12)) throw new IllegalStateException("CRC inválido");
+
+        int[] filas = new int[TABLAS], desplazamientos = new int[TABLAS];
+        for (int t = 0; t < TABLAS; t++) filas[t] = mapa.getInt(40 + 4 * t);
+        for (int t = 0; t < TABLAS; t++) desplazamientos[t] = mapa.getInt(56 + 4 * t);
+        for (int t = 0; t < TABLAS; t++) { // cada sección dentro del cuerpo, en orden, con sitio para sus filas
+            int desde = desplazamientos[t], hasta = t + 1 < TABLAS ? desplazamientos[t + 1] : cuerpo.capacity();
+            if (desde < 0 || desde > hasta || hasta > cuerpo.capacity() || filas[t] < 0
+                    || filas[t] > (hasta - desde) / MINIMO_FILA[t])
+                throw new IllegalStateException("sección " + t + " inválida: " + filas[t] + " filas en [" + desde + ", " + hasta + ")");
+        }
+        Firma f = new Firma(mapa.getShort(6), mapa.getLong(16), mapa.getLong(24));
+        return new Instantanea(cuerpo, f, mapa.getLong(32), filas, desplazamientos);
+    }
+
+    public Firma firma() {
+        return firma;
+    }
+
+    /** Secuencia de CAMBIO de la copia: suscribirse desde aquí para no perder lo posterior. */
+    public long secuencia() {
+        return firma.secuencia;
+    }
+
+    public long creada() {
+        return creada;
+    }
+
+    public int bytes() {
+        return CABECERA + cuerpo.capacity();
+    }
+
+    public List<FilaEstudiante> estudiantes() {
+        ByteBuffer b = seccion(0);
+        List<FilaEstudiante> out = new ArrayList<>(filas[0]);
+        for (int n = 0; n < filas[0]; n++) {
+            double codigo = b.getDouble();
+            int nulos = b.get();
+            String nombres = texto(b), apellidos = texto(b), email = texto(b);
+            double promedio = b.getDouble();
+            boolean activo = b.get() != 0;
+            int semestre = b.getInt();
+            out.add(new FilaEstudiante(codigo, nombres, apellidos, email,
+                    (nulos & 1) != 0 ? null : promedio, (nulos & 2) != 0 ? null : activo, semestre));
+        }
+        return out;
+    }
+
+    public List<FilaProfesor> profesores() {
+        ByteBuffer b = seccion(1);
+        List<FilaProfesor> out = new ArrayList<>(filas[1]);
+        for (int n = 0; n < filas[1]; n++) out.add(new FilaProfesor(b.getDouble(), texto(b), texto(b), texto(b), texto(b)));
+        return out;
+    }
+
+    public List<FilaCurso> cursos() {
+        ByteBuffer b = seccion(2);
+        List<FilaCurso> out = new ArrayList<>(filas[2]);
+        for (int n = 0; n < filas[2]; n++) {
+            int id = b.getInt();
+            int nulos = b.get();
+            String nombre = texto(b);
+            boolean activo = b.get() != 0;
+            int semestre = b.getInt();
+            double profesor = b.getDouble();
+            out.add(new FilaCurso(id, nombre, (nulos & 2) != 0 ? null : activo, semestre, (nulos & 1) != 0 ? null : profesor));
+        }
+        return out;
+    }
+
+    public List<FilaInscripcion> inscripciones() {
+        ByteBuffer b = seccion(3);
+        List<FilaInscripcion> out = new ArrayList<>(filas[3]);
+        for (int n = 0; n < filas[3]; n++) out.add(new FilaInscripcion(b.getInt(), b.getDouble(), b.getInt(), b.getInt()));
+        return out;
+    }
+
+    /** Inscritos por curso contados sobre el mapeo, sin crear filas (registros de tamaño fijo). */
+    public Map<Integer, Integer> inscritosPorCurso() {
+        ByteBuffer b = seccion(3);
+        Map<Integer, Integer> out = new HashMap<>();
+        for (int n = 0, p = 0; n < filas[3]; n++, p += BYTES_INSCRIPCION) out.merge(b.getInt(p), 1, Integer::sum);
+        return out;
+    }
+
+    private ByteBuffer seccion(int t) {
+        return cuerpo.duplicate().position(desplazamientos[t]).slice();
+    }
+
+    private static String texto(ByteBuffer b) {
+        int n = b.getInt();
+        if (n < 0) return null;
+        byte[] bytes = new byte[n];
+        b.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String toString() {
+        return "Instantanea{" + firma + ", estudiantes=" + filas[0] + ", profesores=" + filas[1] + ", cursos=" + filas[2]
+                + ", inscripciones=" + filas[3] + ", bytes=" + bytes() + "}";
+    }
+
+    // ---- Base ----
+
+    /** Firma actual de la base: versión del esquema, MAX(SEQ) y COUNT(*) de CAMBIO. */
+    public static Firma firmaActual() {
+        try (Connection con = H2DB.getConnection()) {
+            return firma(con);
+        } catch (SQLException ex) {
+            throw new RuntimeException("Error leyendo la firma de la base", ex);
+        }
+    }
+
+    private static Firma firma(Connection con) throws SQLException {
+        int esquema = Migraciones.versionActual(con);
+        try (PreparedStatement ps = con.prepareStatement("SELECT COALESCE(MAX(SEQ), 0), COUNT(*) FROM CAMBIO");
+             ResultSet rs = ps.executeQuery()) {
+            rs.next();
+            return new Firma(esquema, rs.getLong(1), rs.getLong(2));
+        }
+    }
+
+    // ---- Escritura ----
+
+    /**
+     * Toma la foto de la base y la escribe en {@code ruta} (archivo temporal y
+     * movimiento atómico). Las filas van de los ResultSet al archivo por
+     * bloques, con el CRC al día; la cabecera se escribe al final.
+     */
+    public static Firma escribir(Path ruta) throws IOException {
+        Path dir = ruta.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        Path tmp = Files.createTempFile(dir, ruta.getFileName().toString(), ".tmp");
+        try {
+            Firma f;
+            try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+                f = copiar(ch);
+                ch.force(false);
+            }
+            try {
+                Files.move(tmp, ruta, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException ex) {
+                Files.move(tmp, ruta, StandardCopyOption.REPLACE_EXISTING);
+            }
+            return f;
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /** Copia las cuatro tablas al canal en una sola foto (transacción SERIALIZABLE de solo lectura). */
+    private static Firma copiar(FileChannel ch) throws IOException {
+        try (Connection con = H2DB.getConnection()) {
+            int aislamiento = con.getTransactionIsolation();
+            con.setAutoCommit(false);
+            con.setTransactionIsolation(Connection.TRANSACTION_SERIALIZABLE);
+            try {
+                Firma f = firma(con);
+                Salida out = new Salida(ch);
+                int[] filas = new int[TABLAS], desplazamientos = new int[TABLAS];
+
+                desplazamientos[0] = out.desplazamiento();
+                try (PreparedStatement ps = con.prepareStatement(SQL_ESTUDIANTES)) {
+                    ps.setFetchSize(10_000);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            double codigo = rs.getDouble(1);
+                            String nombres = rs.getString(2), apellidos = rs.getString(3), email = rs.getString(4);
+                            double promedio = rs.getDouble(5);
+                            boolean sinPromedio = rs.wasNull();
+                            boolean activo = rs.getBoolean(6);
+                            boolean sinActivo = rs.wasNull();
+                            out.asegurar(9).putDouble(codigo).put((byte) ((sinPromedio ? 1 : 0) | (sinActivo ? 2 : 0)));
+                            out.texto(nombres); out.texto(apellidos); out.texto(email);
+                            out.asegurar(13).putDouble(promedio).put((byte) (activo ? 1 : 0)).putInt(rs.getInt(7));
+                            filas[0]++;
+                        }
+                    }
+                }
+
+                desplazamientos[1] = out.desplazamiento();
+                try (PreparedStatement ps = con.prepareStatement(SQL_PROFESORES);
+                     ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        out.asegurar(8).putDouble(rs.getDouble(1));
+                        out.texto(rs.getString(2)); out.texto(rs.getString(3)); out.texto(rs.getString(4)); out.texto(rs.getString(5));
+                        filas[1]++;
+                    }
+                }
+
+                desplazamientos[2] = out.desplazamiento();
+                try (PreparedStatement ps = con.prepareStatement(SQL_CURSOS);
+                     ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        int id = rs.getInt(1);
+                        String nombre = rs.getString(2);
+                        boolean activo = rs.getBoolean(3);
+                        boolean sinActivo = rs.wasNull();
+                        int semestre = rs.getInt(4);
+                        double profesor = rs.getDouble(5);
+                        boolean sinProfesor = rs.wasNull();
+                        out.asegurar(5).putInt(id).put((byte) ((sinProfesor ? 1 : 0) | (sinActivo ? 2 : 0)));
+                        out.texto(nombre);
+                        out.asegurar(13).put((byte) (activo ? 1 : 0)).putInt(semestre).putDouble(profesor);
+                        filas[2]++;
+                    }
+                }
+
+                desplazamientos[3] = out.desplazamiento();
+                try (PreparedStatement ps = con.prepareStatement(SQL_INSCRIPCIONES)) {
+                    ps.setFetchSize(10_000);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            out.asegurar(BYTES_INSCRIPCION).putInt(rs.getInt(1)).putDouble(rs.getDouble(2)).putInt(rs.getInt(3)).putInt(rs.getInt(4));
+                            filas[3]++;
+                        }
+                    }
+                }
+                con.commit();
+                out.terminar();
+
+                ByteBuffer cab = ByteBuffer.allocate(CABECERA);
+                cab.putInt(MAGIA).putShort(VERSION_FORMATO).putShort((short) f.esquema()).putInt(H2DB.url().hashCode())
+                        .putInt(0).putLong(f.secuencia()).putLong(f.cambios())
+                        .putLong(System.currentTimeMillis());
+                for (int n : filas) cab.putInt(n);
+                for (int d : desplazamientos) cab.putInt(d);
+                cab.putInt(12, out.crc(cab.slice(16, CABECERA - 16)));
+                cab.flip();
+                for (long p = 0; cab.hasRemaining(); ) p += ch.write(cab, p);
+                return f;
+            } finally {
+                con.rollback(); // sin efecto tras el commit; vuelve limpia al pool si algo falló
+                con.setTransactionIsolation(aislamiento);
+                con.setAutoCommit(true);
+            }
+        } catch (SQLException ex) {
+            throw new RuntimeException("Error leyendo las tablas para la instantánea", ex);
+        }
+    }
+
+    /**
+     * Cuerpo de la instantánea camino del archivo: un bloque de 64 KiB que se
+     * vuelca al canal (tras la cabecera) y al CRC cuando se llena.
+     */
+    private static final class Salida {
+        private static final long MAXIMO = Integer.MAX_VALUE - CABECERA; // el lector mapea con desplazamientos int
+
+        private final FileChannel ch;
+        private final ByteBuffer bloque = ByteBuffer.allocate(1 << 16);
+        private final CRC32C crc = new CRC32C();
+        private long volcados; // bytes del cuerpo ya en el canal
+
+        Salida(FileChannel ch) throws IOException {
+            this.ch = ch;
+            ch.position(CABECERA);
+        }
+
+        /** El bloque con al menos {@code n} bytes libres. */
+        ByteBuffer asegurar(int n) throws IOException {
+            if (bloque.remaining() < n) volcar();
+            return bloque;
+        }
+
+        void texto(String s) throws IOException {
+            if (s == null) { asegurar(4).putInt(-1); return; }
+            byte[] b = s.getBytes(StandardCharsets.UTF_8);
+            asegurar(4).putInt(b.length);
+            if (b.length <= bloque.capacity()) { asegurar(b.length).put(b); return; }
+            volcar();
+            escribir(ByteBuffer.wrap(b));
+        }
+
+        int desplazamiento() {
+            return (int) (volcados + bloque.position()); // si no cupiera, terminar() falla antes de la cabecera
+        }
+
+        void terminar() throws IOException {
+            volcar();
+        }
+
+        /** CRC del cuerpo ya volcado seguido de {@code cabecera} (los bytes 16-71). */
+        int crc(ByteBuffer cabecera) {
+            crc.update(cabecera);
+            return (int) crc.getValue();
+        }
+
+        private void volcar() throws IOException {
+            bloque.flip();
+            escribir(bloque);
+            bloque.clear();
+        }
+
+        private void escribir(ByteBuffer b) throws IOException {
+            if (volcados + b.remaining() > MAXIMO)
+                throw new IllegalStateException("La instantánea no cabe en el formato " + VERSION_FORMATO + " (máximo 2 GB)");
+            crc.update(b.duplicate());
+            volcados += b.remaining();
+            while (b.hasRemaining()) ch.write(b);
+        }
+    }
+
+    /**
+     * Reescribe la instantánea cuando la bitácora avisa de cambios, tras
+     * {@code esperaMs} sin cambios nuevos, en un hilo propio (no en el del
+     * sondeo). close() la deja al día si la base cambió desde la última.
+     */
+    public static final class Escritor implements AutoCloseable {
+        private final Path ruta;
+        private final long esperaMs;
+        private final ScheduledExecutorService hilo = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "instantanea");
+            t.setDaemon(true);
+            return t;
+        });
+        private ScheduledFuture<?> pendiente; // protegido por this
+        private volatile Firma escrita;
+        private NotificadorCambios.Suscripcion suscripcion;
+
+        /** {@code escrita}: firma de la instantánea vigente, o null si no hay. */
+        public Escritor(Path ruta, long esperaMs, Firma escrita) {
+            this.ruta = ruta;
+            this.esperaMs = esperaMs;
+            this.escrita = escrita;
+        }
+
+        /** Se suscribe a las cuatro tablas; si no hay instantánea vigente programa una. */
+        public Escritor escuchar(NotificadorCambios notificador) {
+            suscripcion = notificador.suscribir(EnumSet.allOf(Cambio.Tabla.class), new NotificadorCambios.Oyente() {
+                @Override public void alCambiar(List<Cambio> cambios) { programar(); }
+                @Override public void alPerderCambios() { programar(); }
+            });
+            if (escrita == null) programar();
+            return this;
+        }
+
+        /** Reinicia la espera: varias ráfagas seguidas producen una sola escritura. */
+        public synchronized void programar() {
+            if (pendiente != null) pendiente.cancel(false);
+            pendiente = hilo.schedule(this::escribirSiCambio, esperaMs, TimeUnit.MILLISECONDS);
+        }
+
+        private void escribirSiCambio() {
+            try {
+                if (firmaActual().equals(escrita)) return;
+                escrita = escribir(ruta);
+            } catch (IOException | RuntimeException ex) {
+                System.err.println("No se pudo escribir la instantánea: " + ex.getMessage());
+            }
+        }
+
+        /** Última firma escrita (o la de partida). */
+        public Firma escrita() {
+            return escrita;
+        }
+
+        @Override
+        public void close() {
+            if (suscripcion != null) suscripcion.close();
+            synchronized (this) {
+                if (pendiente != null) pendiente.cancel(false);
+            }
+            hilo.shutdown();
+            try {
+                hilo.awaitTermination(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            escribirSiCambio();
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package edu.universidad.persistence;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Migraciones versionadas del esquema H2.
+ * Las versiones aplicadas quedan en SCHEMA_VERSION, así un archivo
+ * data/universidad.mv.db existente se actualiza en sitio al arrancar.
+ * Nunca se edita una migración publicada: se agrega una versión nueva al final.
+ */
+public class Migraciones {
+
+    private static final List<Migracion> TODAS = List.of(
+            new Migracion(1, "Tablas base", Schema.tablasBase()),
+
+            // Conserva la fila más reciente de cada par (igual que el MERGE de la UI) antes de la clave única.
+            // Las que se quitan quedan en INSCRIPCION_DESCARTADA, con el motivo.
+            new Migracion(2, "Clave única INSCRIPCION(CURSO_ID,ESTUDIANTE_CODIGO)", List.of(
+                    "CREATE TABLE IF NOT EXISTS INSCRIPCION_DESCARTADA (" +
+                            "ID BIGINT, CURSO_ID INT, ESTUDIANTE_CODIGO DOUBLE, ANIO INT, SEMESTRE INT, " +
+                            "MOTIVO VARCHAR(40) NOT NULL, DESCARTADA TIMESTAMP DEFAULT CURRENT_TIMESTAMP)",
+                    copiar("duplicada", "i.ID NOT IN (SELECT MAX(ID) FROM INSCRIPCION GROUP BY CURSO_ID, ESTUDIANTE_CODIGO)"),
+                    borrar("i.ID NOT IN (SELECT MAX(ID) FROM INSCRIPCION GROUP BY CURSO_ID, ESTUDIANTE_CODIGO)"),
+                    "ALTER TABLE INSCRIPCION ADD CONSTRAINT IF NOT EXISTS UK_INSCRIPCION_CURSO_EST " +
+                            "UNIQUE (CURSO_ID, ESTUDIANTE_CODIGO)")),
+
+            // IX_INSCRIPCION_CURSO también lo reutiliza la FK de la versión 4.
+            new Migracion(3, "Índices secundarios de INSCRIPCION", List.of(
+                    "CREATE INDEX IF NOT EXISTS IX_INSCRIPCION_CURSO ON INSCRIPCION(CURSO_ID)",
+                    "CREATE INDEX IF NOT EXISTS IX_INSCRIPCION_ESTUDIANTE ON INSCRIPCION(ESTUDIANTE_CODIGO)",
+                    "CREATE INDEX IF NOT EXISTS IX_INSCRIPCION_PERIODO ON INSCRIPCION(ANIO, SEMESTRE)")),
+
+            // Las inscripciones huérfanas no se pueden conservar con la FK: pasan a INSCRIPCION_DESCARTADA.
+            // RESTRICT: borrar un curso o un estudiante con inscripciones falla (ver violaLlaveForanea).
+            new Migracion(4, "Llaves foráneas de INSCRIPCION a CURSO y ESTUDIANTE", List.of(
+                    copiar("sin curso", "NOT EXISTS (SELECT 1 FROM CURSO c WHERE c.ID=i.CURSO_ID)"),
+                    borrar("NOT EXISTS (SELECT 1 FROM CURSO c WHERE c.ID=i.CURSO_ID)"),
+                    copiar("sin estudiante", "NOT EXISTS (SELECT 1 FROM ESTUDIANTE e WHERE e.CODIGO=i.ESTUDIANTE_CODIGO)"),
+                    borrar("NOT EXISTS (SELECT 1 FROM ESTUDIANTE e WHERE e.CODIGO=i.ESTUDIANTE_CODIGO)"),
+                    "ALTER TABLE INSCRIPCION ADD CONSTRAINT IF NOT EXISTS FK_INSCRIPCION_CURSO " +
+                            "FOREIGN KEY (CURSO_ID) REFERENCES CURSO(ID) ON DELETE RESTRICT",
+                    "ALTER TABLE INSCRIPCION ADD CONSTRAINT IF NOT EXISTS FK_INSCRIPCION_ESTUDIANTE " +
+                            "FOREIGN KEY (ESTUDIANTE_CODIGO) REFERENCES ESTUDIANTE(CODIGO) ON DELETE RESTRICT")),
+
+            // Contadores materializados por curso y por (curso, año, semestre). Sin FK a CURSO:
+            // un curso solo se borra sin inscripciones (contador en 0) y ConteoDAO.reconstruir() purga huérfanos.
+            new Migracion(5, "Contadores de inscritos mantenidos por trigger", List.of(
+                    "CREATE TABLE IF NOT EXISTS CONTEO_CURSO (" +
+                            "CURSO_ID INT PRIMARY KEY, INSCRITOS INT NOT NULL)",
+                    "CREATE TABLE IF NOT EXISTS CONTEO_PERIODO (" +
+                            "CURSO_ID INT NOT NULL, ANIO INT NOT NULL, SEMESTRE INT NOT NULL, INSCRITOS INT NOT NULL, " +
+                            "PRIMARY KEY (CURSO_ID, ANIO, SEMESTRE))",
+                    "INSERT INTO CONTEO_CURSO (CURSO_ID, INSCRITOS) " +
+                            "SELECT CURSO_ID, COUNT(*) FROM INSCRIPCION GROUP BY CURSO_ID",
+                    "INSERT INTO CONTEO_PERIODO (CURSO_ID, ANIO, SEMESTRE, INSCRITOS) " +
+                            "SELECT CURSO_ID, ANIO, SEMESTRE, COUNT(*) FROM INSCRIPCION GROUP BY CURSO_ID, ANIO, SEMESTRE",
+                    "CREATE TRIGGER IF NOT EXISTS TR_INSCRIPCION_CONTEO AFTER INSERT, UPDATE, DELETE ON INSCRIPCION " +
+                            "FOR EACH ROW CALL '" + ConteoTrigger.class.getName() + "'")),
+
+            // Bitácora que leen NotificadorCambios de esta y de otras instancias (AUTO_SERVER).
+            // CAMBIO_PURGA guarda hasta qué secuencia se borró, para avisar a quien reanude desde antes.
+            new Migracion(6, "Bitácora de cambios CAMBIO alimentada por triggers", List.of(
+                    "CREATE TABLE IF NOT EXISTS CAMBIO (" +
+                            "SEQ BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, " +
+                            "TABLA VARCHAR(12) NOT NULL, OPERACION CHAR(1) NOT NULL, " +
+                            "CURSO_ID INT, CODIGO DOUBLE, " +
+                            "MOMENTO TIMESTAMP DEFAULT CURRENT_TIMESTAMP)",
+                    "CREATE TABLE IF NOT EXISTS CAMBIO_PURGA (ID INT PRIMARY KEY, HASTA BIGINT NOT NULL)",
+                    "MERGE INTO CAMBIO_PURGA (ID, HASTA) KEY(ID) VALUES (1, 0)",
+                    trigger("ESTUDIANTE"), trigger("PROFESOR"), trigger("CURSO"), trigger("INSCRIPCION"))),
+
+            // Instancia que escribió cada cambio (variable de sesión @ORIGEN, ver H2DB): la UI salta los
+            // suyos, que ya parcheó en la tabla. NULL si lo escribió otra herramienta.
+            new Migracion(7, "Origen de cada cambio en CAMBIO", List.of(
+                    "ALTER TABLE CAMBIO ADD COLUMN IF NOT EXISTS ORIGEN VARCHAR(36)"))
+    );
+
+    private static String copiar(String motivo, String condicion) {
+        return "INSERT INTO INSCRIPCION_DESCARTADA (ID, CURSO_ID, ESTUDIANTE_CODIGO, ANIO, SEMESTRE, MOTIVO) " +
+                "SELECT i.ID, i.CURSO_ID, i.ESTUDIANTE_CODIGO, i.ANIO, i.SEMESTRE, '" + motivo + "' FROM INSCRIPCION i WHERE " + condicion;
+    }
+
+    /** Va siempre después de su {@link #copiar}; {@link #aplicar} informa cuántas filas borró. */
+    private static String borrar(String condicion) {
+        return "DELETE FROM INSCRIPCION i WHERE " + condicion;
+    }
+
+    /**
+     * Si la causa de {@code ex} es una llave foránea violada: p. ej. borrar un
+     * curso o un estudiante que todavía tiene inscripciones.
+     */
+    public static boolean violaLlaveForanea(Throwable ex) {
+        for (Throwable t = ex; t != null; t = t.getCause())
+            if (t instanceof SQLException s && "23503".equals(s.getSQLState())) return true;
+        return false;
+    }
+
+    private static String trigger(String tabla) {
+        return "CREATE TRIGGER IF NOT EXISTS TR_" + tabla + "_CAMBIO AFTER INSERT, UPDATE, DELETE ON " + tabla +
+                " FOR EACH ROW CALL '" + CambioTrigger.class.getName() + "'";
+    }
+
+    /** Aplica en orden las migraciones pendientes; retorna cuántas se aplicaron. */
+    public static int aplicar(Connection con) throws SQLException {
+        return aplicar(con, Integer.MAX_VALUE);
+    }
+
+    /** Aplica las pendientes hasta la versión {@code hasta} inclusive. */
+    public static int aplicar(Connection con, int hasta) throws SQLException {
+        try (Statement st = con.createStatement()) {
+            st.execute("CREATE TABLE IF NOT EXISTS SCHEMA_VERSION (" +
+                    "VERSION INT PRIMARY KEY, " +
+                    "DESCRIPCION VARCHAR(200), " +
+                    "APLICADA TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
+                    ")");
+        }
+        Set<Integer> aplicadas = versionesAplicadas(con);
+        int n = 0;
+        boolean auto = con.getAutoCommit();
+        try {
+            con.setAutoCommit(false);
+            for (Migracion m : TODAS) {
+                if (m.version() > hasta) break;
+                if (aplicadas.contains(m.version())) continue;
+                try (Statement st = con.createStatement()) {
+                    for (String sql : m.sentencias()) {
+                        if (!sql.startsWith("DELETE")) { st.execute(sql); continue; }
+                        int borradas = st.executeUpdate(sql);
+                        if (borradas > 0)
+                            System.out.printf("Migración %d: %d inscripciones descartadas (copia en INSCRIPCION_DESCARTADA)%n", m.version(), borradas);
+                    }
+                }
+                try (PreparedStatement ps = con.prepareStatement("INSERT INTO SCHEMA_VERSION (VERSION,DESCRIPCION) VALUES (?,?)")) {
+                    ps.setInt(1, m.version());
+                    ps.setString(2, m.descripcion());
+                    ps.executeUpdate();
+                }
+                con.commit();
+                n++;
+            }
+        } catch (SQLException ex) {
+            con.rollback();
+            throw ex;
+        } finally {
+            con.setAutoCommit(auto);
+        }
+        return n;
+    }
+
+    /** Última versión registrada (0 si la base no tiene migraciones). */
+    public static int versionActual(Connection con) throws SQLException {
+        int max = 0;
+        for (int v : versionesAplicadas(con)) max = Math.max(max, v);
+        return max;
+    }
+
+    private static Set<Integer> versionesAplicadas(Connection con) throws SQLException {
+        Set<Integer> out = new HashSet<>();
+        try (PreparedStatement ps = con.prepareStatement("SELECT VERSION FROM SCHEMA_VERSION");
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) out.add(rs.getInt(1));
+        }
+        return out;
+    }
+
+    /** Una versión del esquema: sentencias DDL/DML que se ejecutan juntas. */
+    record Migracion(int version, String descripcion, List<String> sentencias) {}
+}
@@ -0,0 +1,293 @@
+package edu.universidad.persistence;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lee la bitácora CAMBIO (migración 6) cada pocos cientos de milisegundos y
+ * entrega a los suscriptores los cambios confirmados por esta o por otra
+ * instancia conectada a la misma base (AUTO_SERVER). Cada sondeo es una
+ * lectura por rango de la clave primaria, no un recorrido de las tablas.
+ *
+ * Las secuencias se asignan al insertar pero se ven al confirmar, así que una
+ * transacción larga puede dejar un hueco que se llena después. Los huecos se
+ * vuelven a consultar hasta {@code -Duni.cambios.esperaHuecoMs} (una
+ * secuencia también se pierde si la transacción se revierte). Por eso
+ * {@link #puntoDeReanudacion()} puede quedar detrás del último cambio
+ * entregado: quien reanude desde ahí puede recibir de nuevo algunos cambios,
+ * y los oyentes deben tolerar repeticiones.
+ *
+ * Los oyentes corren en el hilo del sondeo; la UI debe pasar a su hilo.
+ * El sondeo purga lo viejo cerca de una vez por minuto; sin sondeo hay que
+ * llamar a {@link #purgar()}.
+ */
+public final class NotificadorCambios implements AutoCloseable {
+
+    /** Recibe lotes de cambios en orden de secuencia, ya filtrados por tabla. */
+    public interface Oyente {
+        void alCambiar(List<Cambio> cambios);
+
+        /** Se purgaron de la bitácora cambios que este oyente no vio: conviene recargar todo. */
+        default void alPerderCambios() {}
+    }
+
+    private static final long INTERVALO_MS = Long.getLong("uni.cambios.intervaloMs", 500L);
+    private static final long ESPERA_HUECO_NS = TimeUnit.MILLISECONDS.toNanos(Long.getLong("uni.cambios.esperaHuecoMs", 60_000L));
+    private static final int RETENCION_MIN = Integer.getInteger("uni.cambios.retencionMin", 24 * 60);
+    private static final int LOTE = 5_000;
+    private static final int LOTE_PURGA = 10_000; // filas por DELETE; cada tanda se confirma sola
+    private static final int MAX_HUECOS = 10_000; // un salto mayor (p. ej. caché de IDENTITY tras reiniciar) no se espera
+
+    private static final String COLUMNAS = "SELECT SEQ, TABLA, OPERACION, CURSO_ID, CODIGO, ORIGEN FROM CAMBIO ";
+
+    private static NotificadorCambios global;
+
+    private final long intervaloMs;
+    private final List<Suscripcion> suscripciones = new CopyOnWriteArrayList<>();
+    private ScheduledExecutorService hilo;
+
+    // Estado del sondeo, protegido por el monitor de this
+    private long maxVisto = -1; // -1: aún no se leyó MAX(SEQ)
+    private final TreeMap<Long, Long> huecos = new TreeMap<>(); // secuencia faltante -> nanoTime en que se detectó
+    private long sondeos;
+
+    public NotificadorCambios(long intervaloMs) {
+        this.intervaloMs = intervaloMs;
+    }
+
+    /** Instancia compartida de la aplicación (intervalo -Duni.cambios.intervaloMs). */
+    public static synchronized NotificadorCambios global() {
+        if (global == null) global = new NotificadorCambios(INTERVALO_MS);
+        return global;
+    }
+
+    /** Arranca el sondeo periódico en un hilo demonio; idempotente. */
+    public synchronized void iniciar() {
+        if (hilo != null) return;
+        hilo = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "notificador-cambios");
+            t.setDaemon(true);
+            return t;
+        });
+        hilo.scheduleWithFixedDelay(() -> {
+            try {
+                sondear();
+            } catch (RuntimeException ex) {
+                System.err.println("Sondeo de cambios fallido: " + ex.getMessage());
+            }
+        }, 0, intervaloMs, TimeUnit.MILLISECONDS);
+    }
+
+    /** Suscripción a partir de ahora. */
+    public Suscripcion suscribir(Set<Cambio.Tabla> tablas, Oyente oyente) {
+        return suscribir(puntoDeReanudacion(), tablas, oyente);
+    }
+
+    /**
+     * Suscripción que empieza por los cambios posteriores a {@code desde}
+     * (p. ej. un {@link #puntoDeReanudacion()} guardado antes). Los atrasados
+     * se entregan en el próximo sondeo.
+     */
+    public Suscripcion suscribir(long desde, Set<Cambio.Tabla> tablas, Oyente oyente) {
+        Suscripcion s = new Suscripcion(desde, EnumSet.copyOf(tablas), oyente);
+        suscripciones.add(s);
+        return s;
+    }
+
+    /** Secuencia hasta la que no queda nada por entregar; guardarla para reanudar con {@link #suscribir(long, Set, Oyente)}. */
+    public synchronized long puntoDeReanudacion() {
+        inicializar();
+        return huecos.isEmpty() ? maxVisto : huecos.firstKey() - 1;
+    }
+
+    /** Un sondeo: lee lo nuevo y los huecos que ya se confirmaron y lo entrega. Lo llama el hilo de {@link #iniciar()}. */
+    public synchronized void sondear() {
+        inicializar();
+        try (Connection con = H2DB.getConnection()) {
+            long ahora = System.nanoTime();
+            long previo = maxVisto;
+            List<Cambio> nuevos = leer(con, "WHERE SEQ > ? ORDER BY SEQ LIMIT " + LOTE, maxVisto);
+            List<Cambio> tardios = new ArrayList<>();
+            if (!huecos.isEmpty()) {
+                for (Cambio c : leer(con, "WHERE SEQ BETWEEN ? AND ?", huecos.firstKey(), huecos.lastKey()))
+                    if (huecos.remove(c.secuencia()) != null) tardios.add(c);
+            }
+            long esperado = maxVisto + 1;
+            for (Cambio c : nuevos) {
+                if (c.secuencia() - esperado <= MAX_HUECOS)
+                    for (long s = esperado; s < c.secuencia(); s++) huecos.put(s, ahora);
+                esperado = c.secuencia() + 1;
+            }
+            if (!nuevos.isEmpty()) maxVisto = nuevos.getLast().secuencia();
+            huecos.values().removeIf(detectado -> ahora - detectado > ESPERA_HUECO_NS);
+
+            List<Cambio> lote = nuevos;
+            if (!tardios.isEmpty()) {
+                lote = new ArrayList<>(tardios);
+                lote.addAll(nuevos);
+                lote.sort(Comparator.comparingLong(Cambio::secuencia));
+            }
+            for (Suscripcion s : suscripciones) s.entregar(con, lote, previo);
+
+            if (++sondeos % Math.max(1, 60_000 / Math.max(1, intervaloMs)) == 0) purgar(con); // cerca de una vez por minuto
+        } catch (SQLException ex) {
+            throw new RuntimeException("Error leyendo la bitácora de cambios", ex);
+        }
+    }
+
+    private void inicializar() {
+        if (maxVisto >= 0) return;
+        try (Connection con = H2DB.getConnection();
+             PreparedStatement ps = con.prepareStatement("SELECT COALESCE(MAX(SEQ), 0) FROM CAMBIO");
+             ResultSet rs = ps.executeQuery()) {
+            rs.next();
+            maxVisto = rs.getLong(1);
+        } catch (SQLException ex) {
+            throw new RuntimeException("Error leyendo la bitácora de cambios", ex);
+        }
+    }
+
+    /**
+     * Borra de la bitácora lo anterior a {@code -Duni.cambios.retencionMin},
+     * nunca más allá de lo que este notificador ya entregó. No depende del
+     * sondeo: la aplicación sin UI la llama al arrancar y al salir. Retorna
+     * cuántas entradas borró.
+     */
+    public synchronized long purgar() {
+        try (Connection con = H2DB.getConnection()) {
+            return purgar(con);
+        } catch (SQLException ex) {
+            throw new RuntimeException("Error purgando la bitácora de cambios", ex);
+        }
+    }
+
+    /** Marca CAMBIO_PURGA y borra por tandas de {@link #LOTE_PURGA}, sin una transacción del tamaño de la bitácora. */
+    private long purgar(Connection con) throws SQLException {
+        long hasta;
+        try (PreparedStatement ps = con.prepareStatement(
+                "SELECT COALESCE(MAX(SEQ), 0) FROM CAMBIO WHERE MOMENTO < DATEADD(MINUTE, ?, CURRENT_TIMESTAMP)")) {
+            ps.setInt(1, -RETENCION_MIN);
+            try (ResultSet rs = ps.executeQuery()) { rs.next(); hasta = Math.min(rs.getLong(1), puntoDeReanudacion()); }
+        }
+        if (hasta <= 0) return 0;
+        boolean auto = con.getAutoCommit();
+        con.setAutoCommit(true);
+        try (PreparedStatement marca = con.prepareStatement("UPDATE CAMBIO_PURGA SET HASTA=GREATEST(HASTA, ?) WHERE ID=1");
+             PreparedStatement borrar = con.prepareStatement("DELETE FROM CAMBIO WHERE SEQ <= ? FETCH FIRST " + LOTE_PURGA + " ROWS ONLY")) {
+            marca.setLong(1, hasta);
+            marca.executeUpdate(); // antes de borrar: quien reanude desde antes sabrá que perdió cambios
+            borrar.setLong(1, hasta);
+            long borradas = 0;
+            int n;
+            do {
+                n = borrar.executeUpdate();
+                borradas += n;
+            } while (n == LOTE_PURGA);
+            return borradas;
+        } finally {
+            con.setAutoCommit(auto);
+        }
+    }
+
+    private static List<Cambio> leer(Connection con, String filtro, long... parametros) throws SQLException {
+        List<Cambio> out = new ArrayList<>();
+        try (PreparedStatement ps = con.prepareStatement(COLUMNAS + filtro)) {
+            for (int i = 0; i < parametros.length; i++) ps.setLong(i + 1, parametros[i]);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    int curso = rs.getInt(4);
+                    Integer cursoId = rs.wasNull() ? null : curso;
+                    double codigo = rs.getDouble(5);
+                    Double cod = rs.wasNull() ? null : codigo;
+                    out.add(new Cambio(rs.getLong(1), Cambio.Tabla.valueOf(rs.getString(2)),
+                            Cambio.Operacion.de(rs.getString(3)), cursoId, cod, H2DB.origen().equals(rs.getString(6))));
+                }
+            }
+        }
+        return out;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (hilo != null) hilo.shutdownNow();
+        hilo = null;
+        suscripciones.clear();
+    }
+
+    /** Un oyente registrado; close() lo da de baja. */
+    public final class Suscripcion implements AutoCloseable {
+        private final Set<Cambio.Tabla> tablas;
+        private final Oyente oyente;
+        private long pendienteDesde; // > -1: falta ponerse al día desde esa secuencia
+
+        private Suscripcion(long desde, Set<Cambio.Tabla> tablas, Oyente oyente) {
+            this.tablas = tablas;
+            this.oyente = oyente;
+            this.pendienteDesde = desde;
+        }
+
+        /** Corre con el monitor del notificador tomado; {@code previo} es lo visto antes de este sondeo. */
+        private void entregar(Connection con, List<Cambio> lote, long previo) throws SQLException {
+            if (pendienteDesde < 0) {
+                List<Cambio> propios = new ArrayList<>();
+                for (Cambio c : lote) if (tablas.contains(c.tabla())) propios.add(c);
+                if (!propios.isEmpty()) avisar(false, propios);
+                return;
+            }
+            if (pendienteDesde < purgadoHasta(con)) avisar(true, null);
+            TreeMap<Long, Cambio> propios = new TreeMap<>();
+            // lo que el notificador ya había visto y esta suscripción no (los huecos llegarán en un lote)
+            for (Cambio c : leer(con, "WHERE SEQ > ? AND SEQ <= ?", pendienteDesde, previo))
+                if (!huecos.containsKey(c.secuencia()) && tablas.contains(c.tabla())) propios.put(c.secuencia(), c);
+            for (Cambio c : lote)
+                if (c.secuencia() > pendienteDesde && tablas.contains(c.tabla())) propios.put(c.secuencia(), c);
+            pendienteDesde = -1;
+            if (!propios.isEmpty()) avisar(false, new ArrayList<>(propios.values()));
+        }
+
+        private void avisar(boolean perdidos, List<Cambio> cambios) {
+            try {
+                if (perdidos) oyente.alPerderCambios();
+                else oyente.alCambiar(cambios);
+            } catch (RuntimeException ex) {
+                System.err.println("Oyente de cambios falló: " + ex);
+            }
+        }
+
+        @Override
+        public void close() {
+            suscripciones.remove(this);
+        }
+    }
+
+    private static long purgadoHasta(Connection con) throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement("SELECT HASTA FROM CAMBIO_PURGA WHERE ID=1");
+             ResultSet rs = ps.executeQuery()) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    /** Para diagnóstico: cuántas secuencias se siguen esperando. */
+    public synchronized int huecosPendientes() {
+        return huecos.size();
+    }
+
+    @Override
+    public String toString() {
+        synchronized (this) {
+            return "NotificadorCambios{visto=" + maxVisto + ", huecos=" + huecos.size() + ", suscripciones=" + suscripciones.size() + "}";
+        }
+    }
+}
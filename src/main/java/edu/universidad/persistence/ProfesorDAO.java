@@ -1,6 +1,8 @@
 
 package edu.universidad.persistence; // persistencia
 
+import edu.universidad.metricas.Metrica; // tiempos por método
+import edu.universidad.metricas.Metricas; // registro JMX
 import edu.universidad.model.Profesor; // modelo
 import java.sql.*; // JDBC
 import java.util.*; // util
@@ -8,8 +10,13 @@ import java.util.*; // util
 /** DAO de Profesor con persistencia en H2. */
 public class ProfesorDAO { // clase
 
+    private static final Metrica M_UPSERT = Metricas.de("ProfesorDAO", "upsert"); // métricas por método
+    private static final Metrica M_ELIMINAR = Metricas.de("ProfesorDAO", "eliminar");
+    private static final Metrica M_LISTAR = Metricas.de("ProfesorDAO", "listar");
+
     public void upsert(Profesor p) { // inserta/actualiza por ID
         String sql = "MERGE INTO PROFESOR (ID,NOMBRES,APELLIDOS,EMAIL,TIPOCONTRATO) KEY(ID) VALUES (?,?,?,?,?)"; // MERGE
+        long t0 = M_UPSERT.inicio(); // métricas
         try (Connection con = H2DB.getConnection(); // con
              PreparedStatement ps = con.prepareStatement(sql)) { // prep
             ps.setDouble(1, p.getID()); // id
@@ -17,19 +24,22 @@ public class ProfesorDAO { // clase
             ps.setString(3, p.getApellidos()); // apellidos
             ps.setString(4, p.getEmail()); // email
             ps.setString(5, p.getTipoContrato()); // contrato
-            ps.executeUpdate(); // exec
+            M_UPSERT.exito(t0, ps.executeUpdate()); // exec
         } catch (SQLException ex) { // err
+            M_UPSERT.fallo(t0); // cuenta el error
             throw new RuntimeException("Error upsert profesor", ex); // propaga
         }
     }
 
     public boolean eliminar(double id) { // elimina
         String sql = "DELETE FROM PROFESOR WHERE ID=?"; // delete
+        long t0 = M_ELIMINAR.inicio(); // métricas
         try (Connection con = H2DB.getConnection();
              PreparedStatement ps = con.prepareStatement(sql)) {
             ps.setDouble(1, id); // id
-            return ps.executeUpdate() > 0; // filas
+            return M_ELIMINAR.exito(t0, ps.executeUpdate()) > 0; // filas
         } catch (SQLException ex) {
+            M_ELIMINAR.fallo(t0); // cuenta el error
             throw new RuntimeException("Error eliminando profesor", ex);
         }
     }
@@ -37,6 +47,7 @@ public class ProfesorDAO { // clase
     public List<Profesor> listar() { // lista
         String sql = "SELECT ID,NOMBRES,APELLIDOS,EMAIL,TIPOCONTRATO FROM PROFESOR"; // consulta
         List<Profesor> out = new ArrayList<>(); // lista
+        long t0 = M_LISTAR.inicio(); // métricas
         try (Connection con = H2DB.getConnection();
              PreparedStatement ps = con.prepareStatement(sql);
              ResultSet rs = ps.executeQuery()) {
@@ -49,8 +60,10 @@ public class ProfesorDAO { // clase
                 out.add(new Profesor(id, nom, ape, email, tipo)); // crea entidad
             }
         } catch (SQLException ex) {
+            M_LISTAR.fallo(t0); // cuenta el error
             throw new RuntimeException("Error listando profesores", ex);
         }
+        M_LISTAR.exito(t0, out.size()); // filas leídas
         return out; // retorno
     }
 }
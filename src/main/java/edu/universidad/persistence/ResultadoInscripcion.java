@@ -0,0 +1,26 @@
+package edu.universidad.persistence;
+
+/**
+ * Resultado de {@link ServicioInscripcion}. Los semestres vienen informados
+ * cuando se llegaron a leer (p. ej. para mostrar un SEMESTRE_DISTINTO).
+ */
+public record ResultadoInscripcion(Estado estado, Integer semestreCurso, Integer semestreEstudiante) {
+
+    public enum Estado {
+        OK,
+        CURSO_NO_EXISTE,
+        CURSO_INACTIVO,
+        ESTUDIANTE_NO_EXISTE,
+        SEMESTRE_DISTINTO,
+        /** Actualización sobre una inscripción que no existe. */
+        NO_ENCONTRADA
+    }
+
+    public boolean ok() {
+        return estado == Estado.OK;
+    }
+
+    static ResultadoInscripcion de(Estado estado) {
+        return new ResultadoInscripcion(estado, null, null);
+    }
+}
@@ -0,0 +1,19 @@
+package edu.universidad.persistence;
+
+import java.util.List;
+
+/** Resultado de una carga masiva: filas confirmadas, fallos por fila y duración. */
+public record ResultadoLote(long insertadas, List<Fallo> fallos, long duracionNanos) {
+
+    public double filasPorSegundo() {
+        return duracionNanos == 0 ? 0 : insertadas * 1e9 / duracionNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ResultadoLote{insertadas=%d, fallos=%d, %.0f filas/s}", insertadas, fallos.size(), filasPorSegundo());
+    }
+
+    /** Fila rechazada; {@code posicion} es su índice (base 0) en la entrada. */
+    public record Fallo(long posicion, Object fila, String mensaje) {}
+}
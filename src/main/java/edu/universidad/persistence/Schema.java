@@ -4,10 +4,23 @@ package edu.universidad.persistence;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.List;
 
 /** Crea el esquema H2 en archivo. */
 public class Schema {
-    public static void crearTablas() { // crea tablas si no existen
+    public static void crearTablas() { // crea tablas y aplica migraciones pendientes
+        try (Connection con = H2DB.getConnection()) { // abre conexión
+            crearTablas(con); // migra
+        } catch (SQLException e) { // maneja error
+            throw new RuntimeException("Error creando esquema H2", e); // propaga
+        }
+    }
+
+    public static void crearTablas(Connection con) throws SQLException { // sobre una conexión dada (p.ej. base en memoria)
+        Migraciones.aplicar(con); // la versión 1 son las tablas base
+    }
+
+    static List<String> tablasBase() { // DDL original (versión 1 del esquema)
         // Tabla de estudiantes con semestre
         String tEst = "CREATE TABLE IF NOT EXISTS ESTUDIANTE (" +
                 "CODIGO DOUBLE PRIMARY KEY, " +
@@ -46,15 +59,7 @@ public class Schema {
                 "SEMESTRE INT NOT NULL" +
                 ")"; // fin DDL
 
-        try (Connection con = H2DB.getConnection(); // abre conexión
-             Statement st = con.createStatement()) { // crea statement
-            st.execute(tEst); // crea estudiantes
-            st.execute(tProf); // crea profesor
-            st.execute(tCurso); // crea curso
-            st.execute(tIns); // crea inscripcion
-        } catch (SQLException e) { // maneja error
-            throw new RuntimeException("Error creando esquema H2", e); // propaga
-        }
+        return List.of(tEst, tProf, tCurso, tIns); // en orden de dependencia
     }
 
     public static void limpiarTablas() { // utilidad de limpieza (opcional)
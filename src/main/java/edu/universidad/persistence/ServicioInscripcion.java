@@ -0,0 +1,152 @@
+package edu.universidad.persistence;
+
+import edu.universidad.metricas.EventoEscritura;
+import edu.universidad.metricas.EventoValidacion;
+import edu.universidad.metricas.Metrica;
+import edu.universidad.metricas.Metricas;
+import edu.universidad.persistence.ResultadoInscripcion.Estado;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Alta y actualización de inscripciones con las reglas de negocio
+ * (curso existente y activo, mismo semestre que el estudiante, semestre
+ * tomado del curso) validadas y escritas en una sola transacción.
+ *
+ * Una única consulta trae curso y estudiante con FOR UPDATE: ambas filas
+ * quedan bloqueadas hasta el commit, así nadie desactiva el curso ni cambia
+ * el semestre del estudiante entre la validación y la escritura. Solo si
+ * falta alguno se hace una segunda consulta (sin escribir) para saber cuál.
+ *
+ * No se decide con {@link CacheMetadatos}: sin notificador (App sin UI, JMH,
+ * otro proceso) un rechazo en caché puede estar vencido, p. ej. un curso
+ * que otra instancia acaba de activar, y confirmarlo exige la misma consulta
+ * bajo bloqueo. Lo leído bajo bloqueo sí alimenta la caché para los demás
+ * lectores (getSemestre, isActivo).
+ */
+public class ServicioInscripcion {
+
+    private static final String SQL_VALIDAR =
+            "SELECT c.SEMESTRE, c.ACTIVO, e.SEMESTRE FROM CURSO c JOIN ESTUDIANTE e ON e.CODIGO=? WHERE c.ID=? FOR UPDATE";
+    private static final String SQL_DIAGNOSTICO =
+            "SELECT c.SEMESTRE, c.ACTIVO, (SELECT e.SEMESTRE FROM ESTUDIANTE e WHERE e.CODIGO=?) FROM CURSO c WHERE c.ID=?";
+    private static final String SQL_MERGE =
+            "MERGE INTO INSCRIPCION (CURSO_ID,ESTUDIANTE_CODIGO,ANIO,SEMESTRE) KEY(CURSO_ID,ESTUDIANTE_CODIGO) VALUES (?,?,?,?)";
+    private static final String SQL_UPDATE =
+            "UPDATE INSCRIPCION SET ANIO=?, SEMESTRE=? WHERE CURSO_ID=? AND ESTUDIANTE_CODIGO=?";
+
+    // El total por operación y sus fases: consultas de validación, escritura y commit
+    // (la espera por conexión está en H2DB.getConnection).
+    private static final Metrica M_INSCRIBIR = Metricas.de("ServicioInscripcion", "inscribir");
+    private static final Metrica M_ACTUALIZAR = Metricas.de("ServicioInscripcion", "actualizar");
+    private static final Metrica M_VALIDAR = Metricas.de("ServicioInscripcion", "validar");
+    private static final Metrica M_ESCRIBIR = Metricas.de("ServicioInscripcion", "escribir");
+    private static final Metrica M_COMMIT = Metricas.de("ServicioInscripcion", "commit");
+
+    /** Crea la inscripción o actualiza su año/semestre si el par curso-estudiante ya existe. */
+    public ResultadoInscripcion inscribir(int cursoId, double codigoEstudiante, int anio) {
+        return ejecutar(cursoId, codigoEstudiante, anio, false);
+    }
+
+    /** Actualiza año/semestre de una inscripción existente; NO_ENCONTRADA si no existe. */
+    public ResultadoInscripcion actualizar(int cursoId, double codigoEstudiante, int anio) {
+        return ejecutar(cursoId, codigoEstudiante, anio, true);
+    }
+
+    private ResultadoInscripcion ejecutar(int cursoId, double codigo, int anio, boolean soloActualizar) {
+        Metrica metrica = soloActualizar ? M_ACTUALIZAR : M_INSCRIBIR;
+        long t0 = metrica.inicio();
+        try (Connection con = H2DB.getConnection()) {
+            boolean auto = con.getAutoCommit();
+            con.setAutoCommit(false);
+            try {
+                EventoValidacion validacion = new EventoValidacion(cursoId, codigo);
+                long tv = M_VALIDAR.inicio();
+                ResultadoInscripcion r = validar(con, cursoId, codigo);
+                M_VALIDAR.exito(tv, 1);
+                validacion.terminar(r.estado().name());
+                int filas = 0;
+                EventoEscritura escritura = null; // el evento incluye el commit
+                if (r.ok()) {
+                    escritura = new EventoEscritura(soloActualizar ? "actualizar" : "inscribir", cursoId, codigo);
+                    long te = M_ESCRIBIR.inicio();
+                    try (PreparedStatement ps = con.prepareStatement(soloActualizar ? SQL_UPDATE : SQL_MERGE)) {
+                        if (soloActualizar) {
+                            ps.setInt(1, anio);
+                            ps.setInt(2, r.semestreCurso());
+                            ps.setInt(3, cursoId);
+                            ps.setDouble(4, codigo);
+                        } else {
+                            ps.setInt(1, cursoId);
+                            ps.setDouble(2, codigo);
+                            ps.setInt(3, anio);
+                            ps.setInt(4, r.semestreCurso()); // semestre del CURSO
+                        }
+                        filas = M_ESCRIBIR.exito(te, ps.executeUpdate());
+                    }
+                    if (filas == 0) r = new ResultadoInscripcion(Estado.NO_ENCONTRADA, r.semestreCurso(), r.semestreEstudiante());
+                }
+                long tc = M_COMMIT.inicio();
+                con.commit(); // también libera los bloqueos si la validación falló
+                M_COMMIT.exito(tc, 0);
+                if (escritura != null) escritura.terminar(filas);
+                metrica.exito(t0, filas);
+                return r;
+            } catch (SQLException ex) {
+                con.rollback();
+                throw ex;
+            } finally {
+                con.setAutoCommit(auto);
+            }
+        } catch (SQLException ex) {
+            metrica.fallo(t0);
+            throw new RuntimeException("Error guardando inscripción", ex);
+        }
+    }
+
+    private static ResultadoInscripcion validar(Connection con, int cursoId, double codigo) throws SQLException {
+        long genCursos = CacheMetadatos.CURSOS.generacion();
+        long genEstudiantes = CacheMetadatos.ESTUDIANTES.generacion();
+        try (PreparedStatement ps = con.prepareStatement(SQL_VALIDAR)) {
+            ps.setDouble(1, codigo);
+            ps.setInt(2, cursoId);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    int semCurso = rs.getInt(1), semEst = rs.getInt(3);
+                    boolean activo = rs.getBoolean(2);
+                    CacheMetadatos.CURSOS.recordar(cursoId, new CacheMetadatos.InfoCurso(semCurso, activo), genCursos);
+                    CacheMetadatos.ESTUDIANTES.recordar(codigo, semEst, genEstudiantes);
+                    return evaluar(semCurso, activo, semEst);
+                }
+            }
+        }
+        // falta el curso o el estudiante: nada que bloquear, solo distinguir cuál
+        try (PreparedStatement ps = con.prepareStatement(SQL_DIAGNOSTICO)) {
+            ps.setDouble(1, codigo);
+            ps.setInt(2, cursoId);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) {
+                    CacheMetadatos.CURSOS.recordar(cursoId, null, genCursos);
+                    return ResultadoInscripcion.de(Estado.CURSO_NO_EXISTE);
+                }
+                int semCurso = rs.getInt(1);
+                boolean activo = rs.getBoolean(2);
+                Integer semEst = (Integer) rs.getObject(3);
+                CacheMetadatos.CURSOS.recordar(cursoId, new CacheMetadatos.InfoCurso(semCurso, activo), genCursos);
+                CacheMetadatos.ESTUDIANTES.recordar(codigo, semEst, genEstudiantes);
+                if (!activo) return new ResultadoInscripcion(Estado.CURSO_INACTIVO, semCurso, null);
+                return new ResultadoInscripcion(Estado.ESTUDIANTE_NO_EXISTE, semCurso, null);
+            }
+        }
+    }
+
+    /** Mismo orden de reglas que tenía el controlador: activo y luego semestre. */
+    private static ResultadoInscripcion evaluar(int semCurso, boolean activo, int semEst) {
+        if (!activo) return new ResultadoInscripcion(Estado.CURSO_INACTIVO, semCurso, semEst);
+        if (semCurso != semEst) return new ResultadoInscripcion(Estado.SEMESTRE_DISTINTO, semCurso, semEst);
+        return new ResultadoInscripcion(Estado.OK, semCurso, semEst);
+    }
+}
@@ -1,19 +1,33 @@
 package edu.universidad.repository;
 
+import edu.universidad.colecciones.IntObjectMap;
+import edu.universidad.colecciones.LongObjectMap;
+import edu.universidad.metricas.EventoCarga;
 import edu.universidad.model.*;
+import edu.universidad.persistence.EscrituraDiferida;
 import edu.universidad.persistence.InscripcionDAO;
+import edu.universidad.persistence.ResultadoLote;
 
-import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
-import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+/**
+ * Inscripciones en memoria con índice primario (curso, estudiante, anio,
+ * semestre) y consultas por curso, estudiante y periodo; ver
+ * {@link IndiceInscripciones}. No es seguro para uso concurrente.
+ */
 public class CursosInscritos implements Servicios<Inscripcion> {
-    private final List<Inscripcion> listado = new ArrayList<>();
+    private IndiceInscripciones listado = new IndiceInscripciones(16);
     private final InscripcionDAO dao;
+    private EscrituraDiferida diferida; // null: cada guardarInformacion(i) es su propia transacción
     private final List<Estudiante> catalogoEstudiantes;
     private final List<Curso> catalogoCursos;
+    private IntObjectMap<Curso> cursoPorId = new IntObjectMap<>();
+    private LongObjectMap<Estudiante> estudiantePorCodigo = new LongObjectMap<>();
 
     public CursosInscritos(InscripcionDAO dao, List<Estudiante> catalogoEstudiantes, List<Curso> catalogoCursos) {
         this.dao = dao;
@@ -21,34 +35,92 @@ public class CursosInscritos implements Servicios<Inscripcion> {
         this.catalogoCursos = catalogoCursos;
     }
 
+    /** @return false si ya estaba inscrito en ese curso y periodo. */
     public boolean inscribirCurso(Inscripcion inscripcion) {
         Objects.requireNonNull(inscripcion, "inscripcion no puede ser null");
-        return listado.add(inscripcion);
+        return listado.agregar(inscripcion);
     }
 
+    /** O(1); la última inscripción pasa a ocupar la posición liberada. */
     public boolean eliminar(Inscripcion inscripcion) {
-        return listado.remove(inscripcion);
+        return inscripcion != null && listado.quitar(inscripcion);
     }
 
     public boolean actualizar(Inscripcion inscripcion) {
         Objects.requireNonNull(inscripcion, "inscripcion no puede ser null");
-        Optional<Inscripcion> first = listado.stream()
-                .filter(i -> i.equals(inscripcion)).findFirst();
-        if (first.isPresent()) {
-            int index = listado.indexOf(first.get());
-            listado.set(index, inscripcion);
-            return true;
-        }
-        return false;
+        return listado.reemplazar(inscripcion);
     }
 
-    public void guardarInformacion(Inscripcion inscripcion) {
+    /** Inscripción con esa clave, o null. */
+    public Inscripcion buscar(int cursoId, double codigo, int anio, int semestre) {
+        return listado.buscar(cursoId, codigo, anio, semestre);
+    }
+
+    /** Inscripciones del curso, en orden de llegada. */
+    public List<Inscripcion> inscritosEnCurso(int cursoId) {
+        return listado.delCurso(cursoId);
+    }
+
+    public List<Inscripcion> cursosDelEstudiante(double codigo) {
+        return listado.delEstudiante(codigo);
+    }
+
+    public List<Inscripcion> inscripcionesDelPeriodo(int anio, int semestre) {
+        return listado.delPeriodo(anio, semestre);
+    }
+
+    /**
+     * Inserta la inscripción. Sin escritura diferida el futuro ya viene
+     * completado y un fallo se lanza aquí; en modo diferido solo se encola y
+     * el futuro falla si la fila se rechaza al confirmar el lote.
+     */
+    public CompletableFuture<Void> guardarInformacion(Inscripcion inscripcion) {
+        if (diferida != null) return diferida.encolar(inscripcion);
         dao.insertar(inscripcion);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Activa (o con null desactiva) la escritura diferida de
+     * {@link #guardarInformacion(Inscripcion)}. Quien crea la cola la cierra.
+     */
+    public void setEscrituraDiferida(EscrituraDiferida diferida) {
+        this.diferida = diferida;
+    }
+
+    /** En modo diferido, espera a que lo guardado hasta ahora esté en la base. */
+    public void flush() {
+        if (diferida != null) diferida.flush();
+    }
+
+    public ResultadoLote guardarInformacion(Collection<Inscripcion> inscripciones) {
+        return dao.insertarLote(inscripciones);
     }
 
+    /** Reindexa los catálogos (pueden haber cambiado desde la última carga) y rehidrata el listado (evento JFR edu.universidad.CargaRepositorio). */
     public void cargarDatos() {
-        listado.clear();
-        listado.addAll(dao.listar(catalogoEstudiantes, catalogoCursos));
+        EventoCarga evento = new EventoCarga("CursosInscritos");
+        cursoPorId = InscripcionDAO.indexarCursos(catalogoCursos);
+        estudiantePorCodigo = InscripcionDAO.indexarEstudiantes(catalogoEstudiantes);
+        List<Inscripcion> leidas = dao.listar(estudiantePorCodigo, cursoPorId);
+        listado = new IndiceInscripciones(leidas.size());
+        for (Inscripcion i : leidas) listado.agregar(i);
+        evento.terminar(leidas.size());
+    }
+
+    /** Vacía el listado en memoria (no toca la base). */
+    public void limpiar() {
+        listado.limpiar();
+    }
+
+    /** Curso del catálogo indexado en la última carga, o null. */
+    public Curso buscarCurso(int id) {
+        return cursoPorId.get(id);
+    }
+
+    /** Estudiante del catálogo indexado en la última carga, o null. */
+    public Estudiante buscarEstudiante(double codigo) {
+        return estudiantePorCodigo.get(LongObjectMap.clave(codigo));
     }
 
     @Override
@@ -64,7 +136,19 @@ public class CursosInscritos implements Servicios<Inscripcion> {
 
     @Override
     public List<String> imprimirListado() {
-        return listado.stream().map(Object::toString).collect(Collectors.toList());
+        return listado.vista().stream().map(Object::toString).collect(Collectors.toList());
+    }
+
+    @Override
+    public Stream<Inscripcion> flujo() {
+        return listado.flujo();
+    }
+
+    @Override
+    public List<Inscripcion> pagina(int desde, int limite) {
+        if (desde < 0 || limite < 0) throw new IllegalArgumentException("desde y limite no pueden ser negativos");
+        if (desde >= listado.vista().size()) return List.of();
+        return List.copyOf(listado.vista().subList(desde, (int) Math.min(listado.vista().size(), (long) desde + limite)));
     }
 
     @Override
@@ -72,7 +156,8 @@ public class CursosInscritos implements Servicios<Inscripcion> {
         return "CursosInscritos{listado=" + listado.size() + "}";
     }
 
+    /** Vista de solo lectura; para modificar usar inscribirCurso/eliminar/limpiar. */
     public List<Inscripcion> getListado() {
-        return listado;
+        return listado.vista();
     }
 }
@@ -0,0 +1,168 @@
+package edu.universidad.repository;
+
+import edu.universidad.colecciones.IntObjectMap;
+import edu.universidad.colecciones.LongObjectMap;
+import edu.universidad.metricas.EventoCarga;
+import edu.universidad.model.Curso;
+import edu.universidad.model.Estudiante;
+import edu.universidad.model.Inscripcion;
+import edu.universidad.persistence.InscripcionDAO;
+import edu.universidad.persistence.ResultadoLote;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * {@link CursosInscritos} para compartir entre hilos (cargador en segundo
+ * plano, UI, importadores en paralelo). Las inscripciones se reparten por
+ * código de estudiante en {@link Franjas} de IndiceInscripciones: alta, baja
+ * y consultas de un estudiante bloquean solo su franja. Lo que recorre todo
+ * (listado, por curso, por periodo, conteo) se arma con todas las franjas
+ * bloqueadas para lectura, así que es una instantánea consistente; nunca se
+ * entrega la estructura interna.
+ */
+public class CursosInscritosConcurrente implements Servicios<Inscripcion> {
+    private final Franjas<IndiceInscripciones> franjas = new Franjas<>(() -> new IndiceInscripciones(16));
+    private final InscripcionDAO dao;
+    private final List<Estudiante> catalogoEstudiantes;
+    private final List<Curso> catalogoCursos;
+
+    public CursosInscritosConcurrente(InscripcionDAO dao, List<Estudiante> catalogoEstudiantes, List<Curso> catalogoCursos) {
+        this.dao = dao;
+        this.catalogoEstudiantes = catalogoEstudiantes;
+        this.catalogoCursos = catalogoCursos;
+    }
+
+    /** @return false si ya estaba inscrito en ese curso y periodo. */
+    public boolean inscribirCurso(Inscripcion inscripcion) {
+        Objects.requireNonNull(inscripcion, "inscripcion no puede ser null");
+        Objects.requireNonNull(inscripcion.getEstudiante(), "la inscripción debe tener estudiante");
+        return franjas.escribir(clave(inscripcion), p -> p.agregar(inscripcion));
+    }
+
+    public boolean eliminar(Inscripcion inscripcion) {
+        if (inscripcion == null || inscripcion.getEstudiante() == null) return false;
+        return franjas.escribir(clave(inscripcion), p -> p.quitar(inscripcion));
+    }
+
+    public boolean actualizar(Inscripcion inscripcion) {
+        Objects.requireNonNull(inscripcion, "inscripcion no puede ser null");
+        if (inscripcion.getEstudiante() == null) return false;
+        return franjas.escribir(clave(inscripcion), p -> p.reemplazar(inscripcion));
+    }
+
+    public Inscripcion buscar(int cursoId, double codigo, int anio, int semestre) {
+        return franjas.leer(LongObjectMap.clave(codigo), p -> p.buscar(cursoId, codigo, anio, semestre));
+    }
+
+    /** Solo bloquea la franja del estudiante. */
+    public List<Inscripcion> cursosDelEstudiante(double codigo) {
+        return Collections.unmodifiableList(franjas.leer(LongObjectMap.clave(codigo), p -> p.delEstudiante(codigo)));
+    }
+
+    public List<Inscripcion> inscritosEnCurso(int cursoId) {
+        List<Inscripcion> out = new ArrayList<>();
+        franjas.leerTodas((p, i) -> out.addAll(p.delCurso(cursoId)));
+        return Collections.unmodifiableList(out);
+    }
+
+    public List<Inscripcion> inscripcionesDelPeriodo(int anio, int semestre) {
+        List<Inscripcion> out = new ArrayList<>();
+        franjas.leerTodas((p, i) -> out.addAll(p.delPeriodo(anio, semestre)));
+        return Collections.unmodifiableList(out);
+    }
+
+    /** Copia de solo lectura tomada en un instante; no cambia con escrituras posteriores. */
+    public List<Inscripcion> instantanea() {
+        List<Inscripcion> out = new ArrayList<>();
+        franjas.leerTodas((p, i) -> out.addAll(p.vista()));
+        return Collections.unmodifiableList(out);
+    }
+
+    public void guardarInformacion(Inscripcion inscripcion) {
+        dao.insertar(inscripcion);
+    }
+
+    public ResultadoLote guardarInformacion(Collection<Inscripcion> inscripciones) {
+        return dao.insertarLote(inscripciones);
+    }
+
+    /**
+     * Lee la base sin bloquear y luego sustituye el contenido de todas las
+     * franjas de una vez: ningún lector ve una carga a medias.
+     */
+    public void cargarDatos() {
+        EventoCarga evento = new EventoCarga("CursosInscritosConcurrente");
+        IntObjectMap<Curso> cursoPorId = InscripcionDAO.indexarCursos(catalogoCursos);
+        LongObjectMap<Estudiante> estudiantePorCodigo = InscripcionDAO.indexarEstudiantes(catalogoEstudiantes);
+        List<Inscripcion> leidas = dao.listar(estudiantePorCodigo, cursoPorId);
+        int cantidad = franjas.cantidad();
+        List<List<Inscripcion>> porFranja = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) porFranja.add(new ArrayList<>(leidas.size() / cantidad + 16));
+        for (Inscripcion ins : leidas) porFranja.get(franjas.franja(clave(ins))).add(ins);
+        franjas.escribirTodas((p, i) -> {
+            p.limpiar();
+            for (Inscripcion ins : porFranja.get(i)) p.agregar(ins);
+        });
+        evento.terminar(leidas.size());
+    }
+
+    public void limpiar() {
+        franjas.escribirTodas((p, i) -> p.limpiar());
+    }
+
+    /** Posición dentro del orden de {@link #instantanea()} (franja por franja). */
+    @Override
+    public String imprimirPosicion(int posicion) {
+        if (posicion < 0) return "posición inválida";
+        String[] encontrada = {"posición inválida"};
+        int[] resto = {posicion};
+        franjas.leerTodas((p, i) -> {
+            if (resto[0] < 0) return;
+            if (resto[0] < p.size()) {
+                encontrada[0] = p.get(resto[0]).toString();
+                resto[0] = -1;
+            } else {
+                resto[0] -= p.size();
+            }
+        });
+        return encontrada[0];
+    }
+
+    @Override
+    public Integer cantidadActual() {
+        int[] n = {0};
+        franjas.leerTodas((p, i) -> n[0] += p.size());
+        return n[0];
+    }
+
+    @Override
+    public List<String> imprimirListado() {
+        return instantanea().stream().map(Object::toString).collect(Collectors.toList());
+    }
+
+    /** Franja por franja (ver {@link Franjas#flujo}); no es una foto como {@link #instantanea()}. */
+    @Override
+    public Stream<Inscripcion> flujo() {
+        return franjas.flujo(p -> p.vista());
+    }
+
+    @Override
+    public String toString() {
+        return "CursosInscritosConcurrente{listado=" + cantidadActual() + ", franjas=" + franjas.cantidad() + "}";
+    }
+
+    /** Igual que {@link #instantanea()}. */
+    public List<Inscripcion> getListado() {
+        return instantanea();
+    }
+
+    private static long clave(Inscripcion inscripcion) {
+        return LongObjectMap.clave(inscripcion.getEstudiante().getCodigo());
+    }
+}
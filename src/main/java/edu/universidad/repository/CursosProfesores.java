@@ -1,22 +1,44 @@
 package edu.universidad.repository;
 
+import edu.universidad.colecciones.IntObjectMap;
 import edu.universidad.model.CursoProfesor;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class CursosProfesores implements Servicios<CursoProfesor> {
     private List<CursoProfesor> listado = new ArrayList<>();
+    /** ID de curso → asignaciones de ese curso. */
+    private final IntObjectMap<List<CursoProfesor>> porCurso = new IntObjectMap<>();
 
     public boolean inscribir(CursoProfesor cursoProfesor) {
         Objects.requireNonNull(cursoProfesor, "cursoProfesor no puede ser null");
+        if (cursoProfesor.getCurso() != null) {
+            List<CursoProfesor> delCurso = porCurso.get(cursoProfesor.getCurso().getID());
+            if (delCurso == null) porCurso.put(cursoProfesor.getCurso().getID(), delCurso = new ArrayList<>(2));
+            delCurso.add(cursoProfesor);
+        }
         return listado.add(cursoProfesor);
     }
 
     public boolean eliminar(CursoProfesor cursoProfesor) {
-        return listado.remove(cursoProfesor);
+        if (!listado.remove(cursoProfesor)) return false;
+        if (cursoProfesor.getCurso() != null) {
+            int id = cursoProfesor.getCurso().getID();
+            List<CursoProfesor> delCurso = porCurso.get(id);
+            if (delCurso != null && delCurso.remove(cursoProfesor) && delCurso.isEmpty()) porCurso.remove(id);
+        }
+        return true;
+    }
+
+    /** Asignaciones del curso sin recorrer el listado completo. */
+    public List<CursoProfesor> listarPorCurso(int cursoId) {
+        List<CursoProfesor> delCurso = porCurso.get(cursoId);
+        return delCurso == null ? List.of() : Collections.unmodifiableList(delCurso);
     }
 
     public boolean guardarInformacion(CursoProfesor cursoProfesor) {
@@ -47,6 +69,18 @@ public class CursosProfesores implements Servicios<CursoProfesor> {
         return listado.stream().map(Object::toString).collect(Collectors.toList());
     }
 
+    @Override
+    public Stream<CursoProfesor> flujo() {
+        return listado.stream();
+    }
+
+    @Override
+    public List<CursoProfesor> pagina(int desde, int limite) {
+        if (desde < 0 || limite < 0) throw new IllegalArgumentException("desde y limite no pueden ser negativos");
+        if (desde >= listado.size()) return List.of();
+        return List.copyOf(listado.subList(desde, (int) Math.min(listado.size(), (long) desde + limite)));
+    }
+
     @Override
     public String toString() {
         return "CursosProfesores{listado=" + listado.size() + "}";
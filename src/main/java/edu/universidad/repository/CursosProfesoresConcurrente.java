@@ -0,0 +1,83 @@
+package edu.universidad.repository;
+
+import edu.universidad.model.CursoProfesor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * {@link CursosProfesores} para compartir entre hilos: cada franja (por ID
+ * de curso) es un CursosProfesores con su propio candado, así que las
+ * asignaciones de un curso solo bloquean su franja. Las asignaciones sin
+ * curso caen en la franja de la clave 0. El listado es una instantánea de
+ * solo lectura.
+ */
+public class CursosProfesoresConcurrente implements Servicios<CursoProfesor> {
+    private final Franjas<CursosProfesores> franjas = new Franjas<>(CursosProfesores::new);
+
+    public boolean inscribir(CursoProfesor cursoProfesor) {
+        Objects.requireNonNull(cursoProfesor, "cursoProfesor no puede ser null");
+        return franjas.escribir(clave(cursoProfesor), p -> p.inscribir(cursoProfesor));
+    }
+
+    public boolean eliminar(CursoProfesor cursoProfesor) {
+        if (cursoProfesor == null) return false;
+        return franjas.escribir(clave(cursoProfesor), p -> p.eliminar(cursoProfesor));
+    }
+
+    /** Copia de las asignaciones del curso; solo bloquea su franja. */
+    public List<CursoProfesor> listarPorCurso(int cursoId) {
+        return franjas.leer(cursoId, p -> List.copyOf(p.listarPorCurso(cursoId)));
+    }
+
+    /** Copia de solo lectura tomada en un instante. */
+    public List<CursoProfesor> instantanea() {
+        List<CursoProfesor> out = new ArrayList<>();
+        franjas.leerTodas((p, i) -> out.addAll(p.getListado()));
+        return Collections.unmodifiableList(out);
+    }
+
+    /** Posición dentro del orden de {@link #instantanea()} (franja por franja). */
+    @Override
+    public String imprimirPosicion(int posicion) {
+        List<CursoProfesor> todas = instantanea();
+        if (posicion < 0 || posicion >= todas.size()) return "posición inválida";
+        return todas.get(posicion).toString();
+    }
+
+    @Override
+    public Integer cantidadActual() {
+        int[] n = {0};
+        franjas.leerTodas((p, i) -> n[0] += p.cantidadActual());
+        return n[0];
+    }
+
+    @Override
+    public List<String> imprimirListado() {
+        return instantanea().stream().map(Object::toString).collect(Collectors.toList());
+    }
+
+    /** Franja por franja (ver {@link Franjas#flujo}); no es una foto como {@link #instantanea()}. */
+    @Override
+    public Stream<CursoProfesor> flujo() {
+        return franjas.flujo(p -> p.getListado());
+    }
+
+    @Override
+    public String toString() {
+        return "CursosProfesoresConcurrente{listado=" + cantidadActual() + ", franjas=" + franjas.cantidad() + "}";
+    }
+
+    /** Igual que {@link #instantanea()}. */
+    public List<CursoProfesor> getListado() {
+        return instantanea();
+    }
+
+    private static long clave(CursoProfesor cursoProfesor) {
+        return cursoProfesor.getCurso() == null ? 0 : cursoProfesor.getCurso().getID();
+    }
+}
@@ -0,0 +1,120 @@
+package edu.universidad.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.ObjIntConsumer;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Candados por franja para los repositorios concurrentes: el contenido se
+ * reparte por clave en {@code n} partes no sincronizadas, cada una con su
+ * ReentrantReadWriteLock. Las operaciones sobre una clave solo toman el
+ * candado de su franja; {@link #leerTodas} y {@link #escribirTodas} los
+ * toman todos en orden ascendente (sin riesgo de interbloqueo), lo que da
+ * una vista consistente en un instante.
+ */
+final class Franjas<P> {
+
+    private final Object[] partes;
+    private final ReentrantReadWriteLock[] candados;
+    private final int mask;
+
+    /** Por defecto cuatro franjas por procesador, redondeado a potencia de dos. */
+    Franjas(Supplier<P> crear) {
+        this(Integer.highestOneBit(Math.max(4, Runtime.getRuntime().availableProcessors() * 4) - 1) << 1, crear);
+    }
+
+    Franjas(int n, Supplier<P> crear) {
+        if (Integer.bitCount(n) != 1) throw new IllegalArgumentException("El número de franjas debe ser potencia de dos: " + n);
+        partes = new Object[n];
+        candados = new ReentrantReadWriteLock[n];
+        for (int i = 0; i < n; i++) {
+            partes[i] = crear.get();
+            candados[i] = new ReentrantReadWriteLock();
+        }
+        mask = n - 1;
+    }
+
+    int cantidad() {
+        return partes.length;
+    }
+
+    <R> R leer(long clave, Function<? super P, R> f) {
+        int i = franja(clave);
+        ReentrantReadWriteLock.ReadLock c = candados[i].readLock();
+        c.lock();
+        try {
+            return f.apply(parte(i));
+        } finally {
+            c.unlock();
+        }
+    }
+
+    <R> R escribir(long clave, Function<? super P, R> f) {
+        int i = franja(clave);
+        ReentrantReadWriteLock.WriteLock c = candados[i].writeLock();
+        c.lock();
+        try {
+            return f.apply(parte(i));
+        } finally {
+            c.unlock();
+        }
+    }
+
+    /** Aplica {@code f} a la parte {@code i} con solo su candado de lectura. */
+    <R> R leerParte(int i, Function<? super P, R> f) {
+        ReentrantReadWriteLock.ReadLock c = candados[i].readLock();
+        c.lock();
+        try {
+            return f.apply(parte(i));
+        } finally {
+            c.unlock();
+        }
+    }
+
+    /**
+     * Recorre franja por franja: el contenido de cada una ({@code contenido})
+     * se copia bajo su candado de lectura cuando el flujo llega a ella, así
+     * que la memoria es la de una franja y no la del total. A diferencia de
+     * {@link #leerTodas}, no es una foto de un único instante.
+     */
+    <T> Stream<T> flujo(Function<? super P, ? extends Collection<T>> contenido) {
+        return IntStream.range(0, partes.length).boxed()
+                .flatMap(i -> leerParte(i, p -> List.copyOf(contenido.apply(p))).stream());
+    }
+
+    /** Recorre las partes (con su índice) con todos los candados de lectura tomados: nadie escribe mientras tanto. */
+    void leerTodas(ObjIntConsumer<? super P> f) {
+        for (ReentrantReadWriteLock c : candados) c.readLock().lock();
+        try {
+            for (int i = 0; i < partes.length; i++) f.accept(parte(i), i);
+        } finally {
+            for (int i = candados.length - 1; i >= 0; i--) candados[i].readLock().unlock();
+        }
+    }
+
+    /** Como {@link #leerTodas} pero en exclusiva, para vaciar o recargar todo de una vez. */
+    void escribirTodas(ObjIntConsumer<? super P> f) {
+        for (ReentrantReadWriteLock c : candados) c.writeLock().lock();
+        try {
+            for (int i = 0; i < partes.length; i++) f.accept(parte(i), i);
+        } finally {
+            for (int i = candados.length - 1; i >= 0; i--) candados[i].writeLock().unlock();
+        }
+    }
+
+    /** Franja de una clave ya reducida a long (p.ej. LongObjectMap.clave del código). */
+    int franja(long clave) {
+        long h = clave * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    @SuppressWarnings("unchecked")
+    P parte(int i) {
+        return (P) partes[i];
+    }
+}
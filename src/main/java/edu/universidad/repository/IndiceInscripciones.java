@@ -0,0 +1,271 @@
+package edu.universidad.repository;
+
+import edu.universidad.colecciones.LongObjectMap;
+import edu.universidad.model.Inscripcion;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.ToLongFunction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Almacén en memoria de {@link CursosInscritos}. Las inscripciones viven en un
+ * arreglo denso; un borrado mueve la última al hueco, así que la posición no
+ * es estable tras eliminar.
+ *
+ * Índice primario (curso, estudiante, anio, semestre) → posición con
+ * direccionamiento abierto sobre un int[], sin objetos clave. Índices
+ * secundarios por curso, por código de estudiante y por periodo: listas
+ * doblemente enlazadas en arreglos paralelos, de modo que alta, baja y
+ * reemplazo son O(1) en los cuatro.
+ * No es seguro para uso concurrente.
+ */
+final class IndiceInscripciones {
+
+    private static final float CARGA = 0.6f;
+    private static final int NINGUNA = -1;
+
+    private Inscripcion[] filas;
+    private int tamano;
+    private int[] tabla; // posición + 1; 0 = celda libre
+    private int umbral;
+
+    private final Secundario porCurso = new Secundario(i -> i.getCurso().getID());
+    private final Secundario porEstudiante = new Secundario(i -> LongObjectMap.clave(i.getEstudiante().getCodigo()));
+    private final Secundario porPeriodo = new Secundario(i -> periodo(i.getAnio(), i.getSemestre()));
+    private final Secundario[] secundarios = {porCurso, porEstudiante, porPeriodo};
+
+    IndiceInscripciones(int capacidadEsperada) {
+        int cap = Math.max(capacidadEsperada, 16);
+        filas = new Inscripcion[cap];
+        for (Secundario s : secundarios) s.dimensionar(cap);
+        dimensionarTabla(cap);
+    }
+
+    int size() {
+        return tamano;
+    }
+
+    Inscripcion get(int posicion) {
+        Objects.checkIndex(posicion, tamano);
+        return filas[posicion];
+    }
+
+    /** @return false si ya había una inscripción con la misma clave. */
+    boolean agregar(Inscripcion ins) {
+        Objects.requireNonNull(ins.getCurso(), "la inscripción debe tener curso");
+        Objects.requireNonNull(ins.getEstudiante(), "la inscripción debe tener estudiante");
+        if (celda(ins) >= 0) return false;
+        if (tamano == filas.length) {
+            int cap = filas.length + (filas.length >> 1);
+            filas = Arrays.copyOf(filas, cap);
+            for (Secundario s : secundarios) s.dimensionar(cap);
+        }
+        int pos = tamano++;
+        filas[pos] = ins;
+        ubicar(pos);
+        for (Secundario s : secundarios) s.enlazar(pos, ins);
+        if (tamano > umbral) dimensionarTabla(filas.length);
+        return true;
+    }
+
+    /** Sustituye la inscripción de igual clave. */
+    boolean reemplazar(Inscripcion ins) {
+        int c = celda(ins);
+        if (c < 0) return false;
+        filas[tabla[c] - 1] = ins;
+        return true;
+    }
+
+    boolean quitar(Inscripcion ins) {
+        int c = celda(ins);
+        if (c < 0) return false;
+        int pos = tabla[c] - 1;
+        borrarCelda(c);
+        for (Secundario s : secundarios) s.desenlazar(pos, filas[pos]);
+        int ultima = --tamano;
+        if (pos != ultima) {
+            Inscripcion movida = filas[ultima];
+            tabla[celda(movida)] = pos + 1;
+            for (Secundario s : secundarios) s.mover(ultima, pos, movida);
+            filas[pos] = movida;
+        }
+        filas[ultima] = null;
+        return true;
+    }
+
+    Inscripcion buscar(int cursoId, double codigo, int anio, int semestre) {
+        int c = celda(cursoId, LongObjectMap.clave(codigo), anio, semestre);
+        return c < 0 ? null : filas[tabla[c] - 1];
+    }
+
+    List<Inscripcion> delCurso(int cursoId) {
+        return porCurso.listar(cursoId);
+    }
+
+    List<Inscripcion> delEstudiante(double codigo) {
+        return porEstudiante.listar(LongObjectMap.clave(codigo));
+    }
+
+    List<Inscripcion> delPeriodo(int anio, int semestre) {
+        return porPeriodo.listar(periodo(anio, semestre));
+    }
+
+    void limpiar() {
+        Arrays.fill(filas, 0, tamano, null);
+        Arrays.fill(tabla, 0);
+        tamano = 0;
+        for (Secundario s : secundarios) s.cabezas.clear();
+    }
+
+    /** Recorrido sobre el arreglo sin copiarlo, divisible para flujos paralelos. */
+    Stream<Inscripcion> flujo() {
+        return StreamSupport.stream(Spliterators.spliterator(filas, 0, tamano, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    /** Vista de solo lectura en orden de posición. */
+    List<Inscripcion> vista() {
+        return new AbstractList<>() {
+            @Override
+            public Inscripcion get(int index) {
+                return IndiceInscripciones.this.get(index);
+            }
+
+            @Override
+            public int size() {
+                return tamano;
+            }
+        };
+    }
+
+    // ---- Índice primario ----
+
+    private static long periodo(int anio, int semestre) {
+        return ((long) anio << 32) | (semestre & 0xFFFFFFFFL);
+    }
+
+    private static int hash(int cursoId, long codigo, int anio, int semestre) {
+        long h = codigo * 0x9E3779B97F4A7C15L + cursoId;
+        h = h * 0x9E3779B97F4A7C15L + periodo(anio, semestre);
+        h *= 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private static int hash(Inscripcion i) {
+        return hash(i.getCurso().getID(), LongObjectMap.clave(i.getEstudiante().getCodigo()), i.getAnio(), i.getSemestre());
+    }
+
+    private int celda(Inscripcion i) {
+        if (i.getCurso() == null || i.getEstudiante() == null) return -1;
+        return celda(i.getCurso().getID(), LongObjectMap.clave(i.getEstudiante().getCodigo()), i.getAnio(), i.getSemestre());
+    }
+
+    /** Celda de la tabla que apunta a la inscripción con esa clave, o -1. */
+    private int celda(int cursoId, long codigo, int anio, int semestre) {
+        int mask = tabla.length - 1;
+        for (int c = hash(cursoId, codigo, anio, semestre) & mask; tabla[c] != 0; c = (c + 1) & mask) {
+            Inscripcion f = filas[tabla[c] - 1];
+            if (f.getCurso().getID() == cursoId && LongObjectMap.clave(f.getEstudiante().getCodigo()) == codigo
+                    && f.getAnio() == anio && f.getSemestre() == semestre) return c;
+        }
+        return -1;
+    }
+
+    private void ubicar(int pos) {
+        int mask = tabla.length - 1;
+        int c = hash(filas[pos]) & mask;
+        while (tabla[c] != 0) c = (c + 1) & mask;
+        tabla[c] = pos + 1;
+    }
+
+    /** Borrado con corrimiento hacia atrás, igual que en IntObjectMap. */
+    private void borrarCelda(int libre) {
+        int mask = tabla.length - 1;
+        int c = libre;
+        while (true) {
+            c = (c + 1) & mask;
+            if (tabla[c] == 0) break;
+            int ideal = hash(filas[tabla[c] - 1]) & mask;
+            if (((c - ideal) & mask) >= ((c - libre) & mask)) {
+                tabla[libre] = tabla[c];
+                libre = c;
+            }
+        }
+        tabla[libre] = 0;
+    }
+
+    private void dimensionarTabla(int entradas) {
+        int cap = Math.max(16, Integer.highestOneBit((int) Math.ceil(entradas / CARGA) - 1) << 1);
+        if (tabla != null && cap <= tabla.length) cap = tabla.length * 2;
+        tabla = new int[cap];
+        umbral = (int) (cap * CARGA);
+        for (int pos = 0; pos < tamano; pos++) ubicar(pos);
+    }
+
+    // ---- Índices secundarios ----
+
+    /** Primera y última posición de una clave y cuántas hay. */
+    private static final class Lista {
+        int cabeza = NINGUNA, cola = NINGUNA, tamano;
+    }
+
+    private final class Secundario {
+        private final ToLongFunction<Inscripcion> clave;
+        private final LongObjectMap<Lista> cabezas = new LongObjectMap<>();
+        private int[] siguiente, anterior;
+
+        Secundario(ToLongFunction<Inscripcion> clave) {
+            this.clave = clave;
+        }
+
+        void dimensionar(int cap) {
+            siguiente = siguiente == null ? new int[cap] : Arrays.copyOf(siguiente, cap);
+            anterior = anterior == null ? new int[cap] : Arrays.copyOf(anterior, cap);
+        }
+
+        /** Agrega {@code pos} al final de la lista de su clave (orden de llegada). */
+        void enlazar(int pos, Inscripcion ins) {
+            long k = clave.applyAsLong(ins);
+            Lista l = cabezas.get(k);
+            if (l == null) cabezas.put(k, l = new Lista());
+            anterior[pos] = l.cola;
+            siguiente[pos] = NINGUNA;
+            if (l.cola != NINGUNA) siguiente[l.cola] = pos; else l.cabeza = pos;
+            l.cola = pos;
+            l.tamano++;
+        }
+
+        void desenlazar(int pos, Inscripcion ins) {
+            long k = clave.applyAsLong(ins);
+            Lista l = cabezas.get(k);
+            int a = anterior[pos], s = siguiente[pos];
+            if (a != NINGUNA) siguiente[a] = s; else l.cabeza = s;
+            if (s != NINGUNA) anterior[s] = a; else l.cola = a;
+            if (--l.tamano == 0) cabezas.remove(k);
+        }
+
+        /** La inscripción de {@code desde} pasa a {@code hasta}; sus vecinos apuntan al nuevo lugar. */
+        void mover(int desde, int hasta, Inscripcion ins) {
+            int a = anterior[desde], s = siguiente[desde];
+            anterior[hasta] = a;
+            siguiente[hasta] = s;
+            Lista l = (a == NINGUNA || s == NINGUNA) ? cabezas.get(clave.applyAsLong(ins)) : null;
+            if (a != NINGUNA) siguiente[a] = hasta; else l.cabeza = hasta;
+            if (s != NINGUNA) anterior[s] = hasta; else l.cola = hasta;
+        }
+
+        List<Inscripcion> listar(long k) {
+            Lista l = cabezas.get(k);
+            if (l == null) return List.of();
+            List<Inscripcion> out = new ArrayList<>(l.tamano);
+            for (int p = l.cabeza; p != NINGUNA; p = siguiente[p]) out.add(filas[p]);
+            return out;
+        }
+    }
+}
@@ -1,39 +1,61 @@
 package edu.universidad.repository;
 
+import edu.universidad.colecciones.LongObjectMap;
 import edu.universidad.model.Persona;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class InscripcionesPersonas implements Servicios<Persona> {
     private List<Persona> listado = new ArrayList<>();
+    /** ID → primera persona del listado con ese ID. */
+    private final LongObjectMap<Persona> porId = new LongObjectMap<>();
 
     public boolean inscribir(Persona persona) {
         Objects.requireNonNull(persona, "persona no puede ser null");
+        porId.putIfAbsent(LongObjectMap.clave(persona.getID()), persona);
         return listado.add(persona);
     }
 
     public boolean eliminar(Persona persona) {
-        return listado.remove(persona);
+        int idx = listado.indexOf(persona);
+        if (idx < 0) return false;
+        Persona quitada = listado.remove(idx);
+        long clave = LongObjectMap.clave(quitada.getID());
+        if (porId.get(clave) == quitada) {
+            porId.remove(clave);
+            for (int i = idx; i < listado.size(); i++) { // la siguiente con el mismo ID pasa a ser la primera
+                if (LongObjectMap.clave(listado.get(i).getID()) == clave) {
+                    porId.put(clave, listado.get(i));
+                    break;
+                }
+            }
+        }
+        return true;
     }
 
     public boolean actualizar(Persona persona) {
         Objects.requireNonNull(persona, "persona no puede ser null");
-        int idx = -1;
+        long clave = LongObjectMap.clave(persona.getID());
+        Persona actual = porId.get(clave);
+        if (actual == null) return false; // sin recorrer el listado
         for (int i = 0; i < listado.size(); i++) {
-            if (Double.compare(listado.get(i).getID(), persona.getID()) == 0) {
-                idx = i; break;
+            if (listado.get(i) == actual) {
+                listado.set(i, persona);
+                porId.put(clave, persona);
+                return true;
             }
         }
-        if (idx >= 0) {
-            listado.set(idx, persona);
-            return true;
-        }
         return false;
     }
 
+    public Persona buscar(double id) {
+        return porId.get(LongObjectMap.clave(id));
+    }
+
     public void guardarInformacion(Persona persona) {
     }
 
@@ -56,6 +78,18 @@ public class InscripcionesPersonas implements Servicios<Persona> {
         return listado.stream().map(Object::toString).collect(Collectors.toList());
     }
 
+    @Override
+    public Stream<Persona> flujo() {
+        return listado.stream();
+    }
+
+    @Override
+    public List<Persona> pagina(int desde, int limite) {
+        if (desde < 0 || limite < 0) throw new IllegalArgumentException("desde y limite no pueden ser negativos");
+        if (desde >= listado.size()) return List.of();
+        return List.copyOf(listado.subList(desde, (int) Math.min(listado.size(), (long) desde + limite)));
+    }
+
     @Override
     public String toString() {
         return "InscripcionesPersonas{listado=" + listado.size() + "}";
@@ -0,0 +1,87 @@
+package edu.universidad.repository;
+
+import edu.universidad.colecciones.LongObjectMap;
+import edu.universidad.model.Persona;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * {@link InscripcionesPersonas} para compartir entre hilos: cada franja
+ * (por ID de persona) es un InscripcionesPersonas con su propio candado,
+ * así que alta, baja, actualización y búsqueda de una persona solo
+ * bloquean su franja. El listado es una instantánea de solo lectura.
+ */
+public class InscripcionesPersonasConcurrente implements Servicios<Persona> {
+    private final Franjas<InscripcionesPersonas> franjas = new Franjas<>(InscripcionesPersonas::new);
+
+    public boolean inscribir(Persona persona) {
+        Objects.requireNonNull(persona, "persona no puede ser null");
+        return franjas.escribir(clave(persona), p -> p.inscribir(persona));
+    }
+
+    public boolean eliminar(Persona persona) {
+        if (persona == null) return false;
+        return franjas.escribir(clave(persona), p -> p.eliminar(persona));
+    }
+
+    public boolean actualizar(Persona persona) {
+        Objects.requireNonNull(persona, "persona no puede ser null");
+        return franjas.escribir(clave(persona), p -> p.actualizar(persona));
+    }
+
+    public Persona buscar(double id) {
+        return franjas.leer(LongObjectMap.clave(id), p -> p.buscar(id));
+    }
+
+    /** Copia de solo lectura tomada en un instante. */
+    public List<Persona> instantanea() {
+        List<Persona> out = new ArrayList<>();
+        franjas.leerTodas((p, i) -> out.addAll(p.getListado()));
+        return Collections.unmodifiableList(out);
+    }
+
+    /** Posición dentro del orden de {@link #instantanea()} (franja por franja). */
+    @Override
+    public String imprimirPosicion(int posicion) {
+        List<Persona> todas = instantanea();
+        if (posicion < 0 || posicion >= todas.size()) return "posición inválida";
+        return todas.get(posicion).toString();
+    }
+
+    @Override
+    public Integer cantidadActual() {
+        int[] n = {0};
+        franjas.leerTodas((p, i) -> n[0] += p.cantidadActual());
+        return n[0];
+    }
+
+    @Override
+    public List<String> imprimirListado() {
+        return instantanea().stream().map(Object::toString).collect(Collectors.toList());
+    }
+
+    /** Franja por franja (ver {@link Franjas#flujo}); no es una foto como {@link #instantanea()}. */
+    @Override
+    public Stream<Persona> flujo() {
+        return franjas.flujo(p -> p.getListado());
+    }
+
+    @Override
+    public String toString() {
+        return "InscripcionesPersonasConcurrente{listado=" + cantidadActual() + ", franjas=" + franjas.cantidad() + "}";
+    }
+
+    /** Igual que {@link #instantanea()}. */
+    public List<Persona> getListado() {
+        return instantanea();
+    }
+
+    private static long clave(Persona persona) {
+        return LongObjectMap.clave(persona.getID());
+    }
+}
@@ -1,9 +1,27 @@
 package edu.universidad.repository;
 
+import java.io.IOException;
+import java.util.Iterator;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface Servicios<T> {
     String imprimirPosicion(int posicion);
     Integer cantidadActual();
     List<String> imprimirListado();
+
+    /** Recorrido perezoso sobre el listado, sin copiarlo; salvo en las variantes concurrentes, no modificar el repositorio mientras se consume. */
+    Stream<T> flujo();
+
+    /** Escribe un elemento por línea a medida que lo recorre: la salida empieza enseguida y la memoria no crece con el listado. */
+    default void imprimirListado(Appendable destino) throws IOException {
+        for (Iterator<T> it = flujo().iterator(); it.hasNext(); )
+            destino.append(String.valueOf(it.next())).append(System.lineSeparator());
+    }
+
+    /** Hasta {@code limite} elementos desde la posición {@code desde}, como lista de solo lectura. */
+    default List<T> pagina(int desde, int limite) {
+        if (desde < 0 || limite < 0) throw new IllegalArgumentException("desde y limite no pueden ser negativos");
+        return flujo().skip(desde).limit(limite).toList();
+    }
 }
@@ -0,0 +1,270 @@
+package edu.universidad.ui; // acceso a datos fuera del hilo de JavaFX
+
+import edu.universidad.metricas.EventoRecarga;
+import edu.universidad.metricas.Metrica;
+import edu.universidad.metricas.Metricas;
+import edu.universidad.persistence.Cambio;
+import edu.universidad.persistence.NotificadorCambios;
+import javafx.application.Platform;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressIndicator;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Ejecuta el trabajo JDBC de un controlador en hilos virtuales y completa los
+ * futuros en el hilo de JavaFX (Platform.runLater), así una consulta lenta o
+ * el candado de AUTO_SERVER ocupado no congelan la ventana.
+ *
+ * Mientras haya operaciones en curso lblEstado muestra un indicador de
+ * actividad. Cada {@link #recargar} cancela la recarga anterior del mismo
+ * controlador (Statement.cancel) y descarta su resultado, para que una
+ * respuesta vieja nunca pise una más reciente.
+ *
+ * Cada descripción es una métrica del grupo UI (edu.universidad:type=Metrica,
+ * grupo=UI): tiempo del trabajo en el hilo virtual, sin la espera del hilo FX.
+ * Las recargas además emiten el evento JFR edu.universidad.Recarga.
+ */
+final class AccesoAsincrono {
+
+    private static final ExecutorService HILOS =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("bd-", 0).factory());
+
+    /** Trabajo contra la base; corre fuera del hilo FX. */
+    interface Trabajo<T> { T ejecutar() throws Exception; }
+
+    /** Consulta de recarga: registra su sentencia en {@code recarga} para poder cancelarla. */
+    interface Consulta<T> { T ejecutar(Recarga recarga) throws Exception; }
+
+    /** Relee las filas de {@code claves}; las que ya no existen no vienen. */
+    interface LecturaPorClaves<K, R> { List<R> leer(Collection<K> claves) throws Exception; }
+
+    /** Más claves pendientes que esto y sale más a cuenta recargar la tabla. */
+    static final int MAX_CLAVES = 500;
+
+    private final Label estado;
+    private final ProgressIndicator indicador = new ProgressIndicator();
+    // Estos tres solo se tocan desde el hilo FX
+    private int enCurso;
+    private String textoPrevio;
+    private Recarga recargaActual;
+
+    AccesoAsincrono(Label estado) {
+        this.estado = estado;
+        indicador.setMaxSize(14, 14);
+    }
+
+    /**
+     * Corre {@code trabajo} en un hilo virtual. Llamar desde el hilo FX; el
+     * futuro se completa en el hilo FX, con la excepción original si falla.
+     */
+    <T> CompletableFuture<T> ejecutar(String descripcion, Trabajo<T> trabajo) {
+        ocupar(descripcion);
+        Metrica metrica = Metricas.de("UI", descripcion);
+        CompletableFuture<T> futuro = new CompletableFuture<>();
+        HILOS.execute(() -> {
+            long t0 = metrica.inicio();
+            try {
+                T valor = trabajo.ejecutar();
+                metrica.exito(t0, valor instanceof Collection<?> c ? c.size() : 0);
+                Platform.runLater(() -> { liberar(); futuro.complete(valor); });
+            } catch (Throwable ex) {
+                metrica.fallo(t0);
+                Platform.runLater(() -> { liberar(); futuro.completeExceptionally(ex); });
+            }
+        });
+        return futuro;
+    }
+
+    /**
+     * Recarga que sustituye a la anterior: si sigue en curso se cancela y su
+     * resultado se ignora. {@code aplicar} y {@code alFallar} corren en el
+     * hilo FX y solo para la recarga vigente.
+     */
+    <T> CompletableFuture<T> recargar(String descripcion, Consulta<T> consulta,
+                                      Consumer<T> aplicar, Consumer<Throwable> alFallar) {
+        if (recargaActual != null) recargaActual.cancelar();
+        Recarga r = new Recarga();
+        recargaActual = r;
+        CompletableFuture<T> futuro = ejecutar(descripcion, () -> {
+            EventoRecarga evento = new EventoRecarga(descripcion);
+            try {
+                T valor = consulta.ejecutar(r);
+                evento.terminar(valor instanceof Collection<?> c ? c.size() : 0, r.cancelada());
+                return valor;
+            } catch (Exception ex) {
+                evento.fallo(r.cancelada());
+                throw ex;
+            }
+        });
+        futuro.whenComplete((valor, ex) -> {
+            if (r != recargaActual) return; // superada por otra recarga
+            recargaActual = null;
+            if (ex == null) aplicar.accept(valor);
+            else alFallar.accept(ex);
+        });
+        return futuro;
+    }
+
+    /**
+     * Corre {@code accion} en el hilo FX cuando esta u otra instancia cambie
+     * alguna de {@code tablas}; un lote de cambios produce una sola llamada.
+     */
+    void alCambiar(Set<Cambio.Tabla> tablas, Runnable accion) {
+        NotificadorCambios.global().suscribir(tablas, new NotificadorCambios.Oyente() {
+            @Override
+            public void alCambiar(List<Cambio> cambios) {
+                Platform.runLater(accion);
+            }
+
+            @Override
+            public void alPerderCambios() {
+                Platform.runLater(accion);
+            }
+        });
+    }
+
+    /** Como {@link #seguir(FilasIndexadas, Set, long, Cambio.Tabla, Function, LecturaPorClaves, Runnable)} a partir de ahora. */
+    <K extends Comparable<? super K>, R> void seguir(FilasIndexadas<K, R> filas, Set<Cambio.Tabla> tablas, Cambio.Tabla propia,
+                                                     Function<Cambio, K> clave, LecturaPorClaves<K, R> leer, Runnable recargar) {
+        seguir(filas, tablas, NotificadorCambios.global().puntoDeReanudacion(), propia, clave, leer, recargar);
+    }
+
+    /**
+     * Mantiene {@code filas} al día con los cambios de {@code tablas}
+     * posteriores a {@code desde} (p. ej. la secuencia de una instantánea):
+     * {@code clave} da la fila que toca cada cambio y solo esas se releen y se
+     * aplican con {@link FilasIndexadas#actualizar}. Los cambios de
+     * {@code propia} escritos por esta instancia se saltan, porque el
+     * controlador ya parcheó la fila al escribir. Una carga masiva, más de
+     * {@link #MAX_CLAVES} claves pendientes o cambios perdidos llaman a
+     * {@code recargar}.
+     */
+    <K extends Comparable<? super K>, R> void seguir(FilasIndexadas<K, R> filas, Set<Cambio.Tabla> tablas, long desde, Cambio.Tabla propia,
+                                                     Function<Cambio, K> clave, LecturaPorClaves<K, R> leer, Runnable recargar) {
+        Seguimiento<K, R> s = new Seguimiento<>(filas, leer, recargar);
+        NotificadorCambios.global().suscribir(desde, tablas, new NotificadorCambios.Oyente() {
+            @Override
+            public void alCambiar(List<Cambio> cambios) {
+                Set<K> claves = new HashSet<>();
+                for (Cambio c : cambios) {
+                    if (c.propio() && c.tabla() == propia) continue; // ya parcheado al escribir
+                    if (c.operacion() == Cambio.Operacion.TABLA) { Platform.runLater(recargar); return; }
+                    claves.add(clave.apply(c));
+                }
+                if (!claves.isEmpty()) Platform.runLater(() -> s.pedir(claves));
+            }
+
+            @Override
+            public void alPerderCambios() {
+                Platform.runLater(recargar);
+            }
+        });
+    }
+
+    /** Claves releídas de una fila que cambió; solo se usa desde el hilo FX. Una lectura a la vez, y lo que llega mientras tanto se junta. */
+    private final class Seguimiento<K extends Comparable<? super K>, R> {
+        private final FilasIndexadas<K, R> filas;
+        private final LecturaPorClaves<K, R> leer;
+        private final Runnable recargar;
+        private final Set<K> pendientes = new LinkedHashSet<>();
+        private boolean leyendo;
+
+        Seguimiento(FilasIndexadas<K, R> filas, LecturaPorClaves<K, R> leer, Runnable recargar) {
+            this.filas = filas;
+            this.leer = leer;
+            this.recargar = recargar;
+        }
+
+        void pedir(Set<K> claves) {
+            pendientes.addAll(claves);
+            if (pendientes.size() > MAX_CLAVES) { pendientes.clear(); recargar.run(); return; }
+            if (!leyendo) releer();
+        }
+
+        private void releer() {
+            List<K> lote = new ArrayList<>(pendientes);
+            pendientes.clear();
+            leyendo = true;
+            ejecutar("Releyendo filas cambiadas", () -> leer.leer(lote)).whenComplete((leidas, ex) -> {
+                leyendo = false;
+                if (ex != null) recargar.run(); // la recarga completa informa el error si persiste
+                else {
+                    filas.actualizar(lote, leidas);
+                    if (recargando()) recargar.run(); // lanzada antes, traería las filas viejas
+                }
+                if (!pendientes.isEmpty()) releer();
+            });
+        }
+    }
+
+    /** Hay una recarga en curso; tras parchear filas localmente conviene relanzarla. */
+    boolean recargando() {
+        return recargaActual != null;
+    }
+
+    private void ocupar(String descripcion) {
+        if (estado == null) return;
+        if (enCurso++ == 0) textoPrevio = estado.getText();
+        estado.setText(descripcion + "…");
+        estado.setGraphic(indicador);
+    }
+
+    private void liberar() {
+        if (estado == null || --enCurso > 0) return;
+        estado.setGraphic(null);
+        estado.setText(textoPrevio); // quien recibe el resultado suele escribir encima
+    }
+
+    /** Deja terminar lo que esté en curso (escrituras incluidas) antes de cerrar la base. */
+    static void cerrar() {
+        HILOS.shutdown();
+        try {
+            if (!HILOS.awaitTermination(5, TimeUnit.SECONDS))
+                System.err.println("Operaciones de base aún en curso al cerrar");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** Estado de una recarga; lo consulta el hilo virtual y lo cancela el hilo FX. */
+    static final class Recarga {
+        private volatile boolean cancelada;
+        private volatile Statement sentencia;
+
+        /** Sentencia en ejecución; si la recarga ya se canceló se cancela también. */
+        void registrar(Statement st) throws SQLException {
+            sentencia = st;
+            if (cancelada) st.cancel();
+        }
+
+        /** Para cortar el recorrido del ResultSet cuando ya no hace falta. */
+        boolean cancelada() {
+            return cancelada;
+        }
+
+        private void cancelar() {
+            cancelada = true;
+            Statement st = sentencia;
+            if (st == null) return;
+            try {
+                st.cancel();
+            } catch (SQLException ignorada) {
+                // ya cerrada: la consulta terminó y su resultado se descarta igual
+            }
+        }
+    }
+}
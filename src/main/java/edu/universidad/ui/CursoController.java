@@ -1,15 +1,28 @@
 package edu.universidad.ui; // UI Cursos
 
+import edu.universidad.importacion.Catalogo;
+import edu.universidad.model.Validaciones;
+import edu.universidad.persistence.CacheMetadatos;
+import edu.universidad.persistence.ConteoDAO;
+import edu.universidad.persistence.Cambio;
 import edu.universidad.persistence.H2DB;
+import edu.universidad.persistence.Migraciones;
+import edu.universidad.persistence.Instantanea;
 import javafx.beans.property.*;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
+import javafx.scene.Node;
 import javafx.scene.control.*;
-import javafx.beans.property.ReadOnlyObjectWrapper;
 
 import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
 /** CRUD de cursos independiente del alta de profesores.
  *  Permite crear/actualizar un curso sin profesor y posteriormente asignarlo.
@@ -29,23 +42,29 @@ public class CursoController {
     @FXML private TableColumn<Row, String> colNombre;
     @FXML private TableColumn<Row, Number> colSemestre;
     @FXML private TableColumn<Row, Boolean> colActivo;
-    @FXML private TableColumn<Row, Number> colProfesor;
+    @FXML private TableColumn<Row, Double> colProfesor;
     @FXML private TableColumn<Row, Number> colInscritos;
 
     @FXML private Label lblEstado;
+    @FXML private ProgressBar barraProgreso;
 
     private final ObservableList<Row> datos = FXCollections.observableArrayList();
+    private final ConteoDAO conteos = new ConteoDAO();
+    private AccesoAsincrono bd; // necesita lblEstado, se crea en initialize
+    private FilasIndexadas<Integer, Row> filas;
 
     @FXML
     private void initialize(){
+        bd = new AccesoAsincrono(lblEstado);
         colId.setCellValueFactory(c -> c.getValue().idProperty());
         colNombre.setCellValueFactory(c -> c.getValue().nombreProperty());
         colSemestre.setCellValueFactory(c -> c.getValue().semestreProperty());
         colActivo.setCellValueFactory(c -> c.getValue().activoProperty());
-        colProfesor.setCellValueFactory(c -> new ReadOnlyObjectWrapper<Number>(c.getValue().getProfesorId()));
-        colInscritos.setCellValueFactory(c -> new ReadOnlyObjectWrapper<Number>(c.getValue().getInscritos()));
+        colProfesor.setCellValueFactory(c -> c.getValue().profesorIdProperty());
+        colInscritos.setCellValueFactory(c -> c.getValue().inscritosProperty());
 
         tabla.setItems(datos);
+        filas = new FilasIndexadas<>(tabla, datos, Row::getId, Row::copiar);
 
         tabla.getSelectionModel().selectedItemProperty().addListener((o,old,sel)->{
             if (sel!=null){
@@ -54,47 +73,74 @@ public class CursoController {
                 txtSemestre.setText(Integer.toString(sel.getSemestre()));
                 chkActivo.setSelected(sel.isActivo());
                 txtProfesorId.setText(sel.getProfesorId()==null? "" : Double.toString(sel.getProfesorId()));
+                mostrarPeriodos(sel.getId());
             }
         });
 
-        recargar();
+        Instantanea snap = Instantanea.deArranque();
+        if (snap != null){ // vigente: sin consulta al arrancar, y lo posterior a la copia llega como cambio
+            Map<Integer, Integer> inscritos = snap.inscritosPorCurso();
+            filas.aplicar(snap.cursos().stream().map(c -> new Row(c.id(), c.nombre(), c.semestre(), c.activo()!=null && c.activo(),
+                    c.profesorId(), inscritos.getOrDefault(c.id(), 0))).toList());
+            estado("Datos de la instantánea local");
+            bd.seguir(filas, EnumSet.of(Cambio.Tabla.CURSO, Cambio.Tabla.INSCRIPCION), snap.secuencia(), Cambio.Tabla.CURSO,
+                    Cambio::cursoId, CursoController::leerPorId, this::recargar);
+        } else {
+            recargar();
+            // las inscripciones propias sí se releen: cambian la columna de inscritos
+            bd.seguir(filas, EnumSet.of(Cambio.Tabla.CURSO, Cambio.Tabla.INSCRIPCION), Cambio.Tabla.CURSO,
+                    Cambio::cursoId, CursoController::leerPorId, this::recargar);
+        }
     }
 
     // ---- Acciones ----
     @FXML private void onCrearActualizar(ActionEvent e){
         Row r = leer();
         if (r == null) return;
+        int id = r.getId(); String nombre = r.getNombre(); boolean activo = r.isActivo();
+        int semestre = r.getSemestre(); Double profesor = r.getProfesorId();
 
-        String sql = "MERGE INTO CURSO (ID,NOMBRE,ACTIVO,SEMESTRE,PROFESOR_ID) KEY(ID) VALUES (?,?,?,?,?)";
-        try (Connection con = H2DB.getConnection();
-             PreparedStatement ps = con.prepareStatement(sql)){
-            ps.setInt(1, r.getId());
-            ps.setString(2, r.getNombre());
-            ps.setBoolean(3, r.isActivo());
-            ps.setInt(4, r.getSemestre());
-            if (r.getProfesorId()==null) ps.setNull(5, Types.DOUBLE); else ps.setDouble(5, r.getProfesorId());
-            ps.executeUpdate();
+        bd.ejecutar("Guardando curso", () -> {
+            String sql = "MERGE INTO CURSO (ID,NOMBRE,ACTIVO,SEMESTRE,PROFESOR_ID) KEY(ID) VALUES (?,?,?,?,?)";
+            try (Connection con = H2DB.getConnection();
+                 PreparedStatement ps = con.prepareStatement(sql)){
+                ps.setInt(1, id);
+                ps.setString(2, nombre);
+                ps.setBoolean(3, activo);
+                ps.setInt(4, semestre);
+                if (profesor==null) ps.setNull(5, Types.DOUBLE); else ps.setDouble(5, profesor);
+                ps.executeUpdate();
+                CacheMetadatos.invalidarCurso(id);
+            }
+            return null;
+        }).whenComplete((v, ex) -> {
+            if (ex != null){ error("Error guardando curso: " + ex.getMessage()); return; }
+            Row previa = filas.buscar(id);
+            filas.poner(new Row(id, nombre, semestre, activo, profesor, previa == null ? 0 : previa.getInscritos()));
             info("Curso guardado.");
-            recargar();
+            relanzarRecarga();
             onLimpiar(null);
-        } catch (SQLException ex){
-            error("Error guardando curso: " + ex.getMessage());
-        }
+        });
     }
 
     @FXML private void onEliminar(ActionEvent e){
         Row sel = tabla.getSelectionModel().getSelectedItem();
         if (sel==null){ error("Selecciona un curso para eliminar."); return; }
-        String sql = "DELETE FROM CURSO WHERE ID=?";
-        try (Connection con = H2DB.getConnection(); PreparedStatement ps = con.prepareStatement(sql)){
-            ps.setInt(1, sel.getId());
-            int n = ps.executeUpdate();
+        int id = sel.getId();
+        bd.ejecutar("Eliminando curso", () -> {
+            try (Connection con = H2DB.getConnection(); PreparedStatement ps = con.prepareStatement("DELETE FROM CURSO WHERE ID=?")){
+                ps.setInt(1, id);
+                int n = ps.executeUpdate();
+                CacheMetadatos.invalidarCurso(id);
+                return n;
+            }
+        }).whenComplete((n, ex) -> {
+            if (ex != null){ error(Migraciones.violaLlaveForanea(ex) ? "El curso tiene inscripciones; elimínalas antes de borrarlo." : "Error eliminando curso: " + ex.getMessage()); return; }
+            filas.quitar(id); // si n==0 la fila ya no existía en la base
             if (n==0) info("No se eliminó ningún registro.");
             else info("Curso eliminado.");
-            recargar(); onLimpiar(null);
-        } catch (SQLException ex){
-            error("Error eliminando curso: " + ex.getMessage());
-        }
+            relanzarRecarga(); onLimpiar(null);
+        });
     }
 
     @FXML private void onAsignarProfesor(ActionEvent e){
@@ -106,20 +152,30 @@ public class CursoController {
             try { prof = Double.parseDouble(s); }
             catch(Exception ex){ error("El campo 'Profesor ID' debe ser numérico o vacío para quitar la asignación."); return; }
         }
-        String sql = "UPDATE CURSO SET PROFESOR_ID=? WHERE ID=?";
-        try (Connection con = H2DB.getConnection(); PreparedStatement ps = con.prepareStatement(sql)){
-            if (prof==null) ps.setNull(1, Types.DOUBLE); else ps.setDouble(1, prof);
-            ps.setInt(2, sel.getId());
-            ps.executeUpdate();
-            info(prof==null? "Profesor desasignado." : ("Profesor "+prof+" asignado."));
-            recargar();
-        } catch (SQLException ex){
-            error("Error asignando profesor: " + ex.getMessage());
-        }
+        int id = sel.getId();
+        Double profesor = prof;
+        bd.ejecutar("Asignando profesor", () -> {
+            try (Connection con = H2DB.getConnection(); PreparedStatement ps = con.prepareStatement("UPDATE CURSO SET PROFESOR_ID=? WHERE ID=?")){
+                if (profesor==null) ps.setNull(1, Types.DOUBLE); else ps.setDouble(1, profesor);
+                ps.setInt(2, id);
+                ps.executeUpdate();
+                CacheMetadatos.invalidarCurso(id);
+            }
+            return null;
+        }).whenComplete((v, ex) -> {
+            if (ex != null){ error("Error asignando profesor: " + ex.getMessage()); return; }
+            if (filas.buscar(id) != null) filas.buscar(id).profesorIdProperty().set(profesor);
+            info(profesor==null? "Profesor desasignado." : ("Profesor "+profesor+" asignado."));
+            relanzarRecarga();
+        });
     }
 
     @FXML private void onRecargar(ActionEvent e){ recargar(); }
 
+    @FXML private void onImportar(ActionEvent e){
+        ImportacionUI.importar((Node) e.getSource(), Catalogo.CURSO, lblEstado, barraProgreso, this::recargar);
+    }
+
     @FXML private void onLimpiar(ActionEvent e){
         txtId.clear(); txtNombre.clear(); txtSemestre.clear(); chkActivo.setSelected(false); txtProfesorId.clear();
         tabla.getSelectionModel().clearSelection();
@@ -127,24 +183,64 @@ public class CursoController {
 
     // ---- Carga ----
     private void recargar(){
-        datos.clear();
-        String sql = "SELECT c.ID,c.NOMBRE,c.SEMESTRE,c.ACTIVO,c.PROFESOR_ID," +
-                     " (SELECT COUNT(*) FROM INSCRIPCION i WHERE i.CURSO_ID=c.ID) AS INSCRITOS " +
-                     "FROM CURSO c ORDER BY c.ID";
-        try (Connection con = H2DB.getConnection(); PreparedStatement ps = con.prepareStatement(sql); ResultSet rs = ps.executeQuery()){
-            while (rs.next()){
-                int id = rs.getInt(1);
-                String nombre = rs.getString(2);
-                int sem = rs.getInt(3);
-                boolean act = rs.getBoolean(4);
-                Double pro = rs.getObject(5)==null ? null : rs.getDouble(5);
-                int ins = rs.getInt(6);
-                datos.add(new Row(id, nombre, sem, act, pro, ins));
+        bd.recargar("Cargando cursos", CursoController::leerCursos,
+                leidas -> { filas.aplicar(leidas); estado("Datos recargados"); },
+                ex -> error("Error listando cursos: " + ex.getMessage()));
+    }
+
+    /** Una recarga lanzada antes de la escritura traería la fila vieja: se relanza. */
+    private void relanzarRecarga(){
+        if (bd.recargando()) recargar();
+    }
+
+    private static final String SQL_CURSOS = "SELECT c.ID,c.NOMBRE,c.SEMESTRE,c.ACTIVO,c.PROFESOR_ID," +
+            " COALESCE(k.INSCRITOS,0) AS INSCRITOS " + // contador materializado, no COUNT por curso
+            "FROM CURSO c LEFT JOIN CONTEO_CURSO k ON k.CURSO_ID=c.ID";
+
+    private static List<Row> leerCursos(AccesoAsincrono.Recarga recarga) throws SQLException {
+        List<Row> filas = new ArrayList<>();
+        try (Connection con = H2DB.getConnection(); PreparedStatement ps = con.prepareStatement(SQL_CURSOS + " ORDER BY c.ID")){
+            recarga.registrar(ps);
+            try (ResultSet rs = ps.executeQuery()){
+                while (rs.next() && !recarga.cancelada()) filas.add(leerFila(rs));
+            }
+        }
+        return filas;
+    }
+
+    /** Solo los cursos de {@code ids}: cambiados en otra instancia o con inscripciones nuevas o borradas. */
+    private static List<Row> leerPorId(Collection<Integer> ids) throws SQLException {
+        List<Row> filas = new ArrayList<>();
+        try (Connection con = H2DB.getConnection(); PreparedStatement ps = con.prepareStatement(SQL_CURSOS + " WHERE c.ID = ANY(?)")){
+            ps.setObject(1, ids.toArray());
+            try (ResultSet rs = ps.executeQuery()){
+                while (rs.next()) filas.add(leerFila(rs));
             }
-            estado("Datos recargados");
-        } catch (SQLException ex){
-            error("Error listando cursos: " + ex.getMessage());
         }
+        return filas;
+    }
+
+    private static Row leerFila(ResultSet rs) throws SQLException {
+        int id = rs.getInt(1);
+        String nombre = rs.getString(2);
+        int sem = rs.getInt(3);
+        boolean act = rs.getBoolean(4);
+        Double pro = rs.getObject(5)==null ? null : rs.getDouble(5);
+        int ins = rs.getInt(6);
+        return new Row(id, nombre, sem, act, pro, ins);
+    }
+
+    /** Desglose de inscritos por año/semestre del curso seleccionado, en la barra de estado. */
+    private void mostrarPeriodos(int cursoId){
+        bd.ejecutar("Leyendo inscritos por periodo", () -> conteos.porPeriodo(cursoId)).whenComplete((periodos, ex) -> {
+            Row sel = tabla.getSelectionModel().getSelectedItem();
+            if (sel == null || sel.getId() != cursoId) return; // la selección ya cambió
+            if (ex != null) { estado("No se pudo leer el desglose por periodo"); return; }
+            if (periodos.isEmpty()) { estado("Curso " + cursoId + " sin inscritos"); return; }
+            StringBuilder sb = new StringBuilder("Inscritos por periodo:");
+            for (ConteoDAO.Periodo p : periodos) sb.append("  ").append(p.anio()).append('-').append(p.semestre()).append(": ").append(p.inscritos());
+            estado(sb.toString());
+        });
     }
 
     // ---- Validación ----
@@ -159,7 +255,7 @@ public class CursoController {
         int semestre;
         try { semestre = Integer.parseInt(txtSemestre.getText().trim()); }
         catch(Exception ex){ error("El campo 'Semestre' debe ser entero (1..12)."); return null; }
-        if (semestre<1 || semestre>12){ error("El 'Semestre' debe estar entre 1 y 12."); return null; }
+        if (!Validaciones.semestreValido(semestre)){ error("El 'Semestre' debe estar entre 1 y 12."); return null; }
 
         Double profesor = null;
         String s = txtProfesorId.getText().trim();
@@ -214,5 +310,14 @@ public class CursoController {
         public boolean isActivo(){ return activo.get(); }
         public Double getProfesorId(){ return profesorId.get(); }
         public int getInscritos(){ return inscritos.get(); }
+
+        /** Copia en {@code destino} lo leído en {@code origen}; las propiedades iguales no notifican. */
+        static void copiar(Row destino, Row origen){
+            destino.nombre.set(origen.getNombre());
+            destino.semestre.set(origen.getSemestre());
+            destino.activo.set(origen.isActivo());
+            if (!Objects.equals(destino.getProfesorId(), origen.getProfesorId())) destino.profesorId.set(origen.getProfesorId());
+            destino.inscritos.set(origen.getInscritos());
+        }
     }
 }
@@ -0,0 +1,96 @@
+package edu.universidad.ui; // UI Estadísticas
+
+import edu.universidad.analitica.CatalogoAnalitico;
+import edu.universidad.analitica.Estadisticas;
+import edu.universidad.analitica.Estadisticas.Dimension;
+import edu.universidad.analitica.Estadisticas.Grupo;
+import edu.universidad.analitica.InscripcionesColumnares;
+import edu.universidad.analitica.MotorEstadisticas;
+import edu.universidad.persistence.Cambio;
+import edu.universidad.persistence.InscripcionDAO;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.beans.property.ReadOnlyStringWrapper;
+import javafx.collections.FXCollections;
+import javafx.event.ActionEvent;
+import javafx.fxml.FXML;
+import javafx.scene.control.*;
+
+import java.util.EnumSet;
+
+/**
+ * Agregados de inscripciones por curso, semestre, año o programa (si hay). El cálculo
+ * (lectura de la base a columnas y pasada fork/join de MotorEstadisticas)
+ * corre fuera del hilo FX; cambiar la dimensión solo cambia la tabla. Si
+ * otra pestaña o instancia escribe, el resultado se marca como desactualizado
+ * en lugar de recalcular por cada lote de cambios.
+ */
+public class EstadisticasController {
+
+    @FXML private ComboBox<Dimension> cmbDimension;
+    @FXML private TableView<Grupo> tabla;
+    @FXML private TableColumn<Grupo, String> colClave;
+    @FXML private TableColumn<Grupo, Number> colInscritos;
+    @FXML private TableColumn<Grupo, String> colPromedio;
+    @FXML private TableColumn<Grupo, Number> colAnomalias;
+    @FXML private TableColumn<Grupo, String> colOcupacion;
+    @FXML private Label lblResumen;
+    @FXML private Label lblEstado;
+
+    private AccesoAsincrono bd; // necesita lblEstado, se crea en initialize
+    private Estadisticas actual;
+
+    @FXML
+    private void initialize(){
+        bd = new AccesoAsincrono(lblEstado);
+        colClave.setCellValueFactory(c -> new ReadOnlyStringWrapper(c.getValue().clave()));
+        colInscritos.setCellValueFactory(c -> new ReadOnlyObjectWrapper<>(c.getValue().inscripciones()));
+        colPromedio.setCellValueFactory(c -> new ReadOnlyStringWrapper(Estadisticas.decimal(c.getValue().promedio())));
+        colAnomalias.setCellValueFactory(c -> new ReadOnlyObjectWrapper<>(c.getValue().anomalias()));
+        colOcupacion.setCellValueFactory(c -> new ReadOnlyStringWrapper(Estadisticas.porcentaje(c.getValue().ocupacion())));
+        cmbDimension.setItems(FXCollections.observableArrayList(Dimension.CURSO)); // el resto al calcular
+        cmbDimension.getSelectionModel().select(Dimension.CURSO);
+        cmbDimension.valueProperty().addListener((o, old, d) -> mostrar());
+
+        calcular();
+        bd.alCambiar(EnumSet.of(Cambio.Tabla.INSCRIPCION, Cambio.Tabla.ESTUDIANTE, Cambio.Tabla.CURSO), () -> {
+            if (actual != null) estado("Hay cambios en la base: pulsa Calcular para actualizar.");
+        });
+    }
+
+    @FXML private void onCalcular(ActionEvent e){ calcular(); }
+
+    private void calcular(){
+        bd.recargar("Calculando estadísticas", r -> calcularDesdeBase(),
+                est -> { actual = est; dimensiones(); mostrar(); estado("Estadísticas actualizadas."); },
+                ex -> error("Error calculando estadísticas: " + ex.getMessage()));
+    }
+
+    /** Corre en un hilo virtual; la pasada en sí usa el pool común de fork/join. */
+    private static Estadisticas calcularDesdeBase(){
+        CatalogoAnalitico catalogo = CatalogoAnalitico.desdeBase();
+        InscripcionesColumnares datos = InscripcionesColumnares.desdeBase(new InscripcionDAO());
+        return new MotorEstadisticas(catalogo).calcular(datos);
+    }
+
+    /** Solo las dimensiones calculadas: PROGRAMA no aparece si ningún estudiante tiene programa. */
+    private void dimensiones(){
+        Dimension d = cmbDimension.getValue();
+        cmbDimension.getItems().setAll(actual.dimensiones());
+        cmbDimension.getSelectionModel().select(actual.dimensiones().contains(d) ? d : Dimension.CURSO);
+    }
+
+    private void mostrar(){
+        Dimension d = cmbDimension.getValue();
+        if (actual == null || d == null || actual.grupos(d) == null) return;
+        colOcupacion.setVisible(d == Dimension.CURSO);
+        tabla.setItems(FXCollections.observableArrayList(actual.grupos(d)));
+        lblResumen.setText(actual.resumen());
+    }
+
+    private void error(String m){
+        Alert a = new Alert(Alert.AlertType.ERROR);
+        a.setHeaderText(null); a.setTitle(null); a.setContentText(m);
+        a.getDialogPane().setGraphic(null); a.showAndWait();
+    }
+    private void estado(String m){ if (lblEstado!=null) lblEstado.setText(m); }
+}
@@ -1,15 +1,26 @@
 package edu.universidad.ui; // controlador de Estudiantes (CRUD)
 
+import edu.universidad.importacion.Catalogo; // importación masiva
 import edu.universidad.model.Estudiante; // modelo (para compatibilidad)
+import edu.universidad.model.Validaciones; // reglas compartidas con la importación
+import edu.universidad.persistence.CacheMetadatos; // invalidación tras escribir
+import edu.universidad.persistence.Cambio;
 import edu.universidad.persistence.H2DB;  // conexión a H2
+import edu.universidad.persistence.Migraciones;
+import edu.universidad.persistence.Instantanea; // arranque sin consulta
 import javafx.beans.property.*;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
+import javafx.scene.Node;
 import javafx.scene.control.*;
 
 import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
 
 /** Controlador de CRUD de estudiantes con semestre y validaciones. */
 public class EstudianteController {
@@ -34,11 +45,15 @@ public class EstudianteController {
     @FXML private TableColumn<Row, Boolean> colActivo;
 
     @FXML private Label lblEstado;
+    @FXML private ProgressBar barraProgreso;
 
     private final ObservableList<Row> datos = FXCollections.observableArrayList();
+    private AccesoAsincrono bd; // necesita lblEstado, se crea en initialize
+    private FilasIndexadas<Double, Row> filas;
 
     @FXML
     private void initialize(){
+        bd = new AccesoAsincrono(lblEstado);
         colCodigo.setCellValueFactory(c -> c.getValue().codigoProperty());
         colNombres.setCellValueFactory(c -> c.getValue().nombresProperty());
         colApellidos.setCellValueFactory(c -> c.getValue().apellidosProperty());
@@ -48,6 +63,7 @@ public class EstudianteController {
         colActivo.setCellValueFactory(c -> c.getValue().activoProperty());
 
         tabla.setItems(datos);
+        filas = new FilasIndexadas<>(tabla, datos, Row::getCodigo, Row::copiar);
 
         tabla.getSelectionModel().selectedItemProperty().addListener((o,old,sel)->{
             if (sel!=null){
@@ -61,7 +77,23 @@ public class EstudianteController {
             }
         });
 
-        recargar();
+        Instantanea snap = Instantanea.deArranque();
+        if (snap != null){ // vigente: sin consulta al arrancar, y lo posterior a la copia llega como cambio
+            filas.aplicar(snap.estudiantes().stream().map(EstudianteController::fila).toList());
+            estado("Datos de la instantánea local");
+            bd.seguir(filas, EnumSet.of(Cambio.Tabla.ESTUDIANTE), snap.secuencia(), Cambio.Tabla.ESTUDIANTE,
+                    Cambio::codigo, EstudianteController::leerPorCodigo, this::recargar);
+        } else {
+            recargar();
+            bd.seguir(filas, EnumSet.of(Cambio.Tabla.ESTUDIANTE), Cambio.Tabla.ESTUDIANTE, // las propias ya se parchearon
+                    Cambio::codigo, EstudianteController::leerPorCodigo, this::recargar);
+        }
+    }
+
+    /** Mismos valores que leerEstudiantes (NULL como 0 / false). */
+    private static Row fila(Instantanea.FilaEstudiante e){
+        return new Row(e.codigo(), e.nombres(), e.apellidos(), e.email(),
+                e.promedio()==null ? 0.0 : e.promedio(), e.semestre(), e.activo()!=null && e.activo());
     }
 
     // ---- Acciones ----
@@ -71,41 +103,53 @@ public class EstudianteController {
     @FXML private void onCrearActualizar(ActionEvent e){
         Row r = leer();
         if (r == null) return;
+        double codigo = r.getCodigo(); String nombres = r.getNombres(), apellidos = r.getApellidos(), email = r.getEmail();
+        double promedio = r.getPromedio(); int semestre = r.getSemestre(); boolean activo = r.isActivo();
 
-        String sql = "MERGE INTO ESTUDIANTE (CODIGO,NOMBRES,APELLIDOS,EMAIL,PROMEDIO,SEMESTRE,ACTIVO) KEY(CODIGO) VALUES (?,?,?,?,?,?,?)";
-        try (Connection con = H2DB.getConnection();
-             PreparedStatement ps = con.prepareStatement(sql)){
-            ps.setDouble(1, r.getCodigo());
-            ps.setString(2, r.getNombres());
-            ps.setString(3, r.getApellidos());
-            ps.setString(4, r.getEmail());
-            ps.setDouble(5, r.getPromedio());
-            ps.setInt(6, r.getSemestre());
-            ps.setBoolean(7, r.isActivo());
-            ps.executeUpdate();
+        bd.ejecutar("Guardando estudiante", () -> {
+            String sql = "MERGE INTO ESTUDIANTE (CODIGO,NOMBRES,APELLIDOS,EMAIL,PROMEDIO,SEMESTRE,ACTIVO) KEY(CODIGO) VALUES (?,?,?,?,?,?,?)";
+            try (Connection con = H2DB.getConnection();
+                 PreparedStatement ps = con.prepareStatement(sql)){
+                ps.setDouble(1, codigo);
+                ps.setString(2, nombres);
+                ps.setString(3, apellidos);
+                ps.setString(4, email);
+                ps.setDouble(5, promedio);
+                ps.setInt(6, semestre);
+                ps.setBoolean(7, activo);
+                ps.executeUpdate();
+                CacheMetadatos.invalidarEstudiante(codigo);
+            }
+            return null;
+        }).whenComplete((v, ex) -> {
+            if (ex != null){ error("Error guardando: " + ex.getMessage()); return; }
+            filas.poner(r);
             info("Estudiante guardado.");
-            recargar();
+            relanzarRecarga();
             onLimpiar(null);
-        } catch (SQLException ex){
-            error("Error guardando: " + ex.getMessage());
-        }
+        });
     }
 
     @FXML private void onEliminar(ActionEvent e){
         Row sel = tabla.getSelectionModel().getSelectedItem();
         if (sel == null){ error("Selecciona una fila para eliminar."); return; }
-        String sql = "DELETE FROM ESTUDIANTE WHERE CODIGO=?";
-        try (Connection con = H2DB.getConnection();
-             PreparedStatement ps = con.prepareStatement(sql)){
-            ps.setDouble(1, sel.getCodigo());
-            int n = ps.executeUpdate();
+        double codigo = sel.getCodigo();
+        bd.ejecutar("Eliminando estudiante", () -> {
+            try (Connection con = H2DB.getConnection();
+                 PreparedStatement ps = con.prepareStatement("DELETE FROM ESTUDIANTE WHERE CODIGO=?")){
+                ps.setDouble(1, codigo);
+                int n = ps.executeUpdate();
+                CacheMetadatos.invalidarEstudiante(codigo);
+                return n;
+            }
+        }).whenComplete((n, ex) -> {
+            if (ex != null){ error(Migraciones.violaLlaveForanea(ex) ? "El estudiante tiene inscripciones; elimínalas antes de borrarlo." : "Error eliminando: "+ex.getMessage()); return; }
+            filas.quitar(codigo); // si n==0 la fila ya no existía en la base
             if (n==0) info("No se eliminó ningún registro.");
             else info("Estudiante eliminado.");
-            recargar();
+            relanzarRecarga();
             onLimpiar(null);
-        } catch (SQLException ex){
-            error("Error eliminando: "+ex.getMessage());
-        }
+        });
     }
 
     @FXML private void onLimpiar(ActionEvent e){
@@ -116,26 +160,57 @@ public class EstudianteController {
 
     @FXML private void onRecargar(ActionEvent e){ recargar(); }
 
+    @FXML private void onImportar(ActionEvent e){
+        ImportacionUI.importar((Node) e.getSource(), Catalogo.ESTUDIANTE, lblEstado, barraProgreso, this::recargar);
+    }
+
     private void recargar(){
-        datos.clear();
-        String sql = "SELECT CODIGO,NOMBRES,APELLIDOS,EMAIL,PROMEDIO,SEMESTRE,ACTIVO FROM ESTUDIANTE";
+        bd.recargar("Cargando estudiantes", EstudianteController::leerEstudiantes,
+                leidas -> { filas.aplicar(leidas); estado("Datos recargados"); },
+                ex -> error("Error listando estudiantes: " + ex.getMessage()));
+    }
+
+    /** Una recarga lanzada antes de la escritura traería la fila vieja: se relanza. */
+    private void relanzarRecarga(){
+        if (bd.recargando()) recargar();
+    }
+
+    private static final String SQL_ESTUDIANTES = "SELECT CODIGO,NOMBRES,APELLIDOS,EMAIL,PROMEDIO,SEMESTRE,ACTIVO FROM ESTUDIANTE";
+
+    private static List<Row> leerEstudiantes(AccesoAsincrono.Recarga recarga) throws SQLException {
+        List<Row> filas = new ArrayList<>();
         try (Connection con = H2DB.getConnection();
-             PreparedStatement ps = con.prepareStatement(sql);
-             ResultSet rs = ps.executeQuery()){
-            while (rs.next()){
-                double codigo = rs.getDouble(1);
-                String nombres = rs.getString(2);
-                String apellidos = rs.getString(3);
-                String email = rs.getString(4);
-                double promedio = rs.getDouble(5);
-                int semestre = rs.getInt(6);
-                boolean activo = rs.getBoolean(7);
-                datos.add(new Row(codigo, nombres, apellidos, email, promedio, semestre, activo));
+             PreparedStatement ps = con.prepareStatement(SQL_ESTUDIANTES + " ORDER BY CODIGO")){
+            recarga.registrar(ps);
+            try (ResultSet rs = ps.executeQuery()){
+                while (rs.next() && !recarga.cancelada()) filas.add(leerFila(rs));
             }
-            estado("Datos recargados");
-        } catch (SQLException ex){
-            error("Error listando estudiantes: " + ex.getMessage());
         }
+        return filas;
+    }
+
+    /** Solo los estudiantes de {@code codigos} (los cambiados en otra instancia). */
+    private static List<Row> leerPorCodigo(Collection<Double> codigos) throws SQLException {
+        List<Row> filas = new ArrayList<>();
+        try (Connection con = H2DB.getConnection();
+             PreparedStatement ps = con.prepareStatement(SQL_ESTUDIANTES + " WHERE CODIGO = ANY(?)")){
+            ps.setObject(1, codigos.toArray());
+            try (ResultSet rs = ps.executeQuery()){
+                while (rs.next()) filas.add(leerFila(rs));
+            }
+        }
+        return filas;
+    }
+
+    private static Row leerFila(ResultSet rs) throws SQLException {
+        double codigo = rs.getDouble(1);
+        String nombres = rs.getString(2);
+        String apellidos = rs.getString(3);
+        String email = rs.getString(4);
+        double promedio = rs.getDouble(5);
+        int semestre = rs.getInt(6);
+        boolean activo = rs.getBoolean(7);
+        return new Row(codigo, nombres, apellidos, email, promedio, semestre, activo);
     }
 
     // ---- Validación de formulario ----
@@ -153,19 +228,19 @@ public class EstudianteController {
 
         if (nombres.isBlank()) { error("El campo 'Nombres' es obligatorio."); return null; }
         if (apellidos.isBlank()) { error("El campo 'Apellidos' es obligatorio."); return null; }
-        if (!email.isBlank() && !email.matches("^.+@.+\\..+$")) { error("El campo 'Email' no tiene un formato válido."); return null; }
+        if (!Validaciones.emailValido(email)) { error("El campo 'Email' no tiene un formato válido."); return null; }
 
         double prom = 0.0;
         if (!promTxt.isBlank()) {
             try { prom = Double.parseDouble(promTxt); }
             catch(Exception ex){ error("El campo 'Promedio' debe ser numérico (ej. 4.5)."); return null; }
-            if (prom < 0 || prom > 5) { error("El 'Promedio' debe estar entre 0 y 5."); return null; }
+            if (!Validaciones.promedioValido(prom)) { error("El 'Promedio' debe estar entre 0 y 5."); return null; }
         }
 
         int semestre;
         try { semestre = Integer.parseInt(semTxt); }
         catch(Exception ex){ error("El campo 'Semestre' debe ser un entero (1..12)."); return null; }
-        if (semestre < 1 || semestre > 12) { error("El 'Semestre' debe estar entre 1 y 12."); return null; }
+        if (!Validaciones.semestreValido(semestre)) { error("El 'Semestre' debe estar entre 1 y 12."); return null; }
 
         boolean __activo = (chkActivo != null) && chkActivo.isSelected(); return new Row(codigo, nombres, apellidos, email, prom, semestre, __activo);
     }
@@ -219,5 +294,15 @@ public class EstudianteController {
         public double getPromedio(){ return promedio.get(); }
         public int getSemestre(){ return semestre.get(); }
         public boolean isActivo(){ return activo.get(); }
+
+        /** Copia en {@code destino} lo leído en {@code origen}; las propiedades iguales no notifican. */
+        static void copiar(Row destino, Row origen){
+            destino.nombres.set(origen.getNombres());
+            destino.apellidos.set(origen.getApellidos());
+            destino.email.set(origen.getEmail());
+            destino.promedio.set(origen.getPromedio());
+            destino.semestre.set(origen.getSemestre());
+            destino.activo.set(origen.isActivo());
+        }
     }
 }
@@ -0,0 +1,156 @@
+package edu.universidad.ui; // refresco incremental de las tablas
+
+import javafx.collections.ObservableList;
+import javafx.scene.control.IndexedCell;
+import javafx.scene.control.TableView;
+import javafx.scene.control.skin.VirtualFlow;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Filas de una TableView indexadas por su clave (CODIGO, ID o
+ * CURSO_ID+ESTUDIANTE_CODIGO). En vez de vaciar la lista y volver a llenarla,
+ * {@link #aplicar} compara lo leído con lo que ya se muestra y solo quita,
+ * inserta o actualiza propiedades en sitio; así las celdas sin cambios no se
+ * vuelven a pintar y la selección y el desplazamiento se conservan.
+ * Tras una escritura local, {@link #poner} y {@link #quitar} parchean la
+ * fila conocida sin consultar la base; los cambios de otras instancias
+ * llegan por {@link #actualizar}, releyendo solo las claves afectadas.
+ *
+ * Solo se usa desde el hilo FX.
+ */
+final class FilasIndexadas<K extends Comparable<? super K>, R> {
+
+    /** Más tramos de inserción que esto y se reconstruye la lista de una vez. */
+    private static final int MAX_TRAMOS = 32;
+
+    private final TableView<R> tabla;
+    private final ObservableList<R> filas;
+    private final Function<R, K> clave;
+    private final BiConsumer<R, R> copiar; // (destino, origen): solo propiedades que cambian
+    private final Map<K, R> indice = new HashMap<>();
+
+    FilasIndexadas(TableView<R> tabla, ObservableList<R> filas, Function<R, K> clave, BiConsumer<R, R> copiar) {
+        this.tabla = tabla;
+        this.filas = filas;
+        this.clave = clave;
+        this.copiar = copiar;
+        filas.forEach(r -> indice.put(clave.apply(r), r));
+    }
+
+    R buscar(K k) {
+        return indice.get(k);
+    }
+
+    /**
+     * Deja la tabla igual a {@code nuevas} (en orden de clave). Las filas que
+     * siguen existiendo conservan su objeto y su posición; las nuevas se
+     * insertan detrás de la fila que las precede en {@code nuevas}.
+     */
+    void aplicar(List<R> nuevas) {
+        Map<K, R> leidas = new HashMap<>(nuevas.size() * 4 / 3 + 1);
+        for (R n : nuevas) leidas.put(clave.apply(n), n);
+
+        Set<R> sobran = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (R r : filas) {
+            K k = clave.apply(r);
+            R n = leidas.get(k);
+            if (n == null) { sobran.add(r); indice.remove(k); }
+            else copiar.accept(r, n);
+        }
+        if (!sobran.isEmpty()) filas.removeAll(sobran); // un solo cambio para toda la lista
+
+        // tramos de filas nuevas agrupados por la fila existente que los precede (null = al principio)
+        Map<R, List<R>> tramos = new LinkedHashMap<>();
+        R ancla = null;
+        List<R> tramo = null;
+        for (R n : nuevas) {
+            R existente = indice.get(clave.apply(n));
+            if (existente != null) { ancla = existente; tramo = null; continue; }
+            if (tramo == null) { tramo = new ArrayList<>(); tramos.put(ancla, tramo); }
+            tramo.add(n);
+        }
+        if (tramos.isEmpty()) { reordenar(); return; }
+
+        if (tramos.size() > MAX_TRAMOS) { reconstruir(nuevas); return; }
+        for (Map.Entry<R, List<R>> t : tramos.entrySet()) {
+            int pos = t.getKey() == null ? 0 : filas.indexOf(t.getKey()) + 1; // Row no redefine equals: identidad
+            filas.addAll(pos, t.getValue());
+            for (R n : t.getValue()) indice.put(clave.apply(n), n);
+        }
+        reordenar();
+    }
+
+    /** Inserta la fila en orden de clave o actualiza en sitio la que tenga la misma clave. */
+    void poner(R fila) {
+        K k = clave.apply(fila);
+        R existente = indice.get(k);
+        if (existente != null) { copiar.accept(existente, fila); return; }
+        int pos = 0;
+        while (pos < filas.size() && clave.apply(filas.get(pos)).compareTo(k) < 0) pos++;
+        filas.add(pos, fila);
+        indice.put(k, fila);
+        reordenar();
+    }
+
+    void quitar(K k) {
+        R r = indice.remove(k);
+        if (r != null) filas.remove(r);
+    }
+
+    /**
+     * Parchea solo las filas de {@code claves} con lo que se releyó de ellas:
+     * las que vinieron en {@code leidas} se ponen y las demás ya no existen.
+     */
+    void actualizar(Collection<K> claves, List<R> leidas) {
+        Set<K> vistas = new HashSet<>();
+        for (R r : leidas) {
+            poner(r);
+            vistas.add(clave.apply(r));
+        }
+        for (K k : claves) if (!vistas.contains(k)) quitar(k);
+    }
+
+    /** Si el usuario ordenó por alguna columna, las filas insertadas toman su sitio. */
+    private void reordenar() {
+        if (!tabla.getSortOrder().isEmpty()) tabla.sort();
+    }
+
+    /** Demasiados tramos sueltos (p. ej. tras importar): un setAll, restaurando selección y desplazamiento. */
+    private void reconstruir(List<R> nuevas) {
+        R seleccionada = tabla.getSelectionModel().getSelectedItem();
+        K claveSel = seleccionada == null ? null : clave.apply(seleccionada);
+        K clavePrimera = primeraVisible();
+
+        List<R> resultado = new ArrayList<>(nuevas.size());
+        for (R n : nuevas) {
+            R existente = indice.get(clave.apply(n));
+            resultado.add(existente != null ? existente : n);
+        }
+        indice.clear();
+        for (R r : resultado) indice.put(clave.apply(r), r);
+        filas.setAll(resultado);
+        reordenar();
+
+        if (claveSel != null && indice.containsKey(claveSel)) tabla.getSelectionModel().select(indice.get(claveSel));
+        if (clavePrimera != null && indice.containsKey(clavePrimera)) tabla.scrollTo(indice.get(clavePrimera));
+    }
+
+    private K primeraVisible() {
+        if (!(tabla.lookup(".virtual-flow") instanceof VirtualFlow<?> flujo)) return null;
+        IndexedCell<?> celda = flujo.getFirstVisibleCell();
+        if (celda == null || celda.getIndex() < 0 || celda.getIndex() >= filas.size()) return null;
+        return clave.apply(filas.get(celda.getIndex()));
+    }
+}
@@ -0,0 +1,73 @@
+package edu.universidad.ui; // acción "Importar CSV" compartida por las pestañas de catálogos
+
+import edu.universidad.importacion.Catalogo;
+import edu.universidad.importacion.ImportadorCSV;
+import edu.universidad.importacion.ResultadoImportacion;
+import javafx.application.Platform;
+import javafx.concurrent.Task;
+import javafx.scene.Node;
+import javafx.scene.control.Alert;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressBar;
+import javafx.stage.FileChooser;
+
+import java.io.File;
+
+/** Elige un CSV, lo importa en segundo plano y muestra el avance en la barra y la etiqueta de estado. */
+final class ImportacionUI {
+
+    private ImportacionUI() {}
+
+    static void importar(Node origen, Catalogo catalogo, Label estado, ProgressBar barra, Runnable alTerminar) {
+        FileChooser fc = new FileChooser();
+        fc.setTitle("Importar " + catalogo.name().toLowerCase() + " desde CSV");
+        fc.getExtensionFilters().add(new FileChooser.ExtensionFilter("CSV", "*.csv", "*.txt"));
+        File archivo = fc.showOpenDialog(origen.getScene().getWindow());
+        if (archivo == null) return;
+
+        Task<ResultadoImportacion> tarea = new Task<>() {
+            @Override
+            protected ResultadoImportacion call() throws Exception {
+                return new ImportadorCSV().importar(catalogo, archivo.toPath(), (leidos, total, ok, rech) -> {
+                    updateProgress(leidos, total);
+                    updateMessage("Importando " + archivo.getName() + ": " + ok + " aceptadas, " + rech + " rechazadas");
+                });
+            }
+        };
+        if (barra != null) { barra.setVisible(true); barra.progressProperty().bind(tarea.progressProperty()); }
+        tarea.messageProperty().addListener((o, old, m) -> { if (estado != null) estado.setText(m); });
+        origen.setDisable(true);
+
+        tarea.setOnSucceeded(ev -> {
+            terminar(origen, barra);
+            ResultadoImportacion r = tarea.getValue();
+            if (estado != null) estado.setText(r.aceptadas() + " filas importadas, " + r.rechazadas() + " rechazadas");
+            alerta(Alert.AlertType.INFORMATION, r.toString());
+            alTerminar.run();
+        });
+        tarea.setOnFailed(ev -> {
+            terminar(origen, barra);
+            Throwable ex = tarea.getException();
+            alerta(Alert.AlertType.ERROR, "Error importando: " + (ex.getMessage() != null ? ex.getMessage() : ex));
+            alTerminar.run(); // los bloques ya confirmados quedan en la base
+        });
+
+        Thread t = new Thread(tarea, "importar-" + catalogo.name().toLowerCase());
+        t.setDaemon(true);
+        t.start();
+    }
+
+    private static void terminar(Node origen, ProgressBar barra) {
+        origen.setDisable(false);
+        if (barra != null) { barra.progressProperty().unbind(); barra.setVisible(false); }
+    }
+
+    private static void alerta(Alert.AlertType tipo, String m) {
+        Platform.runLater(() -> {
+            Alert a = new Alert(tipo);
+            a.setHeaderText(null); a.setTitle(null);
+            a.setContentText(m); a.getDialogPane().setGraphic(null);
+            a.showAndWait();
+        });
+    }
+}
@@ -14,14 +14,26 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import edu.universidad.persistence.Cambio;
 import edu.universidad.persistence.H2DB; // conexión H2
+import edu.universidad.persistence.Instantanea;
+import edu.universidad.persistence.ResultadoInscripcion;
+import edu.universidad.persistence.ServicioInscripcion;
 
 /**
  * Reglas de negocio reforzadas:
  *  - El semestre de la inscripción SIEMPRE se toma del curso (ignora el del formulario).
  *  - Solo permite inscribir/actualizar si el curso está ACTIVO.
  *  - El semestre del estudiante debe coincidir con el del curso.
+ * Alta y actualización pasan por ServicioInscripcion (validación y escritura en una transacción).
+ * Todo el acceso a la base corre fuera del hilo FX con AccesoAsincrono.
  */
 public class InscripcionController {
 
@@ -41,14 +53,19 @@ public class InscripcionController {
     @FXML private Label lblEstado;
 
     private final ObservableList<Row> datos = FXCollections.observableArrayList();
+    private final ServicioInscripcion servicio = new ServicioInscripcion();
+    private AccesoAsincrono bd; // necesita lblEstado, se crea en initialize
+    private FilasIndexadas<Row.Clave, Row> filas;
 
     @FXML
     private void initialize() {
+        bd = new AccesoAsincrono(lblEstado);
         colCurso.setCellValueFactory(c -> c.getValue().cursoIdProperty());
         colCodigo.setCellValueFactory(c -> c.getValue().codigoProperty());
         colAnio.setCellValueFactory(c -> c.getValue().anioProperty());
         colSemestre.setCellValueFactory(c -> c.getValue().semestreProperty());
         tabla.setItems(datos);
+        filas = new FilasIndexadas<>(tabla, datos, Row::clave, Row::copiar);
 
         if (txtSemestre != null) txtSemestre.setEditable(false);
 
@@ -61,94 +78,72 @@ public class InscripcionController {
             }
         });
 
-        recargar(null);
+        Instantanea snap = Instantanea.deArranque();
+        if (snap != null) { // vigente: sin consulta al arrancar, y lo posterior a la copia llega como cambio
+            filas.aplicar(snap.inscripciones().stream().map(i -> new Row(i.cursoId(), i.codigo(), i.anio(), i.semestre())).toList());
+            estado("Datos de la instantánea local");
+            bd.seguir(filas, EnumSet.of(Cambio.Tabla.INSCRIPCION), snap.secuencia(), Cambio.Tabla.INSCRIPCION,
+                    c -> new Row.Clave(c.cursoId(), c.codigo()), InscripcionController::leerPorClave, () -> recargar(null));
+        } else {
+            recargar(null);
+            bd.seguir(filas, EnumSet.of(Cambio.Tabla.INSCRIPCION), Cambio.Tabla.INSCRIPCION, // las propias ya se parchearon
+                    c -> new Row.Clave(c.cursoId(), c.codigo()), InscripcionController::leerPorClave, () -> recargar(null));
+        }
     }
 
     // ===== Acciones =====
     @FXML
     private void onCrear(ActionEvent e) {
         Row r = leer(); if (r == null) return;
-
-        Integer sc = getSemestreCurso(r.getCursoId());
-        if (sc == null) { error("El curso " + r.getCursoId() + " no existe."); return; }
-
-        Boolean activo = isCursoActivo(r.getCursoId());
-        if (activo == null || !activo) { error("El curso " + r.getCursoId() + " no está activo. No es posible inscribir."); return; }
-
-        Integer se = getSemestreEst(r.getCodigo());
-        if (se == null) { error("El estudiante " + r.getCodigo() + " no existe."); return; }
-
-        if (!sc.equals(se)) {
-            error("Semestre distinto: curso=" + sc + " vs estudiante=" + se);
-            return;
-        }
-
-        final String sql = "MERGE INTO INSCRIPCION (CURSO_ID,ESTUDIANTE_CODIGO,ANIO,SEMESTRE) KEY(CURSO_ID,ESTUDIANTE_CODIGO) VALUES (?,?,?,?)";
-        try (Connection con = H2DB.getConnection(); PreparedStatement ps = con.prepareStatement(sql)) {
-            ps.setInt(1, r.getCursoId());
-            ps.setDouble(2, r.getCodigo());
-            ps.setInt(3, r.getAnio());
-            ps.setInt(4, sc); // semestre del CURSO
-            ps.executeUpdate();
+        int curso = r.getCursoId(); double codigo = r.getCodigo(); int anio = r.getAnio();
+        bd.ejecutar("Guardando inscripción", () -> servicio.inscribir(curso, codigo, anio)).whenComplete((res, ex) -> {
+            if (ex != null) { error("Error guardando inscripción: " + causa(ex)); return; }
+            if (!res.ok()) { error(mensaje(res, r, "inscribir")); return; }
+            filas.poner(new Row(curso, codigo, anio, res.semestreCurso()));
             info("Inscripción guardada.");
-            recargar(null);
+            relanzarRecarga();
             onLimpiar(null);
-        } catch (SQLException ex) {
-            error("Error guardando inscripción: " + ex.getMessage());
-        }
+        });
     }
 
     @FXML
     private void onActualizar(ActionEvent e) {
         Row r = leer(); if (r == null) return;
-
-        Integer sc = getSemestreCurso(r.getCursoId());
-        if (sc == null) { error("El curso " + r.getCursoId() + " no existe."); return; }
-
-        Boolean activo = isCursoActivo(r.getCursoId());
-        if (activo == null || !activo) { error("El curso " + r.getCursoId() + " no está activo. No es posible actualizar inscripciones."); return; }
-
-        Integer se = getSemestreEst(r.getCodigo());
-        if (se == null) { error("El estudiante " + r.getCodigo() + " no existe."); return; }
-
-        if (!sc.equals(se)) {
-            error("Semestre distinto: curso=" + sc + " vs estudiante=" + se);
-            return;
-        }
-
-        final String sql = "UPDATE INSCRIPCION SET ANIO=?, SEMESTRE=? WHERE CURSO_ID=? AND ESTUDIANTE_CODIGO=?";
-        try (Connection con = H2DB.getConnection(); PreparedStatement ps = con.prepareStatement(sql)) {
-            ps.setInt(1, r.getAnio());
-            ps.setInt(2, sc);                // semestre del CURSO
-            ps.setInt(3, r.getCursoId());
-            ps.setDouble(4, r.getCodigo());
-            int n = ps.executeUpdate();
-            if (n == 0) info("No se encontró la inscripción a actualizar.");
-            else info("Inscripción actualizada.");
-            recargar(null);
+        int curso = r.getCursoId(); double codigo = r.getCodigo(); int anio = r.getAnio();
+        bd.ejecutar("Actualizando inscripción", () -> servicio.actualizar(curso, codigo, anio)).whenComplete((res, ex) -> {
+            if (ex != null) { error("Error actualizando inscripción: " + causa(ex)); return; }
+            if (res.estado() == ResultadoInscripcion.Estado.NO_ENCONTRADA) info("No se encontró la inscripción a actualizar.");
+            else if (!res.ok()) { error(mensaje(res, r, "actualizar inscripciones")); return; }
+            else {
+                filas.poner(new Row(curso, codigo, anio, res.semestreCurso()));
+                info("Inscripción actualizada.");
+            }
+            relanzarRecarga();
             onLimpiar(null);
-        } catch (SQLException ex) {
-            error("Error actualizando inscripción: " + ex.getMessage());
-        }
+        });
     }
 
     @FXML
     private void onEliminar(ActionEvent e) {
         Row sel = tabla.getSelectionModel().getSelectedItem();
         if (sel == null) { error("Selecciona una fila para desinscribir."); return; }
-
-        final String sql = "DELETE FROM INSCRIPCION WHERE CURSO_ID=? AND ESTUDIANTE_CODIGO=?";
-        try (Connection con = H2DB.getConnection(); PreparedStatement ps = con.prepareStatement(sql)) {
-            ps.setInt(1, sel.getCursoId());
-            ps.setDouble(2, sel.getCodigo());
-            int n = ps.executeUpdate();
+        int curso = sel.getCursoId(); double codigo = sel.getCodigo();
+
+        bd.ejecutar("Desinscribiendo", () -> {
+            final String sql = "DELETE FROM INSCRIPCION WHERE CURSO_ID=? AND ESTUDIANTE_CODIGO=?";
+            try (Connection con = H2DB.getConnection(); PreparedStatement ps = con.prepareStatement(sql)) {
+                ps.setInt(1, curso);
+                ps.setDouble(2, codigo);
+                return ps.executeUpdate();
+            }
+        }).whenComplete((n, ex) -> {
+            if (ex != null) { error("Error desinscribiendo: " + ex.getMessage()); return; }
+            filas.quitar(new Row.Clave(curso, codigo)); // si n==0 la fila ya no existía en la base
             if (n == 0) info("No se eliminó ninguna inscripción.");
             else info("Inscripción eliminada.");
-            recargar(null);
+            relanzarRecarga();
             onLimpiar(null);
-        } catch (SQLException ex) {
-            error("Error desinscribiendo: " + ex.getMessage());
-        }
+        });
     }
 
     @FXML private void onRecargar(ActionEvent e) { recargar(null); }
@@ -164,14 +159,50 @@ public class InscripcionController {
 
     // ===== Listado =====
     private void recargar(ActionEvent e) {
-        datos.clear();
-        final String sql = "SELECT CURSO_ID,ESTUDIANTE_CODIGO,ANIO,SEMESTRE FROM INSCRIPCION ORDER BY CURSO_ID,ESTUDIANTE_CODIGO";
-        try (Connection con = H2DB.getConnection(); PreparedStatement ps = con.prepareStatement(sql); ResultSet rs = ps.executeQuery()) {
-            while (rs.next()) datos.add(new Row(rs.getInt(1), rs.getDouble(2), rs.getInt(3), rs.getInt(4)));
-            estado("Datos recargados");
-        } catch (SQLException ex) {
-            error("Error listando inscripciones: " + ex.getMessage());
+        bd.recargar("Cargando inscripciones", InscripcionController::leerInscripciones,
+                leidas -> { filas.aplicar(leidas); estado("Datos recargados"); },
+                ex -> error("Error listando inscripciones: " + ex.getMessage()));
+    }
+
+    /** Una recarga lanzada antes de la escritura traería la fila vieja: se relanza. */
+    private void relanzarRecarga() {
+        if (bd.recargando()) recargar(null);
+    }
+
+    private static final String SQL_INSCRIPCIONES = "SELECT CURSO_ID,ESTUDIANTE_CODIGO,ANIO,SEMESTRE FROM INSCRIPCION";
+
+    private static List<Row> leerInscripciones(AccesoAsincrono.Recarga recarga) throws SQLException {
+        List<Row> filas = new ArrayList<>();
+        try (Connection con = H2DB.getConnection();
+             PreparedStatement ps = con.prepareStatement(SQL_INSCRIPCIONES + " ORDER BY CURSO_ID,ESTUDIANTE_CODIGO")) {
+            recarga.registrar(ps);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next() && !recarga.cancelada()) filas.add(new Row(rs.getInt(1), rs.getDouble(2), rs.getInt(3), rs.getInt(4)));
+            }
+        }
+        return filas;
+    }
+
+    /**
+     * Solo las inscripciones de {@code claves} (las cambiadas en otra instancia).
+     * La consulta filtra por curso y por estudiante por separado y aquí se
+     * descartan los cruces que no se pidieron.
+     */
+    private static List<Row> leerPorClave(Collection<Row.Clave> claves) throws SQLException {
+        Set<Row.Clave> pedidas = new HashSet<>(claves);
+        List<Row> filas = new ArrayList<>();
+        try (Connection con = H2DB.getConnection();
+             PreparedStatement ps = con.prepareStatement(SQL_INSCRIPCIONES + " WHERE CURSO_ID = ANY(?) AND ESTUDIANTE_CODIGO = ANY(?)")) {
+            ps.setObject(1, claves.stream().map(Row.Clave::cursoId).distinct().toArray());
+            ps.setObject(2, claves.stream().map(Row.Clave::codigo).distinct().toArray());
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    Row r = new Row(rs.getInt(1), rs.getDouble(2), rs.getInt(3), rs.getInt(4));
+                    if (pedidas.contains(r.clave())) filas.add(r);
+                }
+            }
         }
+        return filas;
     }
 
     // ===== Lectura/validación de formulario =====
@@ -194,32 +225,20 @@ public class InscripcionController {
         return new Row(curso, codigo, anio, semestre);
     }
 
-    // ===== Helpers JDBC =====
-    private Boolean isCursoActivo(int cursoId) {
-        final String sql = "SELECT ACTIVO FROM CURSO WHERE ID=?";
-        try (Connection con = H2DB.getConnection(); PreparedStatement ps = con.prepareStatement(sql)) {
-            ps.setInt(1, cursoId);
-            try (ResultSet rs = ps.executeQuery()) { if (rs.next()) return rs.getBoolean(1); }
-        } catch (SQLException ignored) {}
-        return null;
+    // ===== Mensajes =====
+    private static String mensaje(ResultadoInscripcion res, Row r, String accion) {
+        return switch (res.estado()) {
+            case CURSO_NO_EXISTE -> "El curso " + r.getCursoId() + " no existe.";
+            case CURSO_INACTIVO -> "El curso " + r.getCursoId() + " no está activo. No es posible " + accion + ".";
+            case ESTUDIANTE_NO_EXISTE -> "El estudiante " + r.getCodigo() + " no existe.";
+            case SEMESTRE_DISTINTO -> "Semestre distinto: curso=" + res.semestreCurso() + " vs estudiante=" + res.semestreEstudiante();
+            case NO_ENCONTRADA -> "No se encontró la inscripción.";
+            case OK -> "";
+        };
     }
 
-    private Integer getSemestreCurso(int cursoId) {
-        final String sql = "SELECT SEMESTRE FROM CURSO WHERE ID=?";
-        try (Connection con = H2DB.getConnection(); PreparedStatement ps = con.prepareStatement(sql)) {
-            ps.setInt(1, cursoId);
-            try (ResultSet rs = ps.executeQuery()) { if (rs.next()) return rs.getInt(1); }
-        } catch (SQLException ignored) {}
-        return null;
-    }
-
-    private Integer getSemestreEst(double codigo) {
-        final String sql = "SELECT SEMESTRE FROM ESTUDIANTE WHERE CODIGO=?";
-        try (Connection con = H2DB.getConnection(); PreparedStatement ps = con.prepareStatement(sql)) {
-            ps.setDouble(1, codigo);
-            try (ResultSet rs = ps.executeQuery()) { if (rs.next()) return rs.getInt(1); }
-        } catch (SQLException ignored) {}
-        return null;
+    private static String causa(Throwable ex) {
+        return ex instanceof RuntimeException && ex.getCause() != null ? ex.getCause().getMessage() : ex.getMessage();
     }
 
     // ===== Utilidad UI =====
@@ -250,5 +269,21 @@ public class InscripcionController {
         public double getCodigo(){ return codigo.get(); }
         public int getAnio(){ return anio.get(); }
         public int getSemestre(){ return semestre.get(); }
+
+        /** Clave primaria de INSCRIPCION, en el mismo orden que el ORDER BY del listado. */
+        record Clave(int cursoId, double codigo) implements Comparable<Clave> {
+            @Override
+            public int compareTo(Clave o) {
+                int c = Integer.compare(cursoId, o.cursoId);
+                return c != 0 ? c : Double.compare(codigo, o.codigo);
+            }
+        }
+
+        Clave clave(){ return new Clave(getCursoId(), getCodigo()); }
+
+        static void copiar(Row destino, Row origen){ // propiedades iguales no notifican
+            destino.anio.set(origen.getAnio());
+            destino.semestre.set(origen.getSemestre());
+        }
     }
 }
@@ -1,5 +1,10 @@
 package edu.universidad.ui; 
 
+import edu.universidad.persistence.CacheMetadatos;
+import edu.universidad.persistence.ConsultasLentas;
+import edu.universidad.persistence.H2DB;
+import edu.universidad.persistence.Instantanea;
+import edu.universidad.persistence.NotificadorCambios;
 import edu.universidad.persistence.Schema;        
 import javafx.application.Application;            
 import javafx.fxml.FXMLLoader;                    
@@ -8,13 +13,19 @@ import javafx.scene.Scene;
 import javafx.stage.Stage;                        
 import javafx.stage.StageStyle;                 
 import java.net.URL;                             
+import java.nio.file.Path;
 
 
 public class MainApp extends Application {        
 
+    private Instantanea.Escritor instantanea; // null si -Duni.instantanea= (vacío)
+
     @Override
     public void start(Stage stage) throws Exception { 
         Schema.crearTablas();                          
+        Instantanea snap = Instantanea.cargarAlArrancar(); // si sigue vigente, las vistas no consultan al abrir
+        NotificadorCambios.global().iniciar(); // cambios de otras instancias sobre la misma base
+        CacheMetadatos.escuchar(NotificadorCambios.global());
 
         
         URL fxml = getClass().getResource("/vistas/MainView.fxml"); 
@@ -23,6 +34,10 @@ public class MainApp extends Application {
         }
 
         Parent root = FXMLLoader.load(fxml);           
+        Instantanea.liberarArranque();
+        if (!Instantanea.RUTA.isBlank()) // se reescribe tras cada ráfaga de cambios y al cerrar
+            instantanea = new Instantanea.Escritor(Path.of(Instantanea.RUTA), Long.getLong("uni.instantanea.esperaMs", 5_000L),
+                    snap == null ? null : snap.firma()).escuchar(NotificadorCambios.global());
         Scene scene = new Scene(root);                  
 
         stage.initStyle(StageStyle.DECORATED);          
@@ -33,6 +48,15 @@ public class MainApp extends Application {
         stage.show();                                   
     }
 
+    @Override
+    public void stop() {
+        NotificadorCambios.global().close();
+        AccesoAsincrono.cerrar();
+        if (instantanea != null) instantanea.close(); // después de las escrituras pendientes
+        ConsultasLentas.volcarAlCerrar(); // -Duni.sql.informe=ruta
+        H2DB.cerrar();
+    }
+
     public static void main(String[] args) {            
         launch(args);                                  
     }
@@ -1,14 +1,23 @@
 package edu.universidad.ui; // UI Profesores
 
+import edu.universidad.importacion.Catalogo;
+import edu.universidad.model.Validaciones;
+import edu.universidad.persistence.Cambio;
 import edu.universidad.persistence.H2DB;
+import edu.universidad.persistence.Instantanea;
 import javafx.beans.property.*;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
+import javafx.scene.Node;
 import javafx.scene.control.*;
 
 import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
 
 /** CRUD de profesores independiente del alta de cursos. */
 public class ProfesorController {
@@ -26,17 +35,22 @@ public class ProfesorController {
     @FXML private TableColumn<Row, String> colEmail;
     @FXML private TableColumn<Row, String> colTipo;
     @FXML private Label lblEstado;
+    @FXML private ProgressBar barraProgreso;
 
     private final ObservableList<Row> datos = FXCollections.observableArrayList();
+    private AccesoAsincrono bd; // necesita lblEstado, se crea en initialize
+    private FilasIndexadas<Double, Row> filas;
 
     @FXML
     private void initialize(){
+        bd = new AccesoAsincrono(lblEstado);
         colId.setCellValueFactory(c -> c.getValue().idProperty());
         colNombres.setCellValueFactory(c -> c.getValue().nombresProperty());
         colApellidos.setCellValueFactory(c -> c.getValue().apellidosProperty());
         colEmail.setCellValueFactory(c -> c.getValue().emailProperty());
         colTipo.setCellValueFactory(c -> c.getValue().tipoProperty());
         tabla.setItems(datos);
+        filas = new FilasIndexadas<>(tabla, datos, Row::getId, Row::copiar);
 
         tabla.getSelectionModel().selectedItemProperty().addListener((o,old,sel)->{
             if (sel!=null){
@@ -48,34 +62,56 @@ public class ProfesorController {
             }
         });
 
-        recargar();
+        Instantanea snap = Instantanea.deArranque();
+        if (snap != null){ // vigente: sin consulta al arrancar, y lo posterior a la copia llega como cambio
+            filas.aplicar(snap.profesores().stream().map(p -> new Row(p.id(), p.nombres(), p.apellidos(), p.email(), p.tipoContrato())).toList());
+            estado("Datos de la instantánea local");
+            bd.seguir(filas, EnumSet.of(Cambio.Tabla.PROFESOR), snap.secuencia(), Cambio.Tabla.PROFESOR,
+                    Cambio::codigo, ProfesorController::leerPorId, this::recargar);
+        } else {
+            recargar();
+            bd.seguir(filas, EnumSet.of(Cambio.Tabla.PROFESOR), Cambio.Tabla.PROFESOR, // las propias ya se parchearon
+                    Cambio::codigo, ProfesorController::leerPorId, this::recargar);
+        }
     }
 
     @FXML private void onCrearActualizar(ActionEvent e){
         Row r = leer(); if (r==null) return;
-        String sql = "MERGE INTO PROFESOR (ID,NOMBRES,APELLIDOS,EMAIL,TIPOCONTRATO) KEY(ID) VALUES (?,?,?,?,?)";
-        try (Connection con = H2DB.getConnection(); PreparedStatement ps = con.prepareStatement(sql)){
-            ps.setDouble(1, r.getId());
-            ps.setString(2, r.getNombres());
-            ps.setString(3, r.getApellidos());
-            ps.setString(4, r.getEmail());
-            ps.setString(5, r.getTipo());
-            ps.executeUpdate();
+        double id = r.getId(); String nombres = r.getNombres(), apellidos = r.getApellidos(), email = r.getEmail(), tipo = r.getTipo();
+        bd.ejecutar("Guardando profesor", () -> {
+            String sql = "MERGE INTO PROFESOR (ID,NOMBRES,APELLIDOS,EMAIL,TIPOCONTRATO) KEY(ID) VALUES (?,?,?,?,?)";
+            try (Connection con = H2DB.getConnection(); PreparedStatement ps = con.prepareStatement(sql)){
+                ps.setDouble(1, id);
+                ps.setString(2, nombres);
+                ps.setString(3, apellidos);
+                ps.setString(4, email);
+                ps.setString(5, tipo);
+                ps.executeUpdate();
+            }
+            return null;
+        }).whenComplete((v, ex) -> {
+            if (ex != null){ error("Error guardando profesor: " + ex.getMessage()); return; }
+            filas.poner(r);
             info("Profesor guardado.");
-            recargar(); onLimpiar(null);
-        } catch (SQLException ex){ error("Error guardando profesor: " + ex.getMessage()); }
+            relanzarRecarga(); onLimpiar(null);
+        });
     }
 
     @FXML private void onEliminar(ActionEvent e){
         Row sel = tabla.getSelectionModel().getSelectedItem();
         if (sel==null){ error("Selecciona un profesor para eliminar."); return; }
-        String sql = "DELETE FROM PROFESOR WHERE ID=?";
-        try (Connection con = H2DB.getConnection(); PreparedStatement ps = con.prepareStatement(sql)){
-            ps.setDouble(1, sel.getId());
-            int n = ps.executeUpdate();
+        double id = sel.getId();
+        bd.ejecutar("Eliminando profesor", () -> {
+            try (Connection con = H2DB.getConnection(); PreparedStatement ps = con.prepareStatement("DELETE FROM PROFESOR WHERE ID=?")){
+                ps.setDouble(1, id);
+                return ps.executeUpdate();
+            }
+        }).whenComplete((n, ex) -> {
+            if (ex != null){ error("Error eliminando profesor: " + ex.getMessage()); return; }
+            filas.quitar(id); // si n==0 la fila ya no existía en la base
             if (n==0) info("No se eliminó ningún registro."); else info("Profesor eliminado.");
-            recargar(); onLimpiar(null);
-        } catch (SQLException ex){ error("Error eliminando profesor: " + ex.getMessage()); }
+            relanzarRecarga(); onLimpiar(null);
+        });
     }
 
     @FXML private void onLimpiar(ActionEvent e){
@@ -85,20 +121,53 @@ public class ProfesorController {
 
     @FXML private void onRecargar(ActionEvent e){ recargar(); }
 
+    @FXML private void onImportar(ActionEvent e){
+        ImportacionUI.importar((Node) e.getSource(), Catalogo.PROFESOR, lblEstado, barraProgreso, this::recargar);
+    }
+
     private void recargar(){
-        datos.clear();
-        String sql = "SELECT ID,NOMBRES,APELLIDOS,EMAIL,TIPOCONTRATO FROM PROFESOR ORDER BY ID";
-        try (Connection con = H2DB.getConnection(); PreparedStatement ps = con.prepareStatement(sql); ResultSet rs = ps.executeQuery()){
-            while (rs.next()){
-                double id = rs.getDouble(1);
-                String nom = rs.getString(2);
-                String ape = rs.getString(3);
-                String email = rs.getString(4);
-                String tipo = rs.getString(5);
-                datos.add(new Row(id, nom, ape, email, tipo));
+        bd.recargar("Cargando profesores", ProfesorController::leerProfesores,
+                leidas -> { filas.aplicar(leidas); estado("Datos recargados"); },
+                ex -> error("Error listando profesores: " + ex.getMessage()));
+    }
+
+    /** Una recarga lanzada antes de la escritura traería la fila vieja: se relanza. */
+    private void relanzarRecarga(){
+        if (bd.recargando()) recargar();
+    }
+
+    private static final String SQL_PROFESORES = "SELECT ID,NOMBRES,APELLIDOS,EMAIL,TIPOCONTRATO FROM PROFESOR";
+
+    private static List<Row> leerProfesores(AccesoAsincrono.Recarga recarga) throws SQLException {
+        List<Row> filas = new ArrayList<>();
+        try (Connection con = H2DB.getConnection(); PreparedStatement ps = con.prepareStatement(SQL_PROFESORES + " ORDER BY ID")){
+            recarga.registrar(ps);
+            try (ResultSet rs = ps.executeQuery()){
+                while (rs.next() && !recarga.cancelada()) filas.add(leerFila(rs));
+            }
+        }
+        return filas;
+    }
+
+    /** Solo los profesores de {@code ids} (los cambiados en otra instancia). */
+    private static List<Row> leerPorId(Collection<Double> ids) throws SQLException {
+        List<Row> filas = new ArrayList<>();
+        try (Connection con = H2DB.getConnection(); PreparedStatement ps = con.prepareStatement(SQL_PROFESORES + " WHERE ID = ANY(?)")){
+            ps.setObject(1, ids.toArray());
+            try (ResultSet rs = ps.executeQuery()){
+                while (rs.next()) filas.add(leerFila(rs));
             }
-            estado("Datos recargados");
-        } catch (SQLException ex){ error("Error listando profesores: " + ex.getMessage()); }
+        }
+        return filas;
+    }
+
+    private static Row leerFila(ResultSet rs) throws SQLException {
+        double id = rs.getDouble(1);
+        String nom = rs.getString(2);
+        String ape = rs.getString(3);
+        String email = rs.getString(4);
+        String tipo = rs.getString(5);
+        return new Row(id, nom, ape, email, tipo);
     }
 
     private Row leer(){
@@ -111,7 +180,7 @@ public class ProfesorController {
         String tipo = txtTipo.getText().trim();
         if (nombres.isBlank()){ error("El campo 'Nombres' es obligatorio."); return null; }
         if (apellidos.isBlank()){ error("El campo 'Apellidos' es obligatorio."); return null; }
-        if (!email.isBlank() && !email.matches("^.+@.+\\..+$")){ error("Email inválido."); return null; }
+        if (!Validaciones.emailValido(email)){ error("Email inválido."); return null; }
         return new Row(id, nombres, apellidos, email, tipo);
     }
 
@@ -147,5 +216,9 @@ public class ProfesorController {
         public String getApellidos(){ return apellidos.get(); }
         public String getEmail(){ return email.get(); }
         public String getTipo(){ return tipo.get(); }
+        static void copiar(Row destino, Row origen){ // propiedades iguales no notifican
+            destino.nombres.set(origen.getNombres()); destino.apellidos.set(origen.getApellidos());
+            destino.email.set(origen.getEmail()); destino.tipo.set(origen.getTipo());
+        }
     }
 }
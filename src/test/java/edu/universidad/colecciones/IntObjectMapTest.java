@@ -0,0 +1,98 @@
+package edu.universidad.colecciones;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** IntObjectMap contra HashMap con operaciones al azar, y el borrado con corrimiento en grupos armados a mano. */
+class IntObjectMapTest {
+
+    @ParameterizedTest
+    @ValueSource(longs = {1, 2, 3, 4, 5})
+    void secuenciaAlAzarIgualQueHashMap(long semilla) {
+        SplittableRandom rnd = new SplittableRandom(semilla);
+        IntObjectMap<String> mapa = new IntObjectMap<>(4); // capacidad mínima: fuerza varios rehash
+        Map<Integer, String> ref = new HashMap<>();
+        for (int op = 0; op < 50_000; op++) {
+            int k = clave(rnd);
+            String v = "v" + op;
+            switch (rnd.nextInt(10)) {
+                case 0, 1, 2, 3 -> assertEquals(ref.put(k, v), mapa.put(k, v), "put " + k);
+                case 4 -> assertEquals(ref.putIfAbsent(k, v), mapa.putIfAbsent(k, v), "putIfAbsent " + k);
+                case 5, 6, 7, 8 -> assertEquals(ref.remove(k), mapa.remove(k), "remove " + k);
+                default -> {
+                    if (rnd.nextInt(500) == 0) { ref.clear(); mapa.clear(); }
+                }
+            }
+            assertEquals(ref.get(k), mapa.get(k), "get " + k);
+            assertEquals(ref.containsKey(k), mapa.containsKey(k), "containsKey " + k);
+            assertEquals(ref.size(), mapa.size());
+            if (op % 1_000 == 0) assertEquals(ref, contenido(mapa));
+        }
+        assertEquals(ref, contenido(mapa));
+    }
+
+    @Test
+    void ceroEsUnaClaveComoLasDemas() {
+        IntObjectMap<String> mapa = new IntObjectMap<>();
+        assertNull(mapa.get(0));
+        assertFalse(mapa.containsKey(0));
+        assertNull(mapa.put(0, "a"));
+        assertEquals("a", mapa.put(0, "b"));
+        assertTrue(mapa.containsKey(0));
+        assertEquals(1, mapa.size());
+        assertEquals(Map.of(0, "b"), contenido(mapa));
+        assertEquals("b", mapa.remove(0));
+        assertNull(mapa.remove(0));
+        assertTrue(mapa.isEmpty());
+    }
+
+    /** Un grupo que da la vuelta al final de la tabla; al quitar cualquiera, los demás se siguen encontrando. */
+    @Test
+    void borradoConCorrimientoConservaElGrupo() {
+        int mask = 127; // capacidad 64 → tabla de 128, umbral 76: sin rehash
+        int[] grupo = concatenar(colisiones(mask, mask, 5), colisiones(0, mask, 3), colisiones(1, mask, 2));
+        for (int quitada = 0; quitada < grupo.length; quitada++) {
+            IntObjectMap<Integer> mapa = new IntObjectMap<>(64);
+            for (int k : grupo) mapa.put(k, k);
+            assertEquals(grupo[quitada], mapa.remove(grupo[quitada]));
+            for (int j = 0; j < grupo.length; j++) {
+                if (j == quitada) assertNull(mapa.get(grupo[j]));
+                else assertEquals(grupo[j], mapa.get(grupo[j]), "clave " + grupo[j] + " perdida al quitar " + grupo[quitada]);
+            }
+            assertEquals(grupo.length - 1, mapa.size());
+        }
+    }
+
+    private static int clave(SplittableRandom rnd) {
+        return switch (rnd.nextInt(20)) {
+            case 0 -> 0;
+            case 1 -> rnd.nextBoolean() ? Integer.MIN_VALUE : Integer.MAX_VALUE;
+            default -> rnd.nextInt(-300, 300);
+        };
+    }
+
+    /** {@code n} claves distintas de cero cuya celda ideal es {@code celda}. */
+    static int[] colisiones(int celda, int mask, int n) {
+        int[] out = new int[n];
+        for (int k = 1, i = 0; i < n; k++) if ((Primitivos.mezclar(k) & mask) == celda) out[i++] = k;
+        return out;
+    }
+
+    static int[] concatenar(int[]... partes) {
+        return Arrays.stream(partes).flatMapToInt(Arrays::stream).toArray();
+    }
+
+    private static <V> Map<Integer, V> contenido(IntObjectMap<V> mapa) {
+        Map<Integer, V> out = new HashMap<>();
+        mapa.forEach((k, v) -> assertNull(out.put(k, v), "forEach repite " + k));
+        return out;
+    }
+}
@@ -0,0 +1,70 @@
+package edu.universidad.colecciones;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** IntSet contra HashSet con operaciones al azar, y el borrado con corrimiento en grupos armados a mano. */
+class IntSetTest {
+
+    @ParameterizedTest
+    @ValueSource(longs = {1, 2, 3, 4, 5})
+    void secuenciaAlAzarIgualQueHashSet(long semilla) {
+        SplittableRandom rnd = new SplittableRandom(semilla);
+        IntSet conjunto = new IntSet(4);
+        Set<Integer> ref = new HashSet<>();
+        for (int op = 0; op < 50_000; op++) {
+            int k = rnd.nextInt(20) == 0 ? 0 : rnd.nextInt(-300, 300);
+            switch (rnd.nextInt(10)) {
+                case 0, 1, 2, 3, 4 -> assertEquals(ref.add(k), conjunto.add(k), "add " + k);
+                case 5, 6, 7, 8 -> assertEquals(ref.remove(k), conjunto.remove(k), "remove " + k);
+                default -> {
+                    if (rnd.nextInt(500) == 0) { ref.clear(); conjunto.clear(); }
+                }
+            }
+            assertEquals(ref.contains(k), conjunto.contains(k), "contains " + k);
+            assertEquals(ref.size(), conjunto.size());
+            if (op % 1_000 == 0) assertEquals(ref, contenido(conjunto));
+        }
+        assertEquals(ref, contenido(conjunto));
+    }
+
+    @Test
+    void ceroEsUnaClaveComoLasDemas() {
+        IntSet conjunto = new IntSet();
+        assertFalse(conjunto.contains(0));
+        assertTrue(conjunto.add(0));
+        assertFalse(conjunto.add(0));
+        assertEquals(Set.of(0), contenido(conjunto));
+        assertTrue(conjunto.remove(0));
+        assertFalse(conjunto.remove(0));
+        assertTrue(conjunto.isEmpty());
+    }
+
+    @Test
+    void borradoConCorrimientoConservaElGrupo() {
+        int mask = 127;
+        int[] grupo = IntObjectMapTest.concatenar(IntObjectMapTest.colisiones(mask, mask, 5),
+                IntObjectMapTest.colisiones(0, mask, 3), IntObjectMapTest.colisiones(1, mask, 2));
+        for (int quitada = 0; quitada < grupo.length; quitada++) {
+            IntSet conjunto = new IntSet(64);
+            for (int k : grupo) conjunto.add(k);
+            assertTrue(conjunto.remove(grupo[quitada]));
+            for (int j = 0; j < grupo.length; j++)
+                assertEquals(j != quitada, conjunto.contains(grupo[j]), "clave " + grupo[j] + " al quitar " + grupo[quitada]);
+            assertEquals(grupo.length - 1, conjunto.size());
+        }
+    }
+
+    private static Set<Integer> contenido(IntSet conjunto) {
+        Set<Integer> out = new HashSet<>();
+        conjunto.forEach(k -> assertTrue(out.add(k), "forEach repite " + k));
+        return out;
+    }
+}
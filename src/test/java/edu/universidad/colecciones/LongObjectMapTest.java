@@ -0,0 +1,90 @@
+package edu.universidad.colecciones;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * LongObjectMap con claves double (vía {@link LongObjectMap#clave}) contra
+ * HashMap&lt;Double, V&gt;: misma igualdad que Double.equals, así que 0.0 y
+ * -0.0 son claves distintas y todos los NaN son la misma.
+ */
+class LongObjectMapTest {
+
+    private static final double[] ESPECIALES = {0.0, -0.0, Double.NaN, -1.0, Double.MIN_VALUE, Double.MAX_VALUE};
+
+    @ParameterizedTest
+    @ValueSource(longs = {1, 2, 3, 4, 5})
+    void secuenciaAlAzarIgualQueHashMap(long semilla) {
+        SplittableRandom rnd = new SplittableRandom(semilla);
+        LongObjectMap<String> mapa = new LongObjectMap<>(4);
+        Map<Double, String> ref = new HashMap<>();
+        for (int op = 0; op < 50_000; op++) {
+            double d = codigo(rnd);
+            long k = LongObjectMap.clave(d);
+            String v = "v" + op;
+            switch (rnd.nextInt(10)) {
+                case 0, 1, 2, 3 -> assertEquals(ref.put(d, v), mapa.put(k, v), "put " + d);
+                case 4 -> assertEquals(ref.putIfAbsent(d, v), mapa.putIfAbsent(k, v), "putIfAbsent " + d);
+                case 5, 6, 7, 8 -> assertEquals(ref.remove(d), mapa.remove(k), "remove " + d);
+                default -> {
+                    if (rnd.nextInt(500) == 0) { ref.clear(); mapa.clear(); }
+                }
+            }
+            assertEquals(ref.get(d), mapa.get(k), "get " + d);
+            assertEquals(ref.containsKey(d), mapa.containsKey(k), "containsKey " + d);
+            assertEquals(ref.size(), mapa.size());
+            if (op % 1_000 == 0) assertEquals(ref, contenido(mapa));
+        }
+        assertEquals(ref, contenido(mapa));
+    }
+
+    @Test
+    void ceroYMenosCeroSonClavesDistintas() {
+        LongObjectMap<String> mapa = new LongObjectMap<>();
+        assertNull(mapa.put(LongObjectMap.clave(0.0), "cero"));
+        assertNull(mapa.put(LongObjectMap.clave(-0.0), "menos cero"));
+        assertEquals(2, mapa.size());
+        assertEquals("cero", mapa.get(LongObjectMap.clave(0.0)));
+        assertEquals("menos cero", mapa.get(LongObjectMap.clave(-0.0)));
+        assertEquals("cero", mapa.remove(LongObjectMap.clave(0.0)));
+        assertFalse(mapa.containsKey(LongObjectMap.clave(0.0)));
+        assertEquals("menos cero", mapa.get(LongObjectMap.clave(-0.0)));
+        assertEquals(Map.of(-0.0, "menos cero"), contenido(mapa));
+    }
+
+    @Test
+    void borradoConCorrimientoConservaElGrupo() {
+        int mask = 127;
+        long[] grupo = LongSetTest.concatenar(LongSetTest.colisiones(mask, mask, 5), LongSetTest.colisiones(0, mask, 3),
+                LongSetTest.colisiones(1, mask, 2));
+        for (int quitada = 0; quitada < grupo.length; quitada++) {
+            LongObjectMap<Long> mapa = new LongObjectMap<>(64);
+            for (long k : grupo) mapa.put(k, k);
+            assertEquals(grupo[quitada], mapa.remove(grupo[quitada]));
+            for (int j = 0; j < grupo.length; j++) {
+                if (j == quitada) assertNull(mapa.get(grupo[j]));
+                else assertEquals(grupo[j], mapa.get(grupo[j]), "clave " + grupo[j] + " perdida al quitar " + grupo[quitada]);
+            }
+            assertEquals(grupo.length - 1, mapa.size());
+        }
+    }
+
+    /** Códigos de estudiante en un rango chico (para que haya choques y bajas efectivas) y algunos especiales. */
+    private static double codigo(SplittableRandom rnd) {
+        if (rnd.nextInt(10) == 0) return ESPECIALES[rnd.nextInt(ESPECIALES.length)];
+        return 2_020_000_000d + rnd.nextInt(600);
+    }
+
+    private static <V> Map<Double, V> contenido(LongObjectMap<V> mapa) {
+        Map<Double, V> out = new HashMap<>();
+        mapa.forEach((k, v) -> assertNull(out.put(Double.longBitsToDouble(k), v), "forEach repite " + k));
+        return out;
+    }
+}
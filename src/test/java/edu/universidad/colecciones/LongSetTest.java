@@ -0,0 +1,92 @@
+package edu.universidad.colecciones;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** LongSet contra HashSet con operaciones al azar, y el borrado con corrimiento en grupos armados a mano. */
+class LongSetTest {
+
+    @ParameterizedTest
+    @ValueSource(longs = {1, 2, 3, 4, 5})
+    void secuenciaAlAzarIgualQueHashSet(long semilla) {
+        SplittableRandom rnd = new SplittableRandom(semilla);
+        LongSet conjunto = new LongSet(4);
+        Set<Long> ref = new HashSet<>();
+        for (int op = 0; op < 50_000; op++) {
+            long k = clave(rnd);
+            switch (rnd.nextInt(10)) {
+                case 0, 1, 2, 3, 4 -> assertEquals(ref.add(k), conjunto.add(k), "add " + k);
+                case 5, 6, 7, 8 -> assertEquals(ref.remove(k), conjunto.remove(k), "remove " + k);
+                default -> {
+                    if (rnd.nextInt(500) == 0) { ref.clear(); conjunto.clear(); }
+                }
+            }
+            assertEquals(ref.contains(k), conjunto.contains(k), "contains " + k);
+            assertEquals(ref.size(), conjunto.size());
+            if (op % 1_000 == 0) assertEquals(ref, contenido(conjunto));
+        }
+        assertEquals(ref, contenido(conjunto));
+    }
+
+    @Test
+    void ceroEsUnaClaveComoLasDemas() {
+        LongSet conjunto = new LongSet();
+        assertFalse(conjunto.contains(0));
+        assertTrue(conjunto.add(0));
+        assertFalse(conjunto.add(0));
+        assertTrue(conjunto.add(Long.MIN_VALUE)); // los bits de -0.0
+        assertEquals(Set.of(0L, Long.MIN_VALUE), contenido(conjunto));
+        assertTrue(conjunto.remove(0));
+        assertFalse(conjunto.remove(0));
+        assertTrue(conjunto.contains(Long.MIN_VALUE));
+        assertEquals(1, conjunto.size());
+    }
+
+    @Test
+    void borradoConCorrimientoConservaElGrupo() {
+        int mask = 127;
+        long[] grupo = concatenar(colisiones(mask, mask, 5), colisiones(0, mask, 3), colisiones(1, mask, 2));
+        for (int quitada = 0; quitada < grupo.length; quitada++) {
+            LongSet conjunto = new LongSet(64);
+            for (long k : grupo) conjunto.add(k);
+            assertTrue(conjunto.remove(grupo[quitada]));
+            for (int j = 0; j < grupo.length; j++)
+                assertEquals(j != quitada, conjunto.contains(grupo[j]), "clave " + grupo[j] + " al quitar " + grupo[quitada]);
+            assertEquals(grupo.length - 1, conjunto.size());
+        }
+    }
+
+    private static long clave(SplittableRandom rnd) {
+        return switch (rnd.nextInt(20)) {
+            case 0 -> 0L;
+            case 1 -> rnd.nextBoolean() ? Long.MIN_VALUE : Long.MAX_VALUE;
+            default -> rnd.nextLong(-300, 300);
+        };
+    }
+
+    /** {@code n} claves distintas de cero cuya celda ideal es {@code celda}. */
+    static long[] colisiones(int celda, int mask, int n) {
+        long[] out = new long[n];
+        int i = 0;
+        for (long k = 1; i < n; k++) if ((Primitivos.mezclar(k) & mask) == celda) out[i++] = k;
+        return out;
+    }
+
+    static long[] concatenar(long[]... partes) {
+        return Arrays.stream(partes).flatMapToLong(Arrays::stream).toArray();
+    }
+
+    private static Set<Long> contenido(LongSet conjunto) {
+        Set<Long> out = new HashSet<>();
+        conjunto.forEach(k -> assertTrue(out.add(k), "forEach repite " + k));
+        return out;
+    }
+}
@@ -0,0 +1,115 @@
+package edu.universidad.exportacion;
+
+import edu.universidad.importacion.Catalogo;
+import edu.universidad.importacion.ImportadorCSV;
+import edu.universidad.importacion.ResultadoImportacion;
+import edu.universidad.persistence.H2DB;
+import edu.universidad.persistence.Schema;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Exportador sobre la base en memoria de las pruebas (uni.db.url en el pom):
+ * escapes de CSV y JSON Lines, códigos DOUBLE sin notación científica, el CSV
+ * de vuelta por el importador y el destino intacto si la exportación falla.
+ */
+class ExportadorTest {
+
+    private static final String ENCABEZADO = "CODIGO,NOMBRES,APELLIDOS,EMAIL,PROMEDIO,SEMESTRE,ACTIVO";
+
+    @TempDir
+    Path dir;
+
+    @BeforeEach
+    void cargar() throws SQLException {
+        Schema.crearTablas();
+        try (Connection con = H2DB.getConnection(); Statement st = con.createStatement()) {
+            st.execute("DELETE FROM INSCRIPCION");
+            st.execute("DELETE FROM ESTUDIANTE");
+            st.execute("INSERT INTO ESTUDIANTE (CODIGO,NOMBRES,APELLIDOS,EMAIL,PROMEDIO,SEMESTRE,ACTIVO) VALUES " +
+                    "(2025001, 'Ana María', 'Pérez, \"la Mona\"', 'ana@uni.edu', 4.5, 3, TRUE), " +
+                    "(2025002, 'Luis', 'Gómez' || CHAR(10) || 'Ruiz', NULL, 4.0, 1, FALSE), " +
+                    "(202312345678, 'Tab' || CHAR(9) || 'ina', 'Barra\\', '', 3.25, 12, TRUE)");
+        }
+    }
+
+    @Test
+    void csvEscapaComillasComasYSaltos() throws IOException {
+        Path csv = dir.resolve("estudiantes.csv");
+        ResultadoExportacion r = new Exportador().exportar(Exportable.ESTUDIANTE, Exportador.Formato.CSV, csv);
+        assertEquals(3, r.filas());
+        assertEquals(Files.size(csv), r.bytes());
+        assertEquals(List.of(ENCABEZADO,
+                "2025001,Ana María,\"Pérez, \"\"la Mona\"\"\",ana@uni.edu,4.5,3,true",
+                "2025002,Luis,\"Gómez Ruiz\",,4,1,false",
+                "202312345678,Tab\tina,Barra\\,,3.25,12,true"), lineas(csv));
+    }
+
+    @Test
+    void jsonlEscapaYDejaLosNumerosSinComillas() throws IOException {
+        Path jsonl = dir.resolve("estudiantes.jsonl");
+        new Exportador().exportar(Exportable.ESTUDIANTE, Exportador.Formato.JSONL, jsonl);
+        assertEquals(List.of(
+                "{\"CODIGO\":2025001,\"NOMBRES\":\"Ana María\",\"APELLIDOS\":\"Pérez, \\\"la Mona\\\"\",\"EMAIL\":\"ana@uni.edu\",\"PROMEDIO\":4.5,\"SEMESTRE\":3,\"ACTIVO\":true}",
+                "{\"CODIGO\":2025002,\"NOMBRES\":\"Luis\",\"APELLIDOS\":\"Gómez\\nRuiz\",\"EMAIL\":null,\"PROMEDIO\":4,\"SEMESTRE\":1,\"ACTIVO\":false}",
+                "{\"CODIGO\":202312345678,\"NOMBRES\":\"Tab\\tina\",\"APELLIDOS\":\"Barra\\\\\",\"EMAIL\":\"\",\"PROMEDIO\":3.25,\"SEMESTRE\":12,\"ACTIVO\":true}"),
+                lineas(jsonl));
+    }
+
+    @Test
+    void elCsvExportadoSeVuelveAImportar() throws IOException, SQLException {
+        Path csv = dir.resolve("estudiantes.csv");
+        Exportador exportador = new Exportador();
+        exportador.exportar(Exportable.ESTUDIANTE, Exportador.Formato.CSV, csv);
+        try (Connection con = H2DB.getConnection(); Statement st = con.createStatement()) {
+            st.execute("DELETE FROM ESTUDIANTE");
+        }
+
+        ResultadoImportacion r = new ImportadorCSV(1, ',').importar(Catalogo.ESTUDIANTE, csv, null);
+        assertEquals(3, r.aceptadas());
+        assertEquals(0, r.rechazadas());
+
+        Path otra = dir.resolve("otra.csv");
+        exportador.exportar(Exportable.ESTUDIANTE, Exportador.Formato.CSV, otra);
+        assertEquals(List.of(ENCABEZADO,
+                "2025001,Ana María,\"Pérez, \"\"la Mona\"\"\",ana@uni.edu,4.5,3,true",
+                "2025002,Luis,Gómez Ruiz,,4,1,false", // el salto de línea ya se había cambiado por un espacio
+                "202312345678,Tab\tina,Barra\\,,3.25,12,true"), lineas(otra));
+    }
+
+    @Test
+    void siFallaElDestinoQuedaComoEstaba() throws IOException, SQLException {
+        Path csv = dir.resolve("profesores.csv");
+        Files.writeString(csv, "anterior\n");
+        try (Connection con = H2DB.getConnection(); Statement st = con.createStatement()) {
+            st.execute("ALTER TABLE PROFESOR RENAME TO PROFESOR_OCULTO");
+            try {
+                assertThrows(RuntimeException.class,
+                        () -> new Exportador().exportar(Exportable.PROFESOR, Exportador.Formato.CSV, csv));
+            } finally {
+                st.execute("ALTER TABLE PROFESOR_OCULTO RENAME TO PROFESOR");
+            }
+        }
+        assertEquals("anterior\n", Files.readString(csv));
+        try (Stream<Path> archivos = Files.list(dir)) {
+            assertEquals(List.of(csv), archivos.toList(), "no queda el temporal");
+        }
+    }
+
+    private static List<String> lineas(Path p) throws IOException {
+        return Files.readAllLines(p, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,188 @@
+package edu.universidad.persistence;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ConnectionPool sobre una H2 en memoria propia, con una sola conexión para
+ * que cada préstamo reciba la misma física y su misma caché de sentencias.
+ */
+class ConnectionPoolTest {
+
+    private static final String URL = "jdbc:h2:mem:pool_test;DB_CLOSE_DELAY=-1";
+    private static final String SQL = "SELECT X FROM SYSTEM_RANGE(1, 3)";
+
+    private ConnectionPool pool;
+
+    @BeforeEach
+    void abrir() throws SQLException {
+        pool = new ConnectionPool(URL, "sa", "", 0, 1, 60_000, 1_000, 60_000, 8);
+        try (Connection con = pool.obtener(); Statement st = con.createStatement()) {
+            st.execute("CREATE TABLE IF NOT EXISTS T (ID INT PRIMARY KEY)");
+            st.execute("DELETE FROM T");
+        }
+    }
+
+    @AfterEach
+    void cerrar() {
+        pool.cerrar();
+    }
+
+    @Test
+    void laSegundaPreparacionEsUnAciertoDeCache() throws SQLException {
+        try (Connection con = pool.obtener()) {
+            con.prepareStatement(SQL).close();
+        }
+        try (Connection con = pool.obtener()) { // misma física: la caché sobrevive al préstamo
+            con.prepareStatement(SQL).close();
+            con.prepareStatement("SELECT 1").close();
+        }
+        ConnectionPool.Estadisticas e = pool.estadisticas();
+        assertEquals(1, e.aciertosCache());
+        assertEquals(2, e.fallosCache());
+    }
+
+    @Test
+    void conLaCacheadaEnUsoLaSiguienteEsDesechable() throws SQLException {
+        try (Connection con = pool.obtener()) {
+            PreparedStatement enUso = con.prepareStatement(SQL);
+            PreparedStatement desechable = con.prepareStatement(SQL);
+            PreparedStatement fisicaEnUso = enUso.unwrap(PreparedStatement.class);
+            PreparedStatement fisicaDesechable = desechable.unwrap(PreparedStatement.class);
+            assertNotSame(fisicaEnUso, fisicaDesechable);
+            assertEquals(2, pool.estadisticas().fallosCache());
+
+            desechable.close();
+            assertTrue(fisicaDesechable.isClosed(), "la desechable se cierra de verdad");
+            enUso.close();
+            assertFalse(fisicaEnUso.isClosed(), "la cacheada queda abierta para reutilizarse");
+
+            PreparedStatement otra = con.prepareStatement(SQL);
+            assertSame(fisicaEnUso, otra.unwrap(PreparedStatement.class));
+            assertEquals(1, pool.estadisticas().aciertosCache());
+            otra.close();
+        }
+    }
+
+    @Test
+    void lasSentenciasSinCerrarSeLiberanAlDevolver() throws SQLException {
+        Statement simple;
+        Statement fisicaSimple;
+        PreparedStatement cacheada, fisicaCacheada, directa, fisicaDirecta;
+        ResultSet rs;
+        try (Connection con = pool.obtener()) {
+            simple = con.createStatement();
+            fisicaSimple = simple.unwrap(Statement.class);
+            rs = simple.executeQuery(SQL);
+            cacheada = con.prepareStatement(SQL);
+            fisicaCacheada = cacheada.unwrap(PreparedStatement.class);
+            cacheada.executeQuery();
+            directa = con.prepareStatement(SQL, Statement.RETURN_GENERATED_KEYS);
+            fisicaDirecta = directa.unwrap(PreparedStatement.class);
+        } // ninguna se cerró
+
+        assertTrue(simple.isClosed());
+        assertTrue(fisicaSimple.isClosed(), "la de createStatement se cierra en la física");
+        assertTrue(rs.isClosed());
+        assertThrows(SQLException.class, () -> simple.executeQuery(SQL));
+        assertTrue(cacheada.isClosed());
+        assertFalse(fisicaCacheada.isClosed(), "la cacheada vuelve a la caché");
+        assertTrue(directa.isClosed());
+        assertTrue(fisicaDirecta.isClosed(), "la de otra sobrecarga se cierra en la física");
+
+        try (Connection con = pool.obtener(); PreparedStatement ps = con.prepareStatement(SQL)) {
+            assertSame(fisicaCacheada, ps.unwrap(PreparedStatement.class));
+        }
+    }
+
+    @Test
+    void elTrabajoSinConfirmarSeDeshaceAlDevolver() throws SQLException {
+        try (Connection con = pool.obtener()) {
+            con.setAutoCommit(false);
+            try (PreparedStatement ps = con.prepareStatement("INSERT INTO T (ID) VALUES (?)")) {
+                ps.setInt(1, 1);
+                ps.executeUpdate();
+            }
+        } // sin commit
+        try (Connection con = pool.obtener();
+             Statement st = con.createStatement();
+             ResultSet rs = st.executeQuery("SELECT COUNT(*) FROM T")) {
+            assertTrue(con.getAutoCommit());
+            assertTrue(rs.next());
+            assertEquals(0, rs.getInt(1));
+        }
+    }
+
+    @Test
+    void prepareCallEntregaUnCallableStatement() throws SQLException {
+        try (Connection con = pool.obtener()) {
+            CallableStatement cs = assertInstanceOf(CallableStatement.class, con.prepareCall("CALL 1 + 1"));
+            assertSame(con, cs.getConnection());
+            try (ResultSet rs = cs.executeQuery()) {
+                assertTrue(rs.next());
+                assertEquals(2, rs.getInt(1));
+            }
+            cs.close();
+            assertTrue(cs.isClosed());
+        }
+    }
+
+    @Test
+    void cadaEjecucionGrabaUnEventoSql(@TempDir Path dir) throws SQLException, IOException {
+        Path jfr = dir.resolve("sql.jfr");
+        try (Recording r = new Recording()) {
+            r.enable("edu.universidad.Sql").withThreshold(Duration.ZERO);
+            r.start();
+            try (Connection con = pool.obtener()) {
+                try (PreparedStatement ps = con.prepareStatement("INSERT INTO T (ID) VALUES (?)")) {
+                    ps.setInt(1, 1); ps.addBatch();
+                    ps.setInt(1, 2); ps.addBatch();
+                    ps.executeBatch();
+                }
+                try (PreparedStatement ps = con.prepareStatement(SQL); ResultSet rs = ps.executeQuery()) {
+                    assertTrue(rs.next());
+                }
+                try (Statement st = con.createStatement()) {
+                    assertEquals(2, st.executeUpdate("DELETE FROM T WHERE ID IN (1, 2)"));
+                    assertThrows(SQLException.class, () -> st.executeQuery("SELECT * FROM NO_EXISTE WHERE ID = 7"));
+                }
+            }
+            r.stop();
+            r.dump(jfr);
+        }
+        List<String> eventos = RecordingFile.readAllEvents(jfr).stream()
+                .map((RecordedEvent e) -> e.getString("sentencia") + " | " + e.getLong("filas") + " | " + e.getBoolean("error"))
+                .toList();
+        assertEquals(List.of(
+                "INSERT INTO T (ID) VALUES (?) | 2 | false",
+                "SELECT X FROM SYSTEM_RANGE(?...) | -1 | false",
+                "DELETE FROM T WHERE ID IN (?...) | 2 | false",
+                "SELECT * FROM NO_EXISTE WHERE ID = ? | -1 | true"), eventos);
+    }
+
+    @Test
+    void laConexionDevueltaNoSePuedeUsar() throws SQLException {
+        Connection con = pool.obtener();
+        con.close();
+        assertTrue(con.isClosed());
+        assertThrows(SQLException.class, () -> con.prepareStatement(SQL));
+    }
+}
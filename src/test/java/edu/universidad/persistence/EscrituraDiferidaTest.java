@@ -0,0 +1,161 @@
+package edu.universidad.persistence;
+
+import edu.universidad.model.Curso;
+import edu.universidad.model.Estudiante;
+import edu.universidad.model.Inscripcion;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * EscrituraDiferida contra un DAO falso que anota el tamaño de cada lote y
+ * rechaza las filas con año 0; no hay base de por medio. Los plazos largos
+ * (60 s) sirven para ver que un lote no esperó al tiempo máximo.
+ */
+class EscrituraDiferidaTest {
+
+    private static final Curso CURSO = new Curso(1, "Curso", null, true);
+
+    /** insertarLote falso; con {@code compuerta} cerrada el hilo escritor queda detenido dentro del lote. */
+    private static final class DaoFalso extends InscripcionDAO {
+        final List<Integer> lotes = new CopyOnWriteArrayList<>();
+        final AtomicLong escritas = new AtomicLong();
+        volatile CountDownLatch compuerta = new CountDownLatch(0);
+
+        @Override
+        public ResultadoLote insertarLote(Stream<Inscripcion> inscripciones, int tamanoLote) {
+            try {
+                compuerta.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            List<Inscripcion> filas = inscripciones.toList();
+            lotes.add(filas.size());
+            List<ResultadoLote.Fallo> fallos = new ArrayList<>();
+            for (int k = 0; k < filas.size(); k++)
+                if (filas.get(k).getAnio() == 0) fallos.add(new ResultadoLote.Fallo(k, filas.get(k), "rechazada"));
+            escritas.addAndGet(filas.size() - fallos.size());
+            return new ResultadoLote(filas.size() - fallos.size(), fallos, 1);
+        }
+    }
+
+    @Test
+    void unLoteLlenoSeEscribeSinEsperarElPlazo() throws Exception {
+        DaoFalso dao = new DaoFalso();
+        try (EscrituraDiferida cola = new EscrituraDiferida(dao, 100, 4, 60_000, 1_000)) {
+            esperar(encolar(cola, 4));
+            cola.flush();
+            esperar(encolar(cola, 4));
+            assertEquals(List.of(4, 4), dao.lotes);
+        }
+    }
+
+    @Test
+    void unLoteIncompletoSeEscribeAlVencerElPlazo() throws Exception {
+        DaoFalso dao = new DaoFalso();
+        try (EscrituraDiferida cola = new EscrituraDiferida(dao, 100, 100, 200, 1_000)) {
+            long t0 = System.nanoTime();
+            esperar(encolar(cola, 3));
+            assertTrue(System.nanoTime() - t0 >= TimeUnit.MILLISECONDS.toNanos(150), "esperó el plazo para juntar filas");
+            assertEquals(List.of(3), dao.lotes, "la primera fila no se escribe sola");
+        }
+    }
+
+    @Test
+    void flushEsperaAQueTodoEsteConfirmado() {
+        DaoFalso dao = new DaoFalso();
+        try (EscrituraDiferida cola = new EscrituraDiferida(dao, 100, 100, 60_000, 1_000)) {
+            List<CompletableFuture<Void>> futuros = encolar(cola, 3);
+            CompletableFuture<Void> rechazada = cola.encolar(inscripcion(0, 0));
+            cola.flush();
+            for (CompletableFuture<Void> f : futuros) assertTrue(f.isDone() && !f.isCompletedExceptionally());
+            ExecutionException ex = assertThrows(ExecutionException.class, () -> rechazada.get(0, TimeUnit.SECONDS));
+            assertEquals("rechazada", ex.getCause().getMessage());
+            assertEquals(List.of(4), dao.lotes);
+            EscrituraDiferida.Estadisticas e = cola.estadisticas();
+            assertEquals(3, e.escritas());
+            assertEquals(1, e.fallidas());
+            assertEquals(0, e.pendientes());
+        }
+    }
+
+    @Test
+    void conLaColaLlenaQuienEncolaSeRindeTrasLaEspera() throws Exception {
+        DaoFalso dao = new DaoFalso();
+        dao.compuerta = new CountDownLatch(1);
+        EscrituraDiferida cola = new EscrituraDiferida(dao, 2, 100, 60_000, 200);
+        List<CompletableFuture<Void>> futuros = encolar(cola, 2);
+        long t0 = System.nanoTime();
+        IllegalStateException ex = assertThrows(IllegalStateException.class, () -> cola.encolar(inscripcion(3, 2025)));
+        assertTrue(ex.getMessage().startsWith("Cola de escritura llena"), ex.getMessage());
+        assertTrue(System.nanoTime() - t0 >= TimeUnit.MILLISECONDS.toNanos(150), "esperó antes de rendirse");
+        assertEquals(1, cola.estadisticas().esperasPorColaLlena());
+
+        dao.compuerta.countDown();
+        cola.close();
+        esperar(futuros);
+        assertEquals(2, dao.escritas.get());
+    }
+
+    /** Productores encolando mientras otro hilo cierra: ningún futuro queda sin completar. */
+    @Test
+    void cerrarConProductoresEnCursoCompletaTodosLosFuturos() throws Exception {
+        for (int ronda = 0; ronda < 20; ronda++) {
+            DaoFalso dao = new DaoFalso();
+            EscrituraDiferida cola = new EscrituraDiferida(dao, 10_000, 50, 5, 1_000);
+            List<CompletableFuture<Void>> futuros = new CopyOnWriteArrayList<>();
+            CountDownLatch listos = new CountDownLatch(4);
+            List<Thread> productores = new ArrayList<>();
+            for (int p = 0; p < 4; p++) {
+                int base = p * 1_000_000;
+                Thread t = new Thread(() -> {
+                    listos.countDown();
+                    try {
+                        for (int k = 0; k < 1_000_000; k++) futuros.add(cola.encolar(inscripcion(base + k, 2025)));
+                    } catch (IllegalStateException cerrada) {
+                        // close() ya empezó
+                    }
+                });
+                productores.add(t);
+                t.start();
+            }
+            listos.await();
+            Thread.sleep(ronda % 5);
+            cola.close();
+            for (Thread t : productores) t.join(10_000);
+
+            long confirmados = 0;
+            for (CompletableFuture<Void> f : futuros) {
+                assertTrue(f.isDone(), "ronda " + ronda + ": futuro sin completar");
+                if (!f.isCompletedExceptionally()) confirmados++;
+                else assertThrows(ExecutionException.class, f::get);
+            }
+            assertEquals(dao.escritas.get(), confirmados, "ronda " + ronda);
+            assertThrows(IllegalStateException.class, () -> cola.encolar(inscripcion(0, 2025)));
+        }
+    }
+
+    private static List<CompletableFuture<Void>> encolar(EscrituraDiferida cola, int n) {
+        List<CompletableFuture<Void>> out = new ArrayList<>();
+        for (int k = 0; k < n; k++) out.add(cola.encolar(inscripcion(k, 2025)));
+        return out;
+    }
+
+    private static void esperar(List<CompletableFuture<Void>> futuros) throws Exception {
+        CompletableFuture.allOf(futuros.toArray(new CompletableFuture<?>[0])).get(5, TimeUnit.SECONDS);
+    }
+
+    private static Inscripcion inscripcion(int codigo, int anio) {
+        return new Inscripcion(CURSO, anio, 1, new Estudiante(codigo, "N", "A", null, codigo, null, true, 3.0));
+    }
+}
@@ -0,0 +1,141 @@
+package edu.universidad.persistence;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Instantánea sobre la base en memoria de las pruebas: lo que se lee del
+ * archivo es lo mismo que dan sus consultas por JDBC, y un archivo dañado
+ * (cabecera o cuerpo) se rechaza al abrir en lugar de fallar al decodificar.
+ */
+class InstantaneaTest {
+
+    private static final int CABECERA = 72;
+
+    @TempDir
+    Path dir;
+
+    @BeforeEach
+    void cargar() throws SQLException {
+        Schema.crearTablas();
+        try (Connection con = H2DB.getConnection(); Statement st = con.createStatement()) {
+            st.execute("DELETE FROM INSCRIPCION");
+            st.execute("DELETE FROM ESTUDIANTE");
+            st.execute("DELETE FROM CURSO");
+            st.execute("DELETE FROM PROFESOR");
+            st.execute("INSERT INTO PROFESOR (ID,NOMBRES,APELLIDOS,EMAIL,TIPOCONTRATO) VALUES " +
+                    "(1, 'Marta', 'Ríos', 'marta@uni.edu', 'Planta'), (2, 'Sin', 'Correo', NULL, NULL)");
+            st.execute("INSERT INTO CURSO (ID,NOMBRE,ACTIVO,SEMESTRE,PROFESOR_ID) VALUES " +
+                    "(10, 'Cálculo', TRUE, 1, 1), (20, 'Física', NULL, 2, NULL), (30, '', FALSE, 3, 2)");
+            st.execute("INSERT INTO ESTUDIANTE (CODIGO,NOMBRES,APELLIDOS,EMAIL,PROMEDIO,ACTIVO,SEMESTRE) VALUES " +
+                    "(2025001, 'Ana', 'Pérez', 'ana@uni.edu', 4.5, TRUE, 1), " +
+                    "(2025002, 'Luis', NULL, NULL, NULL, NULL, 2), " +
+                    "(202312345678, 'Ñandú', 'Ü', '', 3.25, FALSE, 3)");
+            st.execute("INSERT INTO INSCRIPCION (CURSO_ID,ESTUDIANTE_CODIGO,ANIO,SEMESTRE) VALUES " +
+                    "(10, 2025001, 2025, 1), (10, 2025002, 2025, 1), (20, 2025002, 2024, 2), (30, 202312345678, 2025, 3)");
+        }
+    }
+
+    @Test
+    void loLeidoDelArchivoCoincideConLaBase() throws IOException, SQLException {
+        Path ruta = dir.resolve("u.snap");
+        Instantanea.Firma escrita = Instantanea.escribir(ruta);
+        assertEquals(Instantanea.firmaActual(), escrita);
+
+        Instantanea i = Instantanea.abrirVigente(ruta);
+        assertNotNull(i);
+        assertEquals(escrita, i.firma());
+        assertEquals(Files.size(ruta), i.bytes());
+        assertEquals(leer(Instantanea.SQL_ESTUDIANTES, rs -> new Instantanea.FilaEstudiante(rs.getDouble(1), rs.getString(2),
+                rs.getString(3), rs.getString(4), rs.getObject(5, Double.class), rs.getObject(6, Boolean.class), rs.getInt(7))), i.estudiantes());
+        assertEquals(leer(Instantanea.SQL_PROFESORES, rs -> new Instantanea.FilaProfesor(rs.getDouble(1), rs.getString(2),
+                rs.getString(3), rs.getString(4), rs.getString(5))), i.profesores());
+        assertEquals(leer(Instantanea.SQL_CURSOS, rs -> new Instantanea.FilaCurso(rs.getInt(1), rs.getString(2),
+                rs.getObject(3, Boolean.class), rs.getInt(4), rs.getObject(5, Double.class))), i.cursos());
+        assertEquals(leer(Instantanea.SQL_INSCRIPCIONES, rs -> new Instantanea.FilaInscripcion(rs.getInt(1), rs.getDouble(2),
+                rs.getInt(3), rs.getInt(4))), i.inscripciones());
+        assertEquals(Map.of(10, 2, 20, 1, 30, 1), i.inscritosPorCurso());
+    }
+
+    @Test
+    void unByteCambiadoEnLaCabeceraOElCuerpoSeRechaza() throws IOException {
+        Path ruta = dir.resolve("u.snap");
+        Instantanea.escribir(ruta);
+        byte[] original = Files.readAllBytes(ruta);
+        int[] posiciones = {
+                20,             // MAX(SEQ) de la firma
+                35,             // momento de la copia
+                43,             // filas de ESTUDIANTE
+                68,             // desplazamiento de INSCRIPCION
+                CABECERA + 3,   // código del primer estudiante
+                original.length - 1};
+        for (int p : posiciones) {
+            byte[] danado = original.clone();
+            danado[p] ^= 0x10;
+            Path otra = dir.resolve("danada-" + p + ".snap");
+            Files.write(otra, danado);
+            IllegalStateException ex = assertThrows(IllegalStateException.class, () -> Instantanea.abrir(otra), "byte " + p);
+            assertEquals("CRC inválido", ex.getMessage(), "byte " + p);
+            assertNull(Instantanea.abrirVigente(otra), "byte " + p);
+        }
+    }
+
+    @Test
+    void unaSeccionFueraDelCuerpoSeRechazaAunqueElCrcCuadre() throws IOException {
+        Path ruta = dir.resolve("u.snap");
+        Instantanea.escribir(ruta);
+        byte[] original = Files.readAllBytes(ruta);
+
+        Path fuera = dir.resolve("fuera.snap");
+        Files.write(fuera, conCrc(original, 56 + 4 * 3, original.length)); // INSCRIPCION empieza tras el cuerpo
+        IllegalStateException ex = assertThrows(IllegalStateException.class, () -> Instantanea.abrir(fuera));
+        assertTrue(ex.getMessage().startsWith("sección 2 inválida"), ex.getMessage()); // CURSO acabaría fuera
+
+        Path demasiadas = dir.resolve("demasiadas.snap");
+        Files.write(demasiadas, conCrc(original, 40 + 4 * 3, 1_000)); // mil inscripciones en 80 bytes
+        ex = assertThrows(IllegalStateException.class, () -> Instantanea.abrir(demasiadas));
+        assertTrue(ex.getMessage().startsWith("sección 3 inválida"), ex.getMessage());
+        assertNull(Instantanea.abrirVigente(demasiadas));
+    }
+
+    /** Copia con el int de {@code posicion} cambiado y el CRC recalculado como lo haría el escritor. */
+    private static byte[] conCrc(byte[] original, int posicion, int valor) {
+        ByteBuffer b = ByteBuffer.wrap(original.clone());
+        b.putInt(posicion, valor);
+        CRC32C crc = new CRC32C();
+        crc.update(b.slice(CABECERA, b.capacity() - CABECERA));
+        crc.update(b.slice(16, CABECERA - 16));
+        b.putInt(12, (int) crc.getValue());
+        return b.array();
+    }
+
+    private interface Lector<T> {
+        T leer(ResultSet rs) throws SQLException;
+    }
+
+    private static <T> List<T> leer(String sql, Lector<T> lector) throws SQLException {
+        List<T> out = new ArrayList<>();
+        try (Connection con = H2DB.getConnection(); PreparedStatement ps = con.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) out.add(lector.leer(rs));
+        }
+        return out;
+    }
+}
@@ -0,0 +1,70 @@
+package edu.universidad.persistence;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Migraciones sobre una base con datos de antes de las claves: lo que se quita queda copiado. */
+class MigracionesTest {
+
+    private Connection con;
+
+    @BeforeEach
+    void abrir() throws SQLException {
+        con = DriverManager.getConnection("jdbc:h2:mem:migraciones_test", "sa", "");
+        Migraciones.aplicar(con, 1);
+        try (Statement st = con.createStatement()) {
+            st.execute("INSERT INTO CURSO (ID,NOMBRE,ACTIVO,SEMESTRE) VALUES (1,'Curso',TRUE,1)");
+            st.execute("INSERT INTO ESTUDIANTE (CODIGO,NOMBRES,APELLIDOS,ACTIVO,SEMESTRE) VALUES (10,'N','A',TRUE,1)");
+            st.execute("INSERT INTO INSCRIPCION (ID,CURSO_ID,ESTUDIANTE_CODIGO,ANIO,SEMESTRE) VALUES " +
+                    "(1,1,10,2024,1), (2,1,10,2025,1), (3,99,10,2025,1), (4,1,77,2025,1)");
+        }
+    }
+
+    @AfterEach
+    void cerrar() throws SQLException {
+        try (Statement st = con.createStatement()) {
+            st.execute("SHUTDOWN");
+        }
+        con.close();
+    }
+
+    @Test
+    void lasInscripcionesQuitadasQuedanEnDescartada() throws SQLException {
+        Migraciones.aplicar(con);
+        assertEquals(List.of("2"), filas("SELECT ID FROM INSCRIPCION"));
+        assertEquals(List.of("1 duplicada", "3 sin curso", "4 sin estudiante"),
+                filas("SELECT ID || ' ' || MOTIVO FROM INSCRIPCION_DESCARTADA ORDER BY ID"));
+    }
+
+    @Test
+    void borrarUnCursoConInscripcionesFalla() throws SQLException {
+        Migraciones.aplicar(con);
+        try (Statement st = con.createStatement()) {
+            SQLException ex = assertThrows(SQLException.class, () -> st.executeUpdate("DELETE FROM CURSO WHERE ID=1"));
+            assertTrue(Migraciones.violaLlaveForanea(new RuntimeException("envuelta", ex)));
+            assertThrows(SQLException.class, () -> st.executeUpdate("DELETE FROM ESTUDIANTE WHERE CODIGO=10"));
+            st.executeUpdate("DELETE FROM INSCRIPCION");
+            assertEquals(1, st.executeUpdate("DELETE FROM CURSO WHERE ID=1"));
+        }
+        assertFalse(Migraciones.violaLlaveForanea(new SQLException("otra", "42000")));
+    }
+
+    private List<String> filas(String sql) throws SQLException {
+        List<String> out = new ArrayList<>();
+        try (Statement st = con.createStatement(); ResultSet rs = st.executeQuery(sql)) {
+            while (rs.next()) out.add(rs.getString(1));
+        }
+        return out;
+    }
+}
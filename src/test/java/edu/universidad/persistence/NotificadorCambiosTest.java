@@ -0,0 +1,49 @@
+package edu.universidad.persistence;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Origen de los cambios sobre la base en memoria de las pruebas: lo escrito
+ * por el pool de H2DB es propio; lo de una conexión sin @ORIGEN, como la de
+ * otra instancia u otra herramienta, no.
+ */
+class NotificadorCambiosTest {
+
+    @Test
+    void losCambiosDelPoolSonPropiosYLosDeOtraConexionNo() throws SQLException {
+        Schema.crearTablas();
+        try (Connection con = H2DB.getConnection(); Statement st = con.createStatement()) {
+            st.execute("DELETE FROM PROFESOR WHERE ID IN (9001, 9002)");
+        }
+        List<Cambio> recibidos = new ArrayList<>();
+        try (NotificadorCambios notificador = new NotificadorCambios(60_000)) {
+            notificador.suscribir(EnumSet.of(Cambio.Tabla.PROFESOR), new NotificadorCambios.Oyente() {
+                @Override
+                public void alCambiar(List<Cambio> cambios) {
+                    recibidos.addAll(cambios);
+                }
+            });
+            try (Connection con = H2DB.getConnection(); Statement st = con.createStatement()) {
+                st.execute("INSERT INTO PROFESOR (ID, NOMBRES, APELLIDOS) VALUES (9001, 'Propio', 'P')");
+            }
+            try (Connection otra = DriverManager.getConnection(H2DB.url(), "sa", "");
+                 Statement st = otra.createStatement()) {
+                st.execute("INSERT INTO PROFESOR (ID, NOMBRES, APELLIDOS) VALUES (9002, 'Ajeno', 'A')");
+                st.execute("DELETE FROM PROFESOR WHERE ID = 9001");
+            }
+            notificador.sondear();
+        }
+        assertEquals(List.of("INSERT 9001.0 true", "INSERT 9002.0 false", "DELETE 9001.0 false"),
+                recibidos.stream().map(c -> c.operacion() + " " + c.codigo() + " " + c.propio()).toList());
+    }
+}
@@ -0,0 +1,176 @@
+package edu.universidad.repository;
+
+import edu.universidad.model.Curso;
+import edu.universidad.model.Estudiante;
+import edu.universidad.model.Inscripcion;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * IndiceInscripciones contra un modelo de ArrayList: {@code filas} imita el
+ * arreglo denso (quitar mueve la última al hueco) y {@code llegada} el orden
+ * de alta, que es el que deben conservar los índices secundarios aunque las
+ * filas cambien de posición. Se compara por identidad, porque reemplazar
+ * cambia el objeto sin cambiar la clave.
+ */
+class IndiceInscripcionesTest {
+
+    private static final Curso[] CURSOS = new Curso[8];
+    private static final double[] CODIGOS = {0.0, -0.0, 1.0, 2_020_000_001d, 2_020_000_002d, 2_020_000_003d, 2_020_000_004d};
+    private static final int[][] PERIODOS = {{2024, 1}, {2024, 2}, {2025, 1}};
+
+    static {
+        for (int c = 0; c < CURSOS.length; c++) CURSOS[c] = new Curso(c + 1, "Curso " + c, null, true);
+    }
+
+    /** El modelo de referencia. */
+    private static final class Modelo {
+        final List<Inscripcion> filas = new ArrayList<>();
+        final List<Inscripcion> llegada = new ArrayList<>();
+        final Map<List<Object>, Inscripcion> porClave = new HashMap<>();
+
+        void agregar(Inscripcion i) {
+            filas.add(i);
+            llegada.add(i);
+            porClave.put(clave(i), i);
+        }
+
+        void quitar(Inscripcion guardada) {
+            porClave.remove(clave(guardada));
+            int pos = posicion(filas, guardada);
+            Inscripcion ultima = filas.removeLast();
+            if (pos < filas.size()) filas.set(pos, ultima);
+            llegada.remove(posicion(llegada, guardada));
+        }
+
+        void reemplazar(Inscripcion guardada, Inscripcion nueva) {
+            porClave.put(clave(nueva), nueva);
+            filas.set(posicion(filas, guardada), nueva);
+            llegada.set(posicion(llegada, guardada), nueva);
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(longs = {1, 2, 3, 4, 5})
+    void secuenciaAlAzarIgualQueElModelo(long semilla) {
+        SplittableRandom rnd = new SplittableRandom(semilla);
+        IndiceInscripciones indice = new IndiceInscripciones(1); // crece desde 16 filas
+        Modelo ref = new Modelo();
+        for (int op = 0; op < 20_000; op++) {
+            Inscripcion i = inscripcion(rnd);
+            Inscripcion guardada = ref.porClave.get(clave(i));
+            switch (rnd.nextInt(10)) {
+                case 0, 1, 2, 3, 4 -> {
+                    assertEquals(guardada == null, indice.agregar(i), "agregar " + clave(i));
+                    if (guardada == null) ref.agregar(i);
+                }
+                case 5, 6, 7 -> {
+                    assertEquals(guardada != null, indice.quitar(i), "quitar " + clave(i));
+                    if (guardada != null) ref.quitar(guardada);
+                }
+                case 8 -> {
+                    assertEquals(guardada != null, indice.reemplazar(i), "reemplazar " + clave(i));
+                    if (guardada != null) ref.reemplazar(guardada, i);
+                }
+                default -> {
+                    if (rnd.nextInt(200) == 0) {
+                        indice.limpiar();
+                        ref = new Modelo();
+                    }
+                }
+            }
+            assertSame(ref.porClave.get(clave(i)), indice.buscar(i.getCurso().getID(), i.getEstudiante().getCodigo(), i.getAnio(), i.getSemestre()));
+            assertEquals(ref.filas.size(), indice.size());
+            if (op % 100 == 0) comparar(ref, indice);
+        }
+        comparar(ref, indice);
+    }
+
+    /** Quitar del medio, de la cabeza y de la cola de una lista secundaria, con la última fila cambiando de lugar. */
+    @Test
+    void quitarMueveLaUltimaYReenlazaLosSecundarios() {
+        IndiceInscripciones indice = new IndiceInscripciones(16);
+        Inscripcion a = nueva(0, 0, 0), b = nueva(0, 1, 0), c = nueva(0, 2, 0), d = nueva(0, 3, 0), e = nueva(1, 0, 1);
+        for (Inscripcion i : List.of(a, b, c, d, e)) assertTrue(indice.agregar(i));
+
+        assertTrue(indice.quitar(b)); // del medio: e pasa a la posición 1
+        assertMismas(List.of(a, e, c, d), indice.vista());
+        assertMismas(List.of(a, c, d), indice.delCurso(1));
+        assertMismas(List.of(e), indice.delCurso(2));
+        assertMismas(List.of(a, e), indice.delEstudiante(CODIGOS[0]));
+
+        assertTrue(indice.quitar(a)); // cabeza de sus listas: d pasa a la posición 0
+        assertMismas(List.of(d, e, c), indice.vista());
+        assertMismas(List.of(c, d), indice.delCurso(1));
+        assertMismas(List.of(e), indice.delEstudiante(CODIGOS[0]));
+        assertMismas(List.of(c, d), indice.delPeriodo(2024, 1));
+
+        assertTrue(indice.quitar(d)); // cola de la lista del curso: c pasa a la posición 0
+        assertMismas(List.of(c, e), indice.vista());
+        assertMismas(List.of(c), indice.delCurso(1));
+        assertSame(c, indice.buscar(1, CODIGOS[2], 2024, 1));
+        assertNull(indice.buscar(1, CODIGOS[3], 2024, 1));
+
+        assertFalse(indice.quitar(d));
+        assertEquals(2, indice.size());
+    }
+
+    @Test
+    void ceroYMenosCeroSonEstudiantesDistintos() {
+        IndiceInscripciones indice = new IndiceInscripciones(16);
+        Inscripcion cero = nueva(0, 0, 0), menosCero = nueva(0, 1, 0);
+        assertTrue(indice.agregar(cero));
+        assertTrue(indice.agregar(menosCero));
+        assertMismas(List.of(cero), indice.delEstudiante(0.0));
+        assertMismas(List.of(menosCero), indice.delEstudiante(-0.0));
+        assertTrue(indice.quitar(cero));
+        assertSame(menosCero, indice.buscar(1, -0.0, 2024, 1));
+        assertNull(indice.buscar(1, 0.0, 2024, 1));
+    }
+
+    private static void comparar(Modelo ref, IndiceInscripciones indice) {
+        assertMismas(ref.filas, indice.vista());
+        assertMismas(ref.filas, indice.flujo().toList());
+        for (Curso c : CURSOS)
+            assertMismas(ref.llegada.stream().filter(i -> i.getCurso() == c).toList(), indice.delCurso(c.getID()));
+        for (double codigo : CODIGOS)
+            assertMismas(ref.llegada.stream().filter(i -> Double.valueOf(i.getEstudiante().getCodigo()).equals(codigo)).toList(),
+                    indice.delEstudiante(codigo));
+        for (int[] p : PERIODOS)
+            assertMismas(ref.llegada.stream().filter(i -> i.getAnio() == p[0] && i.getSemestre() == p[1]).toList(),
+                    indice.delPeriodo(p[0], p[1]));
+    }
+
+    private static void assertMismas(List<Inscripcion> esperadas, List<Inscripcion> reales) {
+        assertEquals(esperadas.size(), reales.size(), "tamaño");
+        for (int p = 0; p < esperadas.size(); p++) assertSame(esperadas.get(p), reales.get(p), "posición " + p);
+    }
+
+    private static int posicion(List<Inscripcion> lista, Inscripcion i) {
+        for (int p = 0; p < lista.size(); p++) if (lista.get(p) == i) return p;
+        throw new AssertionError("no está en el modelo: " + clave(i));
+    }
+
+    private static List<Object> clave(Inscripcion i) {
+        return List.of(i.getCurso().getID(), i.getEstudiante().getCodigo(), i.getAnio(), i.getSemestre());
+    }
+
+    private static Inscripcion inscripcion(SplittableRandom rnd) {
+        return nueva(rnd.nextInt(CURSOS.length), rnd.nextInt(CODIGOS.length), rnd.nextInt(PERIODOS.length));
+    }
+
+    private static Inscripcion nueva(int curso, int estudiante, int periodo) {
+        double codigo = CODIGOS[estudiante];
+        return new Inscripcion(CURSOS[curso], PERIODOS[periodo][0], PERIODOS[periodo][1],
+                new Estudiante(codigo, "N", "A", null, codigo, null, true, 3.0));
+    }
+}